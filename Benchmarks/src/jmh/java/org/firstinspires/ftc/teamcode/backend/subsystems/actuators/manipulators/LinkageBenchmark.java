@@ -0,0 +1,42 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.manipulators;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.MotorTypeRegistry;
+import org.firstinspires.ftc.teamcode.benchmarks.FakeRobot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Picking the shorter way around for an unlimited linkage, lives in the linkage's package because the method is package private
+ */
+@State(Scope.Thread)
+public class LinkageBenchmark {
+    private ParallelMotionLinkageUnlimited linkage;
+    private final int[] current = new int[FakeRobot.INPUTS], target = new int[FakeRobot.INPUTS];
+    private int i = 0;
+
+    @Setup
+    public void setup() {
+        Simulation simulation = FakeRobot.frozen();
+        simulation.addMotor("elbow", MotorTypeRegistry.MotorType.YELLOW_JACKET_50_9_MOTOR);
+        Telemetry telemetry = FakeRobot.telemetry();
+        linkage = new ParallelMotionLinkageUnlimited("elbow", new Motor("elbow", simulation.getHardwareMap(), telemetry), telemetry, 1, 50);
+        Random random = new Random(8);
+        for (int k = 0; k < FakeRobot.INPUTS; k++) {
+            current[k] = random.nextInt(1440) - 720; // a few turns either way, it's unlimited after all
+            target[k] = random.nextInt(360);
+        }
+    }
+
+    @Benchmark
+    public int getClosestTargetPosition() {
+        int k = i = (i + 1) & (FakeRobot.INPUTS - 1);
+        return linkage.getClosestTargetPosition(current[k], target[k]);
+    }
+}
@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.ColorClassifier;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.EaseCommands;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Color classification through the lookup table, against the squared distance search it falls back on and the HashMap, sqrt
+ * and pow search findClosestColor used before the table
+ */
+@State(Scope.Thread)
+public class ColorBenchmark {
+    private final int[] r = new int[FakeRobot.INPUTS], g = new int[FakeRobot.INPUTS], b = new int[FakeRobot.INPUTS];
+    private int i = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(14);
+        for (int k = 0; k < FakeRobot.INPUTS; k++) {
+            r[k] = random.nextInt(256);
+            g[k] = random.nextInt(256);
+            b[k] = random.nextInt(256);
+        }
+        ColorClassifier.BASIC.prepare(); // build the table outside of the timing
+    }
+
+    @Benchmark
+    public EaseCommands.Colors findClosestColor() {
+        int k = i = (i + 1) & (FakeRobot.INPUTS - 1);
+        return EaseCommands.findClosestColor(r[k], g[k], b[k]);
+    }
+
+    @Benchmark
+    public EaseCommands.Colors classifyExact() {
+        int k = i = (i + 1) & (FakeRobot.INPUTS - 1);
+        return ColorClassifier.BASIC.classifyExact(r[k], g[k], b[k]);
+    }
+
+    @Benchmark
+    public EaseCommands.Colors hashMapSearch() {
+        int k = i = (i + 1) & (FakeRobot.INPUTS - 1);
+        return findClosestColor(r[k], g[k], b[k]);
+    }
+
+    /**
+     * EaseCommands.findClosestColor as it was before the lookup table
+     */
+    private static EaseCommands.Colors findClosestColor(int r, int g, int b) {
+        if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+            throw new IllegalArgumentException("RGB values must be between 0 and 255.");
+        }
+        double minDistance = Double.MAX_VALUE;
+        EaseCommands.Colors closestColor = null;
+
+        for (Map.Entry<EaseCommands.Colors, int[]> entry : EaseCommands.basicColors.entrySet()) {
+            int[] color = entry.getValue();
+            double distance = Math.sqrt( // euclidean distance
+                    Math.pow(r - color[0], 2) +
+                            Math.pow(g - color[1], 2) +
+                            Math.pow(b - color[2], 2)
+            );
+
+            if (distance < minDistance) {
+                minDistance = distance;
+                closestColor = entry.getKey();
+            }
+        }
+
+        return closestColor;
+    }
+}
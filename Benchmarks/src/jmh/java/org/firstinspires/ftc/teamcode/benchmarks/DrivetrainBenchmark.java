@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.MotorTypeRegistry;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains.Mecanum;
+import org.firstinspires.ftc.teamcode.backend.subsystems.interfaces.DrivetrainMotorControls;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Teleop driving on a Mecanum drivetrain, split into the whole call, the kinematics on their own, and the motor group dispatch.
+ * {@link #switchSetPower} is the switch Mecanum used for groups before the precomputed motor arrays, kept as the before number
+ */
+@State(Scope.Thread)
+public class DrivetrainBenchmark {
+    private Mecanum mecanum;
+    private Motor backLeft, backRight, frontLeft, frontRight;
+    private final MecanumKinematics kinematics = new MecanumKinematics();
+    private final double[] wheels = new double[4];
+    private double[] y, x, rx;
+    private int i = 0;
+
+    @Setup
+    public void setup() {
+        Simulation simulation = FakeRobot.frozen();
+        for (String name : new String[]{"frontLeft", "frontRight", "backLeft", "backRight"})
+            simulation.addMotor(name, MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        HardwareMap hwMap = simulation.getHardwareMap();
+        Telemetry telemetry = FakeRobot.telemetry();
+        backLeft = new Motor("backLeft", hwMap, DcMotorSimple.Direction.REVERSE, telemetry);
+        backRight = new Motor("backRight", hwMap, telemetry);
+        frontLeft = new Motor("frontLeft", hwMap, DcMotorSimple.Direction.REVERSE, telemetry);
+        frontRight = new Motor("frontRight", hwMap, telemetry);
+        mecanum = new Mecanum(new Motor[]{backLeft, backRight, frontLeft, frontRight}, telemetry);
+        y = FakeRobot.inputs(-1, 1, 1);
+        x = FakeRobot.inputs(-1, 1, 2);
+        rx = FakeRobot.inputs(-1, 1, 3);
+    }
+
+    private int next() {
+        return i = (i + 1) & (FakeRobot.INPUTS - 1);
+    }
+
+    @Benchmark
+    public void teleOpDrive() {
+        int k = next();
+        mecanum.teleOpDrive(y[k], rx[k], x[k]);
+    }
+
+    @Benchmark
+    public double[] kinematics() {
+        int k = next();
+        kinematics.toWheelSpeeds(y[k], x[k], rx[k], wheels);
+        MecanumKinematics.desaturate(wheels, 1);
+        return wheels;
+    }
+
+    @Benchmark
+    public void groupSetPower() {
+        mecanum.setPower(DrivetrainMotorControls.DTMotors.DRIVETRAIN_BASIC_4, y[next()]);
+    }
+
+    @Benchmark
+    public void switchSetPower() {
+        setPower(DrivetrainMotorControls.DTMotors.DRIVETRAIN_BASIC_4, y[next()]);
+    }
+
+    /**
+     * Mecanum.setPower as it was before the motor groups
+     */
+    private void setPower(DrivetrainMotorControls.DTMotors motors, double power) {
+        switch (motors) {
+            case MIDSHIFT:
+                throw new IllegalArgumentException("Midshift is an illegal argument for Mecanum");
+            case ALL:
+            case DRIVETRAIN_BASIC_4:
+                frontLeft.setPower(power);
+                frontRight.setPower(power);
+                backLeft.setPower(power);
+                backRight.setPower(power);
+                break;
+            case FRONT_LEFT:
+                frontLeft.setPower(power);
+                break;
+            case FRONT_RIGHT:
+                frontRight.setPower(power);
+                break;
+            case BACK_LEFT:
+                backLeft.setPower(power);
+                break;
+            case BACK_RIGHT:
+                backRight.setPower(power);
+                break;
+            case FRONT:
+                frontLeft.setPower(power);
+                frontRight.setPower(power);
+                break;
+            case BACK:
+                backLeft.setPower(power);
+                backRight.setPower(power);
+                break;
+            case LEFT:
+                frontLeft.setPower(power);
+                backLeft.setPower(power);
+                break;
+            case RIGHT:
+                frontRight.setPower(power);
+                backRight.setPower(power);
+                break;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimTelemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Fake hardware for the benchmarks
+ * <p>
+ * The simulation's clock never moves, so the physics never steps and a benchmark only times our code and the fake
+ * device it talks to, not the chassis model
+ */
+public final class FakeRobot {
+    /**
+     * How many precomputed inputs each benchmark cycles through, a power of two so the index can be masked
+     */
+    public static final int INPUTS = 1024;
+
+    private FakeRobot() {
+    }
+
+    /**
+     * Creates a simulation whose time is stuck at 0
+     *
+     * @return The simulation
+     */
+    public static Simulation frozen() {
+        return new Simulation(() -> 0L);
+    }
+
+    /**
+     * Creates telemetry that throws everything away
+     *
+     * @return The telemetry
+     */
+    public static Telemetry telemetry() {
+        return SimTelemetry.create(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    /**
+     * Makes the same random inputs every run so results compare between runs
+     *
+     * @param min Smallest value
+     * @param max Largest value
+     * @param seed Seed, different per input so they don't line up
+     * @return {@link #INPUTS} values
+     */
+    public static double[] inputs(double min, double max, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[INPUTS];
+        for (int i = 0; i < INPUTS; i++)
+            values[i] = min + (max - min) * random.nextDouble();
+        return values;
+    }
+}
@@ -0,0 +1,38 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimImu;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.Imu;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reading the continuous heading, with the fake IMU turning back and forth across the 180 degree wrap
+ */
+@State(Scope.Thread)
+public class ImuBenchmark {
+    private SimImu simImu;
+    private Imu imu;
+    private double[] headings;
+    private int i = 0;
+
+    @Setup
+    public void setup() {
+        Simulation simulation = FakeRobot.frozen();
+        simImu = simulation.addImu("imu");
+        imu = new Imu("imu", simulation.getHardwareMap(), RevHubOrientationOnRobot.LogoFacingDirection.UP,
+                RevHubOrientationOnRobot.UsbFacingDirection.FORWARD, FakeRobot.telemetry());
+        headings = FakeRobot.inputs(-Math.PI, Math.PI, 7);
+    }
+
+    @Benchmark
+    public double getAngle() {
+        simImu.setHeading(headings[i = (i + 1) & (FakeRobot.INPUTS - 1)]);
+        return imu.getAngle(AngleUnit.DEGREES);
+    }
+}
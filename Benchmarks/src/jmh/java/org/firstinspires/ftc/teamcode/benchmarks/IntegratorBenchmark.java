@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.Integrator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * One step of dead reckoning from accelerometer readings, fed noisy fake readings at a 5 ms loop
+ */
+@State(Scope.Thread)
+public class IntegratorBenchmark {
+    private Integrator integrator;
+    private double[] ax, ay, heading;
+    private int i = 0;
+
+    @Setup
+    public void setup() {
+        integrator = new Integrator();
+        ax = FakeRobot.inputs(-2, 2, 4);
+        ay = FakeRobot.inputs(-2, 2, 5);
+        heading = FakeRobot.inputs(-180, 180, 6);
+    }
+
+    @Benchmark
+    public void update() {
+        int k = i = (i + 1) & (FakeRobot.INPUTS - 1);
+        integrator.update(ax[k], ay[k], heading[k], 0.005);
+    }
+}
@@ -0,0 +1,22 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.trajectory.Trajectory;
+import org.firstinspires.ftc.teamcode.backend.libraries.trajectory.TrajectoryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building a three spline trajectory about 130 inches long, the kind of thing an auto does during init
+ */
+@State(Scope.Thread)
+public class TrajectoryBenchmark {
+    @Benchmark
+    public Trajectory build() {
+        return new TrajectoryBuilder(0, 0, 0)
+                .splineTo(40, 20, 0.5)
+                .splineTo(80, 0, -0.5)
+                .splineTo(120, 10, 0)
+                .build(50, 40, 60);
+    }
+}
@@ -0,0 +1,200 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+
+/**
+ * Rigid body model of a mecanum drivetrain driven by four {@link SimMotor}s
+ * <p>
+ * Every step the chassis velocity is turned into wheel speeds with {@link MecanumKinematics}, each motor makes torque
+ * on a straight line from stall torque at zero speed down to nothing at free speed, and the wheel forces get mapped back
+ * onto the chassis as a force forward, a force left and a torque (the transpose of the same kinematics, so power in
+ * equals power out). Mass, rotational inertia and a little rolling friction turn that into acceleration.
+ * Wheel encoders are driven from the wheel speeds, so odometry and drive to position code see real looking ticks.
+ * <p>
+ * Units are meters, kilograms and seconds inside, the pose getters use inches to match {@link org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator}
+ */
+public class MecanumChassisModel {
+    private static final double METERS_PER_INCH = 0.0254;
+
+    private final SimMotor[] motors = new SimMotor[4];
+    private final double[] mounting = new double[4];
+    private final MecanumKinematics kinematics;
+    private final double mass, inertia, wheelRadius, stallTorque, friction, leverArm;
+
+    private final double[] wheelSpeeds = new double[4], forces = new double[4];
+    private double vx, vy, omega, ax, ay;
+    private double x, y, heading;
+
+    /**
+     * Creates a chassis about the size of a typical FTC robot, 12 kg on 96 mm wheels driven by 312 RPM motors
+     *
+     * @param frontLeft  Front left motor
+     * @param frontRight Front right motor
+     * @param backLeft   Back left motor
+     * @param backRight  Back right motor
+     */
+    public MecanumChassisModel(SimMotor frontLeft, SimMotor frontRight, SimMotor backLeft, SimMotor backRight) {
+        this(frontLeft, frontRight, backLeft, backRight, 12, 0.048, 0.36, 0.30, 2.4);
+    }
+
+    /**
+     * Creates a chassis with custom dimensions
+     *
+     * @param frontLeft   Front left motor
+     * @param frontRight  Front right motor
+     * @param backLeft    Back left motor
+     * @param backRight   Back right motor
+     * @param mass        Robot mass in kilograms
+     * @param wheelRadius Wheel radius in meters
+     * @param trackWidth  Distance between left and right wheels in meters
+     * @param wheelBase   Distance between front and back wheels in meters
+     * @param stallTorque Stall torque of each motor at the wheel in newton meters
+     */
+    public MecanumChassisModel(SimMotor frontLeft, SimMotor frontRight, SimMotor backLeft, SimMotor backRight,
+                               double mass, double wheelRadius, double trackWidth, double wheelBase, double stallTorque) {
+        if (frontLeft == null || frontRight == null || backLeft == null || backRight == null)
+            throw new IllegalArgumentException("Chassis needs all 4 motors");
+        if (!(mass > 0) || !(wheelRadius > 0) || !(stallTorque > 0))
+            throw new IllegalArgumentException("Mass, wheel radius and stall torque must be positive");
+        motors[MecanumKinematics.FRONT_LEFT] = frontLeft;
+        motors[MecanumKinematics.FRONT_RIGHT] = frontRight;
+        motors[MecanumKinematics.BACK_LEFT] = backLeft;
+        motors[MecanumKinematics.BACK_RIGHT] = backRight;
+        for (SimMotor motor : motors)
+            motor.setDrivenExternally(true);
+        this.kinematics = new MecanumKinematics(trackWidth, wheelBase, 1);
+        this.mass = mass;
+        this.inertia = mass * (trackWidth * trackWidth + wheelBase * wheelBase) / 12;
+        this.wheelRadius = wheelRadius;
+        this.stallTorque = stallTorque;
+        this.friction = 0.2 * mass;
+        this.leverArm = (trackWidth + wheelBase) / 2;
+        // left motors are mirrored on almost every robot, which is why the opmodes reverse them
+        setMounting(DcMotorSimple.Direction.REVERSE, DcMotorSimple.Direction.FORWARD, DcMotorSimple.Direction.REVERSE, DcMotorSimple.Direction.FORWARD);
+    }
+
+    /**
+     * Sets which way each motor's shaft turns its wheel, REVERSE means positive shaft rotation drives that wheel backwards
+     *
+     * @param frontLeft  Front left mounting
+     * @param frontRight Front right mounting
+     * @param backLeft   Back left mounting
+     * @param backRight  Back right mounting
+     * @return This chassis
+     */
+    public MecanumChassisModel setMounting(DcMotorSimple.Direction frontLeft, DcMotorSimple.Direction frontRight,
+                                           DcMotorSimple.Direction backLeft, DcMotorSimple.Direction backRight) {
+        mounting[MecanumKinematics.FRONT_LEFT] = frontLeft == DcMotorSimple.Direction.REVERSE ? -1 : 1;
+        mounting[MecanumKinematics.FRONT_RIGHT] = frontRight == DcMotorSimple.Direction.REVERSE ? -1 : 1;
+        mounting[MecanumKinematics.BACK_LEFT] = backLeft == DcMotorSimple.Direction.REVERSE ? -1 : 1;
+        mounting[MecanumKinematics.BACK_RIGHT] = backRight == DcMotorSimple.Direction.REVERSE ? -1 : 1;
+        return this;
+    }
+
+    /**
+     * Moves the chassis and its wheel encoders forward by one step
+     */
+    void step(double dt) {
+        kinematics.toWheelSpeeds(vx, vy, omega, wheelSpeeds);
+        for (int i = 0; i < 4; i++) {
+            SimMotor motor = motors[i];
+            double freeSpeed = motor.getFreeSpeed() / motor.getTicksPerRev() * 2 * Math.PI; // radians per second
+            double wheelRate = wheelSpeeds[i] / wheelRadius;
+            double power = mounting[i] * motor.getRawAppliedPower();
+            boolean coasting = power == 0 && motor.getZeroPowerBehavior() == DcMotor.ZeroPowerBehavior.FLOAT;
+            forces[i] = coasting ? 0 : stallTorque * (power - wheelRate / freeSpeed) / wheelRadius;
+
+            double ticksPerRadian = motor.getTicksPerRev() / (2 * Math.PI);
+            motor.moveRaw(mounting[i] * wheelRate * dt * ticksPerRadian, mounting[i] * wheelRate * ticksPerRadian);
+        }
+
+        // transpose of the wheel speed equations in MecanumKinematics
+        double fl = forces[MecanumKinematics.FRONT_LEFT], fr = forces[MecanumKinematics.FRONT_RIGHT];
+        double bl = forces[MecanumKinematics.BACK_LEFT], br = forces[MecanumKinematics.BACK_RIGHT];
+        double forceX = fl + fr + bl + br - friction * vx;
+        double forceY = -fl + fr + bl - br - friction * vy;
+        double torque = leverArm * (-fl + fr - bl + br) - friction * leverArm * leverArm * omega;
+
+        ax = forceX / mass;
+        ay = forceY / mass;
+        vx += ax * dt;
+        vy += ay * dt;
+        omega += torque / inertia * dt;
+
+        double cos = Math.cos(heading), sin = Math.sin(heading);
+        x += (vx * cos - vy * sin) * dt;
+        y += (vx * sin + vy * cos) * dt;
+        heading += omega * dt;
+    }
+
+    /**
+     * Puts the robot somewhere on the field, stopped
+     *
+     * @param x              Inches forward
+     * @param y              Inches left
+     * @param headingRadians Heading, counter clockwise
+     */
+    public void setPose(double x, double y, double headingRadians) {
+        this.x = x * METERS_PER_INCH;
+        this.y = y * METERS_PER_INCH;
+        this.heading = headingRadians;
+        vx = vy = omega = ax = ay = 0;
+    }
+
+    /**
+     * Returns how far forward the robot is on the field
+     *
+     * @return X position in inches
+     */
+    public double getX() {
+        return x / METERS_PER_INCH;
+    }
+
+    /**
+     * Returns how far left the robot is on the field
+     *
+     * @return Y position in inches
+     */
+    public double getY() {
+        return y / METERS_PER_INCH;
+    }
+
+    /**
+     * Returns the real heading of the robot, counter clockwise and continuous
+     *
+     * @return Heading in radians
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * Returns how fast the robot is turning
+     *
+     * @return Radians per second, counter clockwise
+     */
+    public double getAngularVelocity() {
+        return omega;
+    }
+
+    /**
+     * Returns the forward acceleration of the robot, what an IMU on it would feel
+     *
+     * @return Meters per second squared
+     */
+    public double getAccelerationX() {
+        return ax;
+    }
+
+    /**
+     * Returns the sideways acceleration of the robot
+     *
+     * @return Meters per second squared, positive to the left
+     */
+    public double getAccelerationY() {
+        return ay;
+    }
+}
@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+
+/**
+ * Runs an unmodified {@link LinearOpMode} against a {@link Simulation}, the same way the robot controller app would:
+ * init runs, the opmode gets started right away, and once time is up it gets stopped by interrupting its thread
+ * <p>
+ * The desktop classpath needs the RobotCore and Hardware jars from the sdk for the opmode classes themselves.
+ * Gamepads are plain fields on the opmode, set them before or during the run to drive a TeleOp
+ */
+public class OpModeRunner {
+    private final Simulation simulation;
+    private PrintStream out = System.out;
+
+    /**
+     * Creates a runner for a simulation
+     *
+     * @param simulation The {@link Simulation} whose hardware map the opmodes get
+     */
+    public OpModeRunner(Simulation simulation) {
+        if (simulation == null)
+            throw new IllegalArgumentException("Simulation cannot be null");
+        this.simulation = simulation;
+    }
+
+    /**
+     * Sets where telemetry gets printed
+     *
+     * @param out The stream, null for no printing
+     * @return This runner
+     */
+    public OpModeRunner setTelemetryOutput(PrintStream out) {
+        this.out = out;
+        return this;
+    }
+
+    /**
+     * Runs an opmode until it returns or the time runs out, whichever comes first
+     *
+     * @param opMode  The opmode, made with new like any other class
+     * @param seconds How long to let it run, in simulated seconds like a 30 second autonomous
+     * @return The opmode's telemetry, check its last frame with {@link SimTelemetry#getLastFrame(Telemetry)}
+     * @throws InterruptedException If this thread gets interrupted while waiting
+     */
+    public Telemetry run(LinearOpMode opMode, double seconds) throws InterruptedException {
+        opMode.hardwareMap = simulation.getHardwareMap();
+        opMode.telemetry = SimTelemetry.create(out);
+        start(opMode);
+
+        Throwable[] error = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                opMode.runOpMode();
+            } catch (InterruptedException e) {
+                // stopped, same as the app pressing stop
+            } catch (Throwable e) {
+                error[0] = e;
+            }
+        }, opMode.getClass().getSimpleName());
+        thread.setDaemon(true);
+
+        double end = simulation.getTime() + seconds;
+        simulation.stopThreadAt(thread, end);
+        thread.start();
+        while (thread.isAlive() && simulation.getTime() < end)
+            thread.join(5);
+        thread.interrupt(); // LinearOpMode treats an interrupted thread as a stop request
+        thread.join(2000);
+        simulation.stopThreadAt(null, 0);
+
+        if (error[0] != null)
+            throw new RuntimeException(opMode.getClass().getSimpleName() + " crashed in the simulation", error[0]);
+        if (thread.isAlive())
+            throw new IllegalStateException(opMode.getClass().getSimpleName() + " didn't stop, some loop isn't checking opModeIsActive()");
+        return opMode.telemetry;
+    }
+
+    /**
+     * LinearOpMode keeps its started flag private and the app sets it from outside, so the same has to happen here.
+     * The field has been called isStarted for many sdk versions but look around a little in case it moves
+     */
+    private static void start(LinearOpMode opMode) {
+        for (Class<?> type = opMode.getClass(); type != null; type = type.getSuperclass()) {
+            for (String name : new String[]{"isStarted", "started"}) {
+                try {
+                    Field field = type.getDeclaredField(name);
+                    if (field.getType() != boolean.class)
+                        continue;
+                    field.setAccessible(true);
+                    field.setBoolean(opMode, true);
+                    return;
+                } catch (NoSuchFieldException e) {
+                    // try the next name
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Couldn't start the opmode", e);
+                }
+            }
+        }
+        throw new IllegalStateException("Couldn't find the started flag of LinearOpMode in this sdk version");
+    }
+}
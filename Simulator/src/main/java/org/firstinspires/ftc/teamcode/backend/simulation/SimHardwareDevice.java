@@ -0,0 +1,59 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+
+/**
+ * The parts of {@link HardwareDevice} every fake device shares, the name and connection info only show up in error messages
+ */
+public abstract class SimHardwareDevice implements HardwareDevice {
+    protected final Simulation simulation;
+    private final String name;
+
+    /**
+     * Creates a fake device
+     *
+     * @param simulation The {@link Simulation} the device lives in
+     * @param name       The name the device is mapped under
+     */
+    protected SimHardwareDevice(Simulation simulation, String name) {
+        this.simulation = simulation;
+        this.name = name;
+    }
+
+    /**
+     * Returns the name the device is mapped under in the fake hardware map
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated " + getClass().getSimpleName().replace("Sim", "");
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "simulation; " + name;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
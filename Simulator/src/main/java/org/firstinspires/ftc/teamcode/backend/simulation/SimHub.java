@@ -0,0 +1,139 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+
+import java.util.ArrayList;
+
+/**
+ * Fake REV hub that caches motor reads the way a real hub's bulk cache does and counts every transaction it makes
+ * <p>
+ * Motors put on it with {@link Simulation#addHub} read their encoder, velocity and busy flag through it:
+ * <ul>
+ *     <li>OFF: every read is its own transaction</li>
+ *     <li>AUTO: one bulk transaction reads every motor, a new one happens when the same value gets read twice</li>
+ *     <li>MANUAL: one bulk transaction until {@link #clearBulkCache()}, reads in between get the same old values</li>
+ * </ul>
+ * It is mapped as a {@link BulkCache.Hub} so {@link BulkCache#register} finds it in the hardware map like a real hub
+ */
+public class SimHub extends SimHardwareDevice implements BulkCache.Hub {
+    private static final int POSITION = 0, VELOCITY = 1, BUSY = 2;
+
+    private final ArrayList<SimMotor> motors = new ArrayList<>();
+    private LynxModule.BulkCachingMode mode = LynxModule.BulkCachingMode.OFF;
+    private int[] positions = new int[0];
+    private double[] velocities = new double[0];
+    private boolean[] busy = new boolean[0];
+    private boolean[][] read = new boolean[0][3];
+    private boolean cached = false;
+    private long transactions = 0;
+
+    /**
+     * Creates a fake hub, {@link Simulation#addHub} is the usual way to get one
+     *
+     * @param simulation The {@link Simulation} it lives in
+     * @param name       The name it is mapped under
+     */
+    public SimHub(Simulation simulation, String name) {
+        super(simulation, name);
+    }
+
+    /**
+     * Puts a motor on this hub so its reads go through the cache
+     *
+     * @param motor The fake motor
+     */
+    void attach(SimMotor motor) {
+        if (motors.contains(motor))
+            return;
+        motors.add(motor);
+        int count = motors.size();
+        positions = new int[count];
+        velocities = new double[count];
+        busy = new boolean[count];
+        read = new boolean[count][3];
+        cached = false;
+        motor.setHub(this);
+    }
+
+    @Override
+    public synchronized void setBulkCachingMode(LynxModule.BulkCachingMode mode) {
+        if (mode == null)
+            throw new IllegalArgumentException("Mode cannot be null");
+        this.mode = mode;
+        cached = false;
+    }
+
+    /**
+     * Returns the caching mode the hub is in
+     *
+     * @return OFF, AUTO or MANUAL
+     */
+    public synchronized LynxModule.BulkCachingMode getBulkCachingMode() {
+        return mode;
+    }
+
+    @Override
+    public synchronized void clearBulkCache() {
+        cached = false;
+    }
+
+    /**
+     * Returns how many times the hub has been talked to for reads, a bulk read counts once no matter how many motors it reads
+     *
+     * @return Number of transactions
+     */
+    public synchronized long getTransactions() {
+        return transactions;
+    }
+
+    synchronized int getCurrentPosition(SimMotor motor) {
+        int i = fetch(motor, POSITION);
+        return mode == LynxModule.BulkCachingMode.OFF ? motor.readPosition() : positions[i];
+    }
+
+    synchronized double getVelocity(SimMotor motor) {
+        int i = fetch(motor, VELOCITY);
+        return mode == LynxModule.BulkCachingMode.OFF ? motor.readVelocity() : velocities[i];
+    }
+
+    synchronized boolean isBusy(SimMotor motor) {
+        int i = fetch(motor, BUSY);
+        return mode == LynxModule.BulkCachingMode.OFF ? motor.readBusy() : busy[i];
+    }
+
+    /**
+     * Does whatever transaction the mode needs before a read and returns the motor's slot in the cache
+     */
+    private int fetch(SimMotor motor, int value) {
+        int i = motors.indexOf(motor);
+        switch (mode) {
+            case OFF:
+                transactions++;
+                return i;
+            case AUTO:
+                if (!cached || read[i][value])
+                    bulkRead();
+                break;
+            case MANUAL:
+                if (!cached)
+                    bulkRead();
+                break;
+        }
+        read[i][value] = true;
+        return i;
+    }
+
+    private void bulkRead() {
+        for (int i = 0; i < motors.size(); i++) {
+            SimMotor motor = motors.get(i);
+            positions[i] = motor.readPosition();
+            velocities[i] = motor.readVelocity();
+            busy[i] = motor.readBusy();
+            read[i][POSITION] = read[i][VELOCITY] = read[i][BUSY] = false;
+        }
+        cached = true;
+        transactions++;
+    }
+}
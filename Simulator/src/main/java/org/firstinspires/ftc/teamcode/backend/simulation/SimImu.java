@@ -0,0 +1,174 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.hardware.bosch.BNO055IMU;
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Acceleration;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.robotcore.external.navigation.Quaternion;
+import org.firstinspires.ftc.robotcore.external.navigation.TempUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Temperature;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Fake {@link IMU} that reads the heading of the simulated chassis, or a heading set by hand when there is no chassis
+ * <p>
+ * The robot is assumed to stay flat, so pitch and roll are always 0 and only yaw moves.
+ * {@link #asBno055()} gives the same sensor as a {@link BNO055IMU} for code that still uses the old IMU
+ */
+public class SimImu extends SimHardwareDevice implements IMU {
+    private static final double GRAVITY = 9.80665;
+
+    private volatile double manualHeading = 0;
+    private double yawOffset = 0;
+    private BNO055IMU bno055;
+    private BNO055IMU.Parameters bnoParameters;
+
+    /**
+     * Creates a fake IMU, {@link Simulation#addImu} is the usual way to get one
+     *
+     * @param simulation The {@link Simulation} it lives in
+     * @param name       The name it is mapped under
+     */
+    public SimImu(Simulation simulation, String name) {
+        super(simulation, name);
+    }
+
+    /**
+     * Sets the heading when there is no chassis model to read it from
+     *
+     * @param radians Heading, counter clockwise
+     */
+    public void setHeading(double radians) {
+        manualHeading = radians;
+    }
+
+    private double heading() {
+        simulation.sync();
+        MecanumChassisModel chassis = simulation.getChassisModel();
+        return chassis == null ? manualHeading : chassis.getHeading();
+    }
+
+    private double angularVelocity() {
+        MecanumChassisModel chassis = simulation.getChassisModel();
+        return chassis == null ? 0 : chassis.getAngularVelocity();
+    }
+
+    private static double wrap(double radians) {
+        return Math.atan2(Math.sin(radians), Math.cos(radians)); // real imus wrap at +-180
+    }
+
+    private Orientation orientation(double yaw, AxesReference reference, AxesOrder order, AngleUnit unit) {
+        float angle = (float) unit.fromRadians(wrap(yaw));
+        String axes = order.name();
+        return new Orientation(reference, order, unit,
+                axes.charAt(0) == 'Z' ? angle : 0, axes.charAt(1) == 'Z' ? angle : 0, axes.charAt(2) == 'Z' ? angle : 0,
+                simulation.getClock().nanoTime());
+    }
+
+    private Acceleration acceleration(double z) {
+        MecanumChassisModel chassis = simulation.getChassisModel();
+        double x = chassis == null ? 0 : chassis.getAccelerationX(), y = chassis == null ? 0 : chassis.getAccelerationY();
+        return new Acceleration(DistanceUnit.METER, x, y, z, simulation.getClock().nanoTime());
+    }
+
+    @Override
+    public boolean initialize(Parameters parameters) {
+        return true;
+    }
+
+    @Override
+    public synchronized void resetYaw() {
+        yawOffset = heading();
+    }
+
+    @Override
+    public synchronized YawPitchRollAngles getRobotYawPitchRollAngles() {
+        double yaw = wrap(heading() - yawOffset);
+        return new YawPitchRollAngles(AngleUnit.DEGREES, Math.toDegrees(yaw), 0, 0, simulation.getClock().nanoTime());
+    }
+
+    @Override
+    public synchronized Orientation getRobotOrientation(AxesReference reference, AxesOrder order, AngleUnit angleUnit) {
+        return orientation(heading() - yawOffset, reference, order, angleUnit);
+    }
+
+    @Override
+    public synchronized Quaternion getRobotOrientationAsQuaternion() {
+        double yaw = heading() - yawOffset;
+        return new Quaternion((float) Math.cos(yaw / 2), 0, 0, (float) Math.sin(yaw / 2), simulation.getClock().nanoTime());
+    }
+
+    @Override
+    public AngularVelocity getRobotAngularVelocity(AngleUnit angleUnit) {
+        simulation.sync();
+        return new AngularVelocity(angleUnit, 0, 0, (float) angleUnit.fromRadians(angularVelocity()), simulation.getClock().nanoTime());
+    }
+
+    /**
+     * Returns this sensor as an old BNO055, it shares the heading but ignores {@link #resetYaw()} like the real chip does
+     * <p>
+     * BNO055IMU has dozens of register and calibration methods nothing here uses, so instead of a class that stubs them
+     * all it is a proxy: the orientation, acceleration, angular velocity and temperature calls are answered and
+     * everything else returns nothing (null, 0 or false, calibration checks return true)
+     *
+     * @return The BNO055 view of this sensor, also a {@link HardwareDevice}
+     */
+    public synchronized BNO055IMU asBno055() {
+        if (bno055 == null)
+            bno055 = (BNO055IMU) Proxy.newProxyInstance(BNO055IMU.class.getClassLoader(),
+                    new Class<?>[]{BNO055IMU.class, HardwareDevice.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "initialize":
+                                bnoParameters = (BNO055IMU.Parameters) args[0];
+                                return true;
+                            case "getParameters":
+                                return bnoParameters;
+                            case "getAngularOrientation":
+                                if (args == null || args.length == 0) {
+                                    boolean radians = bnoParameters != null && bnoParameters.angleUnit != null && bnoParameters.angleUnit.name().equals("RADIANS");
+                                    return orientation(heading(), AxesReference.INTRINSIC, AxesOrder.ZYX, radians ? AngleUnit.RADIANS : AngleUnit.DEGREES);
+                                }
+                                return orientation(heading(), (AxesReference) args[0], (AxesOrder) args[1], (AngleUnit) args[2]);
+                            case "getLinearAcceleration":
+                            case "getAcceleration":
+                                simulation.sync();
+                                return acceleration(0);
+                            case "getOverallAcceleration":
+                                simulation.sync();
+                                return acceleration(GRAVITY);
+                            case "getGravity":
+                                return new Acceleration(DistanceUnit.METER, 0, 0, GRAVITY, simulation.getClock().nanoTime());
+                            case "getAngularVelocity":
+                                AngleUnit unit = args != null && args.length == 1 && args[0] instanceof AngleUnit ? (AngleUnit) args[0] : AngleUnit.RADIANS;
+                                return getRobotAngularVelocity(unit);
+                            case "getTemperature":
+                                return new Temperature(TempUnit.CELSIUS, 25, simulation.getClock().nanoTime());
+                            case "isSystemCalibrated":
+                            case "isGyroCalibrated":
+                            case "isAccelerometerCalibrated":
+                            case "isMagnetometerCalibrated":
+                                return true;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "toString":
+                                return "Simulated BNO055 " + getName();
+                            default:
+                                if (method.getDeclaringClass() == HardwareDevice.class)
+                                    return method.invoke(this, args);
+                                return Simulation.defaultValue(method.getReturnType());
+                        }
+                    });
+        return bno055;
+    }
+}
@@ -0,0 +1,412 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.robotcore.exception.TargetPositionNotSetException;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.PIDCoefficients;
+import com.qualcomm.robotcore.hardware.PIDFCoefficients;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+
+import java.util.EnumMap;
+
+/**
+ * Fake {@link DcMotorEx} that behaves like a motor on a REV hub
+ * <p>
+ * Speed follows a first order response towards power times the free speed of the motor, the free speed comes from the
+ * ticks per revolution and max RPM of its {@link MotorConfigurationType}. RUN_TO_POSITION works like the hub's loop:
+ * the position P gain turns the error into a velocity, capped by the power. Directions, zero power behavior,
+ * tolerance, encoder resets and the TargetPositionNotSetException all act the same as the real thing.
+ * <p>
+ * Drivetrain motors get attached to a {@link MecanumChassisModel}, which then moves them instead of this model
+ */
+public class SimMotor extends SimHardwareDevice implements DcMotorEx {
+    private static final double COAST_TIME_CONSTANT = 0.5;
+
+    private final int port;
+    private MotorConfigurationType motorType;
+    private double freeSpeed; // ticks per second at full power
+    private double timeConstant = 0.05, load = 0, stallCurrent = 9.2;
+
+    private Direction direction = Direction.FORWARD;
+    private ZeroPowerBehavior zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+    private RunMode mode = RunMode.RUN_WITHOUT_ENCODER;
+    private double power = 0;
+    private Integer targetPosition = null;
+    private int tolerance = 5;
+    private boolean enabled = true;
+    private double currentAlert = 0;
+    private final EnumMap<RunMode, PIDFCoefficients> coefficients = new EnumMap<>(RunMode.class);
+
+    private double rawPosition = 0, rawVelocity = 0; // shaft frame, direction gets applied on the way in and out
+    private boolean drivenExternally = false;
+    private SimHub hub = null;
+
+    /**
+     * Creates a fake motor, {@link Simulation#addMotor} is the usual way to get one
+     *
+     * @param simulation The {@link Simulation} it lives in
+     * @param name       The name it is mapped under
+     * @param port       The port number it reports
+     * @param motorType  The {@link MotorConfigurationType} to take ticks per revolution and max RPM from
+     */
+    public SimMotor(Simulation simulation, String name, int port, MotorConfigurationType motorType) {
+        super(simulation, name);
+        this.port = port;
+        applyMotorType(motorType);
+        coefficients.put(RunMode.RUN_USING_ENCODER, new PIDFCoefficients(10, 3, 0, 0));
+        coefficients.put(RunMode.RUN_TO_POSITION, new PIDFCoefficients(10, 0, 0, 0));
+    }
+
+    private void applyMotorType(MotorConfigurationType motorType) {
+        if (motorType == null || motorType.getTicksPerRev() <= 0 || motorType.getMaxRPM() <= 0)
+            throw new IllegalArgumentException("Motor type needs positive ticks per rev and max RPM to simulate");
+        this.motorType = motorType;
+        double fraction = motorType.getAchieveableMaxRPMFraction() > 0 ? motorType.getAchieveableMaxRPMFraction() : 1;
+        this.freeSpeed = motorType.getTicksPerRev() * motorType.getMaxRPM() * fraction / 60;
+    }
+
+    /**
+     * Sets how quickly the motor gets up to speed, bigger for heavier mechanisms
+     *
+     * @param seconds Time to get about two thirds of the way to a new speed
+     * @return This motor
+     */
+    public SimMotor setTimeConstant(double seconds) {
+        if (!(seconds > 0))
+            throw new IllegalArgumentException("Time constant must be positive");
+        simulation.sync();
+        this.timeConstant = seconds;
+        return this;
+    }
+
+    /**
+     * Adds a constant load like gravity on a lift, only RUN_WITHOUT_ENCODER and stopped motors feel it
+     * since the hub's velocity loop covers it in the encoder modes
+     *
+     * @param power Power it takes to hold still, positive if the load pulls towards lower positions
+     * @return This motor
+     */
+    public SimMotor setLoad(double power) {
+        simulation.sync();
+        this.load = power;
+        return this;
+    }
+
+    /**
+     * Moves the encoder to a position, for setting up a mechanism that doesn't start at 0
+     *
+     * @param position Position in ticks, with the motor's direction applied
+     */
+    public void setCurrentPosition(int position) {
+        simulation.sync();
+        rawPosition = sign() * position;
+    }
+
+    private double sign() {
+        return direction == Direction.REVERSE ? -1 : 1;
+    }
+
+    /**
+     * Returns the power the motor is actually putting out right now, after the run mode's controller
+     *
+     * @return Power from -1 to 1 with the motor's direction applied
+     */
+    double getAppliedPower() {
+        if (!enabled)
+            return 0;
+        switch (mode) {
+            case RUN_TO_POSITION:
+                double error = targetPosition - sign() * rawPosition;
+                double velocity = coefficients.get(RunMode.RUN_TO_POSITION).p * error;
+                double limit = Math.abs(power) * freeSpeed;
+                return Math.max(-limit, Math.min(limit, velocity)) / freeSpeed;
+            case STOP_AND_RESET_ENCODER:
+                return 0;
+            default:
+                return Math.max(-1, Math.min(1, power));
+        }
+    }
+
+    /**
+     * Returns the applied power in the shaft frame, for the chassis model
+     */
+    double getRawAppliedPower() {
+        return sign() * getAppliedPower();
+    }
+
+    double getFreeSpeed() {
+        return freeSpeed;
+    }
+
+    double getTicksPerRev() {
+        return motorType.getTicksPerRev();
+    }
+
+    void setDrivenExternally(boolean drivenExternally) {
+        this.drivenExternally = drivenExternally;
+    }
+
+    /**
+     * Moves the shaft by an amount worked out somewhere else, the chassis model uses this for the wheels
+     */
+    void moveRaw(double ticks, double velocity) {
+        rawPosition += ticks;
+        rawVelocity = velocity;
+    }
+
+    /**
+     * Steps the motor's own model, does nothing for motors a chassis is driving
+     */
+    void step(double dt) {
+        if (drivenExternally)
+            return;
+        double applied = getAppliedPower();
+        boolean regulated = enabled && (mode == RunMode.RUN_USING_ENCODER || mode == RunMode.RUN_TO_POSITION);
+        double effective = regulated ? applied : applied - load;
+        double velocity = sign() * rawVelocity;
+        if (effective == 0 && zeroPowerBehavior == ZeroPowerBehavior.FLOAT) {
+            velocity -= velocity * Math.min(1, dt / COAST_TIME_CONSTANT);
+        } else {
+            velocity += (Math.max(-1, Math.min(1, effective)) * freeSpeed - velocity) * Math.min(1, dt / timeConstant);
+        }
+        rawVelocity = sign() * velocity;
+        rawPosition += rawVelocity * dt;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        simulation.sync();
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setPower(double power) {
+        simulation.sync();
+        this.power = power;
+    }
+
+    @Override
+    public double getPower() {
+        simulation.sync();
+        return power;
+    }
+
+    @Override
+    public MotorConfigurationType getMotorType() {
+        return motorType;
+    }
+
+    @Override
+    public void setMotorType(MotorConfigurationType motorType) {
+        simulation.sync();
+        applyMotorType(motorType);
+    }
+
+    @Override
+    public DcMotorController getController() {
+        return null; // there is no hub, code that looks for a LynxModule has to handle this anyway
+    }
+
+    @Override
+    public int getPortNumber() {
+        return port;
+    }
+
+    @Override
+    public void setZeroPowerBehavior(ZeroPowerBehavior zeroPowerBehavior) {
+        simulation.sync();
+        this.zeroPowerBehavior = zeroPowerBehavior;
+    }
+
+    @Override
+    public ZeroPowerBehavior getZeroPowerBehavior() {
+        return zeroPowerBehavior;
+    }
+
+    @Override
+    @Deprecated
+    public void setPowerFloat() {
+        setZeroPowerBehavior(ZeroPowerBehavior.FLOAT);
+        setPower(0);
+    }
+
+    @Override
+    public boolean getPowerFloat() {
+        return zeroPowerBehavior == ZeroPowerBehavior.FLOAT && power == 0;
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        simulation.sync();
+        targetPosition = position;
+    }
+
+    @Override
+    public int getTargetPosition() {
+        return targetPosition == null ? 0 : targetPosition;
+    }
+
+    @Override
+    public boolean isBusy() {
+        simulation.sync();
+        return hub == null ? readBusy() : hub.isBusy(this);
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        simulation.sync();
+        return hub == null ? readPosition() : hub.getCurrentPosition(this);
+    }
+
+    void setHub(SimHub hub) {
+        this.hub = hub;
+    }
+
+    // what the hub would read right now, without going through its cache
+    boolean readBusy() {
+        return mode == RunMode.RUN_TO_POSITION && enabled && Math.abs(targetPosition - Math.round(sign() * rawPosition)) > tolerance;
+    }
+
+    int readPosition() {
+        return (int) Math.round(sign() * rawPosition);
+    }
+
+    double readVelocity() {
+        return sign() * rawVelocity;
+    }
+
+    @Override
+    public void setMode(RunMode mode) {
+        simulation.sync();
+        if (mode == RunMode.RUN_TO_POSITION && targetPosition == null)
+            throw new TargetPositionNotSetException();
+        if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+            rawPosition = 0;
+            power = 0;
+        }
+        this.mode = mode;
+    }
+
+    @Override
+    public RunMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void setMotorEnable() {
+        simulation.sync();
+        enabled = true;
+    }
+
+    @Override
+    public void setMotorDisable() {
+        simulation.sync();
+        enabled = false;
+    }
+
+    @Override
+    public boolean isMotorEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setVelocity(double angularRate) {
+        setPower(angularRate / freeSpeed);
+    }
+
+    @Override
+    public void setVelocity(double angularRate, AngleUnit unit) {
+        double revolutionsPerSecond = unit == AngleUnit.DEGREES ? angularRate / 360 : angularRate / (2 * Math.PI);
+        setVelocity(revolutionsPerSecond * motorType.getTicksPerRev());
+    }
+
+    @Override
+    public double getVelocity() {
+        simulation.sync();
+        return hub == null ? readVelocity() : hub.getVelocity(this);
+    }
+
+    @Override
+    public double getVelocity(AngleUnit unit) {
+        double revolutionsPerSecond = getVelocity() / motorType.getTicksPerRev();
+        return unit == AngleUnit.DEGREES ? revolutionsPerSecond * 360 : revolutionsPerSecond * 2 * Math.PI;
+    }
+
+    @Override
+    @Deprecated
+    public void setPIDCoefficients(RunMode mode, PIDCoefficients pidCoefficients) {
+        setPIDFCoefficients(mode, new PIDFCoefficients(pidCoefficients.p, pidCoefficients.i, pidCoefficients.d, 0));
+    }
+
+    @Override
+    public void setPIDFCoefficients(RunMode mode, PIDFCoefficients pidfCoefficients) {
+        if (mode != RunMode.RUN_USING_ENCODER && mode != RunMode.RUN_TO_POSITION)
+            throw new UnsupportedOperationException("PIDF coefficients only exist for RUN_USING_ENCODER and RUN_TO_POSITION");
+        simulation.sync();
+        coefficients.put(mode, new PIDFCoefficients(pidfCoefficients.p, pidfCoefficients.i, pidfCoefficients.d, pidfCoefficients.f));
+    }
+
+    @Override
+    public void setVelocityPIDFCoefficients(double p, double i, double d, double f) {
+        setPIDFCoefficients(RunMode.RUN_USING_ENCODER, new PIDFCoefficients(p, i, d, f));
+    }
+
+    @Override
+    public void setPositionPIDFCoefficients(double p) {
+        setPIDFCoefficients(RunMode.RUN_TO_POSITION, new PIDFCoefficients(p, 0, 0, 0));
+    }
+
+    @Override
+    @Deprecated
+    public PIDCoefficients getPIDCoefficients(RunMode mode) {
+        PIDFCoefficients pidf = getPIDFCoefficients(mode);
+        return new PIDCoefficients(pidf.p, pidf.i, pidf.d);
+    }
+
+    @Override
+    public PIDFCoefficients getPIDFCoefficients(RunMode mode) {
+        PIDFCoefficients pidf = coefficients.get(mode == RunMode.RUN_TO_POSITION ? RunMode.RUN_TO_POSITION : RunMode.RUN_USING_ENCODER);
+        return new PIDFCoefficients(pidf.p, pidf.i, pidf.d, pidf.f);
+    }
+
+    @Override
+    public void setTargetPositionTolerance(int tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public int getTargetPositionTolerance() {
+        return tolerance;
+    }
+
+    @Override
+    public double getCurrent(CurrentUnit unit) {
+        simulation.sync();
+        // current follows torque, which is how far the power is from what the motor's speed would need
+        double amps = stallCurrent * Math.min(1, Math.abs(getAppliedPower() - sign() * rawVelocity / freeSpeed));
+        return unit == CurrentUnit.MILLIAMPS ? amps * 1000 : amps;
+    }
+
+    @Override
+    public double getCurrentAlert(CurrentUnit unit) {
+        return unit == CurrentUnit.MILLIAMPS ? currentAlert * 1000 : currentAlert;
+    }
+
+    @Override
+    public void setCurrentAlert(double current, CurrentUnit unit) {
+        currentAlert = unit == CurrentUnit.MILLIAMPS ? current / 1000 : current;
+    }
+
+    @Override
+    public boolean isOverCurrent() {
+        return currentAlert > 0 && getCurrent(CurrentUnit.AMPS) > currentAlert;
+    }
+}
@@ -0,0 +1,196 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+import com.qualcomm.robotcore.hardware.I2cAddr;
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The simple fake sensors, each one reads from a supplier so its value can be a constant or come from the rest of the simulation
+ * (a touch sensor that presses when a lift motor gets near 0, a distance sensor that watches the chassis pose, and so on)
+ */
+public class SimSensors {
+    private SimSensors() {
+    }
+
+    /**
+     * Fake {@link DistanceSensor}
+     */
+    public static class SimDistanceSensor extends SimHardwareDevice implements DistanceSensor {
+        private volatile DoubleSupplier inches = () -> distanceOutOfRange;
+
+        /**
+         * Creates a fake distance sensor that reads out of range until given a source
+         *
+         * @param simulation The {@link Simulation} it lives in
+         * @param name       The name it is mapped under
+         */
+        public SimDistanceSensor(Simulation simulation, String name) {
+            super(simulation, name);
+        }
+
+        /**
+         * Sets where the distance comes from
+         *
+         * @param inches Returns the distance in inches
+         * @return This sensor
+         */
+        public SimDistanceSensor setSource(DoubleSupplier inches) {
+            if (inches == null)
+                throw new IllegalArgumentException("Source cannot be null");
+            this.inches = inches;
+            return this;
+        }
+
+        /**
+         * Sets a fixed distance
+         *
+         * @param inches Distance in inches
+         * @return This sensor
+         */
+        public SimDistanceSensor setDistance(double inches) {
+            return setSource(() -> inches);
+        }
+
+        @Override
+        public double getDistance(DistanceUnit unit) {
+            simulation.sync();
+            double value = inches.getAsDouble();
+            return value == distanceOutOfRange ? distanceOutOfRange : unit.fromInches(value);
+        }
+    }
+
+    /**
+     * Fake {@link ColorSensor}
+     */
+    public static class SimColorSensor extends SimHardwareDevice implements ColorSensor {
+        private volatile int red, green, blue, alpha;
+        private I2cAddr address = I2cAddr.create7bit(0x39);
+
+        /**
+         * Creates a fake color sensor that sees black
+         *
+         * @param simulation The {@link Simulation} it lives in
+         * @param name       The name it is mapped under
+         */
+        public SimColorSensor(Simulation simulation, String name) {
+            super(simulation, name);
+        }
+
+        /**
+         * Sets what the sensor sees
+         *
+         * @param red   Red value
+         * @param green Green value
+         * @param blue  Blue value
+         * @return This sensor
+         */
+        public SimColorSensor setColor(int red, int green, int blue) {
+            this.red = red;
+            this.green = green;
+            this.blue = blue;
+            this.alpha = (red + green + blue) / 3;
+            return this;
+        }
+
+        @Override
+        public int red() {
+            simulation.sync();
+            return red;
+        }
+
+        @Override
+        public int green() {
+            simulation.sync();
+            return green;
+        }
+
+        @Override
+        public int blue() {
+            simulation.sync();
+            return blue;
+        }
+
+        @Override
+        public int alpha() {
+            simulation.sync();
+            return alpha;
+        }
+
+        @Override
+        public int argb() {
+            simulation.sync();
+            return (Math.min(alpha, 255) << 24) | (Math.min(red, 255) << 16) | (Math.min(green, 255) << 8) | Math.min(blue, 255);
+        }
+
+        @Override
+        public void enableLed(boolean enable) {
+        }
+
+        @Override
+        public void setI2cAddress(I2cAddr newAddress) {
+            address = newAddress;
+        }
+
+        @Override
+        public I2cAddr getI2cAddress() {
+            return address;
+        }
+    }
+
+    /**
+     * Fake {@link TouchSensor}
+     */
+    public static class SimTouchSensor extends SimHardwareDevice implements TouchSensor {
+        private volatile BooleanSupplier pressed = () -> false;
+
+        /**
+         * Creates a fake touch sensor that isn't pressed
+         *
+         * @param simulation The {@link Simulation} it lives in
+         * @param name       The name it is mapped under
+         */
+        public SimTouchSensor(Simulation simulation, String name) {
+            super(simulation, name);
+        }
+
+        /**
+         * Sets where the pressed state comes from
+         *
+         * @param pressed Returns true while pressed
+         * @return This sensor
+         */
+        public SimTouchSensor setSource(BooleanSupplier pressed) {
+            if (pressed == null)
+                throw new IllegalArgumentException("Source cannot be null");
+            this.pressed = pressed;
+            return this;
+        }
+
+        /**
+         * Presses or releases the sensor
+         *
+         * @param pressed True to press
+         * @return This sensor
+         */
+        public SimTouchSensor setPressed(boolean pressed) {
+            return setSource(() -> pressed);
+        }
+
+        @Override
+        public double getValue() {
+            return isPressed() ? 1 : 0;
+        }
+
+        @Override
+        public boolean isPressed() {
+            simulation.sync();
+            return pressed.getAsBoolean();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+/**
+ * Fake {@link Servo}, it remembers the commanded position and also works out where the horn would really end up
+ * after the range scaling and direction, which is the number to check when a servo "doesn't move"
+ */
+public class SimServo extends SimHardwareDevice implements Servo {
+    private final int port;
+    private Direction direction = Direction.FORWARD;
+    private double position = Double.NaN; // a real servo has no position until it is first told one
+    private double min = MIN_POSITION, max = MAX_POSITION;
+
+    /**
+     * Creates a fake servo, {@link Simulation#addServo} is the usual way to get one
+     *
+     * @param simulation The {@link Simulation} it lives in
+     * @param name       The name it is mapped under
+     * @param port       The port number it reports
+     */
+    public SimServo(Simulation simulation, String name, int port) {
+        super(simulation, name);
+        this.port = port;
+    }
+
+    @Override
+    public ServoController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return port;
+    }
+
+    @Override
+    public synchronized void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public synchronized Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public synchronized void setPosition(double position) {
+        simulation.sync();
+        this.position = Math.max(MIN_POSITION, Math.min(MAX_POSITION, position));
+    }
+
+    @Override
+    public synchronized double getPosition() {
+        return position;
+    }
+
+    @Override
+    public synchronized void scaleRange(double min, double max) {
+        if (min < MIN_POSITION || max > MAX_POSITION || min >= max)
+            throw new IllegalArgumentException("Servo range must be inside 0 to 1 with min less than max");
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Returns where the servo is really being driven to after scaling and direction
+     *
+     * @return Raw position from 0 to 1, NaN if it was never given a position
+     */
+    public synchronized double getRawPosition() {
+        double directed = direction == Direction.REVERSE ? MAX_POSITION - position : position;
+        return min + directed * (max - min);
+    }
+}
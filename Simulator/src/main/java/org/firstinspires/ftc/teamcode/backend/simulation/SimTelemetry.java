@@ -0,0 +1,96 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.io.PrintStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Prints telemetry to a console instead of the driver station
+ * <p>
+ * Like the BNO055 this is a proxy since {@link Telemetry} is a big interface, addData, addLine, update and clear do what
+ * you'd expect and the rest (captions, transmission intervals, logs) quietly do nothing.
+ * Items and lines that come back from addData and addLine are proxies too, so chained calls don't blow up
+ */
+public class SimTelemetry implements InvocationHandler {
+    private final PrintStream out;
+    private final ArrayList<String> lines = new ArrayList<>();
+    private List<String> lastFrame = Collections.emptyList();
+
+    private SimTelemetry(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Creates telemetry that prints every update as a block of lines
+     *
+     * @param out Where to print, null to print nothing and only keep {@link #getLastFrame(Telemetry)}
+     * @return The fake telemetry
+     */
+    public static Telemetry create(PrintStream out) {
+        return (Telemetry) Proxy.newProxyInstance(Telemetry.class.getClassLoader(), new Class<?>[]{Telemetry.class}, new SimTelemetry(out));
+    }
+
+    /**
+     * Returns the lines from the last update of telemetry made by {@link #create(PrintStream)}, handy for checking results
+     *
+     * @param telemetry Telemetry from {@link #create(PrintStream)}
+     * @return The lines, oldest first
+     */
+    public static List<String> getLastFrame(Telemetry telemetry) {
+        InvocationHandler handler = Proxy.getInvocationHandler(telemetry);
+        if (!(handler instanceof SimTelemetry))
+            throw new IllegalArgumentException("Not telemetry from SimTelemetry.create");
+        synchronized (handler) {
+            return ((SimTelemetry) handler).lastFrame;
+        }
+    }
+
+    @Override
+    public synchronized Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "addData":
+                if (args.length == 2) {
+                    lines.add(args[0] + " : " + args[1]);
+                } else if (args.length == 3 && args[1] instanceof String && args[2] instanceof Object[]) {
+                    lines.add(args[0] + " : " + String.format((String) args[1], (Object[]) args[2]));
+                }
+                break;
+            case "addLine":
+                lines.add(args == null || args.length == 0 ? "" : String.valueOf(args[0]));
+                break;
+            case "update":
+                lastFrame = new ArrayList<>(lines);
+                lines.clear();
+                if (out != null) {
+                    for (String line : lastFrame)
+                        out.println(line);
+                    out.println("----");
+                }
+                return true;
+            case "clear":
+            case "clearAll":
+                lines.clear();
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "SimTelemetry";
+            default:
+                break;
+        }
+        Class<?> type = method.getReturnType();
+        if (type.isInstance(proxy))
+            return proxy;
+        if (type.isInterface()) // an item or line, give back something that keeps chaining into this telemetry
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this);
+        return Simulation.defaultValue(type);
+    }
+}
@@ -0,0 +1,354 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.MotorTypeRegistry;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A fake robot that runs on a desktop jvm, add devices to it then hand {@link #getHardwareMap()} to any opmode or subsystem
+ * <p>
+ * Nothing runs in the background. Every time code touches a fake device the simulation catches up to the current time of
+ * its {@link Clock} in 1 ms steps, so the physics is always exactly as old as the clock says. What the clock is decides
+ * how the simulation runs:
+ * <ul>
+ *     <li>{@link #realTime()}: time moves like on the robot, needed for opmodes that wait with sleep or ElapsedTime</li>
+ *     <li>{@link #fasterThanRealTime(double)}: the physics runs a set amount faster than the wall clock</li>
+ *     <li>{@link #lockStep(double)}: a {@link VirtualClock} that moves a fixed amount on every hardware call, about what a
+ *     hub transaction costs on the real robot. Runs as fast as the computer can and gives the same result every time,
+ *     but a sleep doesn't move time at all so it only suits opmodes that wait by polling hardware</li>
+ * </ul>
+ */
+public class Simulation {
+    private static final long STEP_NANOS = 1_000_000;
+
+    private final Clock clock;
+    private final VirtualClock virtualClock;
+    private final double secondsPerCall;
+    private final HardwareMap hardwareMap;
+    private final ArrayList<SimMotor> motors = new ArrayList<>();
+    private final HashMap<String, SimHardwareDevice> devices = new HashMap<>();
+    private MecanumChassisModel chassis;
+    private final long startTime;
+    private long simulatedTo;
+    private int motorPorts = 0, servoPorts = 0;
+    private Thread stopThread;
+    private long stopTime;
+
+    /**
+     * Creates a simulation that keeps up with the real clock
+     *
+     * @return The simulation
+     */
+    public static Simulation realTime() {
+        return new Simulation(Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a simulation that runs faster than real time
+     *
+     * @param speed How many simulated seconds pass per real second
+     * @return The simulation
+     */
+    public static Simulation fasterThanRealTime(double speed) {
+        if (!(speed > 0))
+            throw new IllegalArgumentException("Speed must be positive");
+        long start = System.nanoTime();
+        return new Simulation(() -> Math.round((System.nanoTime() - start) * speed));
+    }
+
+    /**
+     * Creates a simulation on a virtual clock that moves every time code touches hardware
+     *
+     * @param secondsPerCall How far time moves per hardware call, 0.002 is close to a real hub
+     * @return The simulation
+     */
+    public static Simulation lockStep(double secondsPerCall) {
+        if (!(secondsPerCall > 0))
+            throw new IllegalArgumentException("Time per call must be positive");
+        VirtualClock clock = new VirtualClock();
+        return new Simulation(clock, clock, secondsPerCall);
+    }
+
+    /**
+     * Creates a simulation on any clock, pass a {@link VirtualClock} and move it yourself for full control
+     *
+     * @param clock The {@link Clock} the physics follows
+     */
+    public Simulation(Clock clock) {
+        this(clock, null, 0);
+    }
+
+    private Simulation(Clock clock, VirtualClock virtualClock, double secondsPerCall) {
+        if (clock == null)
+            throw new IllegalArgumentException("Clock cannot be null");
+        this.clock = clock;
+        this.virtualClock = virtualClock;
+        this.secondsPerCall = secondsPerCall;
+        this.hardwareMap = newHardwareMap();
+        this.startTime = clock.nanoTime();
+        this.simulatedTo = startTime;
+    }
+
+    /**
+     * The HardwareMap constructor has changed between sdk versions (it takes an android Context, and lately an opmode
+     * notifier too), neither matters off the robot so fill in whatever the constructor wants with null
+     */
+    private static HardwareMap newHardwareMap() {
+        try {
+            Constructor<?> constructor = HardwareMap.class.getConstructors()[0];
+            return (HardwareMap) constructor.newInstance(new Object[constructor.getParameterCount()]);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("Couldn't make a HardwareMap with this sdk", e);
+        }
+    }
+
+    private <T extends SimHardwareDevice> T map(String name, T device) {
+        if (name == null || devices.containsKey(name))
+            throw new IllegalArgumentException("Device name " + name + " is missing or already used");
+        devices.put(name, device);
+        hardwareMap.put(name, device);
+        return device;
+    }
+
+    /**
+     * Adds a motor with the ticks per revolution and max RPM of a motor type from {@link MotorTypeRegistry}
+     *
+     * @param name      The name it is mapped under
+     * @param motorType The type of the motor
+     * @return The fake motor
+     */
+    public SimMotor addMotor(String name, MotorTypeRegistry.MotorType motorType) {
+        return addMotor(name, MotorTypeRegistry.getConfiguration(motorType));
+    }
+
+    /**
+     * Adds a motor with any configuration
+     *
+     * @param name      The name it is mapped under
+     * @param motorType The {@link MotorConfigurationType}, needs positive ticks per revolution and max RPM
+     * @return The fake motor
+     */
+    public SimMotor addMotor(String name, MotorConfigurationType motorType) {
+        SimMotor motor = map(name, new SimMotor(this, name, motorPorts++ % 4, motorType));
+        motors.add(motor);
+        return motor;
+    }
+
+    /**
+     * Adds a hub with a bulk cache and puts motors that were already added on it, without one motors read straight through
+     *
+     * @param name   The name it is mapped under
+     * @param motors Names of the motors on the hub
+     * @return The fake hub
+     */
+    public SimHub addHub(String name, String... motors) {
+        SimHub hub = map(name, new SimHub(this, name));
+        for (String motor : motors)
+            hub.attach(motor(motor));
+        return hub;
+    }
+
+    /**
+     * Adds a servo
+     *
+     * @param name The name it is mapped under
+     * @return The fake servo
+     */
+    public SimServo addServo(String name) {
+        return map(name, new SimServo(this, name, servoPorts++ % 6));
+    }
+
+    /**
+     * Adds an IMU, it is mapped both as an {@link com.qualcomm.robotcore.hardware.IMU} and as a BNO055 so either wrapper finds it
+     *
+     * @param name The name it is mapped under
+     * @return The fake IMU
+     */
+    public SimImu addImu(String name) {
+        SimImu imu = map(name, new SimImu(this, name));
+        hardwareMap.put(name, (HardwareDevice) imu.asBno055());
+        return imu;
+    }
+
+    /**
+     * Adds a distance sensor
+     *
+     * @param name The name it is mapped under
+     * @return The fake distance sensor
+     */
+    public SimSensors.SimDistanceSensor addDistanceSensor(String name) {
+        return map(name, new SimSensors.SimDistanceSensor(this, name));
+    }
+
+    /**
+     * Adds a color sensor
+     *
+     * @param name The name it is mapped under
+     * @return The fake color sensor
+     */
+    public SimSensors.SimColorSensor addColorSensor(String name) {
+        return map(name, new SimSensors.SimColorSensor(this, name));
+    }
+
+    /**
+     * Adds a touch sensor
+     *
+     * @param name The name it is mapped under
+     * @return The fake touch sensor
+     */
+    public SimSensors.SimTouchSensor addTouchSensor(String name) {
+        return map(name, new SimSensors.SimTouchSensor(this, name));
+    }
+
+    /**
+     * Puts four motors that were already added on a mecanum chassis, after this the chassis moves them
+     *
+     * @param frontLeft  Name of the front left motor
+     * @param frontRight Name of the front right motor
+     * @param backLeft   Name of the back left motor
+     * @param backRight  Name of the back right motor
+     * @return The chassis model, to change its mounting or read the true pose
+     */
+    public synchronized MecanumChassisModel addMecanumChassis(String frontLeft, String frontRight, String backLeft, String backRight) {
+        return setChassis(new MecanumChassisModel(motor(frontLeft), motor(frontRight), motor(backLeft), motor(backRight)));
+    }
+
+    /**
+     * Uses a chassis model made by hand, for robots that aren't the default size
+     *
+     * @param chassis The {@link MecanumChassisModel}
+     * @return The same chassis
+     */
+    public synchronized MecanumChassisModel setChassis(MecanumChassisModel chassis) {
+        if (this.chassis != null)
+            throw new IllegalStateException("The simulation already has a chassis");
+        sync();
+        this.chassis = chassis;
+        return chassis;
+    }
+
+    /**
+     * Returns an added motor
+     *
+     * @param name The name it is mapped under
+     * @return The fake motor
+     */
+    public SimMotor motor(String name) {
+        SimHardwareDevice device = devices.get(name);
+        if (!(device instanceof SimMotor))
+            throw new IllegalArgumentException("No simulated motor named " + name);
+        return (SimMotor) device;
+    }
+
+    /**
+     * Returns an added hub
+     *
+     * @param name The name it is mapped under
+     * @return The fake hub
+     */
+    public SimHub hub(String name) {
+        SimHardwareDevice device = devices.get(name);
+        if (!(device instanceof SimHub))
+            throw new IllegalArgumentException("No simulated hub named " + name);
+        return (SimHub) device;
+    }
+
+    /**
+     * Returns the chassis after catching it up to now, read the true pose from it to check odometry
+     *
+     * @return The {@link MecanumChassisModel}, or null if there isn't one
+     */
+    public MecanumChassisModel getChassis() {
+        sync();
+        return chassis;
+    }
+
+    MecanumChassisModel getChassisModel() {
+        return chassis;
+    }
+
+    /**
+     * Returns the hardware map with every added device in it
+     *
+     * @return The {@link HardwareMap}
+     */
+    public HardwareMap getHardwareMap() {
+        return hardwareMap;
+    }
+
+    /**
+     * Returns the clock the physics follows, give this to anything that takes a {@link Clock} so it agrees with the simulation
+     *
+     * @return The {@link Clock}
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Returns how long the simulation has been running, doesn't count as a hardware call
+     *
+     * @return Simulated seconds since it was made
+     */
+    public double getTime() {
+        return (clock.nanoTime() - startTime) / 1e9;
+    }
+
+    /**
+     * Steps the physics up to the current time, every fake device calls this before it does anything
+     */
+    public synchronized void sync() {
+        if (virtualClock != null)
+            virtualClock.advance(secondsPerCall);
+        long now = clock.nanoTime();
+        if (stopThread == Thread.currentThread() && now >= stopTime)
+            stopThread.interrupt(); // right on time, the runner only checks every few milliseconds of real time
+        while (simulatedTo < now) {
+            long step = Math.min(STEP_NANOS, now - simulatedTo);
+            double dt = step / 1e9;
+            if (chassis != null)
+                chassis.step(dt);
+            for (int i = 0; i < motors.size(); i++)
+                motors.get(i).step(dt);
+            simulatedTo += step;
+        }
+    }
+
+    /**
+     * Interrupts a thread the first time it touches hardware after a time, which is how {@link OpModeRunner} stops opmodes
+     */
+    synchronized void stopThreadAt(Thread thread, double seconds) {
+        stopThread = thread;
+        stopTime = startTime + Math.round(seconds * 1e9);
+    }
+
+    /**
+     * Returns what a method with nothing to say should return, for the proxy based fakes
+     */
+    static Object defaultValue(Class<?> type) {
+        if (type == boolean.class)
+            return false;
+        if (type == void.class || !type.isPrimitive())
+            return null;
+        if (type == char.class)
+            return (char) 0;
+        if (type == float.class)
+            return 0f;
+        if (type == double.class)
+            return 0d;
+        if (type == long.class)
+            return 0L;
+        if (type == int.class)
+            return 0;
+        if (type == short.class)
+            return (short) 0;
+        return (byte) 0;
+    }
+}
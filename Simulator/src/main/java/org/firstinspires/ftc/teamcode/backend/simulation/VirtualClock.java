@@ -0,0 +1,26 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+
+/**
+ * A {@link Clock} that only moves when told to, so a simulation can run as fast as the computer allows and give the same result every time
+ */
+public class VirtualClock implements Clock {
+    private long nanos = 0;
+
+    @Override
+    public synchronized long nanoTime() {
+        return nanos;
+    }
+
+    /**
+     * Moves time forward
+     *
+     * @param seconds How far to move, can't be negative
+     */
+    public synchronized void advance(double seconds) {
+        if (seconds < 0)
+            throw new IllegalArgumentException("Time can't go backwards");
+        nanos += Math.round(seconds * 1e9);
+    }
+}
@@ -0,0 +1,59 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.MotorTypeRegistry;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.BasketAuto;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.Constants;
+
+/**
+ * The winter break robot as a simulation, with the same device names as its configuration on the phone
+ * Run {@link #main(String[])} on a desktop, {@code ./gradlew :Simulator:run}, to play one of the winterBreak opmodes
+ * and print where the robot ended up
+ */
+public class WinterBreakSimulation {
+    private WinterBreakSimulation() {
+    }
+
+    /**
+     * Adds every device the winter break opmodes map
+     *
+     * @param simulation An empty {@link Simulation}
+     * @return The same simulation
+     */
+    public static Simulation build(Simulation simulation) {
+        for (String name : new String[]{"frontLeft", "frontRight", "backLeft", "backRight"})
+            simulation.addMotor(name, MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        for (String name : new String[]{"foot", "elbow", "liftRope", "liftChain"})
+            simulation.addMotor(name, MotorTypeRegistry.MotorType.YELLOW_JACKET_50_9_MOTOR).setTimeConstant(0.1);
+        simulation.addHub("Control Hub", "frontLeft", "frontRight", "backLeft", "backRight");
+        simulation.addHub("Expansion Hub 2", "foot", "elbow", "liftRope", "liftChain");
+        for (String name : new String[]{"fingers", "wrist", "shoulderLeft", "shoulderRight"})
+            simulation.addServo(name);
+        simulation.addImu("imu");
+        // the directions in Constants are the ones that make each wheel drive forward, so they are the mounting too
+        simulation.addMecanumChassis("frontLeft", "frontRight", "backLeft", "backRight").setMounting(
+                Constants.BRFLDrivetrainDirection, Constants.BLFRDrivetrainDirection, Constants.BLFRDrivetrainDirection, Constants.BRFLDrivetrainDirection);
+        return simulation;
+    }
+
+    /**
+     * Plays an opmode in lock step and prints its last telemetry and where the robot ended up
+     *
+     * @param args The opmode's class name in the winterBreak package, {@link BasketAuto} if left out, then how many seconds to run, 30 if left out
+     * @throws Exception If the opmode can't be made or crashes
+     */
+    public static void main(String[] args) throws Exception {
+        String name = args.length > 0 ? args[0] : BasketAuto.class.getSimpleName();
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 30;
+        LinearOpMode opMode = (LinearOpMode) Class.forName(BasketAuto.class.getPackage().getName() + "." + name).getDeclaredConstructor().newInstance();
+
+        Simulation simulation = build(Simulation.lockStep(0.002));
+        Telemetry telemetry = new OpModeRunner(simulation).setTelemetryOutput(null).run(opMode, seconds);
+        MecanumChassisModel chassis = simulation.getChassis();
+        System.out.println(String.join("\n", SimTelemetry.getLastFrame(telemetry)));
+        System.out.printf("Ended at x %.1f in, y %.1f in, heading %.1f deg after %.1f s%n",
+                chassis.getX(), chassis.getY(), Math.toDegrees(chassis.getHeading()), simulation.getTime());
+    }
+}
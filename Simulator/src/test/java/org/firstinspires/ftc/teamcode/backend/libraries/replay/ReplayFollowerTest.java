@@ -0,0 +1,157 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.replay;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.backend.simulation.MecanumChassisModel;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimTelemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.simulation.WinterBreakSimulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.Imu;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.Constants;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records a scripted drive on the simulated winter break robot, then plays it back on a robot whose left wheels only
+ * get 70% of the power they are sent, the kind of thing a worn gearbox or a different floor does
+ */
+public class ReplayFollowerTest {
+    private static final double METERS_PER_INCH = 0.0254;
+    private static final String[] WHEELS = {"frontLeft", "frontRight", "backLeft", "backRight"};
+    private static final double[] NO_SETPOINTS = new double[0];
+
+    /**
+     * The simulated robot's drivetrain with a pose estimator that matches the chassis model
+     */
+    private static class Robot {
+        final Simulation simulation = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        final DcMotorEx[] motors = new DcMotorEx[4];
+        final Imu imu;
+        final PoseEstimator pose;
+        final MecanumKinematics kinematics = new MecanumKinematics();
+        final double[] wheels = new double[4];
+        final double leftScale;
+
+        Robot(double leftScale) {
+            this.leftScale = leftScale;
+            BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.MANUAL);
+            for (int i = 0; i < 4; i++) {
+                motors[i] = simulation.getHardwareMap().get(DcMotorEx.class, WHEELS[i]);
+                motors[i].setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+                motors[i].setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+            }
+            motors[MecanumKinematics.FRONT_LEFT].setDirection(Constants.BRFLDrivetrainDirection);
+            motors[MecanumKinematics.FRONT_RIGHT].setDirection(Constants.BLFRDrivetrainDirection);
+            motors[MecanumKinematics.BACK_LEFT].setDirection(Constants.BLFRDrivetrainDirection);
+            motors[MecanumKinematics.BACK_RIGHT].setDirection(Constants.BRFLDrivetrainDirection);
+            imu = new Imu("imu", simulation.getHardwareMap(), Constants.hubLogoDirection, Constants.hubUsbDirection, SimTelemetry.create(null));
+            // the default chassis: 96 mm wheels, 0.36 m track width, 0.30 m wheelbase and no roller slip
+            double ticksPerInch = simulation.motor("frontLeft").getMotorType().getTicksPerRev() / (2 * Math.PI * 0.048 / METERS_PER_INCH);
+            pose = new PoseEstimator(ticksPerInch, new MecanumKinematics(0.36 / METERS_PER_INCH, 0.30 / METERS_PER_INCH, 1));
+        }
+
+        void updatePose() {
+            BulkCache.clearCache();
+            pose.update(motors[0].getCurrentPosition(), motors[1].getCurrentPosition(), motors[2].getCurrentPosition(),
+                    motors[3].getCurrentPosition(), imu.getHeadingRadians());
+        }
+
+        void drive(double forward, double left, double turn) {
+            kinematics.toWheelSpeeds(forward, left, turn, wheels);
+            MecanumKinematics.desaturate(wheels, 1);
+            wheels[MecanumKinematics.FRONT_LEFT] *= leftScale;
+            wheels[MecanumKinematics.BACK_LEFT] *= leftScale;
+            for (int i = 0; i < 4; i++)
+                motors[i].setPower(wheels[i]);
+        }
+
+        MecanumChassisModel chassis() {
+            return simulation.getChassis();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        BulkCache.reset();
+    }
+
+    /**
+     * Forward, left and turn power for a 6 second drive: forward, a curve, a strafe and a turn back
+     */
+    private static void route(double time, double[] drive) {
+        Arrays.fill(drive, 0);
+        if (time < 1.5) {
+            drive[0] = 0.6;
+        } else if (time < 3) {
+            drive[0] = 0.4;
+            drive[2] = 0.4;
+        } else if (time < 4.5) {
+            drive[1] = 0.5;
+        } else if (time < 5.5) {
+            drive[2] = -0.5;
+        }
+    }
+
+    private static Recording record(Robot robot) {
+        Recorder recorder = new Recorder(0, 6, 200);
+        double[] drive = new double[3];
+        while (robot.simulation.getTime() < 6) {
+            robot.updatePose();
+            recorder.record(robot.simulation.getClock().nanoTime(), null, null, robot.pose.getX(), robot.pose.getY(), robot.pose.getHeading(), NO_SETPOINTS);
+            route(robot.simulation.getTime(), drive);
+            robot.drive(drive[0], drive[1], drive[2]);
+        }
+        robot.drive(0, 0, 0);
+        return recorder.toRecording();
+    }
+
+    @Test
+    public void closedLoopReplayEndsWhereTheRecordingDidDespiteDrag() {
+        Robot recorded = new Robot(1);
+        Recording recording = record(recorded);
+        while (recorded.simulation.getTime() < 7) // the wheels brake, give it a moment to stop
+            recorded.updatePose();
+        MecanumChassisModel end = recorded.chassis();
+        assertTrue("the route should go somewhere", Math.hypot(end.getX(), end.getY()) > 36);
+
+        // open loop, the same powers at the same times, to show the drag matters
+        Robot openLoop = new Robot(0.7);
+        double[] drive = new double[3];
+        while (openLoop.simulation.getTime() < 7) {
+            route(openLoop.simulation.getTime(), drive);
+            openLoop.drive(drive[0], drive[1], drive[2]);
+        }
+
+        Robot replayed = new Robot(0.7);
+        ReplayFollower follower = new ReplayFollower(recording, replayed.simulation.getClock());
+        double[] out = new double[3];
+        while (!follower.isFinished()) {
+            assertTrue("never finished", replayed.simulation.getTime() < 20);
+            replayed.updatePose();
+            follower.update(replayed.pose.getX(), replayed.pose.getY(), replayed.pose.getHeading(), out);
+            replayed.drive(out[0], out[1], out[2]);
+        }
+        replayed.drive(0, 0, 0);
+        double finished = replayed.simulation.getTime();
+        while (replayed.simulation.getTime() < finished + 1)
+            replayed.updatePose();
+
+        double openLoopMiss = Math.hypot(openLoop.chassis().getX() - end.getX(), openLoop.chassis().getY() - end.getY());
+        double miss = Math.hypot(replayed.chassis().getX() - end.getX(), replayed.chassis().getY() - end.getY());
+        double headingMiss = Math.toDegrees(Angles.wrapRadians(replayed.chassis().getHeading() - end.getHeading()));
+        assertTrue("open loop only missed by " + openLoopMiss + " in", openLoopMiss > 10);
+        assertTrue("missed by " + miss + " in", miss < 1);
+        assertEquals(0, headingMiss, 1);
+    }
+}
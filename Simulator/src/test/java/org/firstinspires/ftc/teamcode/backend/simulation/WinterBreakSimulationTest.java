@@ -0,0 +1,92 @@
+package org.firstinspires.ftc.teamcode.backend.simulation;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PersistentData;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.BasketAuto;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.Constants;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.TeleOp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WinterBreakSimulationTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private String persistentFile;
+
+    @Before
+    public void setUp() {
+        // BasketAuto hands its pose to TeleOp through a file on the sdcard, keep that in the test's own folder
+        persistentFile = Constants.persistentFile;
+        Constants.persistentFile = new File(folder.getRoot(), "persistent").getPath();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        PersistentData.shared(new File(Constants.persistentFile)).close();
+        Constants.persistentFile = persistentFile;
+    }
+
+    @Test
+    public void basketAutoRunsUnmodifiedAndDrives() throws InterruptedException {
+        Simulation simulation = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        Telemetry telemetry = new OpModeRunner(simulation).setTelemetryOutput(null).run(new BasketAuto(), 30);
+        MecanumChassisModel chassis = simulation.getChassis();
+        assertTrue("BasketAuto didn't move the robot", Math.hypot(chassis.getX(), chassis.getY()) > 12);
+        assertFalse(SimTelemetry.getLastFrame(telemetry).isEmpty());
+        assertEquals(30, simulation.getTime(), 0.5);
+    }
+
+    @Test
+    public void teleOpRunsUnmodifiedAndSitsStillWithoutInput() throws InterruptedException {
+        Simulation simulation = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        new OpModeRunner(simulation).setTelemetryOutput(null).run(new TeleOp(), 2);
+        MecanumChassisModel chassis = simulation.getChassis();
+        assertEquals(0, chassis.getX(), 0.1);
+        assertEquals(0, chassis.getY(), 0.1);
+        assertEquals(0, simulation.motor("liftChain").getCurrentPosition(), 50);
+    }
+
+    @Test
+    public void teleOpDrivesStraightOnTheLeftStick() throws InterruptedException {
+        Simulation simulation = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        TeleOp teleOp = new TeleOp();
+        teleOp.gamepad1.left_stick_y = -1;
+        new OpModeRunner(simulation).setTelemetryOutput(null).run(teleOp, 1);
+        MecanumChassisModel chassis = simulation.getChassis();
+        // which way is forward comes from the TeleOp's stick signs, this only checks it drives along its length
+        assertTrue("went " + chassis.getX() + " in", Math.abs(chassis.getX()) > 6);
+        assertEquals(0, chassis.getY(), 1);
+    }
+
+    @Test
+    public void basketAutoHandsItsPoseToTeleOp() throws Exception {
+        Simulation simulation = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        new OpModeRunner(simulation).setTelemetryOutput(null).run(new BasketAuto(), 30);
+        MecanumChassisModel chassis = simulation.getChassis();
+
+        // read back the way the next opmode would, from the file and not the store BasketAuto still has open
+        PersistentData.shared(new File(Constants.persistentFile)).close();
+        PersistentData store = PersistentData.shared(new File(Constants.persistentFile));
+        assertTrue(store.contains("pose.x"));
+        assertEquals(0, Math.toDegrees(Angles.wrapRadians(chassis.getHeading() - store.getDouble("pose.heading", Double.NaN))), 2);
+        assertTrue("saved pose hasn't moved", Math.hypot(store.getDouble("pose.x", 0), store.getDouble("pose.y", 0)) > 12);
+
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        new OpModeRunner(simulation).setTelemetryOutput(new PrintStream(printed, true)).run(new TeleOp(), 0.1);
+        assertTrue(printed.toString().contains(String.format("Auto ended at : %.1f, %.1f in, %.0f deg",
+                store.getDouble("pose.x", 0), store.getDouble("pose.y", 0), Math.toDegrees(store.getDouble("pose.heading", 0)))));
+    }
+}
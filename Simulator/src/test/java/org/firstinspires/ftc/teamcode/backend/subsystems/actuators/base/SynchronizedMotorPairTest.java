@@ -0,0 +1,133 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.PIDFController;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimTelemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.simulation.WinterBreakSimulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.VoltageMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the powers a pair sends for a known controller output on a frozen simulation, and that the sync gain keeps the
+ * winter break lift level when one side drags
+ */
+public class SynchronizedMotorPairTest {
+    private Simulation simulation;
+    private Motor left, right;
+    private VoltageMonitor tenVolts;
+
+    @Before
+    public void setUp() {
+        simulation = new Simulation(() -> 0);
+        simulation.addMotor("left", MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        simulation.addMotor("right", MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        left = new Motor("left", simulation.getHardwareMap(), SimTelemetry.create(null));
+        right = new Motor("right", simulation.getHardwareMap(), SimTelemetry.create(null));
+        tenVolts = new VoltageMonitor(() -> 10, 1, 0).start();
+        tenVolts.stop();
+    }
+
+    @After
+    public void tearDown() {
+        BulkCache.reset();
+    }
+
+    /**
+     * A pair holding 1000 ticks from 0 with only a proportional gain, so the output is kP * 1000 on both motors
+     */
+    private SynchronizedMotorPair pair(PIDFController controller) {
+        SynchronizedMotorPair pair = new SynchronizedMotorPair(left, right, 1, controller, SimTelemetry.create(null));
+        pair.setTarget(1000);
+        return pair;
+    }
+
+    @Test
+    public void voltsAreTurnedIntoPowerWithTheRealBatteryVoltage() {
+        SynchronizedMotorPair pair = pair(new PIDFController(0.006, 0, 0).useVolts(12)).useVoltageCompensation(tenVolts);
+        pair.update();
+        // 6 volts from a 10 volt battery
+        assertEquals(0.6, simulation.motor("left").getPower(), 1e-9);
+        assertEquals(0.6, simulation.motor("right").getPower(), 1e-9);
+    }
+
+    @Test
+    public void voltsWithoutAMonitorAssumeNominal() {
+        SynchronizedMotorPair pair = pair(new PIDFController(0.006, 0, 0).useVolts(12));
+        pair.update();
+        assertEquals(6 / VoltageMonitor.NOMINAL_VOLTAGE, simulation.motor("left").getPower(), 1e-9);
+        assertEquals(6 / VoltageMonitor.NOMINAL_VOLTAGE, simulation.motor("right").getPower(), 1e-9);
+    }
+
+    @Test
+    public void onlyOneMotorCompensatedStillGetsBothRight() {
+        left.useVoltageCompensation(tenVolts);
+        SynchronizedMotorPair pair = pair(new PIDFController(0.006, 0, 0).useVolts(12));
+        pair.update();
+        assertEquals(0.6, simulation.motor("left").getPower(), 1e-9);
+        assertEquals(0.5, simulation.motor("right").getPower(), 1e-9);
+    }
+
+    @Test
+    public void powerOutputIsCompensatedByTheMotors() {
+        SynchronizedMotorPair pair = pair(new PIDFController(0.0005, 0, 0)).useVoltageCompensation(tenVolts);
+        pair.update();
+        // half power asked for, pushed up by 12 / 10 so it acts like half power on a full battery
+        assertEquals(0.6, simulation.motor("left").getPower(), 1e-9);
+        assertEquals(0.6, simulation.motor("right").getPower(), 1e-9);
+    }
+
+    @Test
+    public void maxPowerCapsVoltsToo() {
+        SynchronizedMotorPair pair = pair(new PIDFController(0.012, 0, 0).useVolts(12)).useVoltageCompensation(tenVolts);
+        pair.setMaxPower(0.8);
+        pair.update();
+        assertEquals(0.8, simulation.motor("left").getPower(), 1e-9);
+        assertEquals(0.8, simulation.motor("right").getPower(), 1e-9);
+    }
+
+    /**
+     * Lifts the winter break lift 3000 ticks and back down with the rope side dragging, returns the pair after
+     */
+    private static SynchronizedMotorPair liftWithDrag(double kSync) {
+        Simulation robot = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        robot.motor("liftRope").setLoad(0.25);
+        BulkCache.init(robot.getHardwareMap(), LynxModule.BulkCachingMode.MANUAL);
+        Telemetry telemetry = SimTelemetry.create(null);
+        SynchronizedMotorPair pair = new SynchronizedMotorPair(new Motor("liftChain", robot.getHardwareMap(), telemetry),
+                new Motor("liftRope", robot.getHardwareMap(), telemetry), 1, new PIDFController(0.004, 0, 0.0002), telemetry)
+                .setSyncGains(kSync, 0).setRackingLimit(60);
+        pair.setTarget(3000);
+        while (robot.getTime() < 3) {
+            BulkCache.clearCache();
+            pair.update();
+        }
+        pair.setTarget(0);
+        while (robot.getTime() < 6) {
+            BulkCache.clearCache();
+            pair.update();
+        }
+        return pair;
+    }
+
+    @Test
+    public void syncGainKeepsADraggingLiftLevel() {
+        SynchronizedMotorPair loose = liftWithDrag(0), synced = liftWithDrag(0.01);
+        // left alone the dragging side falls behind until the racking limit holds the other one back
+        assertTrue("rms " + loose.getRmsDivergence(), loose.getRmsDivergence() > 40);
+        assertTrue(loose.getRackingEvents() > 0);
+        assertTrue("rms " + synced.getRmsDivergence() + " against " + loose.getRmsDivergence(),
+                synced.getRmsDivergence() < loose.getRmsDivergence() / 2);
+        assertEquals(0, synced.getRackingEvents());
+        // and pulling them together doesn't cost getting there
+        assertEquals(loose.getPosition(), synced.getPosition(), 10);
+    }
+}
@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.manipulators;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimTelemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.Constants;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.MotorTypeRegistry;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class Lift2MotorTest {
+    @Test
+    public void notWaitingKeepsTheMovesPower() {
+        Simulation simulation = new Simulation(() -> 0); // nothing moves, the lift is still at the bottom afterwards
+        simulation.addMotor("left", MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        simulation.addMotor("right", MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        Telemetry telemetry = SimTelemetry.create(null);
+        Lift2Motor lift = new Lift2Motor("lift", new Motor("left", simulation.getHardwareMap(), telemetry),
+                new Motor("right", simulation.getHardwareMap(), telemetry), telemetry, 0, 2000);
+        lift.setTargetPosition(0); // moves are relative to the last target
+
+        lift.goToPosition(1000, false);
+        assertEquals(1000, lift.getTargetPosition());
+        assertEquals(Constants.upPower, simulation.motor("left").getPower(), 1e-9);
+        assertEquals(Constants.upPower, simulation.motor("right").getPower(), 1e-9);
+    }
+
+    @Test
+    public void notWaitingKeepsTheMovesPowerOnOneMotorToo() {
+        Simulation simulation = new Simulation(() -> 0);
+        simulation.addMotor("lift", MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        Telemetry telemetry = SimTelemetry.create(null);
+        Lift1Motor lift = new Lift1Motor("lift", new Motor("lift", simulation.getHardwareMap(), telemetry), telemetry, 0, 2000);
+
+        lift.goToPosition(1000, false);
+        assertEquals(Constants.upPower, simulation.motor("lift").getPower(), 1e-9);
+    }
+}
@@ -0,0 +1,151 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.backend.simulation.OpModeRunner;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimHub;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.simulation.WinterBreakSimulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.MotorTypeRegistry;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.BasketAuto;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.Constants;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.TeleOp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class BulkCacheTest {
+    private static final String[] NAMES = {"frontLeft", "frontRight", "backLeft", "backRight"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private String persistentFile;
+    private Simulation simulation;
+    private SimHub hub;
+    private final DcMotorEx[] motors = new DcMotorEx[NAMES.length];
+
+    @Before
+    public void setUp() {
+        persistentFile = Constants.persistentFile;
+        Constants.persistentFile = new File(folder.getRoot(), "persistent").getPath(); // the opmodes below save a pose
+        simulation = new Simulation(() -> 0); // time stands still, only the transaction count matters
+        for (String name : NAMES)
+            simulation.addMotor(name, MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        hub = simulation.addHub("Control Hub", NAMES);
+        for (int i = 0; i < NAMES.length; i++)
+            motors[i] = simulation.getHardwareMap().get(DcMotorEx.class, NAMES[i]);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        BulkCache.reset();
+        LynxCommandQueue.reset();
+        PersistentData.shared(new File(Constants.persistentFile)).close();
+        Constants.persistentFile = persistentFile;
+    }
+
+    private void readEverything() {
+        for (DcMotorEx motor : motors) {
+            motor.getCurrentPosition();
+            motor.getVelocity();
+            motor.isBusy();
+        }
+    }
+
+    @Test
+    public void manualDoesOneBulkReadPerCycle() {
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.MANUAL);
+        for (int cycle = 0; cycle < 10; cycle++) {
+            BulkCache.clearCache();
+            readEverything();
+            readEverything(); // reading again in the same cycle comes from the cache
+        }
+        assertEquals(10, hub.getTransactions());
+        assertEquals(10, BulkCache.getCycles());
+    }
+
+    @Test
+    public void autoRefreshesWhenAValueIsReadTwice() {
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.AUTO);
+        readEverything();
+        assertEquals(1, hub.getTransactions());
+        motors[0].getCurrentPosition();
+        assertEquals(2, hub.getTransactions());
+    }
+
+    @Test
+    public void offIsOneTransactionPerRead() {
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.OFF);
+        readEverything();
+        assertEquals(3 * NAMES.length, hub.getTransactions());
+    }
+
+    @Test
+    public void manualReadsStayStaleUntilCleared() {
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.MANUAL);
+        int before = motors[0].getCurrentPosition();
+        simulation.motor(NAMES[0]).setCurrentPosition(500);
+        assertEquals(before, motors[0].getCurrentPosition());
+        BulkCache.clearCache();
+        assertEquals(500, motors[0].getCurrentPosition());
+    }
+
+    @Test
+    public void registeringAgainPutsTheModeBack() {
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.MANUAL);
+        hub.setBulkCachingMode(LynxModule.BulkCachingMode.OFF); // what the sdk does to hubs between opmodes
+        BulkCache.register(simulation.getHardwareMap());
+        assertEquals(LynxModule.BulkCachingMode.MANUAL, hub.getBulkCachingMode());
+
+        readEverything();
+        assertEquals(1, hub.getTransactions());
+    }
+
+    @Test
+    public void initDropsTheLastOpModesMode() {
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.MANUAL);
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.AUTO);
+        assertEquals(LynxModule.BulkCachingMode.AUTO, hub.getBulkCachingMode());
+        assertEquals(LynxModule.BulkCachingMode.AUTO, BulkCache.getMode());
+    }
+
+    @Test
+    public void motorRegistersItsHub() {
+        BulkCache.reset();
+        BulkCache.setMode(LynxModule.BulkCachingMode.MANUAL);
+        new Motor(NAMES[0], simulation.getHardwareMap(), null);
+        assertEquals(LynxModule.BulkCachingMode.MANUAL, hub.getBulkCachingMode());
+    }
+
+    @Test
+    public void basketAutoAfterTeleOpRunsInAuto() throws InterruptedException {
+        Simulation robot = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        new OpModeRunner(robot).setTelemetryOutput(null).run(new TeleOp(), 0.5);
+        SimHub controlHub = robot.hub("Control Hub");
+        assertEquals(LynxModule.BulkCachingMode.MANUAL, controlHub.getBulkCachingMode());
+
+        // BasketAuto polls encoders in while loops and never clears the cache, left in MANUAL it would never see them move
+        new OpModeRunner(robot).setTelemetryOutput(null).run(new BasketAuto(), 5);
+        assertEquals(LynxModule.BulkCachingMode.AUTO, controlHub.getBulkCachingMode());
+        assertNotEquals(0, robot.motor("frontLeft").getCurrentPosition());
+    }
+
+    @Test
+    public void initStartsFreshCommandQueues() {
+        // the simulator has no LynxModules, the queue only needs one for its built in commands
+        LynxCommandQueue last = LynxCommandQueue.of(null);
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.MANUAL);
+        assertNotSame(last, LynxCommandQueue.of(null));
+    }
+}
@@ -0,0 +1,149 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DataLoggerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final long[] now = {0};
+    private int voltageReads = 0, currentReads = 0;
+
+    private String decode(File file) throws Exception {
+        StringWriter csv = new StringWriter();
+        try (InputStream in = new FileInputStream(file)) {
+            LogDecoder.decode(in, csv);
+        }
+        return csv.toString();
+    }
+
+    @Test
+    public void hubChannelsNeverTalkToTheHub() throws Exception {
+        VoltageMonitor monitor = new VoltageMonitor(() -> {
+            voltageReads++;
+            return 12.5;
+        }, () -> {
+            currentReads++;
+            return 3.25;
+        }, 0.1, 0);
+        monitor.read(); // what the monitor's thread would do
+
+        File file = folder.newFile("hub.log");
+        DataLogger logger = new DataLogger(file, 64, () -> now[0]);
+        logger.addHub("hub", monitor);
+        logger.start();
+        for (int i = 0; i < 20; i++) {
+            logger.commit();
+            now[0] += 10_000_000;
+        }
+        logger.stop();
+
+        assertEquals(1, voltageReads);
+        assertEquals(1, currentReads);
+        String[] lines = decode(file).split("\n");
+        assertEquals("time,loopNanos,hub.voltage,hub.current", lines[0]);
+        assertEquals(21, lines.length);
+        String[] last = lines[20].split(",");
+        assertEquals(12.5, Double.parseDouble(last[2]), 0);
+        assertEquals(3.25, Double.parseDouble(last[3]), 0);
+    }
+
+    @Test
+    public void currentIsNaNWithoutASource() {
+        VoltageMonitor monitor = new VoltageMonitor(() -> 12, 0.1, 0);
+        monitor.read();
+        assertEquals(12, monitor.getVoltage(), 0);
+        assertEquals(Double.NaN, monitor.getCurrent(), 0);
+    }
+
+    @Test
+    public void everyChannelTypeRoundTrips() throws Exception {
+        File file = folder.newFile("types.log");
+        DataLogger logger = new DataLogger(file, 64, () -> now[0]);
+        DataLogger.DoubleChannel power = logger.addDouble("power");
+        DataLogger.IntChannel ticks = logger.addInt("ticks");
+        DataLogger.LongChannel big = logger.addLong("big");
+        DataLogger.BooleanChannel pressed = logger.addBoolean("pressed");
+        int[] count = {0};
+        logger.addDouble("half", () -> count[0] / 2.0);
+        logger.addInt("count", () -> count[0]);
+        logger.addLong("nanos", () -> now[0]);
+        logger.addBoolean("odd", () -> count[0] % 2 == 1);
+        logger.start();
+
+        power.set(-0.75);
+        ticks.set(Integer.MIN_VALUE);
+        big.set(Long.MAX_VALUE);
+        pressed.set(true);
+        logger.commit();
+        now[0] += 20_000_000;
+        count[0]++;
+        power.set(Double.NaN); // the rest stick around from the last record
+        logger.commit();
+        logger.stop();
+
+        String[] lines = decode(file).split("\n");
+        assertEquals("time,loopNanos,power,ticks,big,pressed,half,count,nanos,odd", lines[0]);
+        assertEquals(3, lines.length);
+        assertEquals("0.0,0,-0.75," + Integer.MIN_VALUE + "," + Long.MAX_VALUE + ",true,0.0,0,0,false", lines[1]);
+        assertEquals("0.02,20000000,NaN," + Integer.MIN_VALUE + "," + Long.MAX_VALUE + ",true,0.5,1,20000000,true", lines[2]);
+    }
+
+    @Test
+    public void fullRingDropsRecordsAndCountsThem() throws Exception {
+        File file = folder.newFile("overflow.log");
+        DataLogger logger = new DataLogger(file, 2, () -> now[0]);
+        int[] count = {0};
+        logger.addInt("count", () -> count[0]);
+        logger.commit(); // not started yet, nothing happens
+        assertEquals(0, logger.getRecords());
+        logger.start();
+        // the drain thread only wakes up every 20 ms, far slower than this loop fills two slots
+        for (; count[0] < 10_000; count[0]++)
+            logger.commit();
+        logger.stop();
+
+        assertEquals(10_000, logger.getRecords());
+        assertTrue("nothing dropped", logger.getDropped() > 0);
+        String[] lines = decode(file).split("\n");
+        assertEquals(10_000 - logger.getDropped(), lines.length - 1);
+        int last = -1;
+        for (int i = 1; i < lines.length; i++) { // what got through is in order, the dropped ones are simply missing
+            int value = Integer.parseInt(lines[i].split(",")[2]);
+            assertTrue(value + " came after " + last, value > last);
+            last = value;
+        }
+    }
+
+    @Test
+    public void stopFromAnInterruptedThreadStillWritesEverything() throws Exception {
+        File file = folder.newFile("interrupted.log");
+        DataLogger logger = new DataLogger(file, 4096, () -> now[0]);
+        int[] count = {0};
+        logger.addInt("count", () -> count[0]);
+        logger.start();
+        for (; count[0] < 2000; count[0]++)
+            logger.commit();
+
+        Thread.currentThread().interrupt(); // what the sdk does to a LinearOpMode when stop is pressed
+        try {
+            logger.stop();
+        } finally {
+            assertTrue("interrupt should be put back", Thread.interrupted());
+        }
+        assertEquals(0, logger.getDropped());
+        String[] lines = decode(file).split("\n");
+        assertEquals(2001, lines.length);
+        assertEquals("1999", lines[2000].split(",")[2]);
+    }
+}
@@ -0,0 +1,207 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LynxCommandQueueTest {
+    private LynxCommandQueue queue;
+
+    /**
+     * A hub that NACKs the first few times each command is sent, and writes down everything it took and when
+     */
+    private static class FakeHub {
+        final List<String> taken = Collections.synchronizedList(new ArrayList<>());
+        final List<Long> attempts = Collections.synchronizedList(new ArrayList<>());
+
+        LynxCommandQueue.Sender command(String name, int nacks) {
+            int[] left = {nacks};
+            return () -> {
+                attempts.add(System.nanoTime());
+                if (left[0]-- > 0)
+                    throw new Exception("NACK " + name);
+                taken.add(name);
+            };
+        }
+    }
+
+    private LynxCommandQueue start(int capacity, int attempts, double backoff, double maxBackoff) {
+        queue = new LynxCommandQueue(null, capacity, attempts, backoff, maxBackoff, Clock.SYSTEM).start();
+        return queue;
+    }
+
+    /**
+     * Holds the queue's thread inside a send until released, so commands can pile up behind it
+     */
+    private CountDownLatch block() throws InterruptedException {
+        CountDownLatch inside = new CountDownLatch(1), release = new CountDownLatch(1);
+        queue.submit(null, LynxCommandQueue.Priority.HIGH, () -> {
+            inside.countDown();
+            release.await();
+        });
+        assertTrue(inside.await(2, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void waitUntilIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (queue.getPending() > 0 && System.nanoTime() < deadline)
+            Thread.sleep(1);
+        assertEquals("still waiting", 0, queue.getPending());
+    }
+
+    @After
+    public void tearDown() {
+        if (queue != null)
+            queue.stop();
+    }
+
+    @Test
+    public void nackedCommandIsRetriedUntilTheHubTakesIt() throws InterruptedException {
+        FakeHub hub = new FakeHub();
+        start(8, 5, 0.001, 0.01).submit("led", LynxCommandQueue.Priority.LOW, hub.command("led", 2));
+        waitUntilIdle();
+        assertEquals(Collections.singletonList("led"), hub.taken);
+        assertEquals(3, hub.attempts.size());
+        assertEquals(1, queue.getSent());
+        assertEquals(2, queue.getRetries());
+        assertEquals(0, queue.getFailed());
+    }
+
+    @Test
+    public void commandIsGivenUpOnAfterTheLastAttempt() throws InterruptedException {
+        FakeHub hub = new FakeHub();
+        start(8, 4, 0.001, 0.01).submit("target", LynxCommandQueue.Priority.HIGH, hub.command("target", Integer.MAX_VALUE));
+        waitUntilIdle();
+        assertTrue(hub.taken.isEmpty());
+        assertEquals(4, hub.attempts.size());
+        assertEquals(3, queue.getRetries());
+        assertEquals(1, queue.getFailed());
+        assertEquals(0, queue.getSent());
+    }
+
+    @Test
+    public void backoffDoublesUpToItsLimit() throws InterruptedException {
+        FakeHub hub = new FakeHub();
+        start(8, 6, 0.005, 0.02).submit("mode", LynxCommandQueue.Priority.HIGH, hub.command("mode", 5));
+        waitUntilIdle();
+        assertEquals(6, hub.attempts.size());
+        double[] least = {5, 10, 20, 20, 20}; // milliseconds, never sent early, 40 gets capped to 20
+        for (int i = 0; i < least.length; i++) {
+            double gap = (hub.attempts.get(i + 1) - hub.attempts.get(i)) / 1e6;
+            assertTrue("retry " + (i + 1) + " came after " + gap + " ms", gap >= least[i] - 0.5);
+        }
+    }
+
+    @Test
+    public void newerCommandWithTheSameKeyReplacesTheWaitingOne() throws InterruptedException {
+        FakeHub hub = new FakeHub();
+        start(8, 5, 0.001, 0.01);
+        CountDownLatch release = block();
+        queue.submit("led", LynxCommandQueue.Priority.LOW, hub.command("red", 0));
+        queue.submit("led", LynxCommandQueue.Priority.LOW, hub.command("green", 0));
+        queue.submit("led", LynxCommandQueue.Priority.LOW, hub.command("blue", 0));
+        release.countDown();
+        waitUntilIdle();
+        assertEquals(Collections.singletonList("blue"), hub.taken);
+        assertEquals(2, queue.getSuperseded());
+    }
+
+    @Test
+    public void replacedWhileBeingNackedSendsTheNewOne() throws InterruptedException {
+        start(8, 1, 0.001, 0.01); // one attempt, so only the replacement can save it
+        List<String> taken = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch inside = new CountDownLatch(1), release = new CountDownLatch(1);
+        queue.submit("target", LynxCommandQueue.Priority.HIGH, () -> {
+            inside.countDown();
+            release.await();
+            throw new Exception("NACK old target");
+        });
+        assertTrue(inside.await(2, TimeUnit.SECONDS));
+        queue.submit("target", LynxCommandQueue.Priority.HIGH, () -> taken.add("new target"));
+        release.countDown();
+        waitUntilIdle();
+        assertEquals(Collections.singletonList("new target"), taken);
+        assertEquals(0, queue.getFailed());
+    }
+
+    @Test
+    public void fullQueueRefusesInsteadOfGrowing() throws InterruptedException {
+        FakeHub hub = new FakeHub();
+        start(3, 5, 0.001, 0.01);
+        CountDownLatch release = block(); // takes one of the 3 spots until it is sent
+        assertTrue(queue.submit("a", LynxCommandQueue.Priority.NORMAL, hub.command("a", 0)));
+        assertTrue(queue.submit("b", LynxCommandQueue.Priority.NORMAL, hub.command("b", 0)));
+        assertFalse(queue.submit("c", LynxCommandQueue.Priority.NORMAL, hub.command("c", 0)));
+        assertTrue("replacing doesn't need a spot", queue.submit("a", LynxCommandQueue.Priority.NORMAL, hub.command("a2", 0)));
+        assertEquals(1, queue.getRefused());
+        release.countDown();
+        waitUntilIdle();
+        assertEquals(2, hub.taken.size());
+        assertTrue(hub.taken.contains("a2") && hub.taken.contains("b"));
+    }
+
+    @Test
+    public void higherPriorityGoesFirst() throws InterruptedException {
+        FakeHub hub = new FakeHub();
+        start(8, 5, 0.001, 0.01);
+        CountDownLatch release = block();
+        queue.submit(null, LynxCommandQueue.Priority.LOW, hub.command("low", 0));
+        queue.submit(null, LynxCommandQueue.Priority.NORMAL, hub.command("normal", 0));
+        queue.submit(null, LynxCommandQueue.Priority.HIGH, hub.command("high 1", 0));
+        queue.submit(null, LynxCommandQueue.Priority.HIGH, hub.command("high 2", 0));
+        release.countDown();
+        waitUntilIdle();
+        assertEquals(Arrays.asList("high 1", "high 2", "normal", "low"), hub.taken);
+    }
+
+    @Test
+    public void commandInBackoffDoesntHoldUpTheRest() throws InterruptedException {
+        FakeHub hub = new FakeHub();
+        start(8, 3, 0.2, 0.2);
+        CountDownLatch release = block();
+        queue.submit("target", LynxCommandQueue.Priority.HIGH, hub.command("target", 1));
+        queue.submit("led", LynxCommandQueue.Priority.LOW, hub.command("led", 0));
+        release.countDown();
+        waitUntilIdle();
+        // the target got NACKed and waited 200 ms, the led went out during that wait even though it is lower priority
+        assertEquals(Arrays.asList("led", "target"), hub.taken);
+        assertEquals(1, queue.getRetries());
+    }
+
+    @Test
+    public void restartingLeavesOnlyOneSender() throws InterruptedException {
+        start(8, 5, 0.001, 0.01);
+        Thread[] first = new Thread[1];
+        CountDownLatch inside = new CountDownLatch(1), release = new CountDownLatch(1);
+        queue.submit(null, LynxCommandQueue.Priority.HIGH, () -> {
+            first[0] = Thread.currentThread();
+            inside.countDown();
+            release.await();
+        });
+        assertTrue(inside.await(2, TimeUnit.SECONDS));
+        queue.stop();
+        queue.start(); // while the first thread is still inside its send
+        release.countDown();
+        first[0].join(2000);
+        assertFalse("the first thread kept going after the restart", first[0].isAlive());
+
+        List<Thread> senders = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 5; i++)
+            queue.submit(null, LynxCommandQueue.Priority.NORMAL, () -> senders.add(Thread.currentThread()));
+        waitUntilIdle();
+        assertEquals(5, senders.size());
+        assertTrue(senders.get(0) != first[0] && Collections.frequency(senders, senders.get(0)) == 5);
+    }
+}
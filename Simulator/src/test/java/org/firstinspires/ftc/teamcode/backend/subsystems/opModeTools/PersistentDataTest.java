@@ -0,0 +1,159 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentDataTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File journal(File store) {
+        return new File(store.getPath() + ".journal");
+    }
+
+    private static void waitForCompaction(PersistentData store) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (store.isCompacting() && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertFalse("compaction never finished", store.isCompacting());
+    }
+
+    @Test
+    public void valuesSurviveReopening() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        PersistentData store = new PersistentData(file);
+        store.putDouble("x", 12.5);
+        store.putInt("ticks", -40);
+        store.putLong("time", 1L << 40);
+        store.putBoolean("red", true);
+        store.putString("start", "left");
+        store.putDouble("gone", 1);
+        store.remove("gone");
+        store.close();
+
+        PersistentData reopened = new PersistentData(file);
+        assertEquals(12.5, reopened.getDouble("x", 0), 0);
+        assertEquals(-40, reopened.getInt("ticks", 0));
+        assertEquals(1L << 40, reopened.getLong("time", 0));
+        assertTrue(reopened.getBoolean("red", false));
+        assertEquals("left", reopened.getString("start", null));
+        assertFalse(reopened.contains("gone"));
+        assertNull(reopened.getLastError());
+        reopened.close();
+    }
+
+    @Test
+    public void tornRecordAtTheEndIsDropped() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        PersistentData store = new PersistentData(file);
+        store.putDouble("pose.x", 3);
+        store.sync();
+        try (FileOutputStream out = new FileOutputStream(journal(file), true)) {
+            out.write(new byte[]{0, 6, 'p', 'o', 's', 'e', '.'}); // power went out halfway through the next put
+        }
+
+        PersistentData reopened = new PersistentData(file);
+        assertEquals(3, reopened.getDouble("pose.x", 0), 0);
+        reopened.putDouble("pose.y", 4); // lands after the last good record instead of after the torn one
+        reopened.close();
+        PersistentData again = new PersistentData(file);
+        assertEquals(3, again.getDouble("pose.x", 0), 0);
+        assertEquals(4, again.getDouble("pose.y", 0), 0);
+        again.close();
+    }
+
+    @Test
+    public void compactionHappensInTheBackgroundWithoutLosingPuts() throws Exception {
+        File file = new File(folder.getRoot(), "store");
+        PersistentData store = new PersistentData(file);
+        store.setCompactionSize(1024);
+        // keeps putting while compactions come and go on their own thread
+        for (int i = 0; i < 20_000; i++) {
+            store.putInt("counter", i);
+            store.putDouble("key" + (i % 50), i);
+        }
+        waitForCompaction(store);
+        // without compaction the journal would be about 800 KB by now, whatever came in during the last one is still in it
+        assertTrue(file.exists());
+        assertTrue(journal(file).length() < 400 * 1024);
+
+        store.putInt("counter", 20_000); // over the limit, so this starts one more
+        waitForCompaction(store);
+        assertTrue(journal(file).length() < 1024 + 64);
+        assertNull(store.getLastError());
+        assertEquals(20_000, store.getInt("counter", -1));
+
+        // drop it without closing, like the power going out, everything has to come back from the snapshot and journal
+        store.sync();
+        PersistentData reopened = new PersistentData(file);
+        assertEquals(20_000, reopened.getInt("counter", -1));
+        for (int k = 0; k < 50; k++)
+            assertEquals(19_950 + k, reopened.getDouble("key" + k, -1), 0);
+        reopened.close();
+    }
+
+    @Test
+    public void bigJournalIsCompactedWhenOpened() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        PersistentData store = new PersistentData(file);
+        store.setCompactionSize(1L << 30); // never on its own
+        for (int i = 0; i < 20_000; i++)
+            store.putInt("counter", i);
+        store.sync();
+        assertTrue(journal(file).length() > 256 * 1024);
+
+        PersistentData reopened = new PersistentData(file);
+        assertTrue(journal(file).length() < 1024);
+        assertEquals(19_999, reopened.getInt("counter", -1));
+        reopened.close();
+    }
+
+    @Test
+    public void failedCompactionIsReportedInsteadOfThrown() throws Exception {
+        File dir = folder.newFolder("gone");
+        File file = new File(dir, "store");
+        PersistentData store = new PersistentData(file);
+        store.setCompactionSize(1024);
+        // the open journal keeps working, but there is nowhere left to write a snapshot
+        assertTrue(journal(file).delete());
+        assertTrue(dir.delete());
+
+        for (int i = 0; i < 200; i++)
+            store.putInt("counter", i);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (store.getLastError() == null && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertNotNull(store.getLastError());
+        assertTrue(store.getErrorCount() > 0);
+        assertEquals(199, store.getInt("counter", -1));
+    }
+
+    @Test
+    public void poseRoundTrip() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        PersistentData store = new PersistentData(file);
+        PoseEstimator pose = new PoseEstimator(100, new MecanumKinematics());
+        assertFalse(store.loadPose(pose));
+        pose.setPose(10, -5, 1.25);
+        store.savePose(pose);
+
+        PoseEstimator loaded = new PoseEstimator(100, new MecanumKinematics());
+        assertTrue(store.loadPose(loaded));
+        assertEquals(10, loaded.getX(), 0);
+        assertEquals(-5, loaded.getY(), 0);
+        assertEquals(1.25, loaded.getHeading(), 0);
+        store.close();
+    }
+}
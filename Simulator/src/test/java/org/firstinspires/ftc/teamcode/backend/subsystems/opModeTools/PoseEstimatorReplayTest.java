@@ -0,0 +1,133 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.backend.simulation.MecanumChassisModel;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimTelemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.simulation.WinterBreakSimulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.Imu;
+import org.firstinspires.ftc.teamcode.opmodes.winterBreak.Constants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the simulated winter break robot around while a {@link DataLogger} records the drive encoders and the imu like
+ * it would on the robot, then decodes the log and replays it through a {@link PoseEstimator} with no hardware.
+ * The replayed pose has to land where the chassis model really is
+ */
+public class PoseEstimatorReplayTest {
+    private static final double METERS_PER_INCH = 0.0254;
+    private static final String[] WHEELS = {"frontLeft", "frontRight", "backLeft", "backRight"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Forward, left and turn power for the route at a time, a bit of everything including a turn past 180 degrees
+     */
+    private static void route(double time, double[] drive) {
+        Arrays.fill(drive, 0);
+        if (time < 1.5) {
+            drive[0] = 0.6;
+        } else if (time < 3) {
+            drive[1] = 0.5;
+        } else if (time < 5.5) {
+            drive[0] = 0.5;
+            drive[2] = 0.35;
+        } else if (time < 8) {
+            drive[2] = -0.7;
+        } else if (time < 9.5) {
+            drive[0] = -0.4;
+            drive[1] = 0.4;
+            drive[2] = 0.2;
+        }
+    }
+
+    private File record(Simulation simulation, double seconds) throws Exception {
+        DcMotorEx[] motors = new DcMotorEx[4];
+        for (int i = 0; i < 4; i++) {
+            motors[i] = simulation.getHardwareMap().get(DcMotorEx.class, WHEELS[i]);
+            motors[i].setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        }
+        motors[MecanumKinematics.FRONT_LEFT].setDirection(Constants.BRFLDrivetrainDirection);
+        motors[MecanumKinematics.FRONT_RIGHT].setDirection(Constants.BLFRDrivetrainDirection);
+        motors[MecanumKinematics.BACK_LEFT].setDirection(Constants.BLFRDrivetrainDirection);
+        motors[MecanumKinematics.BACK_RIGHT].setDirection(Constants.BRFLDrivetrainDirection);
+        Imu imu = new Imu("imu", simulation.getHardwareMap(), Constants.hubLogoDirection, Constants.hubUsbDirection, SimTelemetry.create(null));
+
+        File file = folder.newFile("drive.log");
+        DataLogger logger = new DataLogger(file, 4096, simulation.getClock());
+        for (int i = 0; i < 4; i++)
+            logger.addInt(WHEELS[i], motors[i]::getCurrentPosition);
+        logger.addHeading("heading", imu);
+        logger.start();
+
+        MecanumKinematics kinematics = new MecanumKinematics();
+        double[] drive = new double[3], wheels = new double[4];
+        while (simulation.getTime() < seconds) {
+            logger.commit();
+            route(simulation.getTime(), drive);
+            kinematics.toWheelSpeeds(drive[0], drive[1], drive[2], wheels);
+            MecanumKinematics.desaturate(wheels, 1);
+            for (int i = 0; i < 4; i++)
+                motors[i].setPower(wheels[i]);
+        }
+        logger.commit();
+        logger.stop();
+        assertEquals(0, logger.getDropped());
+        return file;
+    }
+
+    @Test
+    public void replayedLogEndsWhereTheRobotDid() throws Exception {
+        Simulation simulation = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        File log = record(simulation, 11);
+        MecanumChassisModel chassis = simulation.getChassis();
+
+        StringWriter csv = new StringWriter();
+        long records;
+        try (InputStream in = new FileInputStream(log)) {
+            records = LogDecoder.decode(in, csv);
+        }
+        List<String> lines = Arrays.asList(csv.toString().split("\n"));
+        assertEquals(records + 1, lines.size());
+        assertTrue("only " + records + " records", records > 200);
+        assertEquals("time,loopNanos,frontLeft,frontRight,backLeft,backRight,heading", lines.get(0));
+
+        // the default chassis: 96 mm wheels, 0.36 m track width, 0.30 m wheelbase and no roller slip
+        double ticksPerInch = simulation.motor("frontLeft").getMotorType().getTicksPerRev() / (2 * Math.PI * 0.048 / METERS_PER_INCH);
+        PoseEstimator pose = new PoseEstimator(ticksPerInch, new MecanumKinematics(0.36 / METERS_PER_INCH, 0.30 / METERS_PER_INCH, 1));
+        double lowest = 0, highest = 0;
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            double heading = Double.parseDouble(fields[6]);
+            lowest = Math.min(lowest, heading);
+            highest = Math.max(highest, heading);
+            pose.update(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4]),
+                    Integer.parseInt(fields[5]), Math.toRadians(heading));
+        }
+
+        assertTrue("the route should go somewhere, chassis at " + chassis.getX() + ", " + chassis.getY(),
+                Math.hypot(chassis.getX(), chassis.getY()) > 24);
+        assertTrue("the route should swing the heading through more than 180 degrees", highest - lowest > 180);
+        // the robot was already stopped at the last commit, so the log ends where the chassis is
+        assertEquals(chassis.getX(), pose.getX(), 0.5);
+        assertEquals(chassis.getY(), pose.getY(), 0.5);
+        assertEquals(0, Math.toDegrees(Angles.wrapRadians(chassis.getHeading() - pose.getHeading())), 0.5);
+    }
+}
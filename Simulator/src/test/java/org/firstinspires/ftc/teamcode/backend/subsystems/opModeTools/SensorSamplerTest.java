@@ -0,0 +1,192 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.ControlLoop;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimImu;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimTelemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.MotorTypeRegistry;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.UpdatedIMU;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SensorSamplerTest {
+    @After
+    public void tearDown() {
+        BulkCache.reset();
+    }
+
+    /**
+     * Every fake sensor reads the number of the pass it is in, so a snapshot with two different numbers in it is mixed
+     */
+    private static class Passes {
+        long pass = 0;
+
+        double next() {
+            return ++pass;
+        }
+
+        double current() {
+            return pass;
+        }
+    }
+
+    private static SensorSampler sampler(Passes passes) {
+        return new SensorSampler(new ControlLoop(0.01), () -> 0)
+                .addImu(passes::next, passes::current, passes::current)
+                .addDistanceSensor(passes::current)
+                .addColorSensor(passes::current, passes::current, passes::current)
+                .addEncoders(() -> (int) passes.pass, () -> (int) passes.pass);
+    }
+
+    private static String mixed(SensorSampler.Snapshot snapshot) {
+        double pass = snapshot.getSequence();
+        if (snapshot.getHeading() != pass || snapshot.getAccelerationX() != pass || snapshot.getAccelerationY() != pass
+                || snapshot.getDistance() != pass || snapshot.getRed() != pass || snapshot.getGreen() != pass
+                || snapshot.getBlue() != pass || snapshot.getTicks(0) != pass || snapshot.getTicks(1) != pass)
+            return "pass " + snapshot.getSequence() + " has heading " + snapshot.getHeading() + ", distance "
+                    + snapshot.getDistance() + ", ticks " + snapshot.getTicks(0) + " and " + snapshot.getTicks(1);
+        return null;
+    }
+
+    @Test
+    public void emptyBeforeTheFirstPass() {
+        SensorSampler sampler = sampler(new Passes());
+        assertSame(SensorSampler.Snapshot.EMPTY, sampler.getSnapshot());
+        assertTrue(Double.isNaN(sampler.getSnapshot().getHeading()));
+    }
+
+    @Test
+    public void samplingOnTheCallingThread() {
+        SensorSampler sampler = sampler(new Passes());
+        sampler.sample();
+        sampler.sample();
+        SensorSampler.Snapshot snapshot = sampler.getSnapshot();
+        assertEquals(2, snapshot.getSequence());
+        assertEquals(2, snapshot.getEncoderCount());
+        assertNull(mixed(snapshot));
+    }
+
+    @Test
+    public void readersNeverSeeAMixedSnapshot() throws InterruptedException {
+        SensorSampler sampler = sampler(new Passes());
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        AtomicReference<String> mixed = new AtomicReference<>();
+
+        // sample() straight from a plain thread as fast as it goes instead of paced by the loop, to race the readers as hard as possible
+        Thread writer = new Thread(() -> {
+            while (running.get())
+                sampler.sample();
+        });
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                long count = 0, last = 0;
+                try {
+                    while (running.get()) {
+                        SensorSampler.Snapshot snapshot = sampler.getSnapshot();
+                        count++;
+                        if (snapshot == SensorSampler.Snapshot.EMPTY)
+                            continue; // the writer hasn't done a pass yet
+                        String problem = mixed(snapshot);
+                        if (problem == null && snapshot.getSequence() < last)
+                            problem = "went back from pass " + last + " to " + snapshot.getSequence();
+                        if (problem != null)
+                            mixed.compareAndSet(null, problem);
+                        last = snapshot.getSequence();
+                    }
+                } catch (RuntimeException e) {
+                    mixed.compareAndSet(null, e.toString());
+                }
+                reads.addAndGet(count);
+            });
+        }
+
+        writer.start();
+        for (Thread reader : readers)
+            reader.start();
+        Thread.sleep(500);
+        running.set(false);
+        writer.join();
+        for (Thread reader : readers)
+            reader.join();
+
+        assertNull(mixed.get(), mixed.get());
+        assertTrue("only " + sampler.getSnapshot().getSequence() + " passes", sampler.getSnapshot().getSequence() > 1000);
+        assertTrue("only " + reads.get() + " reads", reads.get() > 1000);
+    }
+
+    @Test
+    public void backgroundThreadStartsAndStops() throws InterruptedException {
+        SensorSampler sampler = sampler(new Passes());
+        sampler.start();
+        assertTrue(sampler.isRunning());
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (sampler.getSnapshot().getSequence() < 5 && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        sampler.stop();
+        long sequence = sampler.getSnapshot().getSequence();
+        assertTrue("only " + sequence + " passes", sequence >= 5);
+        Thread.sleep(50);
+        assertEquals(sequence, sampler.getSnapshot().getSequence());
+        assertNull(mixed(sampler.getSnapshot()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cantAddSensorsWhileRunning() {
+        SensorSampler sampler = sampler(new Passes());
+        sampler.start();
+        try {
+            sampler.addDistanceSensor(() -> 0);
+        } finally {
+            sampler.stop();
+        }
+    }
+
+    @Test
+    public void manualHubGetsClearedEveryPass() {
+        Simulation simulation = new Simulation(() -> 0);
+        simulation.addMotor("lift", MotorTypeRegistry.MotorType.YELLOW_JACKET_19_2_MOTOR);
+        simulation.addHub("Control Hub", "lift");
+        BulkCache.init(simulation.getHardwareMap(), LynxModule.BulkCachingMode.MANUAL);
+        DcMotorEx motor = simulation.getHardwareMap().get(DcMotorEx.class, "lift");
+        SensorSampler sampler = new SensorSampler(new ControlLoop(0.01), () -> 0).addEncoders(motor::getCurrentPosition);
+
+        sampler.sample();
+        assertEquals(0, sampler.getSnapshot().getTicks(0));
+        simulation.motor("lift").setCurrentPosition(500);
+        sampler.sample(); // nobody else clears the cache
+        assertEquals(500, sampler.getSnapshot().getTicks(0));
+    }
+
+    @Test
+    public void mainThreadImuReadsDontMoveTheSampledHeading() {
+        Simulation simulation = new Simulation(() -> 0);
+        SimImu simImu = simulation.addImu("imu");
+        UpdatedIMU imu = new UpdatedIMU("imu", simulation.getHardwareMap(), SimTelemetry.create(null));
+        SensorSampler sampler = new SensorSampler(new ControlLoop(0.01), () -> 0).addImu(imu);
+
+        simImu.setHeading(Math.toRadians(170));
+        sampler.sample();
+        imu.getAngle();
+        imu.resetAngle(); // the main thread is free to use the imu however it wants
+        simImu.setHeading(Math.toRadians(-170));
+        imu.getAngle();
+        sampler.sample();
+
+        assertEquals(190, Math.toDegrees(sampler.getSnapshot().getHeading()), 1e-3);
+        assertEquals(20, imu.getAngle(), 1e-3);
+    }
+}
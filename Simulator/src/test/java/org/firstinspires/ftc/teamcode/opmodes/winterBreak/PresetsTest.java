@@ -0,0 +1,164 @@
+package org.firstinspires.ftc.teamcode.opmodes.winterBreak;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.Servo;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.superstructure.Superstructure;
+import org.firstinspires.ftc.teamcode.backend.simulation.SimTelemetry;
+import org.firstinspires.ftc.teamcode.backend.simulation.Simulation;
+import org.firstinspires.ftc.teamcode.backend.simulation.WinterBreakSimulation;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.SynchronizedMotorPair;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the winterBreak presets on the simulated lift and elbow the way TeleOp sets them up, and checks that the arm
+ * never swings out while the lift is low and that overlapping the joints actually saves time over moving one at a time
+ */
+public class PresetsTest {
+    private double elbowAfterLift, liftAfterElbow, wristAfterElbow;
+    private Simulation simulation;
+    private Motor elbow;
+    private SynchronizedMotorPair lift;
+    private Superstructure<Constants.RobotPositions> superstructure;
+
+    @Before
+    public void setUp() {
+        elbowAfterLift = Presets.elbowAfterLift;
+        liftAfterElbow = Presets.liftAfterElbow;
+        wristAfterElbow = Presets.wristAfterElbow;
+    }
+
+    @After
+    public void tearDown() {
+        Presets.elbowAfterLift = elbowAfterLift;
+        Presets.liftAfterElbow = liftAfterElbow;
+        Presets.wristAfterElbow = wristAfterElbow;
+        BulkCache.reset();
+    }
+
+    /**
+     * A fresh robot with the lift and elbow set up like TeleOp does, with the presets built from whatever Presets says now
+     */
+    private void build() {
+        simulation = WinterBreakSimulation.build(Simulation.lockStep(0.002));
+        HardwareMap hardwareMap = simulation.getHardwareMap();
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.MANUAL); // like TeleOp, a loop clears it before reading
+        Telemetry telemetry = SimTelemetry.create(null);
+        elbow = runToPosition(new Motor("elbow", hardwareMap, Constants.elbowDirection, telemetry));
+        lift = Presets.lift(new Motor("liftChain", hardwareMap, Constants.liftChainDirection, telemetry),
+                new Motor("liftRope", hardwareMap, Constants.liftRopeDirection, telemetry), telemetry);
+        lift.setTarget(0);
+        superstructure = Presets.build(lift, elbow, hardwareMap.get(Servo.class, "wrist"), hardwareMap.get(Servo.class, "fingers"));
+        superstructure.setState(Constants.RobotPositions.INITIAL);
+    }
+
+    private static Motor runToPosition(Motor motor) {
+        motor.setTargetPosition(0);
+        motor.runToPosition();
+        motor.setPower(1);
+        return motor;
+    }
+
+    /**
+     * Moves to a state and returns how long it took, failing if the elbow is ever more than half out while the lift is
+     * under half of the low basket height
+     */
+    private double moveTo(Constants.RobotPositions state) {
+        double start = simulation.getTime();
+        superstructure.setGoal(state);
+        while (superstructure.isBusy()) {
+            assertTrue("still moving after 10 s", simulation.getTime() - start < 10);
+            BulkCache.clearCache();
+            superstructure.update();
+            lift.update();
+            checkElbowIsSafe();
+        }
+        assertEquals(state, superstructure.getState());
+        return simulation.getTime() - start;
+    }
+
+    private void checkElbowIsSafe() {
+        double height = lift.getPosition(), arm = elbow.getPosition();
+        assertFalse("elbow at " + arm + " with the lift at " + height,
+                arm > Constants.elbowExtend / 2 && height < Constants.liftLowBasket / 2);
+    }
+
+    @Test
+    public void groundToBasketAndBackEndsOnTheSetpoints() {
+        build();
+        moveTo(Constants.RobotPositions.LOW_BASKET);
+        assertEquals(Constants.liftLowBasket, lift.getPosition(), Presets.liftTolerance);
+        assertEquals(Constants.elbowExtend, elbow.getPosition(), Presets.elbowTolerance);
+        moveTo(Constants.RobotPositions.GROUND);
+        assertEquals(Constants.liftDown, lift.getPosition(), Presets.liftTolerance);
+        assertEquals(Constants.elbowRetract, elbow.getPosition(), Presets.elbowTolerance);
+    }
+
+    @Test
+    public void bothLiftSidesStayTogetherWhenTheRopeDrags() {
+        build();
+        simulation.motor("liftRope").setLoad(0.25);
+        moveTo(Constants.RobotPositions.LOW_BASKET);
+        assertEquals(Constants.liftLowBasket, lift.getPosition(), Presets.liftTolerance);
+        moveTo(Constants.RobotPositions.GROUND);
+        assertEquals(Constants.liftDown, lift.getPosition(), Presets.liftTolerance);
+        // the rope side is sent 5% further and the sync loop keeps it there instead of letting it fall behind
+        assertEquals(0, lift.getRackingEvents());
+        assertTrue("rms " + lift.getRmsDivergence(), lift.getRmsDivergence() < 20);
+    }
+
+    @Test
+    public void overlappingIsFasterThanOneJointAtATime() {
+        build();
+        double up = moveTo(Constants.RobotPositions.LOW_BASKET), down = moveTo(Constants.RobotPositions.GROUND);
+
+        // each joint waits for the one before it to finish
+        Presets.elbowAfterLift = Presets.liftAfterElbow = Presets.wristAfterElbow = 1;
+        build();
+        double upInOrder = moveTo(Constants.RobotPositions.LOW_BASKET), downInOrder = moveTo(Constants.RobotPositions.GROUND);
+
+        assertTrue("up took " + up + " s against " + upInOrder + " s one at a time", up < 0.9 * upInOrder);
+        assertTrue("down took " + down + " s against " + downInOrder + " s one at a time", down < 0.9 * downInOrder);
+    }
+
+    @Test
+    public void changingTheGoalHalfwayUpComesBackDownSafely() {
+        build();
+        superstructure.setGoal(Constants.RobotPositions.LOW_BASKET);
+        while (elbow.getPosition() < Constants.elbowExtend / 4) { // the elbow has started swinging out
+            assertTrue("elbow never started", simulation.getTime() < 10);
+            BulkCache.clearCache();
+            superstructure.update();
+            lift.update();
+            checkElbowIsSafe();
+        }
+        moveTo(Constants.RobotPositions.GROUND);
+        assertEquals(Constants.liftDown, lift.getPosition(), Presets.liftTolerance);
+        assertEquals(Constants.elbowRetract, elbow.getPosition(), Presets.elbowTolerance);
+    }
+
+    @Test
+    public void stoppingLeavesTheStateWhereItWas() {
+        build();
+        superstructure.setGoal(Constants.RobotPositions.LOW_BASKET);
+        for (int i = 0; i < 50; i++) {
+            BulkCache.clearCache();
+            superstructure.update();
+            lift.update();
+        }
+        superstructure.stop();
+        assertFalse(superstructure.isBusy());
+        assertEquals(Constants.RobotPositions.INITIAL, superstructure.getState());
+        assertEquals(Constants.RobotPositions.INITIAL, superstructure.getGoal());
+    }
+}
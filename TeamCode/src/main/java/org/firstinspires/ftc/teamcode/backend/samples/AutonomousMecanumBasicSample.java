@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.backend.samples;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
@@ -9,6 +10,7 @@ import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains.Mecanum;
 import org.firstinspires.ftc.teamcode.backend.subsystems.interfaces.DrivetrainHolonomic;
 import org.firstinspires.ftc.teamcode.backend.subsystems.interfaces.DrivetrainMotorControls;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 @Disabled
 @Autonomous
@@ -16,6 +18,8 @@ public class AutonomousMecanumBasicSample extends LinearOpMode {
     public static Motor frontLeft, frontRight, backLeft, backRight;
 
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
+
         // declare motors
         frontLeft = new Motor("frontLeft", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry);
         frontRight = new Motor("frontRight", hardwareMap, telemetry);
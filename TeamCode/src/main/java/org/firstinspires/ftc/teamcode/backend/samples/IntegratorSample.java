@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.backend.samples;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
@@ -8,6 +9,7 @@ import com.qualcomm.robotcore.util.ElapsedTime;
 import org.firstinspires.ftc.robotcore.external.navigation.Acceleration;
 import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.Integrator;
 import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.UpdatedIMU;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 @Disabled
 @TeleOp
@@ -19,6 +21,8 @@ public class IntegratorSample extends LinearOpMode {
 
     @Override
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
+
         imu = new UpdatedIMU("imu", hardwareMap, telemetry);
 
         integratorThread = new Thread(() -> {
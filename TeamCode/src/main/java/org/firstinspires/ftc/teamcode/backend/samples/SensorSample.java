@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.backend.samples;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
@@ -12,6 +13,7 @@ import org.firstinspires.ftc.teamcode.backend.subsystems.interfaces.DrivetrainMo
 import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.ColorSensor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.DistanceSensor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.TouchSensor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 /**
  * TeleOp code to test sensors, will be updated as more sensors get added, uses mecanum drive
@@ -25,6 +27,8 @@ public class SensorSample extends LinearOpMode {
     private static TouchSensor touchSensor;
 
     public void runOpMode(){
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
+
         // declare motors
         frontLeft = new Motor("frontLeft", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry);
         frontRight = new Motor("frontRight", hardwareMap, telemetry);
@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.backend.samples;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
@@ -7,6 +8,7 @@ import com.qualcomm.robotcore.hardware.DcMotorSimple;
 
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains.HDrive;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 /**
  * TeleOp code to test hdrive
@@ -17,6 +19,8 @@ public class TeleOpHDriveSample extends LinearOpMode {
     public static Motor frontLeft, frontRight, backLeft, backRight, midshift;
 
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
+
         // declare motors
         frontLeft = new Motor("frontLeft", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry);
         frontRight = new Motor("frontRight", hardwareMap, telemetry);
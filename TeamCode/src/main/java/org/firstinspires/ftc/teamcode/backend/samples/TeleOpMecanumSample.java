@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.backend.samples;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
@@ -10,6 +11,7 @@ import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains.Mecanum;
 import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.Imu;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 /**
  * TeleOp code to test mecanum drive
@@ -22,6 +24,8 @@ public class TeleOpMecanumSample extends LinearOpMode {
     private boolean robotOriented = true, fast = true;
 
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
+
         // declare motors
         frontLeft = new Motor("frontLeft", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry);
         frontRight = new Motor("frontRight", hardwareMap, telemetry);
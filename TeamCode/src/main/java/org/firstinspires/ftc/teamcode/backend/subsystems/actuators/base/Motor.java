@@ -9,16 +9,33 @@ import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.PIDFController;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.Encoder;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.Joint;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PowerBudget;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.VoltageMonitor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.WriteCache;
 
 /**
  * A class representing a motor and providing methods for controlling and interacting with it.
  * This class extends the functionality of {@link DcMotorEx} to simplify the use of motors
  */
-public class Motor extends subsystem implements Comparable<Motor> {
+public class Motor extends subsystem implements Comparable<Motor>, Encoder, Joint {
     private DcMotorEx motor;
     private String name;
     private Integer globalTicks, tolerance, targetPosition;
+    private double power, sentPower = 0, unscaledPower = 0;
+    private VoltageMonitor voltageMonitor = null;
+    private PowerBudget powerBudget = null;
+    private PowerBudget.Share budgetShare = null;
+    private DcMotor.RunMode mode;
+    private Integer sentTargetPosition;
+    private PIDFController controller = null;
+    private boolean controlling = false; // running to position through our controller instead of the hub's
+    private double maxPower = 1, targetVelocity = 0, targetAcceleration = 0;
     private final LynxModule lynxModule;
     private final int motorPort;
 
@@ -49,10 +66,16 @@ public class Motor extends subsystem implements Comparable<Motor> {
         motor.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
         motor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
         this.name = name;
-        lynxModule = (LynxModule) motor.getController();
+        // the controller is only a LynxModule on some sdk versions, so dont trust the cast
+        lynxModule = motor.getController() instanceof LynxModule ? (LynxModule) motor.getController() : null;
         motorPort = motor.getPortNumber();
         tolerance = 10;
         targetPosition = null;
+        globalTicks = 0;
+        power = 0;
+        mode = DcMotor.RunMode.RUN_USING_ENCODER;
+        sentTargetPosition = null;
+        BulkCache.register(hwMap); // every read from here on goes through the hub's bulk cache
     }
 
     /**
@@ -66,85 +89,133 @@ public class Motor extends subsystem implements Comparable<Motor> {
 
     /**
      * Sets the power of the motor
+     * The write is skipped if the power changed by less than {@link WriteCache#getPowerEpsilon()}, unless we are stopping the motor
+     * While running to position with a controller this sets the most power the controller is allowed to use
      *
      * @param power The power of the motor, between -1.0 and 1.0
      */
     public void setPower(double power) {
-        motor.setPower(power);
+        if (controlling) { // the controller picks the power, this just caps it like RUN_TO_POSITION does
+            maxPower = Math.abs(power);
+            return;
+        }
+        writePower(power);
+    }
+
+    private void writePower(double power) {
+        double output = voltageMonitor == null ? power : power * voltageMonitor.getCompensation();
+        send(power, Math.max(-1, Math.min(1, output)));
+    }
+
+    /**
+     * Sends power to the hub unless it is close enough to what was sent last
+     *
+     * @param requested What the caller asked for, what {@link #getPower()} returns
+     * @param output    What goes to the hub after voltage compensation, before the power budget cuts it back
+     */
+    private void send(double requested, double output) {
+        this.power = requested;
+        unscaledPower = output;
+        if (budgetShare != null)
+            output *= budgetShare.getScale();
+        if (Math.abs(output - sentPower) < WriteCache.getPowerEpsilon() && (output != 0 || sentPower == 0)) {
+            WriteCache.countWrite(false);
+            return;
+        }
+        sentPower = output;
+        motor.setPower(output);
+        WriteCache.countWrite(true);
     }
 
     /**
-     * Sets a target position for the motor in encoder ticks
+     * Sets a target position for the motor in encoder ticks, relative to the last {@link #stopAndReset()}
      *
      * @param targetPosition The target position in ticks
      */
     public void setTargetPosition(int targetPosition) {
         this.targetPosition = targetPosition + globalTicks;
-        motor.setTargetPosition(targetPosition);
-//        while (true) {
-//            try {
-//                new LynxSetMotorTargetPositionCommand(lynxModule, motorPort, this.targetPosition, tolerance).send();
-//                break;
-//            } catch (Exception e) {
-//
-//            }
-//        }
+        if (controlling)
+            return; // the hub isn't the one chasing it
+        if (sentTargetPosition != null && sentTargetPosition.equals(this.targetPosition)) {
+            WriteCache.countWrite(false);
+            return;
+        }
+        sentTargetPosition = this.targetPosition;
+        motor.setTargetPosition(this.targetPosition);
+        WriteCache.countWrite(true);
+    }
+
+    /**
+     * Sets a target position rounded to the nearest tick, so a {@link Motor} can be a joint in a {@code Superstructure}
+     * This only sets the target, call {@link #runToPosition()} once at init so the motor chases it
+     *
+     * @param target The target position in ticks
+     */
+    @Override
+    public void setTarget(double target) {
+        setTargetPosition((int) Math.round(target));
     }
 
     /**
      * Sets the motor to run to the target position
+     * If a controller was given with {@link #useController(PIDFController)} the control hub runs the loop and {@link #update()} has to be called every loop
      *
      * @throws TargetPositionNotSetException If the target position is not set before calling this method
      */
     public void runToPosition() throws TargetPositionNotSetException {
-        motor.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-//        if (this.targetPosition == null)
-//            throw new TargetPositionNotSetException();
-//        while (true) {
-//            try {
-//                new LynxSetMotorChannelModeCommand(lynxModule, motorPort, DcMotor.RunMode.RUN_TO_POSITION, DcMotor.ZeroPowerBehavior.BRAKE).send();
-//                break;
-//            } catch (Exception e) {
-//
-//            }
-//        }
+        if (controller != null) {
+            if (!controlling) {
+                setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER); // raw power, the encoder still counts
+                controller.reset();
+                maxPower = Math.abs(power);
+                controlling = true;
+            }
+            return;
+        }
+        if (targetPosition != null && !targetPosition.equals(sentTargetPosition)) { // target moved while our controller had it
+            sentTargetPosition = targetPosition;
+            motor.setTargetPosition(targetPosition);
+            WriteCache.countWrite(true);
+        }
+        setMode(DcMotor.RunMode.RUN_TO_POSITION);
+    }
+
+    /**
+     * Changes the run mode of the motor, nothing is sent if the motor is already in that mode
+     *
+     * @param mode The {@link DcMotor.RunMode} to switch to
+     */
+    private void setMode(DcMotor.RunMode mode) {
+        if (this.mode == mode) {
+            WriteCache.countWrite(false);
+            return;
+        }
+        this.mode = mode;
+        motor.setMode(mode);
+        WriteCache.countWrite(true);
     }
 
     /**
      * Resets the motor's encoder and sets the global ticks
      */
     public void stopAndReset() {
-        globalTicks = getCurrentPosition();
+        globalTicks = motor.getCurrentPosition(); // raw ticks, we never actually reset the hub's encoder
     }
 
     /**
      * Sets the motor to run without using encoders
      */
     public void runWithoutEncoder() {
-        motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-//        while (true) {
-//            try {
-//                new LynxSetMotorChannelModeCommand(lynxModule, motorPort, DcMotor.RunMode.RUN_WITHOUT_ENCODER, DcMotor.ZeroPowerBehavior.BRAKE).send();
-//                break;
-//            } catch (Exception e) {
-//
-//            }
-//        }
+        controlling = false;
+        setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
     }
 
     /**
      * Sets the motor to run using the encoders
      */
     public void runUsingEncoder() {
-        motor.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-//        while (true) {
-//            try {
-//                new LynxSetMotorChannelModeCommand(lynxModule, motorPort, DcMotor.RunMode.RUN_USING_ENCODER, DcMotor.ZeroPowerBehavior.BRAKE);
-//                break;
-//            } catch (Exception e) {
-//
-//            }
-//        }
+        controlling = false;
+        setMode(DcMotor.RunMode.RUN_USING_ENCODER);
     }
 
     /**
@@ -153,52 +224,169 @@ public class Motor extends subsystem implements Comparable<Motor> {
      * @param ticks The number of encoder ticks within which the motor is considered to have reached its target
      */
     public void setTolerance(int ticks) {
-//        this.tolerance = ticks;
+        this.tolerance = ticks;
         motor.setTargetPositionTolerance(ticks);
     }
 
     /**
-     * Returns whether the motor is busy (still moving to its target position)
+     * Returns whether the motor is busy (still moving to its target position), served from the hub's bulk cache
      *
      * @return {@code true} if the motor is busy, {@code false} otherwise
      */
     public boolean isBusy() {
-//        return Math.abs(GCP() - GTP()) > this.tolerance;
+        if (controlling)
+            return Math.abs(getTargetPosition() - getCurrentPosition()) > this.tolerance;
         return motor.isBusy();
     }
 
     /**
-     * Returns the current position of the motor in encoder ticks
+     * Returns the current position of the motor in encoder ticks relative to the last {@link #stopAndReset()}, served from the hub's bulk cache
      *
      * @return The current position of the motor in ticks
      */
     public int getCurrentPosition() {
+        return motor.getCurrentPosition() - globalTicks;
+    }
+
+    /**
+     * Returns the same thing as {@link #getCurrentPosition()}, for the {@link Joint} side of this motor
+     *
+     * @return The current position of the motor in ticks
+     */
+    @Override
+    public double getPosition() {
+        return getCurrentPosition();
+    }
+
+    /**
+     * Returns the position of the encoder as the hub sees it, ignoring {@link #stopAndReset()}, served from the hub's bulk cache
+     *
+     * @return The raw position of the motor in ticks
+     */
+    @Override
+    public int getRawPosition() {
         return motor.getCurrentPosition();
-//        while (true) {
-//            try {
-//                return new LynxGetMotorEncoderPositionCommand(lynxModule, motorPort).sendReceive().getPosition() - globalTicks;
-//            } catch (Exception e) {
-//
-//            }
-//        }
     }
 
     /**
-     * Returns the target position of the motor in encoder ticks
+     * Returns the target position of the motor in encoder ticks relative to the last {@link #stopAndReset()}
      *
      * @return The target position of the motor in ticks
      */
     public int getTargetPosition() {
-        return this.targetPosition;
+        return this.targetPosition - globalTicks;
     }
 
     /**
-     * Returns the current power of the motor
+     * Returns the velocity of the motor in ticks per second, served from the hub's bulk cache
+     *
+     * @return The velocity of the motor in ticks per second
+     */
+    public double getVelocity() {
+        return motor.getVelocity();
+    }
+
+    /**
+     * Returns the last power given to the motor, before voltage compensation
+     * Power isn't part of the bulk read, so we remember what we sent instead of asking the hub every time
      *
      * @return The power of the motor as a double between -1.0 and 1.0
      */
     public double getPower() {
-        return motor.getPower();
+        return power;
+    }
+
+    /**
+     * Runs position control on the control hub with this controller instead of the hub's built in RUN_TO_POSITION,
+     * takes effect the next time {@link #runToPosition()} is called
+     *
+     * @param controller The {@link PIDFController} to use, or null to go back to the hub's
+     */
+    public void useController(PIDFController controller) {
+        this.controller = controller;
+        if (controller == null)
+            controlling = false;
+    }
+
+    /**
+     * Gives the controller the velocity and acceleration the motor should have right now, for the feedforward terms
+     *
+     * @param velocity     Target velocity in ticks per second
+     * @param acceleration Target acceleration in ticks per second squared
+     */
+    public void setTargetMotion(double velocity, double acceleration) {
+        this.targetVelocity = velocity;
+        this.targetAcceleration = acceleration;
+    }
+
+    /**
+     * Runs one step of the controller and sends the power, does nothing unless running to position with a controller
+     * Call once per loop after the bulk cache is cleared
+     */
+    public void update() {
+        if (!controlling || targetPosition == null)
+            return;
+        double output = controller.calculate(getCurrentPosition(), getVelocity(), getTargetPosition(), targetVelocity, targetAcceleration);
+        if (controller.isVolts()) // already knows what it wants to apply, only needs the battery voltage to get there
+            setVoltage(output, maxPower);
+        else
+            writePower(Math.max(-maxPower, Math.min(maxPower, output)));
+    }
+
+    /**
+     * Applies a voltage, turned into power with the battery voltage from this motor's {@link VoltageMonitor}
+     * Without a monitor the battery is taken to be at {@link VoltageMonitor#NOMINAL_VOLTAGE}
+     *
+     * @param volts    Voltage to apply
+     * @param maxPower Most power it can turn into, 0-1
+     */
+    void setVoltage(double volts, double maxPower) {
+        double battery = voltageMonitor == null ? VoltageMonitor.NOMINAL_VOLTAGE : voltageMonitor.getVoltage();
+        double capped = Math.max(-maxPower, Math.min(maxPower, volts / battery));
+        send(capped, capped); // already in real volts, compensating again would count the battery twice
+    }
+
+    /**
+     * Scales every power sent to this motor by nominal over actual battery voltage, so the same power pushes the same
+     * amount on a full or a low battery. Powers still get clipped at 1, so the motor can't go faster than the battery allows
+     *
+     * @param monitor A started {@link VoltageMonitor}, or null to send powers as they are
+     */
+    public void useVoltageCompensation(VoltageMonitor monitor) {
+        this.voltageMonitor = monitor;
+    }
+
+    /**
+     * Puts this motor under a {@link PowerBudget}, which scales its power down when all the motors together pull too much current
+     * The budget resends the power itself when the motor's share changes, so this works with powers that are only set once
+     *
+     * @param budget   The budget, or null to take the motor back out of its budget
+     * @param priority Higher priorities keep their power when the budget runs short, for example a lift holding above the drivetrain
+     */
+    public void usePowerBudget(PowerBudget budget, int priority) {
+        if (powerBudget != null)
+            powerBudget.remove(budgetShare);
+        powerBudget = budget;
+        budgetShare = budget == null ? null : budget.add(this::getCurrent, priority, () -> send(power, unscaledPower));
+    }
+
+    /**
+     * Returns the current the motor is drawing
+     * This is not part of the bulk read, every call is its own trip to the hub so don't call it every loop
+     *
+     * @return Current in amps
+     */
+    public double getCurrent() {
+        return motor.getCurrent(CurrentUnit.AMPS);
+    }
+
+    /**
+     * Returns the hub this motor is plugged into
+     *
+     * @return The {@link LynxModule} of the motor, or null if it couldn't be found
+     */
+    public LynxModule getLynxModule() {
+        return lynxModule;
     }
 
     protected MotorConfigurationType getMotorConfiguration() {
@@ -21,7 +21,7 @@ public class MotorTypeRegistry {
      * Enum representing different types of motors available in the FTC ecosystem
      * Each motor type corresponds to a specific motor configuration
      */
-    protected enum MotorType {
+    public enum MotorType {
         TORQUENADO,
         NEVEREST_40_GEARMOTOR, NEVEREST_60_GEARMOTOR,
         NEVEREST_3_7_ORBITAL_GEARMOTOR, NEVEREST_20_ORBITAL_GEARMOTOR,
@@ -251,4 +251,13 @@ public class MotorTypeRegistry {
         motorTypeMap.put(MotorType.REV_ULTRAPLANETARY_HD_HEX_MOTOR, revUltraPlanetaryMotor);
     }
 
+    /**
+     * Returns the configuration of a motor type, outside of this package this is how the ticks per revolution and max RPM get read
+     *
+     * @param motorType The type of the motor
+     * @return The {@link MotorConfigurationType} for that motor type
+     */
+    public static MotorConfigurationType getConfiguration(MotorType motorType) {
+        return motorTypeMap.get(motorType);
+    }
 }
@@ -3,14 +3,17 @@ package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.Joint;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.WriteCache;
 
 /**
  * A wrapper class for the {@link com.qualcomm.robotcore.hardware.Servo} that provides methods
  * to streamline the usage of standard servos
  */
-public class Servo extends subsystem {
+public class Servo extends subsystem implements Joint {
     protected com.qualcomm.robotcore.hardware.Servo servo; // changed to protected to make a version 2, a ServoEx or NormalizedServo, not set on a name yet
+    private double lastPosition = Double.NaN; // NaN so the first write always goes through
 
     /**
      * Constructs a {@code Servo} object and initializes the hardware reference
@@ -31,9 +34,40 @@ public class Servo extends subsystem {
      * @param targetPosition The target position for the servo, as a double between 0.0 and 1.0
      */
     public void setPosition(double targetPosition) {
-        servo.setPosition(targetPosition > 1 ? 1 : (targetPosition < 0 ? 0 : targetPosition));
+        writePosition(targetPosition > 1 ? 1 : (targetPosition < 0 ? 0 : targetPosition));
     }
 
+    /**
+     * Same as {@link #setPosition(double)}, for the {@link Joint} side of this servo
+     *
+     * @param target The target position for the servo, between 0.0 and 1.0
+     */
+    @Override
+    public void setTarget(double target) {
+        setPosition(target);
+    }
+
+    /**
+     * Sends an already clamped position to the servo, skipped if it is within {@link WriteCache#getPositionEpsilon()} of the last one sent
+     *
+     * @param position The position to send
+     */
+    protected void writePosition(double position) {
+        if (Math.abs(position - lastPosition) < WriteCache.getPositionEpsilon()) {
+            WriteCache.countWrite(false);
+            return;
+        }
+        lastPosition = position;
+        servo.setPosition(position);
+        WriteCache.countWrite(true);
+    }
+
+    /**
+     * Returns the last position sent to the servo, servos don't report where they really are
+     *
+     * @return The position, between 0.0 and 1.0
+     */
+    @Override
     public double getPosition() {
         return servo.getPosition();
     }
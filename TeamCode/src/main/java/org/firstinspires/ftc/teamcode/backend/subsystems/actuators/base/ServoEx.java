@@ -36,6 +36,6 @@ public class ServoEx extends Servo {
      */
     @Override
     public void setPosition(double degrees) {
-        servo.setPosition(degrees > this.degrees ? this.degrees : (degrees < 0 ? 0 : degrees));
+        writePosition(degrees > this.degrees ? this.degrees : (degrees < 0 ? 0 : degrees));
     }
 }
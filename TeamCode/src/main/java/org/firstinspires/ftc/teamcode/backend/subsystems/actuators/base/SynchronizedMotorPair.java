@@ -0,0 +1,252 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.CrossCoupledController;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.PIDFController;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.Joint;
+import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.VoltageMonitor;
+
+/**
+ * Two {@link Motor}s on one mechanism, like both sides of a lift, kept together by a {@link CrossCoupledController}
+ * <p>
+ * Instead of each motor running its own RUN_TO_POSITION and hoping they track, the control hub reads both encoders every
+ * loop, drives both toward the shared target and pushes them back together when one gets ahead. The second motor can be
+ * geared differently, it just needs its ticks per tick of the first one. Call {@link #update()} every loop after the
+ * bulk cache is cleared
+ */
+public class SynchronizedMotorPair extends subsystem implements Joint {
+    private final Motor motor1, motor2;
+    private final CrossCoupledController controller;
+    private double target = 0, targetVelocity = 0, targetAcceleration = 0, maxPower = 1;
+    private int tolerance = 10;
+    private boolean enabled = false;
+
+    /**
+     * Creates a pair, both motors are switched to run without encoder since the control hub runs the loop
+     *
+     * @param motor1     The motor the target is in ticks of
+     * @param motor2     The other motor
+     * @param ratio      Motor 2's ticks for every tick of motor 1, 1 when both are geared the same
+     * @param controller Position loop tuned for motor 1, motor 2 gets a copy
+     * @param telemetry  Telemetry Object
+     */
+    public SynchronizedMotorPair(Motor motor1, Motor motor2, double ratio, PIDFController controller, Telemetry telemetry) {
+        super(telemetry);
+        if (motor1 == null || motor2 == null || motor1 == motor2)
+            throw new IllegalArgumentException("A pair needs two different motors");
+        this.motor1 = motor1;
+        this.motor2 = motor2;
+        this.controller = new CrossCoupledController(controller, ratio);
+        motor1.runWithoutEncoder();
+        motor2.runWithoutEncoder();
+    }
+
+    /**
+     * Sets how hard the motors get pulled back together
+     *
+     * @param kSync  Power per tick the motors are apart, volts per tick if the controller is in volts
+     * @param kSyncD Power per tick per second they are coming apart at
+     * @return This pair
+     */
+    public SynchronizedMotorPair setSyncGains(double kSync, double kSyncD) {
+        controller.setSyncGains(kSync, kSyncD);
+        return this;
+    }
+
+    /**
+     * Sets how far apart the motors can get before it counts as racking and the one ahead gets held back
+     *
+     * @param ticks Ticks of motor 1
+     * @return This pair
+     */
+    public SynchronizedMotorPair setRackingLimit(double ticks) {
+        controller.setRackingLimit(ticks);
+        return this;
+    }
+
+    /**
+     * Sets how close to the target counts as there, for {@link #isBusy()}
+     *
+     * @param ticks Ticks of motor 1
+     * @return This pair
+     */
+    public SynchronizedMotorPair setTolerance(int ticks) {
+        if (ticks < 0)
+            throw new IllegalArgumentException("Tolerance cannot be negative");
+        this.tolerance = ticks;
+        return this;
+    }
+
+    /**
+     * Gives both motors the battery voltage, a controller in volts needs it to turn its volts into the right power
+     * Without it the battery is taken to be at {@link VoltageMonitor#NOMINAL_VOLTAGE}, so a low battery applies less than asked
+     *
+     * @param monitor A started {@link VoltageMonitor}, or null to stop compensating
+     * @return This pair
+     */
+    public SynchronizedMotorPair useVoltageCompensation(VoltageMonitor monitor) {
+        motor1.useVoltageCompensation(monitor);
+        motor2.useVoltageCompensation(monitor);
+        return this;
+    }
+
+    /**
+     * Caps the power either motor gets, like the power of RUN_TO_POSITION
+     *
+     * @param power Max power, 0-1
+     */
+    public void setMaxPower(double power) {
+        this.maxPower = Math.min(1, Math.abs(power));
+    }
+
+    /**
+     * Sets the shared target and starts holding it, the control loop starts fresh if it wasn't running
+     *
+     * @param target Target in ticks of motor 1
+     */
+    @Override
+    public void setTarget(double target) {
+        this.target = target;
+        this.targetVelocity = 0;
+        this.targetAcceleration = 0;
+        if (!enabled) {
+            controller.reset();
+            enabled = true;
+        }
+    }
+
+    /**
+     * Gives the controller the velocity and acceleration motor 1 should have right now, for following a motion profile
+     *
+     * @param target       Target in ticks of motor 1
+     * @param velocity     Target velocity in ticks per second
+     * @param acceleration Target acceleration in ticks per second squared
+     */
+    public void setTargetMotion(double target, double velocity, double acceleration) {
+        setTarget(target);
+        this.targetVelocity = velocity;
+        this.targetAcceleration = acceleration;
+    }
+
+    /**
+     * Runs one step of the loop and sends both powers, does nothing until a target is set
+     * Call once per loop after the bulk cache is cleared
+     */
+    public void update() {
+        if (!enabled)
+            return;
+        controller.calculate(motor1.getCurrentPosition(), motor1.getVelocity(), motor2.getCurrentPosition(), motor2.getVelocity(),
+                target, targetVelocity, targetAcceleration);
+        if (controller.isVolts()) { // each motor turns volts into power with its own battery reading
+            motor1.setVoltage(controller.getOutput1(), maxPower);
+            motor2.setVoltage(controller.getOutput2(), maxPower);
+        } else {
+            motor1.setPower(clip(controller.getOutput1()));
+            motor2.setPower(clip(controller.getOutput2()));
+        }
+    }
+
+    private double clip(double power) {
+        return Math.max(-maxPower, Math.min(maxPower, power));
+    }
+
+    /**
+     * Stops both motors and the loop, the next target starts it again
+     */
+    public void stop() {
+        enabled = false;
+        motor1.setPower(0);
+        motor2.setPower(0);
+    }
+
+    /**
+     * Returns where the mechanism is, the average of both motors in ticks of motor 1
+     *
+     * @return Position in ticks of motor 1
+     */
+    @Override
+    public double getPosition() {
+        return (motor1.getCurrentPosition() + motor2.getCurrentPosition() / controller.getRatio()) / 2;
+    }
+
+    /**
+     * Returns the shared target
+     *
+     * @return Target in ticks of motor 1
+     */
+    public double getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns whether the mechanism is still getting to its target
+     *
+     * @return True while it is further than the tolerance from the target
+     */
+    public boolean isBusy() {
+        return enabled && Math.abs(getPosition() - target) > tolerance;
+    }
+
+    /**
+     * Returns how far apart the motors were on the last {@link #update()}
+     *
+     * @return Ticks of motor 1, positive when motor 1 is ahead
+     */
+    public double getDivergence() {
+        return controller.getDivergence();
+    }
+
+    /**
+     * Returns the biggest divergence since the last {@link #resetStats()}
+     *
+     * @return Ticks of motor 1
+     */
+    public double getMaxDivergence() {
+        return controller.getMaxDivergence();
+    }
+
+    /**
+     * Returns the root mean square divergence since the last {@link #resetStats()}
+     *
+     * @return Ticks of motor 1
+     */
+    public double getRmsDivergence() {
+        return controller.getRmsDivergence();
+    }
+
+    /**
+     * Returns whether the motors are past the racking limit right now
+     *
+     * @return True while racked
+     */
+    public boolean isRacked() {
+        return controller.isRacked();
+    }
+
+    /**
+     * Returns how many times the motors went past the racking limit since the last {@link #resetStats()}
+     *
+     * @return Racking count
+     */
+    public long getRackingEvents() {
+        return controller.getRackingEvents();
+    }
+
+    /**
+     * Clears the divergence stats and the racking count
+     */
+    public void resetStats() {
+        controller.resetStats();
+    }
+
+    /**
+     * Adds the sync numbers to telemetry, call it every loop before telemetry updates
+     *
+     * @param name Caption prefix
+     */
+    public void addTelemetry(String name) {
+        telemetry().addData(name + " divergence", "%.1f (max %.1f, rms %.1f)", getDivergence(), getMaxDivergence(), getRmsDivergence());
+        telemetry().addData(name + " racked", "%b (%d times)", isRacked(), getRackingEvents());
+    }
+}
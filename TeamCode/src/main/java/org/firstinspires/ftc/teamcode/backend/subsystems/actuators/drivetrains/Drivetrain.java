@@ -0,0 +1,295 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.profiles.ProfiledMove;
+import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.interfaces.DrivetrainMotorControls;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PowerBudget;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.VoltageMonitor;
+
+import java.util.Arrays;
+
+/**
+ * Shared core for the four (or five) motor drivetrains
+ * <p>
+ * Every {@link DTMotors} value is turned into a fixed array of motors once in the constructor,
+ * so the group methods are a single loop over that array instead of a switch over every motor combination
+ */
+public abstract class Drivetrain extends subsystem implements DrivetrainMotorControls {
+    protected final Motor frontLeft, frontRight, backLeft, backRight, midShift;
+    private final Motor[][] groups = new Motor[DTMotors.values().length][];
+
+    // state for encoder drives, targets are indexed the same as the ALL group
+    private final ProfiledMove move = new ProfiledMove();
+    private final ProfiledMove.Setpoint setpoint = this::setDriveSetpoint;
+    private final int[] driveTargets;
+    private DTMotors driveGroup = DTMotors.ALL;
+    private int drivePeak;
+
+    /**
+     * Sorts the motors into their positions and builds the motor group for every {@link DTMotors} value
+     *
+     * @param motors    The four base motors, in any order
+     * @param midShift  The mid-shift motor, or null if the drivetrain doesn't have one
+     * @param telemetry The telemetry object for logging data
+     */
+    protected Drivetrain(Motor[] motors, Motor midShift, Telemetry telemetry) {
+        super(telemetry);
+        Arrays.sort(motors); // allows us to ensure motors are in the right order no matter what order the motor array is sent in
+        this.backLeft = motors[0];
+        this.backRight = motors[1];
+        this.frontLeft = motors[2];
+        this.frontRight = motors[3];
+        this.midShift = midShift;
+
+        group(DTMotors.FRONT_LEFT, frontLeft);
+        group(DTMotors.FRONT_RIGHT, frontRight);
+        group(DTMotors.BACK_LEFT, backLeft);
+        group(DTMotors.BACK_RIGHT, backRight);
+        group(DTMotors.FRONT, frontLeft, frontRight);
+        group(DTMotors.BACK, backLeft, backRight);
+        group(DTMotors.LEFT, frontLeft, backLeft);
+        group(DTMotors.RIGHT, frontRight, backRight);
+        group(DTMotors.DRIVETRAIN_BASIC_4, frontLeft, frontRight, backLeft, backRight);
+        if (midShift != null) {
+            group(DTMotors.MIDSHIFT, midShift);
+            group(DTMotors.ALL, frontLeft, frontRight, backLeft, backRight, midShift);
+        } else { // without a midshift ALL is just the base four, MIDSHIFT stays empty and gets rejected
+            group(DTMotors.ALL, frontLeft, frontRight, backLeft, backRight);
+        }
+        driveTargets = new int[group(DTMotors.ALL).length];
+    }
+
+    private void group(DTMotors motors, Motor... members) {
+        groups[motors.ordinal()] = members;
+    }
+
+    /**
+     * Returns the motors that make up a group
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     * @return The motors in that group, do not modify the array
+     * @throws IllegalArgumentException If this drivetrain doesn't have the requested motors
+     */
+    protected Motor[] group(DTMotors motors) {
+        Motor[] group = groups[motors.ordinal()];
+        if (group == null)
+            throw new IllegalArgumentException(motors + " is an illegal argument for " + getClass().getSimpleName());
+        return group;
+    }
+
+    /**
+     * Set power to a group of motors
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     * @param power  Power (between -1 and 1)
+     */
+    @Override
+    public void setPower(DTMotors motors, double power) {
+        for (Motor motor : group(motors))
+            motor.setPower(power);
+    }
+
+    /**
+     * Set the target position of a group of motors
+     *
+     * @param motors         Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     * @param targetPosition Target position in ticks
+     */
+    @Override
+    public void setTargetPosition(DTMotors motors, int targetPosition) {
+        for (Motor motor : group(motors))
+            motor.setTargetPosition(targetPosition);
+    }
+
+    /**
+     * Switches a group of motors to RUN_TO_POSITION without waiting for them to get there
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     */
+    protected void startRunToPosition(DTMotors motors) {
+        for (Motor motor : group(motors))
+            motor.runToPosition();
+    }
+
+    /**
+     * Resets the encoders of a group of motors
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     */
+    @Override
+    public void stopAndReset(DTMotors motors) {
+        for (Motor motor : group(motors))
+            motor.stopAndReset();
+    }
+
+    /**
+     * Sets a group of motors to RUN_WITHOUT_ENCODER
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     */
+    @Override
+    public void runWithoutEncoder(DTMotors motors) {
+        for (Motor motor : group(motors))
+            motor.runWithoutEncoder();
+    }
+
+    /**
+     * Sets a group of motors to RUN_USING_ENCODER
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     */
+    @Override
+    public void runUsingEncoder(DTMotors motors) {
+        for (Motor motor : group(motors))
+            motor.runUsingEncoder();
+    }
+
+    /**
+     * Returns whether every motor in the drivetrain is still moving to its target
+     *
+     * @return True while all of the motors are busy
+     */
+    @Override
+    public boolean isBusy() {
+        for (Motor motor : group(DTMotors.ALL)) {
+            if (!motor.isBusy())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Steps the controllers of a group of motors, only does anything for motors given a controller with {@link Motor#useController}
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     */
+    public void update(DTMotors motors) {
+        for (Motor motor : group(motors))
+            motor.update();
+    }
+
+    /**
+     * Turns on voltage compensation for every drivetrain motor, so encoder drives and teleop feel the same all match
+     *
+     * @param monitor A started {@link VoltageMonitor}, or null to turn it off
+     */
+    public void useVoltageCompensation(VoltageMonitor monitor) {
+        for (Motor motor : group(DTMotors.ALL))
+            motor.useVoltageCompensation(monitor);
+    }
+
+    /**
+     * Puts every drivetrain motor under a {@link PowerBudget} at the same priority, so they all get cut back together and the robot keeps driving straight
+     *
+     * @param budget   The budget, or null to take them back out
+     * @param priority Usually lower than the mechanisms, it's better to accelerate slower than to drop what the lift is holding
+     */
+    public void usePowerBudget(PowerBudget budget, int priority) {
+        for (Motor motor : group(DTMotors.ALL))
+            motor.usePowerBudget(budget, priority);
+    }
+
+    /**
+     * Returns whether every motor in a group is still moving to its target
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     * @return True while all of the motors in the group are busy
+     */
+    public boolean isBusy(DTMotors motors) {
+        for (Motor motor : group(motors)) {
+            if (!motor.isBusy())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Makes encoder drives follow a motion profile, the wheel with the furthest to go follows it and the rest scale along with it
+     *
+     * @param maxVelocity     Max wheel speed in ticks per second, 0 goes back to jumping straight to the target
+     * @param maxAcceleration Max wheel acceleration in ticks per second squared
+     * @param maxJerk         Max wheel jerk in ticks per second cubed, 0 for a trapezoidal profile
+     */
+    public void setMotionConstraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+        move.setConstraints(maxVelocity, maxAcceleration, maxJerk);
+    }
+
+    /**
+     * Zeroes every drive target, call before setting up a new drive
+     */
+    protected void clearDriveTargets() {
+        Arrays.fill(driveTargets, 0);
+    }
+
+    /**
+     * Sets where a group of motors should end up at the end of the next drive, nothing moves until {@link #startDriveMove(DTMotors, double)}
+     *
+     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt, ms, all)
+     * @param ticks  Final target in ticks
+     */
+    protected void setDriveTarget(DTMotors motors, int ticks) {
+        for (Motor motor : group(motors))
+            driveTargets[indexOf(motor)] = ticks;
+    }
+
+    /**
+     * Starts driving a group of motors to their drive targets, through a profile if constraints are set
+     *
+     * @param motors Motor abbreviation of the motors that move
+     * @param speed  Power to run at (from -1 to 1)
+     */
+    protected void startDriveMove(DTMotors motors, double speed) {
+        driveGroup = motors;
+        drivePeak = 0;
+        for (Motor motor : group(motors))
+            drivePeak = Math.max(drivePeak, Math.abs(driveTargets[indexOf(motor)]));
+
+        boolean profiled = move.start(0, drivePeak);
+        for (Motor motor : group(motors))
+            motor.setTargetPosition(profiled ? 0 : driveTargets[indexOf(motor)]);
+        startRunToPosition(motors);
+        setPower(motors, speed);
+    }
+
+    /**
+     * Moves the drive along by one loop
+     *
+     * @return True once every motor in the drive has finished
+     */
+    protected boolean updateDriveMove() {
+        boolean profileDone = move.update(setpoint);
+        update(driveGroup);
+        return profileDone && !isBusy(driveGroup);
+    }
+
+    /**
+     * Scales the profile, which runs on the furthest wheel, down to every wheel in the drive
+     */
+    private void setDriveSetpoint(double position, double velocity, double acceleration) {
+        double progress = position / drivePeak;
+        for (Motor motor : group(driveGroup)) {
+            int target = driveTargets[indexOf(motor)];
+            motor.setTargetPosition((int) Math.round(target * progress));
+            motor.setTargetMotion(target * velocity / drivePeak, target * acceleration / drivePeak);
+        }
+    }
+
+    /**
+     * Stops the current drive and cuts power to its motors
+     */
+    protected void endDriveMove() {
+        move.stop();
+        setPower(driveGroup, 0);
+    }
+
+    private int indexOf(Motor motor) {
+        Motor[] all = group(DTMotors.ALL);
+        for (int i = 0; i < all.length; i++) {
+            if (all[i] == motor)
+                return i;
+        }
+        throw new IllegalArgumentException(motor.getName() + " is not part of this drivetrain");
+    }
+}
@@ -1,19 +1,25 @@
 package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.FunctionalCommand;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.HeadingSensor;
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.backend.libraries.pathing.PurePursuit;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.interfaces.DrivetrainHolonomic;
-import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.EaseCommands;
-
-import java.util.Arrays;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator;
 
 /**
  * This class represents a Mecanum drivetrain for autonomous and teleoperation
  * It allows for control of a holonomic robot using mecanum wheels, enabling movements in multiple directions
  */
-public class Mecanum extends subsystem implements DrivetrainHolonomic {
-    private Motor frontLeft, frontRight, backLeft, backRight;
+public class Mecanum extends Drivetrain implements DrivetrainHolonomic {
+    private MecanumKinematics kinematics = new MecanumKinematics();
+    private final double[] wheels = new double[4], chassis = new double[3]; // reused every loop
 
     /**
      * Constructs a Mecanum drivetrain object and initializes the motor positions
@@ -23,12 +29,18 @@ public class Mecanum extends subsystem implements DrivetrainHolonomic {
      * @param telemetry The telemetry object for logging data
      */
     public Mecanum(Motor[] motors, Telemetry telemetry) {
-        super(telemetry);
-        Arrays.sort(motors); // allows us to ensure motors are in the right order no matter what order the motor array is sent in
-        this.backLeft = motors[0];
-        this.backRight = motors[1];
-        this.frontLeft = motors[2];
-        this.frontRight = motors[3];
+        super(motors, null, telemetry);
+    }
+
+    /**
+     * Creates a {@link PoseEstimator} on this drivetrain's wheels, with the motors already sorted into their corners
+     *
+     * @param heading Where the heading comes from, an {@link org.firstinspires.ftc.teamcode.backend.subsystems.sensors.Imu} or
+     *                {@link org.firstinspires.ftc.teamcode.backend.subsystems.sensors.UpdatedIMU}
+     * @return The estimator, call its update every loop
+     */
+    public PoseEstimator newPoseEstimator(HeadingSensor heading) {
+        return new PoseEstimator(frontLeft, frontRight, backLeft, backRight, heading);
     }
 
     /**
@@ -40,13 +52,7 @@ public class Mecanum extends subsystem implements DrivetrainHolonomic {
      */
     @Override
     public void teleOpDrive(double y, double rx, double x) {
-        runWithoutEncoder(DTMotors.DRIVETRAIN_BASIC_4);
-        // maintain ratio in case of range clip
-        double denominator = Math.max(Math.abs(y) + Math.abs(x) + Math.abs(rx), 1);
-        frontLeft.setPower(((y + x * 1.1 + rx) / denominator));
-        backLeft.setPower(((y - x * 1.1 + rx) / denominator));
-        frontRight.setPower(((y - x * 1.1 - rx) / denominator));
-        backRight.setPower(((y + x * 1.1 - rx) / denominator));
+        teleOpDrive(y, rx, x, 1);
     }
 
     /**
@@ -60,110 +66,91 @@ public class Mecanum extends subsystem implements DrivetrainHolonomic {
     @Override
     public void teleOpDrive(double y, double rx, double x, double speed) {
         runWithoutEncoder(DTMotors.DRIVETRAIN_BASIC_4);
+        kinematics.toWheelSpeeds(y, -x, -rx, wheels); // x is strafe right and rx is turn right, kinematics wants left and counter clockwise
         // maintain ratio in case of range clip
-        double denominator = Math.max(Math.abs(y) + Math.abs(x) + Math.abs(rx), 1);
-        frontLeft.setPower(((y + x * 1.1 + rx) / denominator) / speed);
-        backLeft.setPower(((y - x * 1.1 + rx) / denominator) / speed);
-        frontRight.setPower(((y - x * 1.1 - rx) / denominator) / speed);
-        backRight.setPower(((y + x * 1.1 - rx) / denominator) / speed);
+        double denominator = Math.max(Math.abs(y) + Math.abs(x) + Math.abs(rx), 1) * speed;
+        setWheelPowers(denominator);
     }
 
     /**
-     * Sets motor power using motor abbreviations and power levels
+     * Drives with powers in the robot's frame, what path followers and field centric driving output
      *
-     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     * @param power  Power level (from -1 to 1)
+     * @param forward Forward power
+     * @param left    Strafe left power
+     * @param turn    Counter clockwise turn power
      */
-    @Override
-    public void setPower(DTMotors motors, double power) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.setPower(power);
-                frontRight.setPower(power);
-                backLeft.setPower(power);
-                backRight.setPower(power);
-                break;
-            case FRONT_LEFT:
-                frontLeft.setPower(power);
-                break;
-            case FRONT_RIGHT:
-                frontRight.setPower(power);
-                break;
-            case BACK_LEFT:
-                backLeft.setPower(power);
-                break;
-            case BACK_RIGHT:
-                backRight.setPower(power);
-                break;
-            case FRONT:
-                frontLeft.setPower(power);
-                frontRight.setPower(power);
-                break;
-            case BACK:
-                backLeft.setPower(power);
-                backRight.setPower(power);
-                break;
-            case LEFT:
-                frontLeft.setPower(power);
-                backLeft.setPower(power);
-                break;
-            case RIGHT:
-                frontRight.setPower(power);
-                backRight.setPower(power);
-                break;
-        }
+    public void driveRobotCentric(double forward, double left, double turn) {
+        runWithoutEncoder(DTMotors.DRIVETRAIN_BASIC_4);
+        kinematics.toWheelSpeeds(forward, left, turn, wheels);
+        MecanumKinematics.desaturate(wheels, 1);
+        setWheelPowers(1);
     }
 
     /**
-     * Sets the target position for motors using a motor abbreviation and target position in ticks
+     * Follows a path until it is done, without stopping at the waypoints in between
      *
-     * @param motors         Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     * @param targetPosition Target position in ticks
+     * @param follower A holonomic {@link PurePursuit} with the path
+     * @param pose     The {@link PoseEstimator} that tracks the robot, it gets updated here
      */
-    @Override
-    public void setTargetPosition(DTMotors motors, int targetPosition) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.setTargetPosition(targetPosition);
-                frontRight.setTargetPosition(targetPosition);
-                backLeft.setTargetPosition(targetPosition);
-                backRight.setTargetPosition(targetPosition);
-                break;
-            case FRONT_LEFT:
-                frontLeft.setTargetPosition(targetPosition);
-                break;
-            case FRONT_RIGHT:
-                frontRight.setTargetPosition(targetPosition);
-                break;
-            case BACK_LEFT:
-                backLeft.setTargetPosition(targetPosition);
-                break;
-            case BACK_RIGHT:
-                backRight.setTargetPosition(targetPosition);
-                break;
-            case FRONT:
-                frontLeft.setTargetPosition(targetPosition);
-                frontRight.setTargetPosition(targetPosition);
-                break;
-            case BACK:
-                backLeft.setTargetPosition(targetPosition);
-                backRight.setTargetPosition(targetPosition);
-                break;
-            case LEFT:
-                frontLeft.setTargetPosition(targetPosition);
-                backLeft.setTargetPosition(targetPosition);
-                break;
-            case RIGHT:
-                frontRight.setTargetPosition(targetPosition);
-                backRight.setTargetPosition(targetPosition);
-                break;
+    public void followPath(PurePursuit follower, PoseEstimator pose) {
+        while (!follower.isFinished() && !Thread.currentThread().isInterrupted()) {
+            BulkCache.clearCache();
+            followPathStep(follower, pose);
         }
+        driveRobotCentric(0, 0, 0);
+    }
+
+    /**
+     * Non blocking version of {@link #followPath(PurePursuit, PoseEstimator)}, schedule it on a {@link CommandScheduler}
+     *
+     * @param follower A holonomic {@link PurePursuit} with the path
+     * @param pose     The {@link PoseEstimator} that tracks the robot
+     * @return A command that finishes at the end of the path
+     */
+    public Command followPathCommand(PurePursuit follower, PoseEstimator pose) {
+        return new FunctionalCommand(
+                follower::reset,
+                () -> followPathStep(follower, pose),
+                follower::isFinished,
+                interrupted -> driveRobotCentric(0, 0, 0)).setRequirements(this);
+    }
+
+    private void followPathStep(PurePursuit follower, PoseEstimator pose) {
+        pose.update();
+        follower.update(pose.getX(), pose.getY(), pose.getHeading(), chassis);
+        driveRobotCentric(chassis[0], chassis[1], chassis[2]);
+    }
+
+    /**
+     * Sends the wheel buffer to the motors
+     *
+     * @param divisor What to divide every wheel speed by before sending it
+     */
+    private void setWheelPowers(double divisor) {
+        frontLeft.setPower(wheels[MecanumKinematics.FRONT_LEFT] / divisor);
+        frontRight.setPower(wheels[MecanumKinematics.FRONT_RIGHT] / divisor);
+        backLeft.setPower(wheels[MecanumKinematics.BACK_LEFT] / divisor);
+        backRight.setPower(wheels[MecanumKinematics.BACK_RIGHT] / divisor);
+    }
+
+    /**
+     * Swaps out the kinematics used to turn joystick values into wheel powers, use this to tune the strafe multiplier
+     *
+     * @param kinematics The {@link MecanumKinematics} to use
+     */
+    public void setKinematics(MecanumKinematics kinematics) {
+        if (kinematics == null)
+            throw new IllegalArgumentException("Kinematics cannot be null");
+        this.kinematics = kinematics;
+    }
+
+    /**
+     * Returns the kinematics used to turn joystick values into wheel powers
+     *
+     * @return The {@link MecanumKinematics} of this drivetrain
+     */
+    public MecanumKinematics getKinematics() {
+        return kinematics;
     }
 
     /**
@@ -184,48 +171,12 @@ public class Mecanum extends subsystem implements DrivetrainHolonomic {
      */
     public void RTP(DTMotors motors, boolean wait) {
 //        Telemetry.Item mecanumRTPTelemetry = telemetry().addData("Mecanum moving", "");
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.runToPosition();
-                frontRight.runToPosition();
-                backLeft.runToPosition();
-                backRight.runToPosition();
-                break;
-            case FRONT_LEFT:
-                frontLeft.runToPosition();
-                break;
-            case FRONT_RIGHT:
-                frontRight.runToPosition();
-                break;
-            case BACK_LEFT:
-                backLeft.runToPosition();
-                break;
-            case BACK_RIGHT:
-                backRight.runToPosition();
-                break;
-            case FRONT:
-                frontLeft.runToPosition();
-                frontRight.runToPosition();
-                break;
-            case BACK:
-                backLeft.runToPosition();
-                backRight.runToPosition();
-                break;
-            case LEFT:
-                frontLeft.runToPosition();
-                backLeft.runToPosition();
-                break;
-            case RIGHT:
-                frontRight.runToPosition();
-                backRight.runToPosition();
-                break;
-        }
+        startRunToPosition(motors);
         if (wait) {
 //            telemetry().update();
             while (isBusy()) {
+                BulkCache.clearCache();
+                update(motors);
             }
         }
 //        telemetry().removeItem(mecanumRTPTelemetry);
@@ -233,147 +184,13 @@ public class Mecanum extends subsystem implements DrivetrainHolonomic {
     }
 
     /**
-     * Stops and resets the motor encoders using a motor abbreviation
-     *
-     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     */
-    @Override
-    public void stopAndReset(DTMotors motors) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.stopAndReset();
-                frontRight.stopAndReset();
-                backLeft.stopAndReset();
-                backRight.stopAndReset();
-                break;
-            case FRONT_LEFT:
-                frontLeft.stopAndReset();
-                break;
-            case FRONT_RIGHT:
-                frontRight.stopAndReset();
-                break;
-            case BACK_LEFT:
-                backLeft.stopAndReset();
-                break;
-            case BACK_RIGHT:
-                backRight.stopAndReset();
-                break;
-            case FRONT:
-                frontLeft.stopAndReset();
-                frontRight.stopAndReset();
-                break;
-            case BACK:
-                backLeft.stopAndReset();
-                backRight.stopAndReset();
-                break;
-            case LEFT:
-                frontLeft.stopAndReset();
-                backLeft.stopAndReset();
-                break;
-            case RIGHT:
-                frontRight.stopAndReset();
-                backRight.stopAndReset();
-                break;
-        }
-    }
-
-    /**
-     * Runs motors without using encoders based on the motor abbreviation
-     *
-     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     */
-    @Override
-    public void runWithoutEncoder(DTMotors motors) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.runWithoutEncoder();
-                frontRight.runWithoutEncoder();
-                backLeft.runWithoutEncoder();
-                backRight.runWithoutEncoder();
-                break;
-            case FRONT_LEFT:
-                frontLeft.runWithoutEncoder();
-                break;
-            case FRONT_RIGHT:
-                frontRight.runWithoutEncoder();
-                break;
-            case BACK_LEFT:
-                backLeft.runWithoutEncoder();
-                break;
-            case BACK_RIGHT:
-                backRight.runWithoutEncoder();
-                break;
-            case FRONT:
-                frontLeft.runWithoutEncoder();
-                frontRight.runWithoutEncoder();
-                break;
-            case BACK:
-                backLeft.runWithoutEncoder();
-                backRight.runWithoutEncoder();
-                break;
-            case LEFT:
-                frontLeft.runWithoutEncoder();
-                backLeft.runWithoutEncoder();
-                break;
-            case RIGHT:
-                frontRight.runWithoutEncoder();
-                backRight.runWithoutEncoder();
-                break;
-        }
-    }
-
-    /**
-     * Runs motors using encoders based on the motor abbreviation
+     * Non blocking version of {@link #runToPosition(DTMotors)}, schedule it on a {@link CommandScheduler}
      *
      * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
+     * @return A command that finishes once the motors get to their targets
      */
-    @Override
-    public void runUsingEncoder(DTMotors motors) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.runUsingEncoder();
-                frontRight.runUsingEncoder();
-                backLeft.runUsingEncoder();
-                backRight.runUsingEncoder();
-                break;
-            case FRONT_LEFT:
-                frontLeft.runUsingEncoder();
-                break;
-            case FRONT_RIGHT:
-                frontRight.runUsingEncoder();
-                break;
-            case BACK_LEFT:
-                backLeft.runUsingEncoder();
-                break;
-            case BACK_RIGHT:
-                backRight.runUsingEncoder();
-                break;
-            case FRONT:
-                frontLeft.runUsingEncoder();
-                frontRight.runUsingEncoder();
-                break;
-            case BACK:
-                backLeft.runUsingEncoder();
-                backRight.runUsingEncoder();
-                break;
-            case LEFT:
-                frontLeft.runUsingEncoder();
-                backLeft.runUsingEncoder();
-                break;
-            case RIGHT:
-                frontRight.runUsingEncoder();
-                backRight.runUsingEncoder();
-                break;
-        }
+    public Command runToPositionCommand(DTMotors motors) {
+        return new FunctionalCommand(() -> RTP(motors, false), null, () -> !isBusy(), null).setRequirements(this);
     }
 
     /**
@@ -389,104 +206,95 @@ public class Mecanum extends subsystem implements DrivetrainHolonomic {
     }
 
     /**
-     * Checks if the drivetrain motors are still busy
+     * Drives the robot autonomously based on direction, distance in inches, and speed
      *
-     * @return true if the drivetrain is busy, false otherwise
+     * @param direction Direction to drive (FORWARD, BACKWARDS, LEFT, RIGHT, etc.)
+     * @param inches    Distance to drive in inches
+     * @param speed     Speed of the movement (from -1 to 1)
      */
     @Override
-    public boolean isBusy() {
-        return frontLeft.isBusy() && backLeft.isBusy() && backRight.isBusy() && frontRight.isBusy();
+    public void drive(Directions direction, double inches, double speed) {
+        startDrive(direction, inches, speed);
+        while (!updateDriveMove()) {
+            BulkCache.clearCache();
+        }
+        endDriveMove();
     }
 
     /**
-     * Drives the robot autonomously based on direction, distance in inches, and speed
+     * Non blocking version of {@link #drive(Directions, double, double)}, schedule it on a {@link CommandScheduler} so other mechanisms can move at the same time
      *
      * @param direction Direction to drive (FORWARD, BACKWARDS, LEFT, RIGHT, etc.)
      * @param inches    Distance to drive in inches
      * @param speed     Speed of the movement (from -1 to 1)
+     * @return A command that finishes once the drivetrain gets to its target
      */
-    @Override
-    public void drive(Directions direction, double inches, double speed) {
+    public Command driveCommand(Directions direction, double inches, double speed) {
+        return new FunctionalCommand(
+                () -> startDrive(direction, inches, speed),
+                null,
+                this::updateDriveMove,
+                interrupted -> endDriveMove()).setRequirements(this);
+    }
+
+    /**
+     * Resets the encoders, sets the wheel targets for a direction and starts the motors (profiled if constraints are set), without waiting for them to get there
+     *
+     * @param direction Direction to drive
+     * @param inches    Distance to drive in inches
+     * @param speed     Speed of the movement (from -1 to 1)
+     */
+    private void startDrive(Directions direction, double inches, double speed) {
         stopAndReset(DTMotors.DRIVETRAIN_BASIC_4);
         runUsingEncoder(DTMotors.DRIVETRAIN_BASIC_4);
+        clearDriveTargets();
         switch (direction) {
             case FORWARD:
-                setTargetPosition(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(inches));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (frontLeft.isBusy() && frontRight.isBusy() && backLeft.isBusy() && backRight.isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(inches));
+                break;
             case BACKWARDS:
-                setTargetPosition(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(-inches));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (frontLeft.isBusy() && frontRight.isBusy() && backLeft.isBusy() && backRight.isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(-inches));
+                break;
             case LEFT:
-                setTargetPosition(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(-inches));
-                setTargetPosition(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(inches));
-                setTargetPosition(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(inches));
-                setTargetPosition(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(-inches));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(-inches));
+                setDriveTarget(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(inches));
+                setDriveTarget(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(inches));
+                setDriveTarget(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(-inches));
+                break;
             case RIGHT:
-                setTargetPosition(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(inches));
-                setTargetPosition(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(-inches));
-                setTargetPosition(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(-inches));
-                setTargetPosition(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(inches));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(inches));
+                setDriveTarget(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(-inches));
+                setDriveTarget(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(-inches));
+                setDriveTarget(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(inches));
+                break;
             case DIAGONAL_FORWARDS_RIGHT:
-                setTargetPosition(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(inches));
-                setTargetPosition(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(0));
-                setTargetPosition(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(0));
-                setTargetPosition(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(inches));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(inches));
+                setDriveTarget(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(0));
+                setDriveTarget(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(0));
+                setDriveTarget(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(inches));
+                break;
             case DIAGONAL_BACKWARDS_LEFT:
-                setTargetPosition(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(-inches));
-                setTargetPosition(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(0));
-                setTargetPosition(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(0));
-                setTargetPosition(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(-inches));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(-inches));
+                setDriveTarget(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(0));
+                setDriveTarget(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(0));
+                setDriveTarget(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(-inches));
+                break;
             case DIAGONAL_FORWARDS_LEFT:
-                setTargetPosition(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(0));
-                setTargetPosition(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(inches));
-                setTargetPosition(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(inches));
-                setTargetPosition(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(0));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(0));
+                setDriveTarget(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(inches));
+                setDriveTarget(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(inches));
+                setDriveTarget(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(0));
+                break;
             case DIAGONAL_BACKWARDS_RIGHT:
-                setTargetPosition(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(0));
-                setTargetPosition(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(-inches));
-                setTargetPosition(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(-inches));
-                setTargetPosition(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(0));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.FRONT_LEFT, EaseCommands.inTT_dt(0));
+                setDriveTarget(DTMotors.FRONT_RIGHT, EaseCommands.inTT_dt(-inches));
+                setDriveTarget(DTMotors.BACK_LEFT, EaseCommands.inTT_dt(-inches));
+                setDriveTarget(DTMotors.BACK_RIGHT, EaseCommands.inTT_dt(0));
+                break;
             default:
                 throw new IllegalArgumentException(direction + " is an invalid direction for Mecanum");
         }
+        startDriveMove(DTMotors.DRIVETRAIN_BASIC_4, speed);
     }
 
     /**
@@ -501,50 +309,18 @@ public class Mecanum extends subsystem implements DrivetrainHolonomic {
         double xComponent = Math.cos(directionRad);
         double yComponent = Math.sin(directionRad);
 
-        double frontLeftPower = yComponent + xComponent;
-        double frontRightPower = yComponent - xComponent;
-        double backLeftPower = yComponent - xComponent;
-        double backRightPower = yComponent + xComponent;
-
-        double maxPower = Math.max(Math.max(Math.abs(frontLeftPower), Math.abs(frontRightPower)),
-                Math.max(Math.abs(backLeftPower), Math.abs(backRightPower)));
-
-        if (maxPower > 1.0) {
-            frontLeftPower /= maxPower;
-            frontRightPower /= maxPower;
-            backLeftPower /= maxPower;
-            backRightPower /= maxPower;
-        }
+        kinematics.toWheelSpeeds(yComponent, -xComponent, 0, wheels);
+        MecanumKinematics.desaturate(wheels, 1);
 
         setTargetPosition(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(inches));
-        frontLeft.setPower(frontLeftPower);
-        frontRight.setPower(frontRightPower);
-        backLeft.setPower(backLeftPower);
-        backRight.setPower(backRightPower);
+        setWheelPowers(1);
 
         runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
 
         while (isBusy()) {
+            BulkCache.clearCache();
+            update(DTMotors.ALL);
         }
         setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
     }
-
-    // need to find a way to stop roadrunnering
-    private void rampUpPower(Motor motor, double targetPower, long durationMillis) {
-        double currentPower = motor.getPower();
-        double steps = 50; // number of ramp steps
-        double stepDuration = durationMillis / steps;
-        double powerIncrement = (targetPower - currentPower) / steps;
-
-        for (int i = 0; i < steps; i++) {
-            double newPower = currentPower + powerIncrement * i;
-            motor.setPower(newPower);
-            try {
-                Thread.sleep((long) stepDuration);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        motor.setPower(targetPower);
-    }
 }
@@ -1,19 +1,20 @@
 package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.FunctionalCommand;
+import org.firstinspires.ftc.teamcode.backend.libraries.pathing.PurePursuit;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
-import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.EaseCommands;
 import org.firstinspires.ftc.teamcode.backend.subsystems.interfaces.DrivetrainHolonomic;
-import org.firstinspires.ftc.teamcode.backend.subsystems.interfaces.DrivetrainMotorControls;
-
-import java.util.Arrays;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator;
 
 /**
  * Object in order to create tank drive for autonomous and teleop
  */
-public class TankDrive extends subsystem implements DrivetrainMotorControls {
-    private Motor frontLeft, frontRight, backLeft, backRight;
+public class TankDrive extends Drivetrain {
+    private final double[] chassis = new double[3]; // reused every loop
 
     /**
      * Creates a TankDrive drive Object by putting motors into a sorted array
@@ -21,12 +22,7 @@ public class TankDrive extends subsystem implements DrivetrainMotorControls {
      * @param motors Four motor Objects in an array
      */
     public TankDrive(Motor[] motors, Telemetry telemetry) {
-        super(telemetry);
-        Arrays.sort(motors); // allows us to ensure motors are in the right order no matter what order the motor array is sent in
-        this.backLeft = motors[0];
-        this.backRight = motors[1];
-        this.frontLeft = motors[2];
-        this.frontRight = motors[3];
+        super(motors, null, telemetry);
     }
 
     /**
@@ -42,101 +38,54 @@ public class TankDrive extends subsystem implements DrivetrainMotorControls {
     }
 
     /**
-     * Set power to motors using a case switch
+     * Drives with a forward power and a turn power, both sides get scaled down together if either would go past full power
      *
-     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     * @param power Power (between -1 and 1)
+     * @param forward Forward power
+     * @param turn    Counter clockwise turn power
      */
-    @Override
-    public void setPower(DTMotors motors, double power) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.setPower(power);
-                frontRight.setPower(power);
-                backLeft.setPower(power);
-                backRight.setPower(power);
-                break;
-            case FRONT_LEFT:
-                frontLeft.setPower(power);
-                break;
-            case FRONT_RIGHT:
-                frontRight.setPower(power);
-                break;
-            case BACK_LEFT:
-                backLeft.setPower(power);
-                break;
-            case BACK_RIGHT:
-                backRight.setPower(power);
-                break;
-            case FRONT:
-                frontLeft.setPower(power);
-                frontRight.setPower(power);
-                break;
-            case BACK:
-                backLeft.setPower(power);
-                backRight.setPower(power);
-                break;
-            case LEFT:
-                frontLeft.setPower(power);
-                backLeft.setPower(power);
-                break;
-            case RIGHT:
-                frontRight.setPower(power);
-                backRight.setPower(power);
-                break;
-        }
+    public void arcadeDrive(double forward, double turn) {
+        runWithoutEncoder(DTMotors.DRIVETRAIN_BASIC_4);
+        double left = forward - turn, right = forward + turn;
+        double scale = Math.max(1, Math.max(Math.abs(left), Math.abs(right)));
+        frontLeft.setPower(left / scale);
+        backLeft.setPower(left / scale);
+        frontRight.setPower(right / scale);
+        backRight.setPower(right / scale);
     }
 
     /**
-     * Set the target position of the motors using a case switch
+     * Follows a path until it is done, without stopping at the waypoints in between
      *
-     * @param motors  Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     * @param targetPosition Target Position in ticks
+     * @param follower A differential {@link PurePursuit} with the path
+     * @param pose     The {@link PoseEstimator} that tracks the robot, it gets updated here
      */
-    @Override
-    public void setTargetPosition(DTMotors motors, int targetPosition) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.setTargetPosition(targetPosition);
-                frontRight.setTargetPosition(targetPosition);
-                backLeft.setTargetPosition(targetPosition);
-                backRight.setTargetPosition(targetPosition);
-                break;
-            case FRONT_LEFT:
-                frontLeft.setTargetPosition(targetPosition);
-                break;
-            case FRONT_RIGHT:
-                frontRight.setTargetPosition(targetPosition);
-                break;
-            case BACK_LEFT:
-                backLeft.setTargetPosition(targetPosition);
-                break;
-            case BACK_RIGHT:
-                backRight.setTargetPosition(targetPosition);
-                break;
-            case FRONT:
-                frontLeft.setTargetPosition(targetPosition);
-                frontRight.setTargetPosition(targetPosition);
-                break;
-            case BACK:
-                backLeft.setTargetPosition(targetPosition);
-                backRight.setTargetPosition(targetPosition);
-                break;
-            case LEFT:
-                frontLeft.setTargetPosition(targetPosition);
-                backLeft.setTargetPosition(targetPosition);
-                break;
-            case RIGHT:
-                frontRight.setTargetPosition(targetPosition);
-                backRight.setTargetPosition(targetPosition);
-                break;
+    public void followPath(PurePursuit follower, PoseEstimator pose) {
+        while (!follower.isFinished() && !Thread.currentThread().isInterrupted()) {
+            BulkCache.clearCache();
+            followPathStep(follower, pose);
         }
+        arcadeDrive(0, 0);
+    }
+
+    /**
+     * Non blocking version of {@link #followPath(PurePursuit, PoseEstimator)}
+     *
+     * @param follower A differential {@link PurePursuit} with the path
+     * @param pose     The {@link PoseEstimator} that tracks the robot
+     * @return A command that finishes at the end of the path
+     */
+    public Command followPathCommand(PurePursuit follower, PoseEstimator pose) {
+        return new FunctionalCommand(
+                follower::reset,
+                () -> followPathStep(follower, pose),
+                follower::isFinished,
+                interrupted -> arcadeDrive(0, 0)).setRequirements(this);
+    }
+
+    private void followPathStep(PurePursuit follower, PoseEstimator pose) {
+        pose.update();
+        follower.update(pose.getX(), pose.getY(), pose.getHeading(), chassis);
+        arcadeDrive(chassis[0], chassis[2]);
     }
 
     /**
@@ -157,198 +106,18 @@ public class TankDrive extends subsystem implements DrivetrainMotorControls {
      */
     public void RTP(DTMotors motors, boolean wait) {
         Telemetry.Item tankDriveRTPTelemetry = telemetry().addData("TankDrive moving", "");
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.runToPosition();
-                frontRight.runToPosition();
-                backLeft.runToPosition();
-                backRight.runToPosition();
-                break;
-            case FRONT_LEFT:
-                frontLeft.runToPosition();
-                break;
-            case FRONT_RIGHT:
-                frontRight.runToPosition();
-                break;
-            case BACK_LEFT:
-                backLeft.runToPosition();
-                break;
-            case BACK_RIGHT:
-                backRight.runToPosition();
-                break;
-            case FRONT:
-                frontLeft.runToPosition();
-                frontRight.runToPosition();
-                break;
-            case BACK:
-                backLeft.runToPosition();
-                backRight.runToPosition();
-                break;
-            case LEFT:
-                frontLeft.runToPosition();
-                backLeft.runToPosition();
-                break;
-            case RIGHT:
-                frontRight.runToPosition();
-                backRight.runToPosition();
-                break;
-        }
+        startRunToPosition(motors);
         if (wait) {
             telemetry().update();
             while (isBusy()) {
+                BulkCache.clearCache();
+                update(motors);
             }
         }
         telemetry().removeItem(tankDriveRTPTelemetry);
         telemetry().update();
     }
 
-    /**
-     * Sets the mode of the motor to STOP_AND_RESET_ENCODERS using case switch
-     *
-     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     */
-    @Override
-    public void stopAndReset(DTMotors motors) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.stopAndReset();
-                frontRight.stopAndReset();
-                backLeft.stopAndReset();
-                backRight.stopAndReset();
-                break;
-            case FRONT_LEFT:
-                frontLeft.stopAndReset();
-                break;
-            case FRONT_RIGHT:
-                frontRight.stopAndReset();
-                break;
-            case BACK_LEFT:
-                backLeft.stopAndReset();
-                break;
-            case BACK_RIGHT:
-                backRight.stopAndReset();
-                break;
-            case FRONT:
-                frontLeft.stopAndReset();
-                frontRight.stopAndReset();
-                break;
-            case BACK:
-                backLeft.stopAndReset();
-                backRight.stopAndReset();
-                break;
-            case LEFT:
-                frontLeft.stopAndReset();
-                backLeft.stopAndReset();
-                break;
-            case RIGHT:
-                frontRight.stopAndReset();
-                backRight.stopAndReset();
-                break;
-        }
-    }
-
-    /**
-     * Sets the mode of the motor to RUN_WITHOUT_ENCODERS using case switch
-     *
-     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     */
-    @Override
-    public void runWithoutEncoder(DTMotors motors) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.runWithoutEncoder();
-                frontRight.runWithoutEncoder();
-                backLeft.runWithoutEncoder();
-                backRight.runWithoutEncoder();
-                break;
-            case FRONT_LEFT:
-                frontLeft.runWithoutEncoder();
-                break;
-            case FRONT_RIGHT:
-                frontRight.runWithoutEncoder();
-                break;
-            case BACK_LEFT:
-                backLeft.runWithoutEncoder();
-                break;
-            case BACK_RIGHT:
-                backRight.runWithoutEncoder();
-                break;
-            case FRONT:
-                frontLeft.runWithoutEncoder();
-                frontRight.runWithoutEncoder();
-                break;
-            case BACK:
-                backLeft.runWithoutEncoder();
-                backRight.runWithoutEncoder();
-                break;
-            case LEFT:
-                frontLeft.runWithoutEncoder();
-                backLeft.runWithoutEncoder();
-                break;
-            case RIGHT:
-                frontRight.runWithoutEncoder();
-                backRight.runWithoutEncoder();
-                break;
-        }
-    }
-
-    /**
-     * Sets the mode of the motor to RUN_USING_ENCODERS using case switch
-     *
-     * @param motors Motor abbreviation (fl, fr, bl, br, f, b, l, r, dt)
-     */
-    @Override
-    public void runUsingEncoder(DTMotors motors) {
-        switch (motors) {
-            case MIDSHIFT:
-                throw new IllegalArgumentException("Midshift is an illegal argument for TankDrive");
-            case ALL:
-            case DRIVETRAIN_BASIC_4:
-                frontLeft.runUsingEncoder();
-                frontRight.runUsingEncoder();
-                backLeft.runUsingEncoder();
-                backRight.runUsingEncoder();
-                break;
-            case FRONT_LEFT:
-                frontLeft.runUsingEncoder();
-                break;
-            case FRONT_RIGHT:
-                frontRight.runUsingEncoder();
-                break;
-            case BACK_LEFT:
-                backLeft.runUsingEncoder();
-                break;
-            case BACK_RIGHT:
-                backRight.runUsingEncoder();
-                break;
-            case FRONT:
-                frontLeft.runUsingEncoder();
-                frontRight.runUsingEncoder();
-                break;
-            case BACK:
-                backLeft.runUsingEncoder();
-                backRight.runUsingEncoder();
-                break;
-            case LEFT:
-                frontLeft.runUsingEncoder();
-                backLeft.runUsingEncoder();
-                break;
-            case RIGHT:
-                frontRight.runUsingEncoder();
-                backRight.runUsingEncoder();
-                break;
-        }
-    }
-
     /**
      * Sets tolerance of motor
      *
@@ -361,15 +130,6 @@ public class TankDrive extends subsystem implements DrivetrainMotorControls {
         frontRight.setTolerance(i);
     }
 
-    /**
-     * Returns whether or not the drivetrain is busy
-     *
-     * @return isBusy (true or false)
-     */
-    public boolean isBusy() {
-        return frontLeft.isBusy() && backLeft.isBusy() && backRight.isBusy() && frontRight.isBusy();
-    }
-
     /**
      * Driving method used for autonomous using case switch, distance, and power
      *
@@ -380,25 +140,21 @@ public class TankDrive extends subsystem implements DrivetrainMotorControls {
     public void drive(DrivetrainHolonomic.Directions direction, double inches, double speed) {
         stopAndReset(DTMotors.DRIVETRAIN_BASIC_4);
         runUsingEncoder(DTMotors.DRIVETRAIN_BASIC_4);
+        clearDriveTargets();
         switch (direction) {
             case FORWARD:
-                setTargetPosition(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(inches));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (frontLeft.isBusy() && frontRight.isBusy() && backLeft.isBusy() && backRight.isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(inches));
                 break;
             case BACKWARDS:
-                setTargetPosition(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(-inches));
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, speed);
-                runToPosition(DTMotors.DRIVETRAIN_BASIC_4);
-                while (frontLeft.isBusy() && frontRight.isBusy() && backLeft.isBusy() && backRight.isBusy()) {
-                }
-                setPower(DTMotors.DRIVETRAIN_BASIC_4, 0);
+                setDriveTarget(DTMotors.DRIVETRAIN_BASIC_4, EaseCommands.inTT_dt(-inches));
                 break;
             default:
                 throw new IllegalArgumentException(direction + " is an invalid direction for TankDrive");
         }
+        startDriveMove(DTMotors.DRIVETRAIN_BASIC_4, speed);
+        while (!updateDriveMove()) {
+            BulkCache.clearCache();
+        }
+        endDriveMove();
     }
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.manipulators;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.FunctionalCommand;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.PIDFController;
+import org.firstinspires.ftc.teamcode.backend.libraries.profiles.ProfiledMove;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.Constants;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 import java.util.LinkedList;
 
@@ -12,6 +18,11 @@ public class Lift1Motor extends subsystem {
     public final String name;
     private final int min, max;
     LinkedList<Integer> levels = new LinkedList<>();
+    private final ProfiledMove move = new ProfiledMove();
+    private final ProfiledMove.Setpoint setpoint = (position, velocity, acceleration) -> {
+        setTargetPosition((int) Math.round(position));
+        motor.setTargetMotion(velocity, acceleration);
+    };
 
     /**
      * Creates a Lift1Motor object
@@ -110,6 +121,17 @@ public class Lift1Motor extends subsystem {
         return motor.getTargetPosition();
     }
 
+    /**
+     * Holds and moves the lift with a {@link PIDFController} on the control hub instead of the hub's RUN_TO_POSITION,
+     * give it a constant gravity term with {@link PIDFController#setGravity(double)} so the lift holds without bouncing.
+     * {@link #update()} then has to be called every loop, even while the lift is sitting still
+     *
+     * @param controller The controller to use, or null to go back to RUN_TO_POSITION
+     */
+    public void useController(PIDFController controller) {
+        motor.useController(controller);
+    }
+
     /**
      * Returns the power of the motor Object
      *
@@ -138,23 +160,73 @@ public class Lift1Motor extends subsystem {
      * Go to a position of height
      *
      * @param ticks The height in ticks you want travel to
-     * @param wait  If you want to wait till you get to position or if the code should just continue
+     * @param wait  If you want to wait till you get to position or if the code should just continue, keep calling
+     *              {@link #update()} every loop when not waiting
      */
     public void goToPosition(int ticks, boolean wait) {
         Telemetry.Item slide1MotorTelemetry = telemetry().addData(this.name, " moving");
-        setTargetPosition(getCurrentPosition() + ticks);
-        setPower(powerSetter(ticks));
-        runToPosition();
+        startMove(getCurrentPosition() + ticks, powerSetter(ticks));
         if (wait) {
             telemetry().update();
-            while (isBusy()) {
+            while (!update()) {
+                BulkCache.clearCache();
             }
+            setPower(Constants.downPower); // only once it's there, without waiting the move is still going at its own power
         }
-        setPower(Constants.downPower);
         telemetry().removeItem(slide1MotorTelemetry);
         telemetry().update();
     }
 
+    /**
+     * Makes moves follow a motion profile instead of jumping straight to the target, so the lift can go faster without overshooting
+     *
+     * @param maxVelocity     Fastest the lift can go in ticks per second, 0 to turn profiles back off
+     * @param maxAcceleration Hardest the lift can accelerate in ticks per second squared
+     * @param maxJerk         Fastest the acceleration can change in ticks per second cubed, 0 for a trapezoidal profile
+     */
+    public void setMotionConstraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+        move.setConstraints(maxVelocity, maxAcceleration, maxJerk);
+    }
+
+    /**
+     * Points the lift at a target, through a profile if constraints are set
+     *
+     * @param target Target in ticks
+     * @param power  Power to run at
+     */
+    private void startMove(int target, double power) {
+        target = target > this.max ? this.max : Math.max(target, this.min);
+        int current = getCurrentPosition();
+        setTargetPosition(move.start(current, target) ? current : target);
+        runToPosition();
+        setPower(move.isActive() ? 1 : power); // with a profile it sets the pace, power is just a ceiling
+    }
+
+    /**
+     * Moves the target along the profile, call this every loop after starting a move with wait set to false
+     *
+     * @return True once the lift has reached its final target
+     */
+    public boolean update() {
+        boolean profileDone = move.update(setpoint);
+        motor.update();
+        return profileDone && !isBusy();
+    }
+
+    /**
+     * Non blocking version of {@link #goToPosition(int)}, schedule it on a {@link CommandScheduler} so the lift can move while everything else does
+     *
+     * @param ticks The height in ticks you want travel to
+     * @return A command that finishes once the lift gets to position
+     */
+    public Command goToPositionCommand(int ticks) {
+        return new FunctionalCommand(() -> startMove(getCurrentPosition() + ticks, powerSetter(ticks)),
+                null, this::update, interrupted -> {
+                    move.stop();
+                    setPower(Constants.downPower);
+                }).setRequirements(this);
+    }
+
     /**
      * Adds a level of height to maintain and travel to
      *
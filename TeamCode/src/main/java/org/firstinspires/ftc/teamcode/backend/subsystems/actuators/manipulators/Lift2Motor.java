@@ -1,17 +1,33 @@
 package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.manipulators;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.FunctionalCommand;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.PIDFController;
+import org.firstinspires.ftc.teamcode.backend.libraries.profiles.ProfiledMove;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.Constants;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 import java.util.LinkedList;
 
+/**
+ * A lift with two motors that each run their own loop to the same target, for two sides that have to stay level use
+ * {@link org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.SynchronizedMotorPair} instead
+ */
 public class Lift2Motor extends subsystem {
     private Motor motor1, motor2;
     public final String name;
     private final int min, max;
     LinkedList<Integer> levels = new LinkedList<>();
+    private final ProfiledMove move = new ProfiledMove();
+    private final ProfiledMove.Setpoint setpoint = (position, velocity, acceleration) -> {
+        setTargetPosition((int) Math.round(position));
+        motor1.setTargetMotion(velocity, acceleration);
+        motor2.setTargetMotion(velocity, acceleration);
+    };
 
     /**
      * Creates a Lift1Motor object, one of these motors must be reversed
@@ -35,10 +51,10 @@ public class Lift2Motor extends subsystem {
     /**
      * If the slide/lift is running
      *
-     * @return Boolean, true if motors are running
+     * @return Boolean, true if either motor is still running
      */
     public boolean isBusy() {
-        return motor1.isBusy() && motor2.isBusy();
+        return motor1.isBusy() || motor2.isBusy();
     }
 
     /**
@@ -48,7 +64,7 @@ public class Lift2Motor extends subsystem {
      */
     public void setPower(double power) {
         motor1.setPower(power);
-        motor1.setPower(power);
+        motor2.setPower(power);
     }
 
     /**
@@ -119,6 +135,17 @@ public class Lift2Motor extends subsystem {
         return (int) ((motor1.getTargetPosition() + motor2.getTargetPosition()) / 2);
     }
 
+    /**
+     * Runs the lift off a {@link PIDFController} instead of RUN_TO_POSITION, each motor gets its own copy so their integrals don't mix.
+     * Use {@link PIDFController#setGravity(double)} for the load of the lift, and keep calling {@link #update()} every loop
+     *
+     * @param controller The controller to use, or null to go back to RUN_TO_POSITION
+     */
+    public void useController(PIDFController controller) {
+        motor1.useController(controller);
+        motor2.useController(controller == null ? null : controller.copy());
+    }
+
     /**
      * Returns the power of the motor Object
      *
@@ -147,23 +174,68 @@ public class Lift2Motor extends subsystem {
      * Go to a position of height
      *
      * @param ticks The height in ticks you want travel to
-     * @param wait  If you want to wait till you get to position or if the code should just continue
+     * @param wait  If you want to wait till you get to position or if the code should just continue, keep calling
+     *              {@link #update()} every loop when not waiting
      */
     public void goToPosition(int ticks, boolean wait) {
         Telemetry.Item slide2MotorTelemetry = telemetry().addData("Moving Slide/Lift: ", isBusy());
-        setTargetPosition(getTargetPosition() + ticks);
-        setPower(powerSetter(ticks));
-        runToPosition();
+        startMove(getTargetPosition() + ticks, powerSetter(ticks));
         if (wait) {
             telemetry().update();
-            while (isBusy()) {
+            while (!update()) {
+                BulkCache.clearCache();
             }
+            setPower(Constants.downPower); // only once it's there, without waiting the move is still going at its own power
         }
-        setPower(Constants.downPower);
         telemetry().removeItem(slide2MotorTelemetry);
         telemetry().update();
     }
 
+    /**
+     * Same as {@link #goToPosition(int)} but returns right away, the {@link CommandScheduler} checks on both motors every loop
+     *
+     * @param ticks The height in ticks you want travel to
+     * @return A command that finishes once the lift gets to position
+     */
+    public Command goToPositionCommand(int ticks) {
+        return new FunctionalCommand(() -> startMove(getTargetPosition() + ticks, powerSetter(ticks)),
+                null, this::update, interrupted -> {
+                    move.stop();
+                    setPower(Constants.downPower);
+                }).setRequirements(this);
+    }
+
+    /**
+     * Turns on motion profiling for this lift, both motors follow the same profile so they stay together
+     *
+     * @param maxVelocity     Max speed in ticks per second, 0 turns profiling off
+     * @param maxAcceleration Max acceleration in ticks per second squared
+     * @param maxJerk         Max jerk in ticks per second cubed, 0 for a trapezoidal profile
+     */
+    public void setMotionConstraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+        move.setConstraints(maxVelocity, maxAcceleration, maxJerk);
+    }
+
+    private void startMove(int target, double power) {
+        target = target > this.max ? this.max : Math.max(target, this.min);
+        int current = getCurrentPosition();
+        setTargetPosition(move.start(current, target) ? current : target);
+        runToPosition();
+        setPower(move.isActive() ? 1 : power);
+    }
+
+    /**
+     * Steps the profile forward, needed every loop when {@link #goToPosition(int, boolean)} is called without waiting
+     *
+     * @return True when the lift is done moving
+     */
+    public boolean update() {
+        boolean profileDone = move.update(setpoint);
+        motor1.update();
+        motor2.update();
+        return profileDone && !isBusy();
+    }
+
     /**
      * Adds a level of height to maintain and travel to
      *
@@ -1,8 +1,14 @@
 package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.manipulators;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.FunctionalCommand;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.PIDFController;
+import org.firstinspires.ftc.teamcode.backend.libraries.profiles.ProfiledMove;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 import java.util.LinkedList;
 
@@ -15,6 +21,11 @@ public class ParallelMotionLinkage extends subsystem {
     // probably an hour later, totally different coding session, for sure want to do it separate due to how calculations will function
     private final int min, max, ticksPerRotation;
     LinkedList<Integer> positions = new LinkedList<>();
+    private final ProfiledMove move = new ProfiledMove();
+    private final ProfiledMove.Setpoint setpoint = (position, velocity, acceleration) -> {
+        setTargetPosition((int) Math.round(position));
+        motor.setTargetMotion(velocity, acceleration);
+    };
 
     /**
      * Creates a ParallelMotionLinkage object
@@ -115,6 +126,17 @@ public class ParallelMotionLinkage extends subsystem {
         return motor.getTargetPosition();
     }
 
+    /**
+     * Swaps RUN_TO_POSITION for a {@link PIDFController}, set it up with {@link PIDFController#setArmGravity(double, double, double)}
+     * using this linkage's ticks per rotation so it pushes hardest when the arm is sticking straight out.
+     * Needs {@link #update()} every loop to keep holding
+     *
+     * @param controller The controller to use, or null to go back to RUN_TO_POSITION
+     */
+    public void useController(PIDFController controller) {
+        motor.useController(controller);
+    }
+
     /**
      * Returns the power of the motor Object
      *
@@ -141,19 +163,61 @@ public class ParallelMotionLinkage extends subsystem {
      */
     public void goToPosition(int degrees, boolean wait) {
         Telemetry.Item parallelMotorLinkageTelemetry = telemetry().addData(this.name, " moving");
-        setTargetPosition((ticksPerRotation * degrees) / 360);
-        setPower(.8);
-        runToPosition();
+        startMove((ticksPerRotation * degrees) / 360);
         if (wait) {
             telemetry().update();
-            while (isBusy()) {
+            while (!update()) {
+                BulkCache.clearCache();
             }
+            setPower(.4); // only once it's there, without waiting the move is still going at its own power
         }
-        setPower(.4);
         telemetry().removeItem(parallelMotorLinkageTelemetry);
         telemetry().update();
     }
 
+    /**
+     * Non blocking version of {@link #goToPosition(int)}, run it through a {@link CommandScheduler}
+     *
+     * @param degrees The rotation in degrees you want to travel
+     * @return A command that finishes once the linkage gets to position
+     */
+    public Command goToPositionCommand(int degrees) {
+        return new FunctionalCommand(() -> startMove((ticksPerRotation * degrees) / 360), null, this::update, interrupted -> {
+            move.stop();
+            setPower(.4);
+        }).setRequirements(this);
+    }
+
+    /**
+     * Has the linkage swing along a motion profile, which keeps whatever it is carrying from getting flung at the end of a move
+     *
+     * @param maxVelocity     Max speed in ticks per second, 0 goes back to moving straight to the target
+     * @param maxAcceleration Max acceleration in ticks per second squared
+     * @param maxJerk         Max jerk in ticks per second cubed, 0 for a trapezoidal profile
+     */
+    public void setMotionConstraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+        move.setConstraints(maxVelocity, maxAcceleration, maxJerk);
+    }
+
+    private void startMove(int target) {
+        target = target > this.max ? this.max : Math.max(target, this.min);
+        int current = getCurrentPosition();
+        setTargetPosition(move.start(current, target) ? current : target);
+        runToPosition();
+        setPower(move.isActive() ? 1 : .8);
+    }
+
+    /**
+     * Advances the profile by one loop, call it every loop if you moved without waiting
+     *
+     * @return True once the linkage is in position
+     */
+    public boolean update() {
+        boolean profileDone = move.update(setpoint);
+        motor.update();
+        return profileDone && !isBusy();
+    }
+
     /**
      * Adds a position of rotation to maintain and travel to
      *
@@ -1,8 +1,15 @@
 package org.firstinspires.ftc.teamcode.backend.subsystems.actuators.manipulators;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.FunctionalCommand;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.PIDFController;
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.libraries.profiles.ProfiledMove;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 import java.util.LinkedList;
 
@@ -12,6 +19,11 @@ public class ParallelMotionLinkageUnlimited extends subsystem {
     public final double inchRadius;
     private final int ticksPerRotation;
     LinkedList<Integer> positions = new LinkedList<>();
+    private final ProfiledMove move = new ProfiledMove();
+    private final ProfiledMove.Setpoint setpoint = (position, velocity, acceleration) -> {
+        setTargetPosition((int) Math.round(position));
+        motor.setTargetMotion(velocity, acceleration);
+    };
 
     /**
      * Creates a ChainLinkage object with no min/max bounds
@@ -112,6 +124,16 @@ public class ParallelMotionLinkageUnlimited extends subsystem {
         return motor.getTargetPosition();
     }
 
+    /**
+     * Controls the linkage with a {@link PIDFController} instead of the hub, the cosine gravity term from
+     * {@link PIDFController#setArmGravity(double, double, double)} works all the way around. Call {@link #update()} every loop
+     *
+     * @param controller The controller to use, or null to go back to RUN_TO_POSITION
+     */
+    public void useController(PIDFController controller) {
+        motor.useController(controller);
+    }
+
     /**
      * Returns the motor's power
      *
@@ -145,43 +167,80 @@ public class ParallelMotionLinkageUnlimited extends subsystem {
 
         // Move the motor
         Telemetry.Item chainLinkageTelemetry = telemetry().addData(this.name, " moving to " + closestTarget + " degrees");
-        setTargetPosition(targetTicks);
-        setPower(.8); // Start motor at higher speed
-        runToPosition();
+        startMove(targetTicks);
         if (wait) {
             telemetry().update();
-            while (isBusy()) {
+            while (!update()) {
+                BulkCache.clearCache();
             }
+            setPower(.4); // only once it's there, without waiting the move is still going at its own power
         }
-        setPower(.4); // Slow down as it approaches the target
         telemetry().removeItem(chainLinkageTelemetry);
         telemetry().update();
     }
 
+    /**
+     * Returns a {@link Command} that spins the linkage to a heading without holding up the loop
+     * The closest way around is worked out when the command starts, not when it is created
+     *
+     * @param targetDegrees The target position in degrees (0-360)
+     * @return A command that finishes once the linkage gets to position
+     */
+    public Command goToPositionCommand(int targetDegrees) {
+        return new FunctionalCommand(() -> {
+            int closestTarget = getClosestTargetPosition(getCurrentDegrees(), targetDegrees);
+            startMove((ticksPerRotation * closestTarget) / 360);
+        }, null, this::update, interrupted -> {
+            move.stop();
+            setPower(.4);
+        }).setRequirements(this);
+    }
+
+    /**
+     * Sets limits for profiled moves, with these set the linkage eases in and out of every move instead of slamming to the target
+     *
+     * @param maxVelocity     Max speed in ticks per second, 0 to stop profiling
+     * @param maxAcceleration Max acceleration in ticks per second squared
+     * @param maxJerk         Max jerk in ticks per second cubed, 0 for a trapezoidal profile
+     */
+    public void setMotionConstraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+        move.setConstraints(maxVelocity, maxAcceleration, maxJerk);
+    }
+
+    /**
+     * Starts a move to a target in ticks, no bounds to check since the linkage goes all the way around
+     *
+     * @param targetTicks Target position in ticks
+     */
+    private void startMove(int targetTicks) {
+        int current = getCurrentPosition();
+        setTargetPosition(move.start(current, targetTicks) ? current : targetTicks);
+        runToPosition();
+        setPower(move.isActive() ? 1 : .8);
+    }
+
+    /**
+     * Keeps a move without waiting going, call it every loop until it returns true
+     *
+     * @return True once the linkage has stopped at its target
+     */
+    public boolean update() {
+        boolean profileDone = move.update(setpoint);
+        motor.update();
+        return profileDone && !isBusy();
+    }
+
     /**
      * Returns the closest target position to the current position (in degrees),
      * considering the circular nature (0 degrees = 360 degrees).
+     * Package private so the benchmarks module can time it.
      *
      * @param currentDegrees The current position in degrees.
      * @param targetDegrees  The target position in degrees.
      * @return The closest target position to move to, in degrees.
      */
-    private int getClosestTargetPosition(int currentDegrees, int targetDegrees) {
-        // Normalize both current and target positions between 0 and 360
-        currentDegrees = normalizeDegrees(currentDegrees);
-        targetDegrees = normalizeDegrees(targetDegrees);
-
-        // Calculate clockwise and counterclockwise distances
-        int clockwiseDistance = targetDegrees >= currentDegrees ?
-                targetDegrees - currentDegrees :
-                360 - currentDegrees + targetDegrees;
-
-        int counterClockwiseDistance = currentDegrees >= targetDegrees ?
-                currentDegrees - targetDegrees :
-                currentDegrees + 360 - targetDegrees;
-
-        // Return the direction with the shortest distance
-        return clockwiseDistance <= counterClockwiseDistance ? targetDegrees : targetDegrees - 360;
+    int getClosestTargetPosition(int currentDegrees, int targetDegrees) {
+        return Angles.closestTargetDegrees(currentDegrees, targetDegrees);
     }
 
     /**
@@ -243,8 +302,7 @@ public class ParallelMotionLinkageUnlimited extends subsystem {
      * @return Degrees normalized to the range 0-360.
      */
     private int normalizeDegrees(int degrees) {
-        degrees = degrees % 360;
-        return (degrees < 0) ? degrees + 360 : degrees;
+        return Angles.normalizeDegrees(degrees);
     }
 
     /**
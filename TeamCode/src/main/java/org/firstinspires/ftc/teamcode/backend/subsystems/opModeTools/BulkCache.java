@@ -0,0 +1,161 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.ArrayList;
+
+/**
+ * Hub level bulk read cache, every {@link LynxModule} that a {@link org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor} lives on gets registered here
+ * so that encoder positions, velocities and busy flags for the whole hub come back in one bulk transaction instead of one transaction per call
+ * <p>
+ * In {@link LynxModule.BulkCachingMode#AUTO} the hub refreshes itself whenever a value gets read twice, which is safe for old blocking code
+ * In {@link LynxModule.BulkCachingMode#MANUAL} the cache only refreshes when {@link #clearCache()} is called, so call it exactly once at the top of every control loop
+ * <p>
+ * The mode and the hubs are static so they outlive the OpMode that set them, and the sdk can put a hub back to OFF between
+ * OpModes. Every OpMode should start with {@link #init(HardwareMap, LynxModule.BulkCachingMode)} so it never runs in
+ * whatever mode the last one left behind
+ */
+public class BulkCache {
+    /**
+     * The part of a hub the cache uses, {@link LynxModule}s get wrapped in one and the simulator's fake hub is one
+     */
+    public interface Hub {
+        void setBulkCachingMode(LynxModule.BulkCachingMode mode);
+
+        void clearBulkCache();
+    }
+
+    private static final class LynxHub implements Hub {
+        private final LynxModule module;
+
+        LynxHub(LynxModule module) {
+            this.module = module;
+        }
+
+        @Override
+        public void setBulkCachingMode(LynxModule.BulkCachingMode mode) {
+            module.setBulkCachingMode(mode);
+        }
+
+        @Override
+        public void clearBulkCache() {
+            module.clearBulkCache();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LynxHub && ((LynxHub) o).module == module;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(module);
+        }
+    }
+
+    private static final ArrayList<Hub> modules = new ArrayList<>();
+    private static LynxModule.BulkCachingMode mode = LynxModule.BulkCachingMode.AUTO;
+    private static long cycles = 0;
+
+    /**
+     * Starts an OpMode off with a clean slate, forgets the last OpMode's hubs and their {@link LynxCommandQueue}s, sets the mode and registers every hub in the hardware map
+     *
+     * @param hwMap The {@link HardwareMap} object passed from the OpMode
+     * @param mode  OFF, AUTO or MANUAL
+     */
+    public static void init(HardwareMap hwMap, LynxModule.BulkCachingMode mode) {
+        reset();
+        LynxCommandQueue.reset();
+        setMode(mode);
+        register(hwMap);
+    }
+
+    /**
+     * Registers every hub in the hardware map, Motor calls this for you in its constructor
+     *
+     * @param hwMap The {@link HardwareMap} object passed from the OpMode
+     */
+    public static void register(HardwareMap hwMap) {
+        for (LynxModule module : hwMap.getAll(LynxModule.class)) {
+            register(module);
+        }
+        for (Hub hub : hwMap.getAll(Hub.class)) {
+            register(hub);
+        }
+    }
+
+    /**
+     * Registers a single hub and puts it into the current caching mode
+     *
+     * @param module The hub to cache reads from
+     */
+    public static void register(LynxModule module) {
+        if (module != null)
+            register(new LynxHub(module));
+    }
+
+    /**
+     * Registers a single hub and puts it into the current caching mode, a hub that is already registered still gets
+     * the mode set again in case something else changed it
+     *
+     * @param hub The hub to cache reads from
+     */
+    public static void register(Hub hub) {
+        if (hub == null)
+            return;
+        hub.setBulkCachingMode(mode);
+        if (!modules.contains(hub))
+            modules.add(hub);
+    }
+
+    /**
+     * Sets the caching mode of every registered hub, hubs registered later will also use this mode
+     *
+     * @param mode OFF, AUTO or MANUAL
+     */
+    public static void setMode(LynxModule.BulkCachingMode mode) {
+        BulkCache.mode = mode;
+        for (Hub module : modules) {
+            module.setBulkCachingMode(mode);
+        }
+    }
+
+    /**
+     * Returns the caching mode the hubs are in
+     *
+     * @return The current {@link LynxModule.BulkCachingMode}
+     */
+    public static LynxModule.BulkCachingMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Throws away the cached bulk data so the next read does a fresh bulk transaction, call once per control cycle
+     * This is also safe to call in AUTO, it just forces the refresh early
+     */
+    public static void clearCache() {
+        for (int i = 0; i < modules.size(); i++) { // indexed so we dont make an iterator every loop
+            modules.get(i).clearBulkCache();
+        }
+        cycles++;
+    }
+
+    /**
+     * Returns how many times the cache has been cleared, useful to work out the loop rate
+     *
+     * @return Number of control cycles since the last {@link #reset()}
+     */
+    public static long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Forgets all registered hubs and goes back to AUTO, {@link #init(HardwareMap, LynxModule.BulkCachingMode)} does this for you
+     */
+    public static void reset() {
+        setMode(LynxModule.BulkCachingMode.AUTO);
+        modules.clear();
+        cycles = 0;
+    }
+}
@@ -0,0 +1,553 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.Axis;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.Imu;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Records typed values every loop into a binary file, so there is something to look at after a match besides telemetry
+ * <p>
+ * Channels are declared before {@link #start()}, then each loop the values get set and {@link #commit()} copies them
+ * as one record into a ring buffer that was allocated up front. A background thread drains the ring into the file in
+ * big chunks, the control loop never touches the file or allocates anything. There is one writer and one reader so
+ * the ring only needs two counters, no locks. If the file can't keep up the newest records get dropped and counted
+ * instead of stalling the loop.
+ * <p>
+ * Every record starts with the time and the loop time, turn a log into a spreadsheet with {@link LogDecoder}.
+ * The file is a header (magic, version, then each channel's type and name) followed by fixed size big endian records
+ */
+public class DataLogger {
+    static final int MAGIC = 0x46544C47; // FTLG
+    static final short VERSION = 1;
+    static final byte TYPE_DOUBLE = 0, TYPE_INT = 1, TYPE_LONG = 2, TYPE_BOOLEAN = 3;
+
+    /**
+     * Folder logs go in on the control hub
+     */
+    public static final File LOG_FOLDER = new File("/sdcard/FIRST/logs");
+
+    /**
+     * One value in every record, get them from the add methods
+     */
+    public abstract static class Channel {
+        final DataLogger logger;
+        final String name;
+        final byte type;
+        final int slot;
+
+        Channel(DataLogger logger, String name, byte type, int slot) {
+            this.logger = logger;
+            this.name = name;
+            this.type = type;
+            this.slot = slot;
+        }
+
+        /**
+         * Returns the name of the channel, it becomes the column header
+         *
+         * @return The name
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * A channel holding a double
+     */
+    public static final class DoubleChannel extends Channel {
+        DoubleChannel(DataLogger logger, String name, int slot) {
+            super(logger, name, TYPE_DOUBLE, slot);
+        }
+
+        /**
+         * Sets the value for the record being built, the last value sticks around until it is set again
+         *
+         * @param value The value
+         */
+        public void set(double value) {
+            logger.staging[slot] = Double.doubleToRawLongBits(value);
+        }
+    }
+
+    /**
+     * A channel holding an int
+     */
+    public static final class IntChannel extends Channel {
+        IntChannel(DataLogger logger, String name, int slot) {
+            super(logger, name, TYPE_INT, slot);
+        }
+
+        /**
+         * Sets the value for the record being built
+         *
+         * @param value The value
+         */
+        public void set(int value) {
+            logger.staging[slot] = value;
+        }
+    }
+
+    /**
+     * A channel holding a long
+     */
+    public static final class LongChannel extends Channel {
+        LongChannel(DataLogger logger, String name, int slot) {
+            super(logger, name, TYPE_LONG, slot);
+        }
+
+        /**
+         * Sets the value for the record being built
+         *
+         * @param value The value
+         */
+        public void set(long value) {
+            logger.staging[slot] = value;
+        }
+    }
+
+    /**
+     * A channel holding a boolean
+     */
+    public static final class BooleanChannel extends Channel {
+        BooleanChannel(DataLogger logger, String name, int slot) {
+            super(logger, name, TYPE_BOOLEAN, slot);
+        }
+
+        /**
+         * Sets the value for the record being built
+         *
+         * @param value The value
+         */
+        public void set(boolean value) {
+            logger.staging[slot] = value ? 1 : 0;
+        }
+    }
+
+    private final File file;
+    private final int capacity;
+    private final Clock clock;
+    private final ArrayList<Channel> channels = new ArrayList<>();
+    private final ArrayList<Object> sources = new ArrayList<>(); // supplier per channel, null when set by hand
+
+    // filled in by start() once the channels are known
+    private long[] staging, ring;
+    private Object[] sourceArray;
+    private Channel[] channelArray;
+    private int stride, recordBytes;
+
+    private final AtomicLong written = new AtomicLong(), read = new AtomicLong();
+    private long dropped = 0, lastCommit = -1;
+    private volatile boolean running = false;
+    private volatile IOException error;
+    private Thread thread;
+    private FileChannel fileChannel;
+
+    /**
+     * Creates a logger that keeps up to 4096 records waiting to be written, about 80 seconds of loops at 50 Hz
+     *
+     * @param file The file to write, it gets replaced
+     */
+    public DataLogger(File file) {
+        this(file, 4096, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a logger with a custom ring size and clock
+     *
+     * @param file     The file to write, it gets replaced
+     * @param capacity How many records can wait to be written before new ones get dropped
+     * @param clock    The {@link Clock} records get stamped with
+     */
+    public DataLogger(File file, int capacity, Clock clock) {
+        if (file == null || clock == null)
+            throw new IllegalArgumentException("File and clock cannot be null");
+        if (capacity < 2)
+            throw new IllegalArgumentException("Capacity must be at least 2 records");
+        this.file = file;
+        this.capacity = capacity;
+        this.clock = clock;
+        addLong("loopNanos"); // slot 0, filled in by commit
+    }
+
+    /**
+     * Makes a file in {@link #LOG_FOLDER} named after the opmode and the time, so logs from different runs don't overwrite each other
+     *
+     * @param name Usually the opmode's name
+     * @return The file, its folder is created if needed
+     */
+    public static File newLogFile(String name) {
+        LOG_FOLDER.mkdirs();
+        return new File(LOG_FOLDER, name + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date()) + ".bin");
+    }
+
+    private <T extends Channel> T add(T channel, Object source) {
+        if (staging != null)
+            throw new IllegalStateException("Channels have to be added before the logger starts");
+        for (Channel existing : channels) {
+            if (existing.name.equals(channel.name))
+                throw new IllegalArgumentException("There is already a channel named " + channel.name);
+        }
+        channels.add(channel);
+        sources.add(source);
+        return channel;
+    }
+
+    /**
+     * Adds a double channel that gets set by hand
+     *
+     * @param name Column name
+     * @return The channel
+     */
+    public DoubleChannel addDouble(String name) {
+        return add(new DoubleChannel(this, name, channels.size()), null);
+    }
+
+    /**
+     * Adds a double channel that reads its value on every {@link #commit()}
+     *
+     * @param name   Column name
+     * @param source Where the value comes from, a method reference like {@code lift::getPower} doesn't allocate
+     * @return The channel
+     */
+    public DoubleChannel addDouble(String name, DoubleSupplier source) {
+        return add(new DoubleChannel(this, name, channels.size()), source);
+    }
+
+    /**
+     * Adds an int channel that gets set by hand
+     *
+     * @param name Column name
+     * @return The channel
+     */
+    public IntChannel addInt(String name) {
+        return add(new IntChannel(this, name, channels.size()), null);
+    }
+
+    /**
+     * Adds an int channel that reads its value on every {@link #commit()}
+     *
+     * @param name   Column name
+     * @param source Where the value comes from
+     * @return The channel
+     */
+    public IntChannel addInt(String name, IntSupplier source) {
+        return add(new IntChannel(this, name, channels.size()), source);
+    }
+
+    /**
+     * Adds a long channel that gets set by hand
+     *
+     * @param name Column name
+     * @return The channel
+     */
+    public LongChannel addLong(String name) {
+        return add(new LongChannel(this, name, channels.size()), null);
+    }
+
+    /**
+     * Adds a long channel that reads its value on every {@link #commit()}
+     *
+     * @param name   Column name
+     * @param source Where the value comes from
+     * @return The channel
+     */
+    public LongChannel addLong(String name, LongSupplier source) {
+        return add(new LongChannel(this, name, channels.size()), source);
+    }
+
+    /**
+     * Adds a boolean channel that gets set by hand
+     *
+     * @param name Column name
+     * @return The channel
+     */
+    public BooleanChannel addBoolean(String name) {
+        return add(new BooleanChannel(this, name, channels.size()), null);
+    }
+
+    /**
+     * Adds a boolean channel that reads its value on every {@link #commit()}
+     *
+     * @param name   Column name
+     * @param source Where the value comes from
+     * @return The channel
+     */
+    public BooleanChannel addBoolean(String name, BooleanSupplier source) {
+        return add(new BooleanChannel(this, name, channels.size()), source);
+    }
+
+    /**
+     * Logs a motor's position and power as "name.position" and "name.power"
+     *
+     * @param motor The {@link Motor} to log
+     * @return This logger
+     */
+    public DataLogger addMotor(Motor motor) {
+        addInt(motor.getName() + ".position", motor::getCurrentPosition);
+        addDouble(motor.getName() + ".power", motor::getPower);
+        return this;
+    }
+
+    /**
+     * Logs the heading of an IMU in degrees
+     *
+     * @param name Column name
+     * @param imu  The {@link Imu} to log
+     * @return This logger
+     */
+    public DataLogger addHeading(String name, Imu imu) {
+        addDouble(name, () -> imu.getAngle(AngleUnit.DEGREES));
+        return this;
+    }
+
+    /**
+     * Logs a gamepad snapshot as "name.buttons" and one raw column per {@link Axis}, enough to play a session back later
+     *
+     * @param name  Prefix for the column names
+     * @param input The {@link GamepadInput} to log, updated before the logger samples it each loop
+     * @return This logger
+     */
+    public DataLogger addGamepad(String name, GamepadInput input) {
+        addInt(name + ".buttons", input::getButtons);
+        for (Axis axis : Axis.values())
+            addDouble(name + "." + axis.name().toLowerCase(), () -> input.getRaw(axis));
+        return this;
+    }
+
+    /**
+     * Logs the voltage and current of a hub as "name.voltage" and "name.current"
+     * Reading these from the hub is a transaction each, so they come from what the {@link VoltageMonitor} last read on
+     * its own thread instead, logging them costs the loop nothing. Start the monitor before the logger
+     *
+     * @param name    Prefix for the column names
+     * @param monitor The {@link VoltageMonitor} reading the hub
+     * @return This logger
+     */
+    public DataLogger addHub(String name, VoltageMonitor monitor) {
+        addDouble(name + ".voltage", monitor::getVoltage);
+        addDouble(name + ".current", monitor::getCurrent);
+        return this;
+    }
+
+    /**
+     * Opens the file, writes the header and starts the thread that drains records into it
+     *
+     * @throws IOException If the file can't be created
+     */
+    public void start() throws IOException {
+        if (staging != null)
+            throw new IllegalStateException("A logger can only be started once");
+        channelArray = channels.toArray(new Channel[0]);
+        sourceArray = sources.toArray();
+        stride = channelArray.length + 1; // time then one slot per channel
+        staging = new long[channelArray.length];
+        ring = new long[capacity * stride];
+        recordBytes = 8;
+        for (Channel channel : channelArray)
+            recordBytes += width(channel.type);
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            parent.mkdirs();
+        fileChannel = new FileOutputStream(file).getChannel();
+        writeHeader();
+
+        running = true;
+        thread = new Thread(this::drainLoop, "DataLogger");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static int width(byte type) {
+        switch (type) {
+            case TYPE_INT:
+                return 4;
+            case TYPE_BOOLEAN:
+                return 1;
+            default:
+                return 8;
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        int size = 8;
+        for (Channel channel : channelArray)
+            size += 3 + channel.name.getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) channelArray.length);
+        for (Channel channel : channelArray) {
+            byte[] name = channel.name.getBytes(StandardCharsets.UTF_8);
+            header.put(channel.type).putShort((short) name.length).put(name);
+        }
+        header.flip();
+        while (header.hasRemaining())
+            fileChannel.write(header);
+    }
+
+    /**
+     * Reads every channel that has a source and puts the record in the ring, call once per loop
+     * Doesn't allocate, lock or wait
+     */
+    public void commit() {
+        if (staging == null)
+            return;
+        long now = clock.nanoTime();
+        staging[0] = lastCommit < 0 ? 0 : now - lastCommit;
+        lastCommit = now;
+        for (int i = 1; i < channelArray.length; i++) {
+            Object source = sourceArray[i];
+            if (source == null)
+                continue;
+            switch (channelArray[i].type) {
+                case TYPE_DOUBLE:
+                    staging[i] = Double.doubleToRawLongBits(((DoubleSupplier) source).getAsDouble());
+                    break;
+                case TYPE_INT:
+                    staging[i] = ((IntSupplier) source).getAsInt();
+                    break;
+                case TYPE_LONG:
+                    staging[i] = ((LongSupplier) source).getAsLong();
+                    break;
+                default:
+                    staging[i] = ((BooleanSupplier) source).getAsBoolean() ? 1 : 0;
+                    break;
+            }
+        }
+
+        long index = written.get();
+        if (index - read.get() >= capacity) { // writer thread is behind, lose this record rather than the loop
+            dropped++;
+            return;
+        }
+        int base = (int) (index % capacity) * stride;
+        ring[base] = now;
+        System.arraycopy(staging, 0, ring, base + 1, staging.length);
+        written.lazySet(index + 1); // publishes the record to the drain thread
+    }
+
+    private void drainLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(64 * 1024, recordBytes));
+        try {
+            while (running) {
+                drain(buffer);
+                LockSupport.parkNanos(20_000_000); // not sleep, interrupting a thread in the middle of a write closes the file
+            }
+            drain(buffer); // whatever came in after the last pass
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    private void drain(ByteBuffer buffer) throws IOException {
+        long end = written.get();
+        for (long index = read.get(); index < end; index++) {
+            if (buffer.remaining() < recordBytes)
+                flush(buffer);
+            int base = (int) (index % capacity) * stride;
+            buffer.putLong(ring[base]);
+            for (int i = 0; i < channelArray.length; i++) {
+                long value = ring[base + 1 + i];
+                switch (channelArray[i].type) {
+                    case TYPE_INT:
+                        buffer.putInt((int) value);
+                        break;
+                    case TYPE_BOOLEAN:
+                        buffer.put((byte) value);
+                        break;
+                    default:
+                        buffer.putLong(value); // doubles are already stored as their bits
+                        break;
+                }
+            }
+            read.lazySet(index + 1);
+        }
+        flush(buffer);
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            fileChannel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Writes out everything still in the ring and closes the file, call at the end of the opmode
+     * The sdk interrupts a LinearOpMode's thread when it gets stopped, which is right when this gets called, so this
+     * waits for the drain thread anyway and puts the interrupt back afterwards
+     *
+     * @throws IOException If writing failed at any point while the logger was running
+     */
+    public void stop() throws IOException {
+        if (!running)
+            return;
+        running = false;
+        LockSupport.unpark(thread);
+        // interrupted, join would throw straight away and the file channel would close itself on the first call
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            fileChannel.force(true);
+            fileChannel.close();
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * Returns how many records were thrown away because the ring was full
+     *
+     * @return Dropped record count
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Returns how many records have been committed
+     *
+     * @return Record count, including dropped ones
+     */
+    public long getRecords() {
+        return written.get() + dropped;
+    }
+
+    /**
+     * Returns the file being written
+     *
+     * @return The log file
+     */
+    public File getFile() {
+        return file;
+    }
+}
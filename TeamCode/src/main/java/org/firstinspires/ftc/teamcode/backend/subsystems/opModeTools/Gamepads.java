@@ -0,0 +1,112 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.Button;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+
+/**
+ * Snapshots both sdk gamepads into {@link GamepadInput}s once per loop
+ * <p>
+ * The sdk updates its gamepads from another thread whenever a packet comes in, so reading the fields straight can see
+ * a button down in one line and up the next. After {@link #update()} everything reads from the snapshot instead
+ */
+public class Gamepads {
+    private final Gamepad gamepad1, gamepad2;
+    private final GamepadInput input1 = new GamepadInput(), input2 = new GamepadInput();
+    private final Clock clock;
+
+    /**
+     * Creates the snapshots on the real clock
+     *
+     * @param gamepad1 The OpMode's gamepad1
+     * @param gamepad2 The OpMode's gamepad2
+     */
+    public Gamepads(Gamepad gamepad1, Gamepad gamepad2) {
+        this(gamepad1, gamepad2, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates the snapshots with a custom clock
+     *
+     * @param gamepad1 The OpMode's gamepad1
+     * @param gamepad2 The OpMode's gamepad2
+     * @param clock    The {@link Clock} used to time held buttons and slew rates
+     */
+    public Gamepads(Gamepad gamepad1, Gamepad gamepad2, Clock clock) {
+        if (gamepad1 == null || gamepad2 == null || clock == null)
+            throw new IllegalArgumentException("Gamepads and clock cannot be null");
+        this.gamepad1 = gamepad1;
+        this.gamepad2 = gamepad2;
+        this.clock = clock;
+    }
+
+    /**
+     * Reads both gamepads and runs their bindings, call this once at the top of every loop
+     */
+    public void update() {
+        long now = clock.nanoTime(); // same time for both so held times line up
+        read(gamepad1, input1, now);
+        read(gamepad2, input2, now);
+    }
+
+    /**
+     * Returns the driver's gamepad
+     *
+     * @return gamepad1's snapshot
+     */
+    public GamepadInput getGamepad1() {
+        return input1;
+    }
+
+    /**
+     * Returns the operator's gamepad
+     *
+     * @return gamepad2's snapshot
+     */
+    public GamepadInput getGamepad2() {
+        return input2;
+    }
+
+    /**
+     * Snapshots one sdk gamepad
+     *
+     * @param gamepad The sdk gamepad
+     * @param input   Where the snapshot goes
+     * @param nanos   Time of the snapshot
+     */
+    public static void read(Gamepad gamepad, GamepadInput input, long nanos) {
+        input.update(nanos, buttons(gamepad),
+                gamepad.left_stick_x, gamepad.left_stick_y,
+                gamepad.right_stick_x, gamepad.right_stick_y,
+                gamepad.left_trigger, gamepad.right_trigger);
+    }
+
+    /**
+     * Packs every button on a gamepad into a mask, the PlayStation names count as the buttons they alias
+     *
+     * @param gamepad The sdk gamepad
+     * @return Button mask, one {@link Button#mask()} bit each
+     */
+    public static int buttons(Gamepad gamepad) {
+        int mask = 0;
+        if (gamepad.a || gamepad.cross) mask |= Button.A.mask();
+        if (gamepad.b || gamepad.circle) mask |= Button.B.mask();
+        if (gamepad.x || gamepad.square) mask |= Button.X.mask();
+        if (gamepad.y || gamepad.triangle) mask |= Button.Y.mask();
+        if (gamepad.dpad_up) mask |= Button.DPAD_UP.mask();
+        if (gamepad.dpad_down) mask |= Button.DPAD_DOWN.mask();
+        if (gamepad.dpad_left) mask |= Button.DPAD_LEFT.mask();
+        if (gamepad.dpad_right) mask |= Button.DPAD_RIGHT.mask();
+        if (gamepad.left_bumper) mask |= Button.LEFT_BUMPER.mask();
+        if (gamepad.right_bumper) mask |= Button.RIGHT_BUMPER.mask();
+        if (gamepad.left_stick_button) mask |= Button.LEFT_STICK_BUTTON.mask();
+        if (gamepad.right_stick_button) mask |= Button.RIGHT_STICK_BUTTON.mask();
+        if (gamepad.start || gamepad.options) mask |= Button.START.mask();
+        if (gamepad.back || gamepad.share) mask |= Button.BACK.mask();
+        if (gamepad.guide || gamepad.ps) mask |= Button.GUIDE.mask();
+        if (gamepad.touchpad) mask |= Button.TOUCHPAD.mask();
+        return mask;
+    }
+}
@@ -1,7 +1,6 @@
 package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
 
 import com.qualcomm.hardware.lynx.LynxModule;
-import com.qualcomm.hardware.lynx.commands.standard.LynxSetModuleLEDColorCommand;
 
 import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.TempUnit;
@@ -64,23 +63,23 @@ public class HubInfo {
 
     /**
      * Sets the LED color of the hub using RGB values
+     * The command goes through the hub's {@link LynxCommandQueue} so a NACK gets retried in the background instead of holding up the loop
      *
-     * @param r The red component of the color (0-255)
-     * @param g The green component of the color (0-255)
-     * @param b The blue component of the color (0-255)
+     * @param r The red component of the color (0-255, bytes are read as unsigned)
+     * @param g The green component of the color (0-255, bytes are read as unsigned)
+     * @param b The blue component of the color (0-255, bytes are read as unsigned)
      */
     public void setLed(byte r, byte g, byte b) {
-        if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
-            throw new IllegalArgumentException("RGB values must be between 0 and 255.");
-        }
-        while (true) {
-            try {
-                new LynxSetModuleLEDColorCommand(lynxModule, r, g, b).send();
-                break;
-            } catch (Exception e) {
-                // Handle the exception (currently suppressed)
-            }
-        }
+        LynxCommandQueue.of(lynxModule).setLed(r & 0xFF, g & 0xFF, b & 0xFF);
+    }
+
+    /**
+     * Returns the command queue for this hub
+     *
+     * @return The hub's {@link LynxCommandQueue}
+     */
+    public LynxCommandQueue getCommandQueue() {
+        return LynxCommandQueue.of(lynxModule);
     }
 
     /**
@@ -0,0 +1,121 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns a file from {@link DataLogger} into a csv, runs on a laptop after pulling the log off the control hub with adb
+ * <p>
+ * {@code java LogDecoder match3.bin match3.csv}, leave out the csv to print to the console.
+ * The first column is seconds since the first record, then one column per channel in the order they were added
+ */
+public class LogDecoder {
+    private LogDecoder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: LogDecoder <log.bin> [out.csv]");
+            System.exit(1);
+        }
+        try (InputStream in = new FileInputStream(args[0]);
+             Writer out = new BufferedWriter(args.length == 2
+                     ? new OutputStreamWriter(new FileOutputStream(args[1]), StandardCharsets.UTF_8)
+                     : new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            long records = decode(in, out);
+            System.err.println(records + " records");
+        }
+    }
+
+    /**
+     * Reads a whole log and writes it as csv
+     * A log cut off partway through a record (robot lost power) just stops at the last full record
+     *
+     * @param in  The log
+     * @param out Where the csv goes, not closed
+     * @return How many records were written
+     * @throws IOException If the log can't be read or isn't a log at all
+     */
+    public static long decode(InputStream in, Writer out) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != DataLogger.MAGIC)
+            throw new IOException("Not a DataLogger file");
+        short version = data.readShort();
+        if (version != DataLogger.VERSION)
+            throw new IOException("Can't read log version " + version);
+
+        int count = data.readShort();
+        byte[] types = new byte[count];
+        out.write("time");
+        for (int i = 0; i < count; i++) {
+            types[i] = data.readByte();
+            byte[] name = new byte[data.readShort()];
+            data.readFully(name);
+            out.write(',');
+            out.write(new String(name, StandardCharsets.UTF_8));
+        }
+        out.write('\n');
+
+        byte[] record = new byte[recordSize(types)];
+        StringBuilder line = new StringBuilder();
+        long records = 0, start = 0;
+        while (readRecord(data, record)) {
+            DataInputStream fields = new DataInputStream(new ByteArrayInputStream(record));
+            long time = fields.readLong();
+            if (records == 0)
+                start = time;
+            line.setLength(0);
+            line.append((time - start) / 1e9);
+            for (byte type : types) {
+                line.append(',');
+                switch (type) {
+                    case DataLogger.TYPE_DOUBLE:
+                        line.append(fields.readDouble());
+                        break;
+                    case DataLogger.TYPE_INT:
+                        line.append(fields.readInt());
+                        break;
+                    case DataLogger.TYPE_LONG:
+                        line.append(fields.readLong());
+                        break;
+                    case DataLogger.TYPE_BOOLEAN:
+                        line.append(fields.readByte() != 0);
+                        break;
+                    default:
+                        throw new IOException("Unknown channel type " + type);
+                }
+            }
+            line.append('\n');
+            out.write(line.toString());
+            records++;
+        }
+        out.flush();
+        return records;
+    }
+
+    private static int recordSize(byte[] types) {
+        int size = 8;
+        for (byte type : types)
+            size += DataLogger.width(type);
+        return size;
+    }
+
+    private static boolean readRecord(DataInputStream data, byte[] record) throws IOException {
+        try {
+            data.readFully(record);
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.hardware.lynx.commands.core.LynxSetMotorChannelModeCommand;
+import com.qualcomm.hardware.lynx.commands.core.LynxSetMotorTargetPositionCommand;
+import com.qualcomm.hardware.lynx.commands.standard.LynxSetModuleLEDColorCommand;
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Sends commands to a hub on a background thread, retrying the ones that get NACKed instead of hanging the loop on them
+ * <p>
+ * Every command has a key, and a new command with the same key replaces one that hasn't gone out yet, since only the
+ * newest LED color or target position matters. The queue is bounded: when it is full the new command is refused
+ * instead of piling up. Failed sends are retried with a backoff that doubles every time, up to a limit, then given up on.
+ * Higher priority commands go first, and the counters show how long commands wait and how many fail
+ * <p>
+ * Commands are plain {@link Sender}s, so a test can hand in ones that throw to act like a hub that NACKs
+ */
+public class LynxCommandQueue {
+    /**
+     * Something that talks to the hub once, throwing if the hub doesn't take it
+     */
+    public interface Sender {
+        void send() throws Exception;
+    }
+
+    /**
+     * Which commands go first when more than one is waiting
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private static final class Entry {
+        final Object key;
+        Sender sender;
+        Priority priority;
+        long submitted, readyAt, order;
+        int attempts;
+
+        Entry(Object key) {
+            this.key = key;
+        }
+    }
+
+    private static final HashMap<LynxModule, LynxCommandQueue> queues = new HashMap<>();
+    // keys for the built in commands, motor commands add the port so each motor has its own
+    private static final int LED_KEY = -1, TARGET_KEY = 0, MODE_KEY = 8;
+
+    private final Clock clock;
+    private final int capacity, maxAttempts;
+    private final long baseBackoff, maxBackoff;
+    private final ArrayList<Entry> pending = new ArrayList<>();
+    private final HashMap<Object, Entry> byKey = new HashMap<>();
+    private final LynxModule module;
+    private long order = 0;
+    // the thread that's allowed to send, an old one that's still finishing a send after stop() sees it isn't this and quits
+    private Thread thread;
+
+    private long sent, failed, retries, superseded, refused, totalLatency, maxLatency;
+
+    /**
+     * Returns the queue for a hub, making it the first time
+     *
+     * @param module The hub
+     * @return Its queue, already started
+     */
+    public static synchronized LynxCommandQueue of(LynxModule module) {
+        LynxCommandQueue queue = queues.get(module);
+        if (queue == null) {
+            queue = new LynxCommandQueue(module, 32, 5, 0.005, 0.2, Clock.SYSTEM);
+            queue.start();
+            queues.put(module, queue);
+        }
+        return queue;
+    }
+
+    /**
+     * Stops and forgets every queue made with {@link #of(LynxModule)}, static state lives between OpModes so call this when hubs get remade
+     */
+    public static synchronized void reset() {
+        for (LynxCommandQueue queue : queues.values())
+            queue.stop();
+        queues.clear();
+    }
+
+    /**
+     * Creates a queue, call {@link #start()} before submitting
+     *
+     * @param module         The hub, only used by the built in commands so it can be null for {@link #submit} only use
+     * @param capacity       Most commands that can wait at once
+     * @param maxAttempts    Sends before a command is given up on
+     * @param backoffSeconds Wait before the first retry, doubles on every retry after
+     * @param maxBackoff     Longest wait between retries, seconds
+     * @param clock          The {@link Clock} used to time backoff and latency
+     */
+    public LynxCommandQueue(LynxModule module, int capacity, int maxAttempts, double backoffSeconds, double maxBackoff, Clock clock) {
+        if (capacity < 1 || maxAttempts < 1)
+            throw new IllegalArgumentException("Capacity and attempts must be at least 1");
+        if (backoffSeconds < 0 || maxBackoff < backoffSeconds)
+            throw new IllegalArgumentException("Backoff can't be negative and max backoff can't be less than it");
+        if (clock == null)
+            throw new IllegalArgumentException("Clock cannot be null");
+        this.module = module;
+        this.capacity = capacity;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Math.round(backoffSeconds * 1e9);
+        this.maxBackoff = Math.round(maxBackoff * 1e9);
+        this.clock = clock;
+    }
+
+    /**
+     * Starts the thread that sends commands
+     *
+     * @return This queue
+     */
+    public synchronized LynxCommandQueue start() {
+        if (thread != null)
+            return this;
+        thread = new Thread(this::run, "LynxCommandQueue");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Stops the thread, commands still waiting are dropped
+     * A send that's already going out finishes but nothing after it does, even if {@link #start()} is called again right away
+     */
+    public synchronized void stop() {
+        thread = null;
+        pending.clear();
+        byKey.clear();
+        notifyAll();
+    }
+
+    /**
+     * Queues a command
+     *
+     * @param key      Commands with equal keys replace each other while waiting, null for a command that never gets replaced
+     * @param priority When it goes compared to other waiting commands
+     * @param sender   What to send
+     * @return False if the queue was full and the command was refused
+     */
+    public synchronized boolean submit(Object key, Priority priority, Sender sender) {
+        if (sender == null || priority == null)
+            throw new IllegalArgumentException("Sender and priority cannot be null");
+        long now = clock.nanoTime();
+        Entry entry = key == null ? null : byKey.get(key);
+        if (entry != null) { // the old one is out of date now, send this instead in its place
+            entry.sender = sender;
+            if (priority.ordinal() < entry.priority.ordinal())
+                entry.priority = priority;
+            entry.attempts = 0;
+            entry.readyAt = now;
+            superseded++;
+            notifyAll();
+            return true;
+        }
+        if (pending.size() >= capacity) {
+            refused++;
+            return false;
+        }
+        entry = new Entry(key);
+        entry.sender = sender;
+        entry.priority = priority;
+        entry.submitted = entry.readyAt = now;
+        entry.order = order++;
+        pending.add(entry);
+        if (key != null)
+            byKey.put(key, entry);
+        notifyAll();
+        return true;
+    }
+
+    private void run() {
+        Thread self = Thread.currentThread();
+        while (true) {
+            Entry entry;
+            Sender sender;
+            synchronized (this) {
+                entry = next(self);
+                if (entry == null)
+                    return;
+                sender = entry.sender;
+                entry.attempts++;
+            }
+
+            boolean ok;
+            try {
+                sender.send();
+                ok = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) { // a NACK or a timeout, try again later
+                ok = false;
+            }
+
+            synchronized (this) {
+                if (thread != self)
+                    return;
+                if (entry.sender != sender) // replaced while it was being sent, the new one still has to go out
+                    continue;
+                if (ok || entry.attempts >= maxAttempts) {
+                    remove(entry);
+                    if (ok) {
+                        sent++;
+                        long latency = clock.nanoTime() - entry.submitted;
+                        totalLatency += latency;
+                        maxLatency = Math.max(maxLatency, latency);
+                    } else {
+                        failed++;
+                    }
+                } else {
+                    retries++;
+                    long backoff = Math.min(maxBackoff, baseBackoff << Math.min(entry.attempts - 1, 30));
+                    entry.readyAt = clock.nanoTime() + backoff;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the best command that is ready to go, null once this thread has been stopped
+     */
+    private Entry next(Thread self) {
+        while (thread == self) {
+            long now = clock.nanoTime(), soonest = Long.MAX_VALUE;
+            Entry best = null;
+            for (int i = 0; i < pending.size(); i++) {
+                Entry entry = pending.get(i);
+                if (entry.readyAt > now) {
+                    soonest = Math.min(soonest, entry.readyAt);
+                    continue;
+                }
+                if (best == null || entry.priority.ordinal() < best.priority.ordinal()
+                        || entry.priority == best.priority && entry.order < best.order)
+                    best = entry;
+            }
+            if (best != null)
+                return best;
+            try {
+                if (soonest == Long.MAX_VALUE) {
+                    wait();
+                } else {
+                    long nanos = soonest - now;
+                    wait(Math.max(1, nanos / 1_000_000)); // backoff is in milliseconds anyway, a little late is fine
+                }
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void remove(Entry entry) {
+        pending.remove(entry);
+        if (entry.key != null)
+            byKey.remove(entry.key);
+    }
+
+    private LynxModule module() {
+        if (module == null)
+            throw new IllegalStateException("This queue wasn't made for a hub");
+        return module;
+    }
+
+    /**
+     * Sets the hub's LED, only the newest color waiting gets sent
+     *
+     * @param r Red (0-255)
+     * @param g Green (0-255)
+     * @param b Blue (0-255)
+     * @return False if the queue was full
+     */
+    public boolean setLed(int r, int g, int b) {
+        if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255)
+            throw new IllegalArgumentException("RGB values must be between 0 and 255.");
+        LynxModule hub = module();
+        return submit(LED_KEY, Priority.LOW, () -> new LynxSetModuleLEDColorCommand(hub, (byte) r, (byte) g, (byte) b).send());
+    }
+
+    /**
+     * Sets a motor's RUN_TO_POSITION target straight on the hub, only the newest target for a port gets sent
+     * This skips the sdk's motor object, so the target is in the hub's own direction (not flipped for reversed motors)
+     *
+     * @param port      Motor port 0-3
+     * @param target    Target in ticks
+     * @param tolerance Ticks from the target that count as there
+     * @return False if the queue was full
+     */
+    public boolean setTargetPosition(int port, int target, int tolerance) {
+        LynxModule hub = module();
+        return submit(TARGET_KEY + port, Priority.HIGH, () -> new LynxSetMotorTargetPositionCommand(hub, port, target, tolerance).send());
+    }
+
+    /**
+     * Sets a motor's run mode and zero power behavior straight on the hub, only the newest mode for a port gets sent
+     *
+     * @param port              Motor port 0-3
+     * @param mode              The run mode
+     * @param zeroPowerBehavior What the motor does at 0 power
+     * @return False if the queue was full
+     */
+    public boolean setChannelMode(int port, DcMotor.RunMode mode, DcMotor.ZeroPowerBehavior zeroPowerBehavior) {
+        LynxModule hub = module();
+        return submit(MODE_KEY + port, Priority.HIGH, () -> new LynxSetMotorChannelModeCommand(hub, port, mode, zeroPowerBehavior).send());
+    }
+
+    /**
+     * Returns how many commands are waiting
+     *
+     * @return Pending count
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Returns how many commands the hub took
+     *
+     * @return Sent count
+     */
+    public synchronized long getSent() {
+        return sent;
+    }
+
+    /**
+     * Returns how many commands were given up on after every attempt failed
+     *
+     * @return Failed count
+     */
+    public synchronized long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Returns how many times a send was retried
+     *
+     * @return Retry count
+     */
+    public synchronized long getRetries() {
+        return retries;
+    }
+
+    /**
+     * Returns how many commands were replaced by a newer one before going out
+     *
+     * @return Superseded count
+     */
+    public synchronized long getSuperseded() {
+        return superseded;
+    }
+
+    /**
+     * Returns how many commands were turned away because the queue was full
+     *
+     * @return Refused count
+     */
+    public synchronized long getRefused() {
+        return refused;
+    }
+
+    /**
+     * Returns the average time from submitting a command to the hub taking it
+     *
+     * @return Mean latency in seconds
+     */
+    public synchronized double getMeanLatency() {
+        return sent == 0 ? 0 : totalLatency / 1e9 / sent;
+    }
+
+    /**
+     * Returns the longest time from submitting a command to the hub taking it
+     *
+     * @return Max latency in seconds
+     */
+    public synchronized double getMaxLatency() {
+        return maxLatency / 1e9;
+    }
+}
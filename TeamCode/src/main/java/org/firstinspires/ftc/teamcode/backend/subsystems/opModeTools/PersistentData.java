@@ -3,142 +3,682 @@ package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.zip.CRC32;
 
 /**
- * PersistentData is a utility class designed to manage the persistent storage of
- * key-value data. It uses serialization to store and retrieve
- * data from a file and ensures thread-safety with the use of a {@link ConcurrentHashMap}
+ * PersistentData is a typed key-value store that survives between opmodes and app restarts, mainly for handing the
+ * pose and encoder offsets from autonomous to TeleOp
+ * <p>
+ * Every put appends one small record to a journal file, so saving the pose every loop costs a write into the OS page
+ * cache and nothing else. Once the journal gets big it is compacted on a background thread: the current values are
+ * written to a new snapshot file, synced, and renamed over the old one, then the journal starts over with only the puts
+ * that came in while that was happening. Each record carries a CRC, so if the robot loses power in the middle of a write,
+ * loading keeps everything up to the last whole record and throws away the torn tail. The rename means the snapshot is
+ * always either the old one or the new one, never half of each.
+ * <p>
+ * Puts never throw for a failed write, the value stays in memory and goes out with the next compaction. Check
+ * {@link #getLastError()} (telemetry is a good place) to know the data really made it.
+ * Call {@link #sync()} when the data has to be on disk right now (end of autonomous), otherwise the OS gets to it
  */
 public class PersistentData {
-    private static final String FILE = "data.dat";
-    private static Map<String, DataObject> data;
+    private static final int MAGIC = 0x46545044; // FTPD
+    private static final byte TYPE_DOUBLE = 0, TYPE_LONG = 1, TYPE_INT = 2, TYPE_BOOLEAN = 3, TYPE_STRING = 4, TYPE_REMOVED = 5;
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
 
+    /**
+     * Where the store lives on the control hub unless told otherwise
+     */
+    public static final File DEFAULT_FILE = new File("/sdcard/FIRST/data/persistent");
+
+    private static PersistentData shared;
+
+    /**
+     * One stored value, reused on every put so the map doesn't churn while something gets saved every loop
+     */
+    private static final class Slot {
+        final byte[] key;
+        byte type;
+        long bits; // doubles as raw bits, booleans as 0 or 1
+        String string;
+
+        Slot(byte[] key) {
+            this.key = key;
+        }
+    }
+
+    private final File snapshotFile, journalFile, tempFile, journalTempFile;
+    private final HashMap<String, Slot> values = new HashMap<>();
+    private final CRC32 crc = new CRC32();
+    private final Object compactLock = new Object(); // one compaction at a time, always taken before this
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+    private ByteBuffer snapshot = ByteBuffer.allocate(512); // only touched while holding compactLock
+    private FileChannel journal;
+    private long journalBytes;
+    private long compactAt = 256 * 1024, retryAt = 0;
+    private boolean compacting = false;
+    private volatile IOException lastError;
+    private volatile long errors = 0;
+
+    /**
+     * Opens the store in the default location, creating it if it isn't there
+     *
+     * @throws IOException If the files can't be opened
+     */
+    public PersistentData() throws IOException {
+        this(DEFAULT_FILE);
+    }
+
+    /**
+     * Opens a store, creating it if it isn't there. It is kept as the name itself for the snapshot, with ".journal" and
+     * temporary files next to it. A journal left big by the last run gets compacted here, before anything is waiting on it
+     *
+     * @param file The store
+     * @throws IOException If the files can't be opened
+     */
+    public PersistentData(File file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null");
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            parent.mkdirs();
+        snapshotFile = file;
+        journalFile = new File(file.getPath() + ".journal");
+        tempFile = new File(file.getPath() + ".tmp");
+        journalTempFile = new File(file.getPath() + ".journal.tmp");
+
+        load(snapshotFile, false);
+        long good = load(journalFile, true);
+        journal = new RandomAccessFile(journalFile, "rw").getChannel();
+        journal.truncate(good); // cuts off a record torn by a crash so new ones line up after the last good one
+        journal.position(good);
+        journalBytes = good;
+        if (good == 0)
+            writeMagic(journal);
+        if (journalBytes > compactAt)
+            compact();
+    }
+
+    /**
+     * Returns one store in {@link #DEFAULT_FILE} shared by every opmode in the app, so autonomous and TeleOp never have it
+     * open twice
+     *
+     * @return The shared store
+     * @throws IOException If it isn't open yet and can't be opened
+     */
+    public static PersistentData shared() throws IOException {
+        return shared(DEFAULT_FILE);
+    }
 
     /**
-     * Constructor for PersistentData. It attempts to load data from the specified
-     * file. If the file does not exist, a new {@link ConcurrentHashMap} is created
+     * Returns one store shared by every opmode in the app, if the shared store is open on a different file it gets
+     * closed and this one opened instead
+     *
+     * @param file The store
+     * @return The shared store
+     * @throws IOException If it isn't open yet and can't be opened
      */
-    public PersistentData() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(new File(FILE)))) {
-            data = (ConcurrentHashMap) ois.readObject();
+    public static synchronized PersistentData shared(File file) throws IOException {
+        if (shared != null && !shared.snapshotFile.getAbsoluteFile().equals(file.getAbsoluteFile()))
+            shared.close();
+        if (shared == null)
+            shared = new PersistentData(file);
+        return shared;
+    }
+
+    /**
+     * Reads a snapshot or journal into the map, stopping at the first record that is cut off or fails its CRC
+     *
+     * @return How many bytes of the file were good
+     */
+    private long load(File file, boolean journal) throws IOException {
+        ByteBuffer bytes;
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            bytes = ByteBuffer.allocate((int) channel.size());
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes) < 0)
+                    break;
+            }
+            bytes.flip();
         } catch (FileNotFoundException e) {
-            data = new ConcurrentHashMap<>(); // File doesn't exist, initialize new HashMap
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace(); // Log error
-            data = new ConcurrentHashMap<>();
+            return 0; // nothing saved yet
         }
+        if (bytes.remaining() < 4 || bytes.getInt() != MAGIC) {
+            if (!journal && bytes.limit() > 0)
+                throw new IOException(file + " isn't a PersistentData file");
+            return 0;
+        }
+
+        int good = bytes.position();
+        while (bytes.remaining() > 0) {
+            int start = bytes.position();
+            try {
+                byte[] key = new byte[bytes.getShort() & 0xFFFF];
+                bytes.get(key);
+                byte type = bytes.get();
+                long bits = 0;
+                String string = null;
+                switch (type) {
+                    case TYPE_DOUBLE:
+                    case TYPE_LONG:
+                        bits = bytes.getLong();
+                        break;
+                    case TYPE_INT:
+                        bits = bytes.getInt();
+                        break;
+                    case TYPE_BOOLEAN:
+                        bits = bytes.get();
+                        break;
+                    case TYPE_STRING:
+                        byte[] text = new byte[bytes.getShort() & 0xFFFF];
+                        bytes.get(text);
+                        string = new String(text, StandardCharsets.UTF_8);
+                        break;
+                    case TYPE_REMOVED:
+                        break;
+                    default:
+                        return good;
+                }
+                crc.reset();
+                crc.update(bytes.array(), start, bytes.position() - start);
+                if (bytes.getInt() != (int) crc.getValue())
+                    return good;
+
+                String name = new String(key, StandardCharsets.UTF_8);
+                if (type == TYPE_REMOVED) {
+                    values.remove(name);
+                } else {
+                    Slot slot = new Slot(key);
+                    slot.type = type;
+                    slot.bits = bits;
+                    slot.string = string;
+                    values.put(name, slot);
+                }
+                good = bytes.position();
+            } catch (RuntimeException e) { // ran off the end, the last record never finished writing
+                return good;
+            }
+        }
+        return good;
+    }
+
+    private void writeMagic(FileChannel channel) throws IOException {
+        buffer.clear();
+        buffer.putInt(MAGIC).flip();
+        while (buffer.hasRemaining())
+            journalBytes += channel.write(buffer);
     }
 
     /**
-     * Adds a new key-value pair to the data store
+     * Puts a record for a slot in a buffer, the CRC covers everything before it
      *
-     * @param name The key under which the data will be stored
-     * @param dataObject The data object to be stored
+     * @return The buffer, or a bigger copy of it if the record didn't fit
      */
-    public static void addData(String name, DataObject dataObject) {
-        data.put(name, dataObject);
+    private ByteBuffer encode(ByteBuffer buffer, Slot slot) {
+        byte[] text = slot.type == TYPE_STRING ? slot.string.getBytes(StandardCharsets.UTF_8) : null;
+        int size = 2 + slot.key.length + 1 + 8 + (text == null ? 0 : 2 + text.length) + 4;
+        if (buffer.capacity() - buffer.position() < size) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        int start = buffer.position();
+        buffer.putShort((short) slot.key.length).put(slot.key).put(slot.type);
+        switch (slot.type) {
+            case TYPE_DOUBLE:
+            case TYPE_LONG:
+                buffer.putLong(slot.bits);
+                break;
+            case TYPE_INT:
+                buffer.putInt((int) slot.bits);
+                break;
+            case TYPE_BOOLEAN:
+                buffer.put((byte) slot.bits);
+                break;
+            case TYPE_STRING:
+                buffer.putShort((short) text.length).put(text);
+                break;
+            default:
+                break;
+        }
+        crc.reset();
+        crc.update(buffer.array(), start, buffer.position() - start);
+        buffer.putInt((int) crc.getValue());
+        return buffer;
+    }
+
+    private void append(Slot slot) {
+        buffer.clear();
+        buffer = encode(buffer, slot);
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining())
+                journalBytes += journal.write(buffer);
+        } catch (IOException e) {
+            failed(e); // the value is still in memory, it goes out with the next compaction
+            return;
+        }
+        if (journalBytes > Math.max(compactAt, retryAt) && !compacting) {
+            compacting = true;
+            Thread thread = new Thread(this::compactInBackground, "PersistentData");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void compactInBackground() {
+        IOException error = null;
+        try {
+            compact();
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (this) {
+            compacting = false;
+            if (error != null) {
+                failed(error);
+                retryAt = journalBytes + compactAt; // don't start a new thread on every put while the disk is broken
+            } else {
+                retryAt = 0;
+            }
+        }
+    }
+
+    private synchronized void failed(IOException e) {
+        lastError = e;
+        errors++;
     }
 
     /**
-     * Replaces the existing data object associated with the given key
-     * If the key does not exist, an exception is thrown
+     * Returns the last thing that went wrong writing the store, puts don't throw so this is how to find out
      *
-     * @param name The key whose associated data is to be replaced
-     * @param dataObject The new data object to be stored
-     * @throws IllegalArgumentException if the key or data object is null, or if
-     *         the key does not already exist in the map
+     * @return The error, null if nothing has gone wrong
      */
-    public static void setData(String name, DataObject dataObject) {
-        if (name == null || dataObject == null)
-            throw new IllegalArgumentException("Name or DataObject cannot be null");
-        if (data.replace(name, dataObject) == null)
-            throw new IllegalArgumentException(name + " isn't a value stored");
+    public IOException getLastError() {
+        return lastError;
     }
 
     /**
-     * Retrieves the data object associated with the specified key
+     * Returns whether a compaction is running in the background right now
      *
-     * @param name The key whose associated data is to be retrieved
-     * @return The data object associated with the key, or null if no data exists for the key
-     * @throws ClassCastException if the retrieved data cannot be cast to the expected type
+     * @return True until the snapshot is written and the journal is cut
      */
-    public static <T> T getData(String name) { // can cause errors, but if it does that's not my fault
-        return (T) data.get(name);
+    public synchronized boolean isCompacting() {
+        return compacting;
     }
 
     /**
-     * A type-safe version of {@link #getData(String)} that ensures the retrieved
-     * data is of the expected type
+     * Returns how many writes or compactions have failed
      *
-     * @param name The key whose associated data is to be retrieved
-     * @param clazz The class type expected for the data
-     * @return The data object cast to the specified type
-     * @throws ClassCastException if the stored data is not of the expected type
+     * @return Error count
      */
-    public static <T> T getData(String name, Class<T> clazz) { // safe version of getData, preferable
-        Object obj = data.get(name);
-        if (clazz.isInstance(obj)) {
-            return clazz.cast(obj);
-        } else {
-            throw new ClassCastException("Stored data is not of type " + clazz.getName());
+    public long getErrorCount() {
+        return errors;
+    }
+
+    private Slot slot(String key) {
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+        Slot slot = values.get(key);
+        if (slot == null) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_STRING_BYTES)
+                throw new IllegalArgumentException("Key is too long");
+            slot = new Slot(bytes);
+            slot.type = TYPE_REMOVED; // so the first put always gets written
+            values.put(key, slot);
         }
+        return slot;
+    }
+
+    private void put(Slot slot, byte type, long bits) {
+        if (slot.type == type && slot.bits == bits)
+            return; // nothing changed, a robot sitting still doesn't grow the journal
+        slot.type = type;
+        slot.bits = bits;
+        slot.string = null;
+        append(slot);
     }
 
     /**
-     * Registers a shutdown hook to ensure data is saved when the program terminates
-     * This method should be called once during initialization to ensure data persistence
+     * Stores a double
+     *
+     * @param key   The key
+     * @param value The value
      */
-    public static void registerShutdownHook() {
-        Runtime.getRuntime().addShutdownHook(new Thread(PersistentData::saveData));
+    public synchronized void putDouble(String key, double value) {
+        put(slot(key), TYPE_DOUBLE, Double.doubleToLongBits(value));
     }
 
     /**
-     * Saves the current state of the data store to the specified file
+     * Stores a long
      *
-     * @return {@code true} if the data was saved successfully, {@code false} otherwise
+     * @param key   The key
+     * @param value The value
      */
-    public static boolean saveData() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(FILE)))) {
-            oos.writeObject(data);
-        } catch (Exception e) {
-            return false;
+    public synchronized void putLong(String key, long value) {
+        put(slot(key), TYPE_LONG, value);
+    }
+
+    /**
+     * Stores an int
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    public synchronized void putInt(String key, int value) {
+        put(slot(key), TYPE_INT, value);
+    }
+
+    /**
+     * Stores a boolean
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    public synchronized void putBoolean(String key, boolean value) {
+        put(slot(key), TYPE_BOOLEAN, value ? 1 : 0);
+    }
+
+    /**
+     * Stores a string, like which alliance or starting spot autonomous ran
+     *
+     * @param key   The key
+     * @param value The value, up to 32 KB of UTF-8
+     */
+    public synchronized void putString(String key, String value) {
+        if (value == null)
+            throw new IllegalArgumentException("Value cannot be null, use remove");
+        if (value.getBytes(StandardCharsets.UTF_8).length > MAX_STRING_BYTES)
+            throw new IllegalArgumentException("String is too long to store");
+        Slot slot = slot(key);
+        if (slot.type == TYPE_STRING && value.equals(slot.string))
+            return;
+        slot.type = TYPE_STRING;
+        slot.string = value;
+        append(slot);
+    }
+
+    private Slot get(String key, byte type) {
+        Slot slot = values.get(key);
+        if (slot == null || slot.type == TYPE_REMOVED)
+            return null;
+        if (slot.type != type)
+            throw new ClassCastException(key + " wasn't stored with that type");
+        return slot;
+    }
+
+    /**
+     * Reads a double
+     *
+     * @param key      The key
+     * @param fallback What to return if nothing is stored under the key
+     * @return The value
+     * @throws ClassCastException If the key holds a different type
+     */
+    public synchronized double getDouble(String key, double fallback) {
+        Slot slot = get(key, TYPE_DOUBLE);
+        return slot == null ? fallback : Double.longBitsToDouble(slot.bits);
+    }
+
+    /**
+     * Reads a long
+     *
+     * @param key      The key
+     * @param fallback What to return if nothing is stored under the key
+     * @return The value
+     * @throws ClassCastException If the key holds a different type
+     */
+    public synchronized long getLong(String key, long fallback) {
+        Slot slot = get(key, TYPE_LONG);
+        return slot == null ? fallback : slot.bits;
+    }
+
+    /**
+     * Reads an int
+     *
+     * @param key      The key
+     * @param fallback What to return if nothing is stored under the key
+     * @return The value
+     * @throws ClassCastException If the key holds a different type
+     */
+    public synchronized int getInt(String key, int fallback) {
+        Slot slot = get(key, TYPE_INT);
+        return slot == null ? fallback : (int) slot.bits;
+    }
+
+    /**
+     * Reads a boolean
+     *
+     * @param key      The key
+     * @param fallback What to return if nothing is stored under the key
+     * @return The value
+     * @throws ClassCastException If the key holds a different type
+     */
+    public synchronized boolean getBoolean(String key, boolean fallback) {
+        Slot slot = get(key, TYPE_BOOLEAN);
+        return slot == null ? fallback : slot.bits != 0;
+    }
+
+    /**
+     * Reads a string
+     *
+     * @param key      The key
+     * @param fallback What to return if nothing is stored under the key
+     * @return The value
+     * @throws ClassCastException If the key holds a different type
+     */
+    public synchronized String getString(String key, String fallback) {
+        Slot slot = get(key, TYPE_STRING);
+        return slot == null ? fallback : slot.string;
+    }
+
+    /**
+     * Checks if anything is stored under a key
+     *
+     * @param key The key
+     * @return Whether there is a value
+     */
+    public synchronized boolean contains(String key) {
+        Slot slot = values.get(key);
+        return slot != null && slot.type != TYPE_REMOVED;
+    }
+
+    /**
+     * Deletes a key
+     *
+     * @param key The key
+     */
+    public synchronized void remove(String key) {
+        Slot slot = values.get(key);
+        if (slot == null || slot.type == TYPE_REMOVED)
+            return;
+        slot.type = TYPE_REMOVED;
+        slot.string = null;
+        append(slot);
+    }
+
+    /**
+     * Returns every key that has a value
+     *
+     * @return A copy of the keys
+     */
+    public synchronized Set<String> keys() {
+        HashSet<String> keys = new HashSet<>();
+        for (Map.Entry<String, Slot> entry : values.entrySet()) {
+            if (entry.getValue().type != TYPE_REMOVED)
+                keys.add(entry.getKey());
         }
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * Saves where the robot thinks it is, call it every loop of autonomous
+     *
+     * @param pose The {@link PoseEstimator} to save
+     */
+    public synchronized void savePose(PoseEstimator pose) {
+        putDouble("pose.x", pose.getX());
+        putDouble("pose.y", pose.getY());
+        putDouble("pose.heading", pose.getHeading());
+    }
+
+    /**
+     * Puts the last saved pose back into an estimator, does nothing if no pose was ever saved
+     *
+     * @param pose The {@link PoseEstimator} to set
+     * @return Whether a pose was found
+     */
+    public synchronized boolean loadPose(PoseEstimator pose) {
+        if (!contains("pose.x"))
+            return false;
+        pose.setPose(getDouble("pose.x", 0), getDouble("pose.y", 0), getDouble("pose.heading", 0));
         return true;
     }
 
     /**
-     * A wrapper class that holds data of a generic type
-     * This class is serializable and allows for easy storage of objects in the data map
+     * Sets how big the journal can get before it gets compacted into the snapshot
      *
-     * @param <T> The type of the data to be stored
+     * @param bytes Journal size limit, a record is about 25 bytes plus the key
      */
-    public class DataObject<T> {
-        private T data;
+    public synchronized void setCompactionSize(long bytes) {
+        if (bytes < 1024)
+            throw new IllegalArgumentException("Compaction size must be at least 1 KB");
+        compactAt = bytes;
+    }
 
-        /**
-         * Constructs a new DataObject to hold the specified data
-         *
-         * @param data The data to be stored in this object
-         */
-        public DataObject(T data) {
-            this.data = data;
+    /**
+     * Forces everything written so far onto the disk, so it survives the power going out
+     *
+     * @throws IOException If the sync fails
+     */
+    public synchronized void sync() throws IOException {
+        journal.force(false);
+    }
+
+    /**
+     * Writes every value into a fresh snapshot and starts the journal over. The values are copied in memory, then the
+     * snapshot is written to a temporary file, synced, and renamed over the old one without holding up puts, so a crash at
+     * any point leaves either the old store or the new one. Puts made while the snapshot was being written are kept in
+     * the new journal. A crash after the rename but before the journal is cut just replays puts that are already in the
+     * snapshot. This happens on its own in the background, call it yourself to do it right now
+     *
+     * @throws IOException If the snapshot can't be written, the journal is kept in that case
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            long mark;
+            synchronized (this) {
+                if (!journal.isOpen())
+                    return;
+                snapshot.clear();
+                snapshot.putInt(MAGIC);
+                for (Slot slot : values.values()) {
+                    if (slot.type != TYPE_REMOVED)
+                        snapshot = encode(snapshot, slot);
+                }
+                mark = journalBytes;
+            }
+
+            snapshot.flip();
+            try (FileChannel out = new RandomAccessFile(tempFile, "rw").getChannel()) {
+                out.truncate(0);
+                while (snapshot.hasRemaining())
+                    out.write(snapshot);
+                out.force(true);
+            }
+            if (!tempFile.renameTo(snapshotFile))
+                throw new IOException("Couldn't replace " + snapshotFile);
+
+            synchronized (this) {
+                cutJournal(mark);
+                values.values().removeIf(slot -> slot.type == TYPE_REMOVED);
+            }
         }
+    }
 
-        /**
-         * Retrieves the data stored in this object
-         *
-         * @return The stored data
-         */
-        public T getData() {
-            return data;
+    /**
+     * Throws away the part of the journal that is in the snapshot now, anything put after it was taken stays
+     */
+    private void cutJournal(long mark) throws IOException {
+        if (journalBytes == mark) { // nothing came in while the snapshot was written
+            journal.truncate(0);
+            journal.position(0);
+            journalBytes = 0;
+            writeMagic(journal);
+            journal.force(false);
+            return;
+        }
+        ByteBuffer rest = ByteBuffer.allocate((int) (4 + journalBytes - mark));
+        rest.putInt(MAGIC);
+        long position = mark;
+        while (rest.hasRemaining()) {
+            int read = journal.read(rest, position);
+            if (read < 0)
+                throw new IOException(journalFile + " is shorter than what was written to it");
+            position += read;
         }
+        rest.flip();
+        try (FileChannel out = new RandomAccessFile(journalTempFile, "rw").getChannel()) {
+            out.truncate(0);
+            while (rest.hasRemaining())
+                out.write(rest);
+            out.force(false);
+        }
+        if (!journalTempFile.renameTo(journalFile))
+            throw new IOException("Couldn't replace " + journalFile);
+        journal.close();
+        journal = new RandomAccessFile(journalFile, "rw").getChannel();
+        journalBytes = journal.size();
+        journal.position(journalBytes);
     }
-}
 
+    /**
+     * Compacts and closes the files, the store can't be used after this
+     *
+     * @throws IOException If the last compaction fails
+     */
+    public void close() throws IOException {
+        try {
+            synchronized (compactLock) {
+                if (!journal.isOpen())
+                    return;
+                try {
+                    compact();
+                } finally {
+                    synchronized (this) {
+                        journal.close();
+                    }
+                }
+            }
+        } finally { // outside compactLock, shared() holds the class lock while it closes the old store
+            synchronized (PersistentData.class) {
+                if (shared == this)
+                    shared = null;
+            }
+        }
+    }
 
+    /**
+     * Registers a shutdown hook that closes this store when the app exits, as a backup to closing it by hand
+     */
+    public void registerShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                failed(e);
+            }
+        }));
+    }
+}
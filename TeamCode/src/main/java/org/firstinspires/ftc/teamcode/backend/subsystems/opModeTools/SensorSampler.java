@@ -0,0 +1,410 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Acceleration;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.firstinspires.ftc.teamcode.backend.libraries.ControlLoop;
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.ColorSensor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.DistanceSensor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.UpdatedIMU;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Reads sensors on a background thread and hands out the latest readings as one {@link Snapshot}
+ * <p>
+ * Only the sampler thread ever writes. Each pass reads everything into a brand new snapshot and then swaps it into a
+ * volatile field, so a reader grabs the whole set with a single read: no locks, no waiting on the sampler, and the
+ * heading can never come from a different pass than the encoders. Hold onto the snapshot for the rest of the loop
+ * instead of calling {@link #getSnapshot()} for every value.
+ * <p>
+ * When encoders are sampled here every pass starts with {@link BulkCache#clearCache()}, so a hub in MANUAL gives the
+ * sampler fresh values each time. The main loop should stop clearing the cache then, let the sampler own it. Reads on
+ * the main thread get whatever the sampler's last bulk read was
+ * <p>
+ * An {@link UpdatedIMU} is only read raw here and the sampler keeps its own continuous heading, so the main thread can
+ * still call {@link UpdatedIMU#getAngle()} without the two fighting over it. {@link UpdatedIMU#resetAngle()} doesn't move
+ * the sampler's heading
+ */
+public class SensorSampler {
+    /**
+     * One consistent set of readings, nothing in here changes after it is made
+     * Values for sensors that weren't added are NaN, encoders that weren't added are left out of the tick array
+     */
+    public static final class Snapshot {
+        /**
+         * What {@link #getSnapshot()} returns before the first pass, every value is NaN
+         */
+        public static final Snapshot EMPTY = new Snapshot(0, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, new int[0]);
+
+        private final long sequence, nanoTime;
+        private final double heading, accelerationX, accelerationY, distance, red, green, blue;
+        private final int[] ticks;
+
+        Snapshot(long sequence, long nanoTime, double heading, double accelerationX, double accelerationY,
+                 double distance, double red, double green, double blue, int[] ticks) {
+            this.sequence = sequence;
+            this.nanoTime = nanoTime;
+            this.heading = heading;
+            this.accelerationX = accelerationX;
+            this.accelerationY = accelerationY;
+            this.distance = distance;
+            this.red = red;
+            this.green = green;
+            this.blue = blue;
+            this.ticks = ticks;
+        }
+
+        /**
+         * Returns which pass this came from, goes up by one every pass so a reader can tell if it has seen this one already
+         *
+         * @return Pass number, 0 for {@link #EMPTY}
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns when the pass started
+         *
+         * @return Clock time in nanoseconds
+         */
+        public long getNanoTime() {
+            return nanoTime;
+        }
+
+        /**
+         * Returns the IMU heading
+         *
+         * @return Heading in radians, counter clockwise and continuous
+         */
+        public double getHeading() {
+            return heading;
+        }
+
+        /**
+         * Returns the IMU acceleration along x
+         *
+         * @return Acceleration in meters per second squared
+         */
+        public double getAccelerationX() {
+            return accelerationX;
+        }
+
+        /**
+         * Returns the IMU acceleration along y
+         *
+         * @return Acceleration in meters per second squared
+         */
+        public double getAccelerationY() {
+            return accelerationY;
+        }
+
+        /**
+         * Returns the distance sensor reading
+         *
+         * @return Distance in inches
+         */
+        public double getDistance() {
+            return distance;
+        }
+
+        /**
+         * Returns the red value of the color sensor
+         *
+         * @return Red value
+         */
+        public double getRed() {
+            return red;
+        }
+
+        /**
+         * Returns the green value of the color sensor
+         *
+         * @return Green value
+         */
+        public double getGreen() {
+            return green;
+        }
+
+        /**
+         * Returns the blue value of the color sensor
+         *
+         * @return Blue value
+         */
+        public double getBlue() {
+            return blue;
+        }
+
+        /**
+         * Returns one encoder position, in the order the encoders were added
+         *
+         * @param index Which encoder
+         * @return Raw encoder position in ticks
+         */
+        public int getTicks(int index) {
+            return ticks[index];
+        }
+
+        /**
+         * Returns how many encoders are in the snapshot
+         *
+         * @return Number of encoders
+         */
+        public int getEncoderCount() {
+            return ticks.length;
+        }
+    }
+
+    private final ControlLoop loop;
+    private final Clock clock;
+
+    private UpdatedIMU imu;
+    private DoubleSupplier headingSource, accelerationXSource, accelerationYSource;
+    private DoubleSupplier distanceSource;
+    private DoubleSupplier redSource, greenSource, blueSource;
+    private IntSupplier[] encoders = new IntSupplier[0];
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private long sequence = 0;
+    private double imuHeading = 0, lastRawHeading = Double.NaN;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    /**
+     * Creates a sampler that runs on the real clock
+     *
+     * @param periodSeconds Time between passes, 0.01 for 100 passes a second
+     */
+    public SensorSampler(double periodSeconds) {
+        this(new ControlLoop(periodSeconds), Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a sampler with its own loop and clock, use fakes for both to run it off the robot
+     *
+     * @param loop  The {@link ControlLoop} that paces the sampler thread, the sampler registers itself on it
+     * @param clock The {@link Clock} used to stamp snapshots
+     */
+    public SensorSampler(ControlLoop loop, Clock clock) {
+        if (loop == null || clock == null)
+            throw new IllegalArgumentException("Loop and clock cannot be null");
+        this.loop = loop.register(this::sample);
+        this.clock = clock;
+    }
+
+    /**
+     * Samples heading and acceleration from a BNO055
+     *
+     * @param imu The {@link UpdatedIMU} to read
+     * @return This sampler
+     */
+    public SensorSampler addImu(UpdatedIMU imu) {
+        checkNotRunning();
+        this.imu = imu;
+        return this;
+    }
+
+    /**
+     * Samples heading and acceleration from anything
+     *
+     * @param headingRadians Returns the heading in radians
+     * @param accelerationX  Returns the x acceleration, can be null
+     * @param accelerationY  Returns the y acceleration, can be null
+     * @return This sampler
+     */
+    public SensorSampler addImu(DoubleSupplier headingRadians, DoubleSupplier accelerationX, DoubleSupplier accelerationY) {
+        checkNotRunning();
+        if (headingRadians == null)
+            throw new IllegalArgumentException("Heading source cannot be null");
+        this.imu = null;
+        this.headingSource = headingRadians;
+        this.accelerationXSource = accelerationX;
+        this.accelerationYSource = accelerationY;
+        return this;
+    }
+
+    /**
+     * Samples a distance sensor in inches
+     *
+     * @param sensor The {@link DistanceSensor} to read
+     * @return This sampler
+     */
+    public SensorSampler addDistanceSensor(DistanceSensor sensor) {
+        return addDistanceSensor(sensor::getDistance);
+    }
+
+    /**
+     * Samples a distance from anything
+     *
+     * @param inches Returns the distance in inches
+     * @return This sampler
+     */
+    public SensorSampler addDistanceSensor(DoubleSupplier inches) {
+        checkNotRunning();
+        this.distanceSource = inches;
+        return this;
+    }
+
+    /**
+     * Samples the red, green and blue values of a color sensor
+     *
+     * @param sensor The {@link ColorSensor} to read
+     * @return This sampler
+     */
+    public SensorSampler addColorSensor(ColorSensor sensor) {
+        return addColorSensor(sensor::getRed, sensor::getGreen, sensor::getBlue);
+    }
+
+    /**
+     * Samples color values from anything
+     *
+     * @param red   Returns the red value
+     * @param green Returns the green value
+     * @param blue  Returns the blue value
+     * @return This sampler
+     */
+    public SensorSampler addColorSensor(DoubleSupplier red, DoubleSupplier green, DoubleSupplier blue) {
+        checkNotRunning();
+        this.redSource = red;
+        this.greenSource = green;
+        this.blueSource = blue;
+        return this;
+    }
+
+    /**
+     * Samples the raw encoder positions of some motors, they show up in the snapshot in the order given here
+     *
+     * @param motors The motors to read
+     * @return This sampler
+     */
+    public SensorSampler addEncoders(Motor... motors) {
+        IntSupplier[] sources = new IntSupplier[motors.length];
+        for (int i = 0; i < motors.length; i++)
+            sources[i] = motors[i]::getRawPosition;
+        return addEncoders(sources);
+    }
+
+    /**
+     * Samples encoder positions from anything
+     *
+     * @param encoders Each returns one position in ticks
+     * @return This sampler
+     */
+    public SensorSampler addEncoders(IntSupplier... encoders) {
+        checkNotRunning();
+        for (IntSupplier encoder : encoders) {
+            if (encoder == null)
+                throw new IllegalArgumentException("Encoder cannot be null");
+        }
+        IntSupplier[] combined = new IntSupplier[this.encoders.length + encoders.length];
+        System.arraycopy(this.encoders, 0, combined, 0, this.encoders.length);
+        System.arraycopy(encoders, 0, combined, this.encoders.length, encoders.length);
+        this.encoders = combined;
+        return this;
+    }
+
+    /**
+     * Reads every sensor once and publishes the result, the background thread calls this for you
+     * Call it yourself instead of {@link #start()} to sample on the main thread
+     */
+    public void sample() {
+        if (encoders.length > 0)
+            BulkCache.clearCache();
+        long now = clock.nanoTime();
+        double heading = Double.NaN, accelerationX = Double.NaN, accelerationY = Double.NaN;
+        if (imu != null) {
+            Acceleration acceleration = imu.getAcceleration(); // one read so x and y come from the same sample
+            accelerationX = acceleration.xAccel;
+            accelerationY = acceleration.yAccel;
+            // unwrapped here instead of with getAngle, that one changes the imu and the main thread may be using it
+            double raw = imu.getRawAngle(AngleUnit.DEGREES);
+            imuHeading += Double.isNaN(lastRawHeading) ? raw : Angles.wrapDegrees(raw - lastRawHeading);
+            lastRawHeading = raw;
+            heading = Math.toRadians(imuHeading);
+        } else if (headingSource != null) {
+            heading = headingSource.getAsDouble();
+            accelerationX = read(accelerationXSource);
+            accelerationY = read(accelerationYSource);
+        }
+
+        int[] ticks = new int[encoders.length];
+        for (int i = 0; i < ticks.length; i++)
+            ticks[i] = encoders[i].getAsInt();
+
+        snapshot = new Snapshot(++sequence, now, heading, accelerationX, accelerationY,
+                read(distanceSource), read(redSource), read(greenSource), read(blueSource), ticks);
+    }
+
+    private static double read(DoubleSupplier source) {
+        return source == null ? Double.NaN : source.getAsDouble();
+    }
+
+    /**
+     * Returns the newest readings, never blocks
+     *
+     * @return The latest {@link Snapshot}, or {@link Snapshot#EMPTY} before the first pass
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Starts sampling on a background thread at the loop's rate, sensors can't be added after this
+     */
+    public void start() {
+        if (running)
+            return;
+        running = true;
+        thread = new Thread(() -> {
+            try {
+                loop.run(() -> running);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "SensorSampler");
+        thread.setDaemon(true); // never keep the app alive after the opmode is gone
+        thread.start();
+    }
+
+    /**
+     * Stops the background thread and waits for the pass it is in the middle of to finish
+     */
+    public void stop() {
+        running = false;
+        if (thread == null)
+            return;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Returns whether the background thread is running
+     *
+     * @return True between {@link #start()} and {@link #stop()}
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the loop pacing the sampler, for its timing stats
+     *
+     * @return The {@link ControlLoop}
+     */
+    public ControlLoop getLoop() {
+        return loop;
+    }
+
+    private void checkNotRunning() {
+        if (running)
+            throw new IllegalStateException("Sensors have to be added before the sampler starts");
+    }
+}
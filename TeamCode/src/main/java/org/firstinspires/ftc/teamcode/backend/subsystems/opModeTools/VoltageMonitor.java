@@ -0,0 +1,220 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.VoltageUnit;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Keeps an up to date battery voltage without the control loop ever waiting on the hub for it
+ * <p>
+ * Reading the voltage is its own hub transaction that the bulk read doesn't cover, a few milliseconds every time.
+ * This reads it on a background thread a few times a second, smooths it, and keeps the result in a field the loop can
+ * read for free. Motors given this with {@link org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor#useVoltageCompensation}
+ * scale their power by {@link #getCompensation()}, so a move drives the same distance on a fresh battery and a tired one.
+ * Given a hub it reads the hub's current draw on the same thread too, for logging with {@link DataLogger#addHub}
+ */
+public class VoltageMonitor {
+    /**
+     * The voltage powers are tuned at, compensated motors act like the battery is always at this
+     */
+    public static final double NOMINAL_VOLTAGE = 12.0;
+    // the hub sometimes reports 0 or garbage for a read, a real battery under load stays well inside this
+    private static final double MIN_VALID = 6, MAX_VALID = 16;
+
+    private final DoubleSupplier source, currentSource;
+    private final long periodMillis;
+    private final double smoothing;
+    private volatile double voltage = NOMINAL_VOLTAGE;
+    private volatile double current = Double.NaN;
+    private volatile boolean running = false;
+    private volatile long reads = 0, rejected = 0;
+    private Thread thread;
+
+    /**
+     * Creates a monitor that reads a hub's voltage and current 10 times a second
+     *
+     * @param lynxModule The hub the battery is plugged into
+     */
+    public VoltageMonitor(LynxModule lynxModule) {
+        this(() -> lynxModule.getInputVoltage(VoltageUnit.VOLTS), () -> lynxModule.getCurrent(CurrentUnit.AMPS), 0.1, 0.7);
+    }
+
+    /**
+     * Creates a monitor that reads a hub's voltage and current through {@link HubInfo} 10 times a second
+     *
+     * @param hub The hub the battery is plugged into
+     */
+    public VoltageMonitor(HubInfo hub) {
+        this(hub::getVoltage, hub::getCurrent, 0.1, 0.7);
+    }
+
+    /**
+     * Creates a monitor with any voltage source
+     *
+     * @param source        Returns the voltage, only ever called from the monitor's thread
+     * @param periodSeconds Time between reads
+     * @param smoothing     How much of the old value is kept on every read, 0 for no smoothing, closer to 1 is smoother
+     */
+    public VoltageMonitor(DoubleSupplier source, double periodSeconds, double smoothing) {
+        this(source, null, periodSeconds, smoothing);
+    }
+
+    /**
+     * Creates a monitor with any voltage source that also keeps the latest current reading
+     *
+     * @param source        Returns the voltage, only ever called from the monitor's thread
+     * @param currentSource Returns the current in amps, can be null, only ever called from the monitor's thread
+     * @param periodSeconds Time between reads
+     * @param smoothing     How much of the old voltage is kept on every read, 0 for no smoothing, closer to 1 is smoother
+     */
+    public VoltageMonitor(DoubleSupplier source, DoubleSupplier currentSource, double periodSeconds, double smoothing) {
+        if (source == null)
+            throw new IllegalArgumentException("Voltage source cannot be null");
+        if (!(periodSeconds > 0))
+            throw new IllegalArgumentException("Period must be positive");
+        if (smoothing < 0 || smoothing >= 1)
+            throw new IllegalArgumentException("Smoothing must be at least 0 and less than 1");
+        this.source = source;
+        this.currentSource = currentSource;
+        this.periodMillis = Math.max(1, Math.round(periodSeconds * 1000));
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Takes a first reading right away (call this during init, it waits on the hub once) then starts reading in the background
+     *
+     * @return This monitor
+     */
+    public synchronized VoltageMonitor start() {
+        if (running)
+            return this;
+        double first = source.getAsDouble();
+        if (valid(first))
+            voltage = first; // start from a real reading instead of smoothing up from nominal
+        readCurrent();
+        running = true;
+        thread = new Thread(() -> {
+            while (running) {
+                try {
+                    Thread.sleep(periodMillis);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                read();
+            }
+        }, "VoltageMonitor");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Reads the source once and folds it into the smoothed voltage, the background thread calls this on its own
+     */
+    public void read() {
+        readCurrent();
+        double sample;
+        try {
+            sample = source.getAsDouble();
+        } catch (RuntimeException e) { // a failed read is just a missed sample, try again next time
+            rejected++;
+            return;
+        }
+        if (!valid(sample)) {
+            rejected++;
+            return;
+        }
+        voltage = smoothing * voltage + (1 - smoothing) * sample;
+        reads++;
+    }
+
+    private void readCurrent() {
+        if (currentSource == null)
+            return;
+        try {
+            current = currentSource.getAsDouble();
+        } catch (RuntimeException e) { // keep the last reading
+            rejected++;
+        }
+    }
+
+    private static boolean valid(double volts) {
+        return volts >= MIN_VALID && volts <= MAX_VALID;
+    }
+
+    /**
+     * Stops reading, the last voltage stays available
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null)
+            thread.interrupt();
+    }
+
+    /**
+     * Returns the smoothed battery voltage, never waits on the hub
+     *
+     * @return Volts, {@link #NOMINAL_VOLTAGE} until the first good reading
+     */
+    public double getVoltage() {
+        return voltage;
+    }
+
+    /**
+     * Returns the hub's current draw from the last read, never waits on the hub
+     *
+     * @return Amps, NaN if the monitor has no current source or hasn't read it yet
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns how much to multiply a power by so it acts like it would at {@link #NOMINAL_VOLTAGE}
+     *
+     * @return Nominal over actual voltage
+     */
+    public double getCompensation() {
+        return NOMINAL_VOLTAGE / voltage;
+    }
+
+    /**
+     * Turns a voltage into the motor power that applies it right now
+     *
+     * @param volts Voltage to apply
+     * @return Motor power, not clipped
+     */
+    public double toPower(double volts) {
+        return volts / voltage;
+    }
+
+    /**
+     * Returns how many good readings have been taken
+     *
+     * @return Read count
+     */
+    public long getReads() {
+        return reads;
+    }
+
+    /**
+     * Returns how many readings failed or were thrown away as impossible
+     *
+     * @return Rejected read count
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Returns whether the background thread is running
+     *
+     * @return True between {@link #start()} and {@link #stop()}
+     */
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+/**
+ * Settings and bookkeeping for the write cache that sits behind {@link org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor}
+ * and {@link org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Servo}
+ * <p>
+ * Every actuator remembers the last power, mode, target and position it sent to the hub and drops a write when nothing would change,
+ * this class holds the epsilons used for that comparison and counts how many writes were sent and avoided each control cycle
+ */
+public class WriteCache {
+
+    /**
+     * Hook that gets told how many writes went out and how many got dropped every time a control cycle ends
+     */
+    public interface MetricsListener {
+        /**
+         * Called from {@link #endCycle()}
+         *
+         * @param writesIssued  Number of writes that were sent to the hubs during the cycle
+         * @param writesAvoided Number of redundant writes that were dropped during the cycle
+         */
+        void onCycle(int writesIssued, int writesAvoided);
+    }
+
+    private static double powerEpsilon = 0.005, positionEpsilon = 0.001;
+    private static int issued = 0, avoided = 0, lastIssued = 0, lastAvoided = 0;
+    private static MetricsListener listener = null;
+
+    /**
+     * Sets how much a motor power has to change before it gets sent again, a power of exactly 0 always goes through so motors always stop
+     *
+     * @param epsilon Smallest change in power worth a write, 0 only drops exact repeats
+     */
+    public static void setPowerEpsilon(double epsilon) {
+        if (epsilon < 0)
+            throw new IllegalArgumentException("Epsilon cannot be negative");
+        powerEpsilon = epsilon;
+    }
+
+    /**
+     * Returns how much a motor power has to change before it gets sent again
+     *
+     * @return The power epsilon
+     */
+    public static double getPowerEpsilon() {
+        return powerEpsilon;
+    }
+
+    /**
+     * Sets how much a servo position has to change before it gets sent again
+     *
+     * @param epsilon Smallest change in position worth a write, 0 only drops exact repeats
+     */
+    public static void setPositionEpsilon(double epsilon) {
+        if (epsilon < 0)
+            throw new IllegalArgumentException("Epsilon cannot be negative");
+        positionEpsilon = epsilon;
+    }
+
+    /**
+     * Returns how much a servo position has to change before it gets sent again
+     *
+     * @return The position epsilon
+     */
+    public static double getPositionEpsilon() {
+        return positionEpsilon;
+    }
+
+    /**
+     * Sets the hook that gets the write counts at the end of every cycle, pass null to remove it
+     *
+     * @param metricsListener The {@link MetricsListener} to report to
+     */
+    public static void setMetricsListener(MetricsListener metricsListener) {
+        listener = metricsListener;
+    }
+
+    /**
+     * Records a write decision, actuators call this every time they are asked to write something
+     *
+     * @param sent True if the write went to the hub, false if it was dropped
+     */
+    public static void countWrite(boolean sent) {
+        if (sent) {
+            issued++;
+        } else {
+            avoided++;
+        }
+    }
+
+    /**
+     * Ends the current control cycle, reports the counts to the {@link MetricsListener} and starts counting again from zero
+     */
+    public static void endCycle() {
+        lastIssued = issued;
+        lastAvoided = avoided;
+        issued = 0;
+        avoided = 0;
+        if (listener != null)
+            listener.onCycle(lastIssued, lastAvoided);
+    }
+
+    /**
+     * Returns how many writes were sent during the last finished cycle
+     *
+     * @return Writes issued last cycle
+     */
+    public static int getIssuedLastCycle() {
+        return lastIssued;
+    }
+
+    /**
+     * Returns how many writes were dropped during the last finished cycle
+     *
+     * @return Writes avoided last cycle
+     */
+    public static int getAvoidedLastCycle() {
+        return lastAvoided;
+    }
+}
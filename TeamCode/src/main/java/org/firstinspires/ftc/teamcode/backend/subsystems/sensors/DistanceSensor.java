@@ -4,10 +4,13 @@ import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.FunctionalCommand;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 
 public class DistanceSensor extends subsystem {
     private com.qualcomm.robotcore.hardware.DistanceSensor distanceSensor;
+    private double startDistance; // background reading taken when a wait command starts
 
     /**
      * DistanceSensor Object
@@ -114,4 +117,49 @@ public class DistanceSensor extends subsystem {
         }
         telemetry().clear();
     }
+
+    /**
+     * Command version of {@link #untilPassObject(double, double, DistanceUnit)}, finishes once we pass an object instead of blocking the loop
+     *
+     * @param distance     Max amount of distance we expect the object to be from us
+     * @param delta        Amount min amount of distance we expect the object to be from the background
+     * @param distanceUnit Unit of distance, ex. Inches, meters, mm, cm
+     * @return A command that finishes when the object is passed
+     */
+    public Command untilPassObjectCommand(double distance, double delta, DistanceUnit distanceUnit) {
+        return new FunctionalCommand(
+                () -> startDistance = distanceSensor.getDistance(distanceUnit),
+                null,
+                () -> startDistance - distanceSensor.getDistance(distanceUnit) > delta && startDistance < distance,
+                null);
+    }
+
+    /**
+     * Command version of {@link #untilHitObject(double, double, DistanceUnit)}, finishes once we see an object instead of blocking the loop
+     *
+     * @param distance     Max amount of distance we expect the object to be from us
+     * @param delta        Amount min amount of distance we expect the object to be from the background
+     * @param distanceUnit Unit of distance, ex. Inches, meters, mm, cm
+     * @return A command that finishes when the object is seen
+     */
+    public Command untilHitObjectCommand(double distance, double delta, DistanceUnit distanceUnit) {
+        return new FunctionalCommand(
+                () -> startDistance = distanceSensor.getDistance(distanceUnit),
+                null,
+                () -> {
+                    double current = distanceSensor.getDistance(distanceUnit);
+                    return current - startDistance > delta && current < distance;
+                },
+                null);
+    }
+
+    /**
+     * Command version of {@link #untilHitObject(double)}, object must be 5 inches closer than the background
+     *
+     * @param distance Max amount of inches we expect the object to be from us
+     * @return A command that finishes when the object is seen
+     */
+    public Command untilHitObjectCommand(double distance) {
+        return untilHitObjectCommand(distance, 5, DistanceUnit.INCH);
+    }
 }
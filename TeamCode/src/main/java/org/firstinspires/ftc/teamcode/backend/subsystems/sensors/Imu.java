@@ -9,12 +9,14 @@ import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
 import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
 import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.HeadingSensor;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 
 /**
  * Methods to streamline the usage of the IMU
  */
-public class Imu extends subsystem {
+public class Imu extends subsystem implements HeadingSensor {
     private Orientation globalAngles = new Orientation();
     private double referenceAngle;
     private IMU imu;
@@ -45,21 +47,26 @@ public class Imu extends subsystem {
 
     /**
      * Returns the current angle of the robot
+     * This allocates, the SDK hands back a new Orientation every read and the IMU interface has no way to read into one we keep.
+     * It's one small object next to an I2C read that takes over a millisecond, so it isn't worth working around
      *
      * @return referenceAngle Current angle
      */
     public double getAngle(AngleUnit angleunit) {
         // imu works in eulear angles so we have to detect when it rolls across the backwards 180 threshold
         Orientation angles = imu.getRobotOrientation(AxesReference.INTRINSIC, AxesOrder.ZYX, angleunit);
-        double change = angles.firstAngle - globalAngles.firstAngle;
-
-        if (change < -180) {
-            change += 360;
-        } else if (change > 180) {
-            change -= 360;
-        }
-        referenceAngle += change;
+        referenceAngle += Angles.wrapDegrees(angles.firstAngle - globalAngles.firstAngle);
         globalAngles = angles;
         return referenceAngle;
     }
+
+    /**
+     * Returns the continuous heading for things like the {@link org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator}
+     *
+     * @return The heading in radians, counter clockwise
+     */
+    @Override
+    public double getHeadingRadians() {
+        return Math.toRadians(getAngle(AngleUnit.DEGREES));
+    }
 }
@@ -3,6 +3,8 @@ package org.firstinspires.ftc.teamcode.backend.subsystems.sensors;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.WaitUntilCommand;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 
 public class TouchSensor extends subsystem {
@@ -40,4 +42,13 @@ public class TouchSensor extends subsystem {
         }
     }
 
+    /**
+     * Same as {@link #untilHitObject()} but doesn't block, the command finishes once the sensor gets pressed
+     *
+     * @return A command that waits for the sensor to be pressed
+     */
+    public Command untilHitObjectCommand() {
+        return new WaitUntilCommand(this::isPressed);
+    }
+
 }
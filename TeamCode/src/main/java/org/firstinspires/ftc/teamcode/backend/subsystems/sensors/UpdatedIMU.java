@@ -10,6 +10,8 @@ import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
 import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
 import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
 import org.firstinspires.ftc.robotcore.external.navigation.Temperature;
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.HeadingSensor;
 import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
 
 /**
@@ -18,7 +20,7 @@ import org.firstinspires.ftc.teamcode.backend.libraries.subsystem;
  * This class provides methods for retrieving orientation, acceleration,
  * and temperature data from the IMU.
  */
-public class UpdatedIMU extends subsystem {
+public class UpdatedIMU extends subsystem implements HeadingSensor {
     private Orientation globalAngles = new Orientation();
     private double referenceAngle;
     private BNO055IMU imu;
@@ -83,10 +85,22 @@ public class UpdatedIMU extends subsystem {
      * @return The current angle in the specified angle unit
      */
     public double getAngle(AngleUnit angleunit) {
-        Orientation angles = imu.getAngularOrientation(AxesReference.INTRINSIC, AxesOrder.ZYX, angleunit);
-        referenceAngle += AngleUnit.DEGREES.normalizeDegrees(angles.firstAngle);
+        // same as Imu, add up the change since last time so the angle keeps counting past 180
+        Orientation angles = imu.getAngularOrientation(AxesReference.INTRINSIC, AxesOrder.ZYX, AngleUnit.DEGREES);
+        referenceAngle += Angles.wrapDegrees(angles.firstAngle - globalAngles.firstAngle);
         globalAngles = angles;
-        return referenceAngle;
+        return angleunit.fromDegrees(referenceAngle);
+    }
+
+    /**
+     * Reads the angle straight off the IMU without adding it to the continuous angle, nothing in here changes so a
+     * thread other than the one calling {@link #getAngle(AngleUnit)} can use it
+     *
+     * @param angleunit The angle unit in which to retrieve the angle
+     * @return The angle the IMU reports, between -180 and 180 degrees
+     */
+    public double getRawAngle(AngleUnit angleunit) {
+        return angleunit.fromDegrees(imu.getAngularOrientation(AxesReference.INTRINSIC, AxesOrder.ZYX, AngleUnit.DEGREES).firstAngle);
     }
 
     /**
@@ -96,7 +110,7 @@ public class UpdatedIMU extends subsystem {
      * @return The global angle in the specified angle unit
      */
     public double getGlobalAngle(AngleUnit angleunit) {
-        return globalAngles.firstAngle;
+        return angleunit.fromDegrees(globalAngles.firstAngle);
     }
 
     /**
@@ -116,4 +130,14 @@ public class UpdatedIMU extends subsystem {
     public Temperature getTemp() {
         return imu.getTemperature();
     }
+
+    /**
+     * Returns the continuous heading for things like the {@link org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator}
+     *
+     * @return The heading in radians, counter clockwise
+     */
+    @Override
+    public double getHeadingRadians() {
+        return getAngle(AngleUnit.RADIANS);
+    }
 }
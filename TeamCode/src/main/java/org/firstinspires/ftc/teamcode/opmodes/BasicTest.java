@@ -1,11 +1,13 @@
 package org.firstinspires.ftc.teamcode.opmodes;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.Gamepad;
 
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.WarningRumbler;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains.Mecanum;
@@ -15,6 +17,8 @@ import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains.M
 public class BasicTest extends LinearOpMode {
     @Override
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.MANUAL);
+
         WarningRumbler endGame = new WarningRumbler(gamepad1, 80, Gamepad.Type.SONY_PS4);
         Mecanum drivetrain = new Mecanum(new Motor[]{new Motor("backLeft", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry), new Motor("backRight", hardwareMap, telemetry), new Motor("frontLeft", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry), new Motor("frontRight", hardwareMap, telemetry)}, telemetry);
 
@@ -22,6 +26,7 @@ public class BasicTest extends LinearOpMode {
         endGame.startTimer();
 
         while (opModeIsActive()) {
+            BulkCache.clearCache();
             drivetrain.teleOpDrive(-gamepad1.left_stick_y, gamepad1.right_stick_x, gamepad1.left_stick_x);
             endGame.checkAndRumble(); // will rumble after 80 seconds (10 seconds left)
         }
@@ -1,72 +1,63 @@
 package org.firstinspires.ftc.teamcode.opmodes;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
-import com.qualcomm.robotcore.util.ElapsedTime;
 
-import org.firstinspires.ftc.robotcore.external.navigation.Acceleration;
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.firstinspires.ftc.teamcode.backend.libraries.ControlLoop;
 import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.Integrator;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.SensorSampler;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.drivetrains.Mecanum;
 import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.UpdatedIMU;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 @Disabled
 @TeleOp
 public class IntegratorTest extends LinearOpMode {
     UpdatedIMU imu;
     private Integrator integrator = new Integrator();
-    private Thread integratorThread;
-    private volatile boolean running = true;
 
     @Override
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
+
         Mecanum drivetrain = new Mecanum(new Motor[]{new Motor("backLeft", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry), new Motor("backRight", hardwareMap, telemetry), new Motor("frontLeft", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry), new Motor("frontRight", hardwareMap, telemetry)}, telemetry);
 
         imu = new UpdatedIMU("imu", hardwareMap, telemetry);
 
-        integratorThread = new Thread(() -> {
-            ElapsedTime timer = new ElapsedTime();
-            double lastTime = 0;
-            while (running) {
-                // get current data
-                Acceleration acceleration = imu.getAcceleration();
-                double xA = acceleration.xAccel;
-                double yA = acceleration.yAccel;
-                double heading = imu.getAngle();
-
-                double currentTime = timer.seconds();
-                double timeDelta = currentTime - lastTime;
-                lastTime = currentTime;
+        // fixed 50hz loop so dt stays steady, the sampler reads the imu and the integrator runs right after on the same thread
+        ControlLoop loop = new ControlLoop(0.02);
+        SensorSampler sampler = new SensorSampler(loop, Clock.SYSTEM).addImu(imu);
+        long[] lastTime = {System.nanoTime()};
+        loop.register(() -> {
+            SensorSampler.Snapshot snapshot = sampler.getSnapshot();
+            double timeDelta = (snapshot.getNanoTime() - lastTime[0]) / 1e9;
+            lastTime[0] = snapshot.getNanoTime();
 
-                integrator.update(xA, yA, heading, timeDelta);
-                timer.reset();
-
-                try {
-                    Thread.sleep(20);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
+            integrator.update(snapshot.getAccelerationX(), snapshot.getAccelerationY(), Math.toDegrees(snapshot.getHeading()), timeDelta);
         });
-        integratorThread.start();
+        sampler.start();
 
+        double[] position = new double[2];
         waitForStart();
 
         while (opModeIsActive()) {
             drivetrain.teleOpDrive(-gamepad1.left_stick_y, gamepad1.right_stick_x, gamepad1.left_stick_x);
 
-            telemetry.addData("Position X: ", integrator.getPositionX());
-            telemetry.addData("Position Y: ", integrator.getPositionY());
+            integrator.getPosition(position);
+            telemetry.addData("Position X: ", position[0]);
+            telemetry.addData("Position Y: ", position[1]);
+            telemetry.addData("Loop p99 ms: ", loop.getP99Duration() * 1000);
+            telemetry.addData("Jitter p99 ms: ", loop.getP99Jitter() * 1000);
+            telemetry.addData("Overruns: ", loop.getOverruns());
+            telemetry.addData("Missed deadlines: ", loop.getMissedDeadlines());
             telemetry.update();
         }
         // stop the integrator when opMode is no longer active
-        running = false;
-        try {
-            integratorThread.join(); // Wait for the thread to finish
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        sampler.stop();
     }
 }
@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.opmodes.remoteDirections_deprecated_;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
@@ -8,6 +9,8 @@ import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.hardware.Servo;
 
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+
 @TeleOp
 @Disabled
 public class FindLimits extends LinearOpMode {
@@ -21,6 +24,7 @@ public class FindLimits extends LinearOpMode {
 
     @Override
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
 
         fingers = hardwareMap.get(Servo.class, "fingers");
         fingers.setPosition(fingerPosition);
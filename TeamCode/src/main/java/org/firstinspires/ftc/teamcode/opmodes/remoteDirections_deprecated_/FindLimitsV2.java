@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.opmodes.remoteDirections_deprecated_;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
@@ -8,6 +9,7 @@ import com.qualcomm.robotcore.hardware.Gamepad;
 
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
 import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Servo;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
 
 @TeleOp
 @Disabled
@@ -22,6 +24,8 @@ public class FindLimitsV2 extends LinearOpMode {
 
     @Override
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
+
         shoulderMotorLeft = new Motor("shoulderMotorLeft", hardwareMap, telemetry);
         shoulderMotorRight = new Motor("shoulderMotorRight", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry);
         elbowMotor = new Motor("elbowMotor", hardwareMap, DcMotorSimple.Direction.REVERSE, telemetry);
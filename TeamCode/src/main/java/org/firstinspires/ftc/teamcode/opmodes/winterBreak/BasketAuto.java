@@ -1,20 +1,33 @@
 package org.firstinspires.ftc.teamcode.opmodes.winterBreak;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.Servo;
 
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PersistentData;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator;
+
+import java.io.File;
+import java.io.IOException;
+
 @Autonomous
 public class BasketAuto extends LinearOpMode {
 
     DcMotorEx elbow, backLeft, backRight, frontLeft, frontRight, foot, liftRope, liftChain;
     Servo fingers, wrist;
+    PoseEstimator pose;
+    PersistentData store;
 
     @Override
     public void runOpMode() {
 
+        // AUTO refreshes on its own when the same encoder gets read twice, which is what all the while loops below do
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
+
         backLeft = hardwareMap.get(DcMotorEx.class, "backLeft");
         backLeft.setDirection(Constants.BLFRDrivetrainDirection);
         backRight = hardwareMap.get(DcMotorEx.class, "backRight");
@@ -73,6 +86,14 @@ public class BasketAuto extends LinearOpMode {
         liftChain.setMode(DcMotor.RunMode.RUN_TO_POSITION);
         liftChain.setPower(1);
 
+        // where the robot ends up gets handed to TeleOp through the persistent store
+        pose = Replays.newPoseEstimator(hardwareMap, frontLeft, frontRight, backLeft, backRight, telemetry);
+        try {
+            store = PersistentData.shared(new File(Constants.persistentFile));
+        } catch (IOException e) {
+            telemetry.addData("Pose won't be saved", e.getMessage());
+        }
+
         telemetry.addData("Initialized", "");
         telemetry.update();
 
@@ -83,6 +104,7 @@ public class BasketAuto extends LinearOpMode {
 
         if (opModeIsActive()) {
 
+            track(); // everything up to the reset
             backLeft.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
             backRight.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
             frontLeft.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
@@ -92,8 +114,10 @@ public class BasketAuto extends LinearOpMode {
             backRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
             frontLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
             frontRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            pose.restartEncoders();
 
             while (backRight.getCurrentPosition()-frontRight.getCurrentPosition() < 5000 && opModeIsActive()) {
+                track();
                 telemetry.addData("pos: ", 5000-backRight.getCurrentPosition()-frontRight.getCurrentPosition());
                 telemetry.update();
                 backLeft.setPower(0);
@@ -107,6 +131,7 @@ public class BasketAuto extends LinearOpMode {
             frontLeft.setPower(0);
             frontRight.setPower(0);
 
+            track(); // everything up to the reset
             backLeft.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
             backRight.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
             frontLeft.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
@@ -116,8 +141,10 @@ public class BasketAuto extends LinearOpMode {
             backRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
             frontLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
             frontRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            pose.restartEncoders();
 
             while (-backRight.getCurrentPosition()+frontRight.getCurrentPosition() < 5000 && opModeIsActive()) {
+                track();
                 telemetry.addData("pos: ", 5000-backRight.getCurrentPosition()-frontRight.getCurrentPosition());
                 telemetry.update();
                 backLeft.setPower(1);
@@ -127,6 +154,7 @@ public class BasketAuto extends LinearOpMode {
             }
 
             while (backRight.getCurrentPosition()-frontRight.getCurrentPosition() < 5000 && opModeIsActive()) {
+                track();
                 telemetry.addData("pos: ", 5000-backRight.getCurrentPosition()-frontRight.getCurrentPosition());
                 telemetry.update();
                 backLeft.setPower(-1);
@@ -136,6 +164,7 @@ public class BasketAuto extends LinearOpMode {
             }
 
             while (-backRight.getCurrentPosition()+frontRight.getCurrentPosition() < 5000 && opModeIsActive()) {
+                track();
                 telemetry.addData("pos: ", 5000-backRight.getCurrentPosition()-frontRight.getCurrentPosition());
                 telemetry.update();
                 backLeft.setPower(1);
@@ -145,6 +174,7 @@ public class BasketAuto extends LinearOpMode {
             }
 
             while (opModeIsActive()) {
+                track();
                 telemetry.addData("bl: ", backLeft.getCurrentPosition());
                 telemetry.addData("br: ", backRight.getCurrentPosition());
                 telemetry.addData("fl: ", frontLeft.getCurrentPosition());
@@ -153,5 +183,26 @@ public class BasketAuto extends LinearOpMode {
             }
 
         }
+
+        if (store != null) {
+            try {
+                store.sync(); // TeleOp is next, make sure the pose is really on disk
+            } catch (IOException e) {
+                telemetry.addData("Pose not saved", e.getMessage());
+                telemetry.update();
+            }
+        }
+    }
+
+    /**
+     * Moves the pose along and saves it, a put is one small write into the page cache so this is fine every loop
+     */
+    private void track() {
+        pose.update();
+        if (store == null)
+            return;
+        store.savePose(pose);
+        if (store.getLastError() != null)
+            telemetry.addData("Pose not saving", store.getLastError().getMessage());
     }
 }
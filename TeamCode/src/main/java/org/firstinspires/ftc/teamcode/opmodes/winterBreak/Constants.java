@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.opmodes.winterBreak;
 
+import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 
 public class Constants {
@@ -35,4 +36,12 @@ public class Constants {
             fingersClosed = 0.45,//.45
             shoulderUp = 0.0,
             shoulderDown = 0.3;
+
+    // turn recording on to drive a route in TeleOp that ReplayAuto plays back, off so match TeleOps don't overwrite it
+    public static boolean recordTeleOp = false;
+    public static String replayFile = "/sdcard/FIRST/replays/winterBreak.rply";
+    // BasketAuto leaves its last pose in here for TeleOp
+    public static String persistentFile = "/sdcard/FIRST/data/persistent";
+    public static RevHubOrientationOnRobot.LogoFacingDirection hubLogoDirection = RevHubOrientationOnRobot.LogoFacingDirection.UP;
+    public static RevHubOrientationOnRobot.UsbFacingDirection hubUsbDirection = RevHubOrientationOnRobot.UsbFacingDirection.FORWARD;
 }
@@ -0,0 +1,105 @@
+package org.firstinspires.ftc.teamcode.opmodes.winterBreak;
+
+import com.qualcomm.robotcore.hardware.Servo;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.controllers.PIDFController;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.Joint;
+import org.firstinspires.ftc.teamcode.backend.libraries.superstructure.Superstructure;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.SynchronizedMotorPair;
+
+/**
+ * The lift, elbow, wrist and fingers as a {@link Superstructure}, one state for each {@link Constants.RobotPositions}
+ * that has all its numbers filled in
+ * <p>
+ * The elbow waits for the lift to be 60% up before it swings out, and on the way down the lift waits for the elbow to
+ * be 60% in, so the arm never swings out low but also doesn't wait for the lift to stop before moving.
+ * Fingers are left alone in every state except INITIAL, the operator still opens and closes them
+ */
+public class Presets {
+    public static final int LIFT = 0, ELBOW = 1, WRIST = 2, FINGERS = 3;
+    public static double liftTolerance = 30, elbowTolerance = 40, servoTolerance = 0.01;
+    public static double elbowAfterLift = 0.6, liftAfterElbow = 0.6, wristAfterElbow = 0.5;
+    // the rope side goes 5% further than the chain so it stays tight
+    public static double liftRopeRatio = 1.05, liftKP = 0.004, liftKD = 0.0002, liftKSync = 0.01, liftKSyncD = 0.0002, liftRackingLimit = 60;
+
+    private Presets() {
+    }
+
+    /**
+     * Builds the superstructure and works out every transition, call it during init
+     *
+     * @param lift    The lift from {@link #lift}, still needs its update every loop
+     * @param elbow   The elbow
+     * @param wrist   The wrist servo
+     * @param fingers The fingers servo
+     * @return The superstructure, call {@link Superstructure#setState} with where the robot starts
+     */
+    public static Superstructure<Constants.RobotPositions> build(SynchronizedMotorPair lift, Motor elbow, Servo wrist, Servo fingers) {
+        Superstructure<Constants.RobotPositions> superstructure = new Superstructure<>(Constants.RobotPositions.class);
+        superstructure.addJoint("lift", lift, liftTolerance);
+        superstructure.addJoint("elbow", elbow, elbowTolerance);
+        superstructure.addJoint("wrist", servo(wrist), servoTolerance);
+        superstructure.addJoint("fingers", servo(fingers), servoTolerance);
+
+        double leave = Double.NaN;
+        superstructure.addState(Constants.RobotPositions.INITIAL, Constants.liftDown, Constants.elbowRetract, Constants.wristFold, Constants.fingersClosed)
+                .addState(Constants.RobotPositions.GROUND, Constants.liftDown, Constants.elbowRetract, Constants.wristFold, leave)
+                .addState(Constants.RobotPositions.GRABBING, Constants.liftGrabbing, Constants.elbowExtend, Constants.wristGrab, leave)
+                .addState(Constants.RobotPositions.LOW_BAR, Constants.liftLowBar, Constants.elbowRetract, Constants.wristPlace, leave)
+                .addState(Constants.RobotPositions.LOW_BASKET, Constants.liftLowBasket, Constants.elbowExtend, Constants.wristPlace, leave);
+        if (Constants.liftHighBar != null)
+            superstructure.addState(Constants.RobotPositions.HIGH_BAR, Constants.liftHighBar, Constants.elbowRetract, Constants.wristPlace, leave);
+        if (Constants.liftHighBasket != null)
+            superstructure.addState(Constants.RobotPositions.HIGH_BASKET, Constants.liftHighBasket, Constants.elbowExtend, Constants.wristPlace, leave);
+
+        superstructure.startAfter(ELBOW, LIFT, elbowAfterLift, Superstructure.Direction.UP)
+                .startAfter(LIFT, ELBOW, liftAfterElbow, Superstructure.Direction.DOWN)
+                .startAfter(WRIST, ELBOW, wristAfterElbow, Superstructure.Direction.ANY);
+        // from a bar to grabbing the lift comes down while the elbow goes out, so the two rules above wait on each
+        // other, let the lift drop first there and the elbow follow
+        superstructure.startRightAway(Constants.RobotPositions.LOW_BAR, Constants.RobotPositions.GRABBING, LIFT);
+        if (Constants.liftHighBar != null)
+            superstructure.startRightAway(Constants.RobotPositions.HIGH_BAR, Constants.RobotPositions.GRABBING, LIFT);
+        superstructure.precompute();
+        return superstructure;
+    }
+
+    /**
+     * Both lift motors as one {@link SynchronizedMotorPair}, the control hub runs both sides off one target and pulls
+     * them back together when one drags, instead of two RUN_TO_POSITIONs that only track by luck
+     * Call {@link SynchronizedMotorPair#update()} every loop after the bulk cache is cleared
+     *
+     * @param liftChain The chain side, targets are in its ticks
+     * @param liftRope  The rope side, sent {@link #liftRopeRatio} times as far
+     * @param telemetry Telemetry Object
+     * @return The lift, holding nothing until it gets a target
+     */
+    public static SynchronizedMotorPair lift(Motor liftChain, Motor liftRope, Telemetry telemetry) {
+        return new SynchronizedMotorPair(liftChain, liftRope, liftRopeRatio, new PIDFController(liftKP, 0, liftKD), telemetry)
+                .setSyncGains(liftKSync, liftKSyncD)
+                .setRackingLimit(liftRackingLimit)
+                .setTolerance((int) liftTolerance);
+    }
+
+    /**
+     * An sdk servo as a joint
+     *
+     * @param servo The servo
+     * @return The joint
+     */
+    public static Joint servo(Servo servo) {
+        return new Joint() {
+            @Override
+            public void setTarget(double target) {
+                servo.setPosition(target);
+            }
+
+            @Override
+            public double getPosition() {
+                return servo.getPosition();
+            }
+        };
+    }
+}
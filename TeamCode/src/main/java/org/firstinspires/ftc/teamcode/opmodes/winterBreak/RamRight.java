@@ -1,11 +1,14 @@
 package org.firstinspires.ftc.teamcode.opmodes.winterBreak;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+
 @Autonomous
 
 public class RamRight extends LinearOpMode {
@@ -15,6 +18,7 @@ public class RamRight extends LinearOpMode {
 
     @Override
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
 
         backLeft = hardwareMap.get(DcMotorEx.class, "backLeft");
         backLeft.setDirection(Constants.BLFRDrivetrainDirection);
@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.opmodes.winterBreak;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.Servo;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.input.Button;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.backend.libraries.replay.Recording;
+import org.firstinspires.ftc.teamcode.backend.libraries.replay.ReplayFollower;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.SynchronizedMotorPair;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.WriteCache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Plays back the TeleOp recorded with {@link Constants#recordTeleOp} on, start it from where that TeleOp started
+ * <p>
+ * The drivetrain follows the recorded pose instead of the recorded sticks so it ends up where the driver did, the lift,
+ * elbow, wrist and fingers get sent to the recorded setpoints and the foot runs off the recorded bumpers
+ */
+@Autonomous
+public class ReplayAuto extends LinearOpMode {
+
+    DcMotorEx backLeft, backRight, frontLeft, frontRight, foot;
+    Motor elbow, liftRope, liftChain;
+    Servo fingers, wrist;
+
+    MecanumKinematics kinematics = new MecanumKinematics();
+    double[] wheels = new double[4], drive = new double[3];
+
+    @Override
+    public void runOpMode() {
+
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.MANUAL);
+
+        // load first, a missing recording should show up during init and not at the start of the match
+        Recording recording = null;
+        long loadStart = System.nanoTime();
+        try {
+            recording = Replays.check(Recording.load(new File(Constants.replayFile)));
+            telemetry.addData("Replay", "%d frames, %.1f s, loaded in %.1f ms", recording.getFrameCount(),
+                    recording.getDuration(), (System.nanoTime() - loadStart) / 1e6);
+        } catch (IOException | IllegalArgumentException e) {
+            telemetry.addData("No replay", e.getMessage());
+        }
+
+        backLeft = hardwareMap.get(DcMotorEx.class, "backLeft");
+        backLeft.setDirection(Constants.BLFRDrivetrainDirection);
+        backRight = hardwareMap.get(DcMotorEx.class, "backRight");
+        backRight.setDirection(Constants.BRFLDrivetrainDirection);
+        frontLeft = hardwareMap.get(DcMotorEx.class, "frontLeft");
+        frontLeft.setDirection(Constants.BRFLDrivetrainDirection);
+        frontRight = hardwareMap.get(DcMotorEx.class, "frontRight");
+        frontRight.setDirection(Constants.BLFRDrivetrainDirection);
+
+        backLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        backRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        frontLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        frontRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+
+        backLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        backRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        frontLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        frontRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+
+        fingers = hardwareMap.get(Servo.class, "fingers");
+        wrist = hardwareMap.get(Servo.class, "wrist");
+
+        fingers.setPosition(Constants.fingersClosed);
+        wrist.setPosition(Constants.wristFold);
+
+        foot = hardwareMap.get(DcMotorEx.class, "foot");
+        foot.setDirection(Constants.footDirection);
+        foot.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+        foot.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+        foot.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+
+        elbow = new Motor("elbow", hardwareMap, Constants.elbowDirection, telemetry);
+        elbow.setTargetPosition(0);
+        elbow.runToPosition();
+        elbow.setPower(1);
+
+        liftRope = new Motor("liftRope", hardwareMap, Constants.liftRopeDirection, telemetry);
+        liftChain = new Motor("liftChain", hardwareMap, Constants.liftChainDirection, telemetry);
+        SynchronizedMotorPair lift = Presets.lift(liftChain, liftRope, telemetry);
+        lift.setTarget(0);
+        PoseEstimator pose = Replays.newPoseEstimator(hardwareMap, frontLeft, frontRight, backLeft, backRight, telemetry);
+
+        telemetry.update();
+
+        waitForStart();
+        if (recording == null)
+            return;
+
+        GamepadInput driver = new GamepadInput();
+        ReplayFollower follower = new ReplayFollower(recording).setGamepads(driver, null);
+
+        while (opModeIsActive() && !follower.isFinished()) {
+            BulkCache.clearCache();
+            WriteCache.endCycle();
+
+            pose.update();
+            follower.update(pose.getX(), pose.getY(), pose.getHeading(), drive);
+            kinematics.toWheelSpeeds(drive[0], drive[1], drive[2], wheels);
+            MecanumKinematics.desaturate(wheels, 1);
+            frontLeft.setPower(wheels[MecanumKinematics.FRONT_LEFT]);
+            backLeft.setPower(wheels[MecanumKinematics.BACK_LEFT]);
+            frontRight.setPower(wheels[MecanumKinematics.FRONT_RIGHT]);
+            backRight.setPower(wheels[MecanumKinematics.BACK_RIGHT]);
+
+            lift.setTarget(follower.getSetpoint(Presets.LIFT));
+            elbow.setTarget(follower.getSetpoint(Presets.ELBOW));
+            wrist.setPosition(follower.getSetpoint(Presets.WRIST));
+            fingers.setPosition(follower.getSetpoint(Presets.FINGERS));
+            lift.update();
+            elbow.runToPosition();
+
+            if (driver.isDown(Button.RIGHT_BUMPER)) {
+                foot.setPower(1);
+            } else if (driver.isDown(Button.LEFT_BUMPER)) {
+                foot.setPower(-1);
+            } else {
+                foot.setPower(0);
+            }
+
+            telemetry.addData("time", "%.1f / %.1f s", follower.getTime(), recording.getDuration());
+            telemetry.addData("off by", "%.1f in, %.1f deg", follower.getPositionError(), Math.toDegrees(follower.getHeadingError()));
+            telemetry.update();
+        }
+
+        frontLeft.setPower(0);
+        backLeft.setPower(0);
+        frontRight.setPower(0);
+        backRight.setPower(0);
+        foot.setPower(0);
+        lift.stop();
+    }
+}
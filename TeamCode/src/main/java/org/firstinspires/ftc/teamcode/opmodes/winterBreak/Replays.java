@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.opmodes.winterBreak;
+
+import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.Servo;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.backend.libraries.replay.Recording;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.SynchronizedMotorPair;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator;
+import org.firstinspires.ftc.teamcode.backend.subsystems.sensors.Imu;
+
+/**
+ * What {@link TeleOp} and {@link ReplayAuto} share so a recording made by one plays back on the other
+ * <p>
+ * Both track the pose from the drive encoders and the imu starting at 0, so the robot has to start a replay from the
+ * same spot on the field the recorded TeleOp started from. The setpoints are in the same order as the {@link Presets} joints
+ */
+public class Replays {
+    public static final int SETPOINTS = 4;
+
+    private Replays() {
+    }
+
+    /**
+     * Tracks the pose from the drive encoders and the imu, call its update every loop after the bulk cache is cleared
+     *
+     * @param hardwareMap Hardware map with the imu on it
+     * @param frontLeft   Front left drive motor, with its direction already set
+     * @param frontRight  Front right drive motor
+     * @param backLeft    Back left drive motor
+     * @param backRight   Back right drive motor
+     * @param telemetry   Telemetry Object
+     * @return The estimator
+     */
+    public static PoseEstimator newPoseEstimator(HardwareMap hardwareMap, DcMotorEx frontLeft, DcMotorEx frontRight,
+                                                 DcMotorEx backLeft, DcMotorEx backRight, Telemetry telemetry) {
+        Imu imu = new Imu("imu", hardwareMap, Constants.hubLogoDirection, Constants.hubUsbDirection, telemetry);
+        return new PoseEstimator(frontLeft::getCurrentPosition, frontRight::getCurrentPosition,
+                backLeft::getCurrentPosition, backRight::getCurrentPosition, imu);
+    }
+
+    /**
+     * Reads where the mechanisms are being sent into a frame's setpoints
+     *
+     * @param lift      The lift, its target is in chain side ticks
+     * @param elbow     The elbow
+     * @param wrist     The wrist servo
+     * @param fingers   The fingers servo
+     * @param setpoints Array of {@link #SETPOINTS} to fill
+     */
+    public static void readSetpoints(SynchronizedMotorPair lift, Motor elbow, Servo wrist, Servo fingers, double[] setpoints) {
+        setpoints[Presets.LIFT] = lift.getTarget();
+        setpoints[Presets.ELBOW] = elbow.getTargetPosition();
+        setpoints[Presets.WRIST] = wrist.getPosition();
+        setpoints[Presets.FINGERS] = fingers.getPosition();
+    }
+
+    /**
+     * Checks a recording was made by this robot's TeleOp
+     *
+     * @param recording The recording
+     * @return The same recording
+     */
+    public static Recording check(Recording recording) {
+        if (recording.getSetpointCount() != SETPOINTS)
+            throw new IllegalArgumentException("Recording has " + recording.getSetpointCount() + " setpoints, the TeleOp records " + SETPOINTS);
+        return recording;
+    }
+}
@@ -1,31 +1,60 @@
 package org.firstinspires.ftc.teamcode.opmodes.winterBreak;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
-import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.util.ElapsedTime;
 
+import org.firstinspires.ftc.teamcode.backend.libraries.input.Axis;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.Button;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.InputCurve;
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.backend.libraries.replay.Recorder;
+import org.firstinspires.ftc.teamcode.backend.libraries.superstructure.Superstructure;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.Motor;
+import org.firstinspires.ftc.teamcode.backend.subsystems.actuators.base.SynchronizedMotorPair;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.Gamepads;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PersistentData;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator;
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.WriteCache;
+
+import java.io.File;
+import java.io.IOException;
+
 @com.qualcomm.robotcore.eventloop.opmode.TeleOp
 public class TeleOp extends LinearOpMode {
 
-    DcMotorEx elbow, backLeft, backRight, frontLeft, frontRight, foot, liftRope, liftChain;
+    DcMotorEx backLeft, backRight, frontLeft, frontRight, foot;
+    Motor elbow, liftRope, liftChain; // Motor drops the mode and power writes that repeat every loop
+    SynchronizedMotorPair lift;
     Servo fingers, wrist; // testing testing 234
 
-    double elbowBooster = 400, speedReduction = 0.45, turnDamper = .75;
+    double elbowBooster = 400, speedReduction = 0.45, turnDamper = .75, stickDeadband = .05;
     int tolerance = 10; // increase until the shaking stops
 
-    boolean previous2AButtonState = false, fingersOpen = false, lock = true;
+    boolean fingersOpen = false, lock = true;
 
     ElapsedTime timer = new ElapsedTime();
+    MecanumKinematics kinematics = new MecanumKinematics();
+    double[] wheels = new double[4];
     Constants.RobotPositions currentPosition;
+    Superstructure<Constants.RobotPositions> superstructure;
+    PoseEstimator pose;
+    Recorder recorder;
+    double[] setpoints = new double[Replays.SETPOINTS];
 
     @Override
     public void runOpMode() {
 
+        // one bulk read per loop for every encoder on the hubs, cleared at the top of the loop
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.MANUAL);
+
         backLeft = hardwareMap.get(DcMotorEx.class, "backLeft");
         backLeft.setDirection(Constants.BLFRDrivetrainDirection);
         backRight = hardwareMap.get(DcMotorEx.class, "backRight");
@@ -57,34 +86,51 @@ public class TeleOp extends LinearOpMode {
         foot.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
         foot.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
 
-        elbow = hardwareMap.get(DcMotorEx.class, "elbow");
-        elbow.setDirection(Constants.elbowDirection);
-        elbow.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        elbow.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        elbow.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        // Motor resets the encoder, runs using encoder and brakes for us
+        elbow = new Motor("elbow", hardwareMap, Constants.elbowDirection, telemetry);
         elbow.setTargetPosition(0);
-        elbow.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        elbow.runToPosition();
         elbow.setPower(1);
 
-        liftRope = hardwareMap.get(DcMotorEx.class, "liftRope");
-        liftRope.setDirection(Constants.liftRopeDirection);
-        liftRope.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        liftRope.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        liftRope.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-        liftRope.setTargetPosition(0);
-        liftRope.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        liftRope.setPower(1);
-
-        liftChain = hardwareMap.get(DcMotorEx.class, "liftChain");
-        liftChain.setDirection(Constants.liftChainDirection);
-        liftChain.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        liftChain.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        liftChain.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-        liftChain.setTargetPosition(0);
-        liftChain.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        liftChain.setPower(1);
-
-        telemetry.addData("Initialized", "");
+        // both lift motors run off one target on the control hub, the rope side 5% further
+        liftRope = new Motor("liftRope", hardwareMap, Constants.liftRopeDirection, telemetry);
+        liftChain = new Motor("liftChain", hardwareMap, Constants.liftChainDirection, telemetry);
+        lift = Presets.lift(liftChain, liftRope, telemetry);
+        lift.setTarget(0);
+
+        // both gamepads get read once per loop, everything below reads the snapshot
+        Gamepads gamepads = new Gamepads(gamepad1, gamepad2);
+        GamepadInput driver = gamepads.getGamepad1(), operator = gamepads.getGamepad2();
+        driver.setCurve(Axis.LEFT_X, new InputCurve().setDeadband(stickDeadband))
+                .setCurve(Axis.LEFT_Y, new InputCurve().setDeadband(stickDeadband))
+                .setCurve(Axis.RIGHT_X, new InputCurve().setDeadband(stickDeadband).setScale(turnDamper));
+        operator.onPress(Button.A, () -> fingersOpen = !fingersOpen);
+
+        // presets, these run the lift and elbow until they get there or someone grabs a trigger
+        superstructure = Presets.build(lift, elbow, wrist, fingers);
+        superstructure.setState(Constants.RobotPositions.INITIAL);
+        operator.onPress(Button.X, () -> superstructure.setGoal(Constants.RobotPositions.GRABBING))
+                .onPress(Button.Y, () -> superstructure.setGoal(Constants.RobotPositions.LOW_BASKET))
+                .onPress(Button.B, () -> superstructure.setGoal(Constants.RobotPositions.GROUND));
+
+        // records the run for ReplayAuto, the imu read this needs costs a few ms a loop so it's off unless wanted
+        if (Constants.recordTeleOp) {
+            pose = Replays.newPoseEstimator(hardwareMap, frontLeft, frontRight, backLeft, backRight, telemetry);
+            recorder = new Recorder(Replays.SETPOINTS, 150, 60);
+        }
+
+        // where BasketAuto left the robot, the recording pose above stays relative to where TeleOp started so it lines up with ReplayAuto
+        try {
+            PersistentData store = PersistentData.shared(new File(Constants.persistentFile));
+            if (store.contains("pose.x")) {
+                telemetry.addData("Auto ended at", "%.1f, %.1f in, %.0f deg", store.getDouble("pose.x", 0),
+                        store.getDouble("pose.y", 0), Math.toDegrees(store.getDouble("pose.heading", 0)));
+            }
+        } catch (IOException e) {
+            telemetry.addData("Auto pose not loaded", e.getMessage());
+        }
+
+        telemetry.addData("Initialized", Constants.recordTeleOp ? "recording" : "");
         telemetry.update();
 
         currentPosition = Constants.RobotPositions.INITIAL;
@@ -93,12 +139,22 @@ public class TeleOp extends LinearOpMode {
         int lastTargetPosition = 0;
         double rumble = 0;
 
-        currentPosition = Constants.RobotPositions.GROUND;
-
         while (opModeIsActive()) {
+            BulkCache.clearCache();
+            WriteCache.endCycle();
+            gamepads.update();
+
+            // any manual lift or elbow input takes over from a preset
+            if (driver.get(Axis.RIGHT_TRIGGER) > .05 || driver.get(Axis.LEFT_TRIGGER) > .05 || driver.isDown(Button.BACK)
+                    || operator.get(Axis.RIGHT_TRIGGER) > .05 || operator.get(Axis.LEFT_TRIGGER) > .05) {
+                superstructure.stop();
+            }
+            superstructure.update();
+            currentPosition = superstructure.getGoal();
+            telemetry.addData("position", currentPosition);
 
             // test
-            if (gamepad1.guide && gamepad2.guide) {
+            if (driver.isDown(Button.GUIDE) && operator.isDown(Button.GUIDE)) {
                 rumble += .01;
                 gamepad1.rumble(rumble, rumble, 100);
                 gamepad2.rumble(rumble, rumble, 100);
@@ -108,87 +164,98 @@ public class TeleOp extends LinearOpMode {
 
             // try to make lift work
             //
-            int position = (int) (liftChain.getCurrentPosition() + (100 * gamepad1.right_trigger) - (100 * gamepad1.left_trigger));
+            if (!superstructure.isBusy()) {
+                int position = (int) (liftChain.getCurrentPosition() + (100 * driver.get(Axis.RIGHT_TRIGGER)) - (100 * driver.get(Axis.LEFT_TRIGGER)));
 
-            position = Math.min(6000, position); // set max limit
+                position = Math.min(6000, position); // set max limit
 
-            // tolerance stops it from stuttering and slowly going down when its up
-            if (Math.abs(position - lastTargetPosition) > tolerance) {
-                liftRope.setTargetPosition((int) (position * 1.05));
-                liftChain.setTargetPosition(Math.max(200, position));
+                // tolerance stops it from stuttering and slowly going down when its up
+                if (Math.abs(position - lastTargetPosition) > tolerance) {
+                    lift.setTarget(Math.max(200, position));
 
-                lastTargetPosition = position;
-            }
+                    lastTargetPosition = position;
+                }
 
-            // if you hold back it retracts back to zero for climbing
-            if (gamepad1.back) {
-                liftChain.setTargetPosition(0);
-                gamepad1.rumbleBlips(1);
-                gamepad2.rumbleBlips(1);
+                // if you hold back it retracts back to zero for climbing
+                if (driver.isDown(Button.BACK)) {
+                    lift.setTarget(0);
+                    gamepad1.rumbleBlips(1);
+                    gamepad2.rumbleBlips(1);
+                }
             }
-
-            liftRope.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            liftChain.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-
-            liftRope.setPower(1);
-            liftChain.setPower(1);
+            lift.update();
+            lift.addTelemetry("lift");
 
             // control elbow
-            elbow.setTargetPosition(elbow.getCurrentPosition() + (int) ((gamepad2.right_trigger * elbowBooster) - (gamepad2.left_trigger * elbowBooster)));
-            if (elbow.getTargetPosition() < 0) {
-                elbow.setTargetPosition(0);
-            } else if (elbow.getTargetPosition() > Constants.elbowExtend) {
-                elbow.setTargetPosition(Constants.elbowExtend);
+            if (!superstructure.isBusy()) {
+                elbow.setTargetPosition(elbow.getCurrentPosition() + (int) ((operator.get(Axis.RIGHT_TRIGGER) * elbowBooster) - (operator.get(Axis.LEFT_TRIGGER) * elbowBooster)));
+                if (elbow.getTargetPosition() < 0) {
+                    elbow.setTargetPosition(0);
+                } else if (elbow.getTargetPosition() > Constants.elbowExtend) {
+                    elbow.setTargetPosition(Constants.elbowExtend);
+                }
             }
-            elbow.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+            elbow.runToPosition();
 
             // foot controls
-            if (gamepad1.right_bumper) {
+            if (driver.isDown(Button.RIGHT_BUMPER)) {
                 foot.setPower(1);
-            } else if (gamepad1.left_bumper) {
+            } else if (driver.isDown(Button.LEFT_BUMPER)) {
                 foot.setPower(-1);
             } else {
                 foot.setPower(0);
             }
 
             // control wrist
-            if (gamepad2.dpad_up) {
+            if (operator.isDown(Button.DPAD_UP)) {
                 wrist.setPosition(Constants.wristPlace);
             }
-            if (gamepad2.dpad_left) {
+            if (operator.isDown(Button.DPAD_LEFT)) {
                 wrist.setPosition(Constants.wristGrab);
             }
-            if (gamepad2.dpad_down) {
+            if (operator.isDown(Button.DPAD_DOWN)) {
                 wrist.setPosition(Constants.wristFold);
             }
             telemetry.addData("wrist", wrist.getPosition());
 
-            // control fingers
-            boolean current2AButtonState = gamepad2.a;
-            // rising edge
-            if (current2AButtonState && !previous2AButtonState) {
-                fingersOpen = !fingersOpen;
-            }
+            // control fingers, gamepad2 a toggles them from the binding above
             telemetry.addData("finger: ", fingersOpen ? "open" : "closed");
             if (fingersOpen) {
                 fingers.setPosition(Constants.fingersOpen);
             } else {
                 fingers.setPosition(Constants.fingersClosed);
             }
-            previous2AButtonState = current2AButtonState;
 
-            // drive
+            // drive, the turn damper is already in the right stick's curve but the denominator uses the undamped stick like before
             double
-                    y = gamepad1.left_stick_y,
-                    rx = gamepad1.right_stick_x,
-                    x = -gamepad1.left_stick_x,
-                    denominator = Math.max(Math.abs(y) + Math.abs(x) + Math.abs(rx), 1);
-            frontLeft.setPower(((y + x * 1.1 + rx * turnDamper) / denominator) * speedReduction);
-            backLeft.setPower(((y - x * 1.1 + rx * turnDamper) / denominator) * speedReduction);
-            frontRight.setPower(((y - x * 1.1 - rx * turnDamper) / denominator) * speedReduction);
-            backRight.setPower(((y + x * 1.1 - rx * turnDamper) / denominator) * speedReduction);
+                    y = driver.get(Axis.LEFT_Y),
+                    rx = driver.get(Axis.RIGHT_X),
+                    x = -driver.get(Axis.LEFT_X),
+                    denominator = Math.max(Math.abs(y) + Math.abs(x) + Math.abs(driver.getRaw(Axis.RIGHT_X)), 1);
+            kinematics.toWheelSpeeds(y, -x, -rx, wheels);
+            frontLeft.setPower((wheels[MecanumKinematics.FRONT_LEFT] / denominator) * speedReduction);
+            backLeft.setPower((wheels[MecanumKinematics.BACK_LEFT] / denominator) * speedReduction);
+            frontRight.setPower((wheels[MecanumKinematics.FRONT_RIGHT] / denominator) * speedReduction);
+            backRight.setPower((wheels[MecanumKinematics.BACK_RIGHT] / denominator) * speedReduction);
+
+            if (recorder != null) {
+                pose.update();
+                Replays.readSetpoints(lift, elbow, wrist, fingers, setpoints);
+                recorder.record(driver.getTime(), driver, operator, pose.getX(), pose.getY(), pose.getHeading(), setpoints);
+                telemetry.addData("recorded frames", recorder.getFrameCount());
+            }
 
+            telemetry.addData("writes avoided", WriteCache.getAvoidedLastCycle());
             telemetry.update();
         }
+
+        if (recorder != null) {
+            try {
+                recorder.toRecording().save(new File(Constants.replayFile));
+            } catch (IOException e) {
+                telemetry.addData("Recording not saved", e.getMessage());
+                telemetry.update();
+            }
+        }
     }
 }
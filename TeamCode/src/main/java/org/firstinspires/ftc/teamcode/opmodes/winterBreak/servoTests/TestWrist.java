@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.opmodes.winterBreak.servoTests;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.Disabled;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.util.ElapsedTime;
@@ -7,6 +8,8 @@ import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.hardware.Servo;
 
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.BulkCache;
+
 @TeleOp
 @Disabled
 public class TestWrist extends LinearOpMode {
@@ -18,6 +21,7 @@ public class TestWrist extends LinearOpMode {
 
     @Override
     public void runOpMode() {
+        BulkCache.init(hardwareMap, LynxModule.BulkCachingMode.AUTO);
 
         wrist = hardwareMap.get(Servo.class, "wrist");
         wrist.setPosition(position);
@@ -0,0 +1,28 @@
+package org.firstinspires.ftc.teamcode.backend.libraries;
+
+/**
+ * Source of time for anything that needs to measure or wait, swap it out for a fake one to run code off the robot without waiting in real time
+ */
+public interface Clock {
+
+    /**
+     * The real clock, backed by {@link System#nanoTime()}
+     */
+    Clock SYSTEM = System::nanoTime;
+
+    /**
+     * Returns the current time in nanoseconds, only differences between two calls mean anything
+     *
+     * @return Current time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Returns the current time in seconds
+     *
+     * @return Current time in seconds
+     */
+    default double seconds() {
+        return nanoTime() / 1e9;
+    }
+}
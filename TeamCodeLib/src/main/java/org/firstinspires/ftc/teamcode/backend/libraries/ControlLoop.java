@@ -0,0 +1,281 @@
+package org.firstinspires.ftc.teamcode.backend.libraries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs registered tasks at a fixed rate instead of as fast as the bus allows, so every loop gets about the same dt
+ * <p>
+ * Deadlines are counted from the start time in whole periods, not from when the last cycle happened to end, so small
+ * delays don't add up over a match. A cycle whose tasks take longer than the period counts as an overrun. If the next
+ * deadline gets missed by a whole period or more, the real delay still gets recorded as jitter and the schedule restarts
+ * from now, instead of running a burst of back to back cycles to catch up.
+ * <p>
+ * Every cycle records how long the tasks took and how late the cycle started (jitter) into ring buffers that are
+ * allocated once, so the stats for telemetry cover the last {@link #getSampleCount()} cycles
+ */
+public class ControlLoop {
+    /**
+     * Waits for some time, swapped out along with the {@link Clock} to run the loop without waiting in real time
+     */
+    public interface Sleeper {
+        /**
+         * Waits for the given time
+         *
+         * @param nanos Nanoseconds to wait
+         * @throws InterruptedException If the thread was interrupted while waiting
+         */
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    /**
+     * The real sleeper, backed by {@link Thread#sleep(long, int)}
+     */
+    public static final Sleeper THREAD_SLEEP = nanos -> Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+
+    private final Clock clock;
+    private final Sleeper sleeper;
+    private final long period;
+    private final ArrayList<Runnable> tasks = new ArrayList<>();
+
+    private final long[] durations, jitters, sorted;
+    private int next = 0, count = 0;
+    private long cycles = 0, overruns = 0, missedDeadlines = 0;
+    private long deadline;
+    private boolean started = false;
+
+    /**
+     * Creates a loop on the real clock that keeps the last 256 cycles of stats
+     *
+     * @param periodSeconds Time between the starts of two cycles, 0.02 for 50 loops a second
+     */
+    public ControlLoop(double periodSeconds) {
+        this(periodSeconds, 256, Clock.SYSTEM, THREAD_SLEEP);
+    }
+
+    /**
+     * Creates a loop with a custom clock and sleeper
+     *
+     * @param periodSeconds Time between the starts of two cycles
+     * @param samples       How many cycles of stats to keep
+     * @param clock         The {@link Clock} deadlines are measured with
+     * @param sleeper       The {@link Sleeper} that waits for the next deadline, should move the clock forward when faked
+     */
+    public ControlLoop(double periodSeconds, int samples, Clock clock, Sleeper sleeper) {
+        if (!(periodSeconds > 0))
+            throw new IllegalArgumentException("Period must be positive");
+        if (samples < 1)
+            throw new IllegalArgumentException("Need room for at least 1 sample");
+        if (clock == null || sleeper == null)
+            throw new IllegalArgumentException("Clock and sleeper cannot be null");
+        this.period = Math.round(periodSeconds * 1e9);
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.durations = new long[samples];
+        this.jitters = new long[samples];
+        this.sorted = new long[samples];
+    }
+
+    /**
+     * Adds tasks to run every cycle, in the order they were registered
+     * Usually a subsystem update like {@code lift::update} or {@code scheduler::run}
+     *
+     * @param tasks The tasks to add
+     * @return This loop
+     */
+    public ControlLoop register(Runnable... tasks) {
+        for (Runnable task : tasks) {
+            if (task == null)
+                throw new IllegalArgumentException("Task cannot be null");
+            this.tasks.add(task);
+        }
+        return this;
+    }
+
+    /**
+     * Waits for the next deadline then runs every task once, use this as the body of an opmode loop
+     * The first call runs right away and sets where the schedule is counted from
+     *
+     * @throws InterruptedException If the thread was interrupted while waiting, opmodes should just let this through
+     */
+    public void runOnce() throws InterruptedException {
+        long now = clock.nanoTime();
+        if (!started) {
+            started = true;
+            deadline = now;
+        } else if (now < deadline) {
+            sleeper.sleep(deadline - now);
+            now = clock.nanoTime();
+        }
+
+        long jitter = now - deadline;
+        if (jitter >= period) { // missed a whole cycle, start the schedule over instead of bursting to catch up
+            missedDeadlines++;
+            deadline = now;
+        }
+
+        for (int i = 0; i < tasks.size(); i++)
+            tasks.get(i).run();
+
+        long duration = clock.nanoTime() - now;
+        if (duration > period)
+            overruns++;
+        record(duration, jitter);
+        deadline += period;
+    }
+
+    /**
+     * Runs cycles until told to stop, for opmodes that just want a fixed rate loop or a background thread
+     *
+     * @param keepRunning Checked before every cycle, like {@code this::opModeIsActive}
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    public void run(BooleanSupplier keepRunning) throws InterruptedException {
+        while (keepRunning.getAsBoolean())
+            runOnce();
+    }
+
+    private void record(long duration, long jitter) {
+        durations[next] = duration;
+        jitters[next] = jitter;
+        next = (next + 1) % durations.length;
+        if (count < durations.length)
+            count++;
+        cycles++;
+    }
+
+    /**
+     * Forgets the schedule and all stats, the next {@link #runOnce()} starts fresh
+     */
+    public void reset() {
+        started = false;
+        next = count = 0;
+        cycles = overruns = missedDeadlines = 0;
+    }
+
+    /**
+     * Returns the shortest time the tasks took in the recorded cycles
+     *
+     * @return Seconds, 0 before the first cycle
+     */
+    public double getMinDuration() {
+        return min(durations) / 1e9;
+    }
+
+    /**
+     * Returns the average time the tasks took in the recorded cycles
+     *
+     * @return Seconds, 0 before the first cycle
+     */
+    public double getMeanDuration() {
+        return mean(durations) / 1e9;
+    }
+
+    /**
+     * Returns the time 99% of the recorded cycles finished their tasks within, this is the number to compare to the period
+     *
+     * @return Seconds, 0 before the first cycle
+     */
+    public double getP99Duration() {
+        return percentile(durations, 0.99) / 1e9;
+    }
+
+    /**
+     * Returns the smallest delay between a deadline and the cycle actually starting
+     *
+     * @return Seconds, 0 before the first cycle
+     */
+    public double getMinJitter() {
+        return min(jitters) / 1e9;
+    }
+
+    /**
+     * Returns the average delay between a deadline and the cycle actually starting
+     *
+     * @return Seconds, 0 before the first cycle
+     */
+    public double getMeanJitter() {
+        return mean(jitters) / 1e9;
+    }
+
+    /**
+     * Returns the start delay 99% of the recorded cycles stayed under
+     *
+     * @return Seconds, 0 before the first cycle
+     */
+    public double getP99Jitter() {
+        return percentile(jitters, 0.99) / 1e9;
+    }
+
+    /**
+     * Returns how many cycles have run since the loop was made or reset
+     *
+     * @return Cycle count
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Returns how many cycles took longer than the period to run their tasks
+     *
+     * @return Overrun count
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Returns how many times a cycle started a whole period or more late and the schedule started over
+     *
+     * @return Missed deadline count
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * Returns how many cycles the stats are currently taken over
+     *
+     * @return Number of samples, at most the size given to the constructor
+     */
+    public int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Returns the period the loop runs at
+     *
+     * @return Seconds between cycles
+     */
+    public double getPeriod() {
+        return period / 1e9;
+    }
+
+    private long min(long[] values) {
+        if (count == 0)
+            return 0;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++)
+            min = Math.min(min, values[i]);
+        return min;
+    }
+
+    private double mean(long[] values) {
+        if (count == 0)
+            return 0;
+        long sum = 0;
+        for (int i = 0; i < count; i++)
+            sum += values[i];
+        return (double) sum / count;
+    }
+
+    private long percentile(long[] values, double fraction) {
+        if (count == 0)
+            return 0;
+        System.arraycopy(values, 0, sorted, 0, count); // sorted copy so the ring buffer order stays intact
+        Arrays.sort(sorted, 0, count);
+        return sorted[Math.min(count - 1, (int) Math.ceil(fraction * count) - 1)];
+    }
+}
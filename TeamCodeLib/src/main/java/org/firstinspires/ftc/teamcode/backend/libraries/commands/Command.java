@@ -0,0 +1,103 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+/**
+ * A piece of robot behaviour that runs over many loops instead of blocking until it is done
+ * <p>
+ * The {@link CommandScheduler} calls {@link #initialize()} once, then {@link #execute()} every loop until {@link #isFinished()} returns true,
+ * then {@link #end(boolean)} once, none of these should ever block or sleep
+ * <p>
+ * A command can name the subsystems it drives in {@link #getRequirements()}, scheduling one cancels whatever was already
+ * running on the same subsystem so two commands never fight over a motor
+ */
+public interface Command {
+    /**
+     * What {@link #getRequirements()} returns for a command that doesn't drive anything, shared so nothing gets allocated
+     */
+    Object[] NO_REQUIREMENTS = {};
+
+    /**
+     * Called once when the command gets scheduled, use it to set targets and start motors
+     */
+    default void initialize() {
+    }
+
+    /**
+     * Called every loop while the command is running
+     */
+    default void execute() {
+    }
+
+    /**
+     * Checked every loop after {@link #execute()}
+     *
+     * @return True once the command is done
+     */
+    boolean isFinished();
+
+    /**
+     * Called once when the command finishes or gets cancelled, use it to stop motors
+     *
+     * @param interrupted True if the command was cancelled before it finished
+     */
+    default void end(boolean interrupted) {
+    }
+
+    /**
+     * Returns the subsystems this command drives, usually the subsystem object that made it
+     * A command that shares any of these with a running one cancels it when scheduled, none by default
+     *
+     * @return The required subsystems, compared by identity, never null
+     */
+    default Object[] getRequirements() {
+        return NO_REQUIREMENTS;
+    }
+
+    /**
+     * Runs this command and then the next ones, one after another
+     *
+     * @param next The commands to run after this one
+     * @return A {@link SequentialCommandGroup} of this command followed by the others
+     */
+    default Command andThen(Command... next) {
+        Command[] commands = new Command[next.length + 1];
+        commands[0] = this;
+        System.arraycopy(next, 0, commands, 1, next.length);
+        return new SequentialCommandGroup(commands);
+    }
+
+    /**
+     * Runs this command at the same time as the others, finishes once all of them have finished
+     *
+     * @param others The commands to run alongside this one
+     * @return A {@link ParallelCommandGroup} of this command and the others
+     */
+    default Command alongWith(Command... others) {
+        Command[] commands = new Command[others.length + 1];
+        commands[0] = this;
+        System.arraycopy(others, 0, commands, 1, others.length);
+        return new ParallelCommandGroup(commands);
+    }
+
+    /**
+     * Runs this command at the same time as the others, finishes as soon as any one of them finishes
+     *
+     * @param others The commands to race against this one
+     * @return A {@link ParallelRaceGroup} of this command and the others
+     */
+    default Command raceWith(Command... others) {
+        Command[] commands = new Command[others.length + 1];
+        commands[0] = this;
+        System.arraycopy(others, 0, commands, 1, others.length);
+        return new ParallelRaceGroup(commands);
+    }
+
+    /**
+     * Cancels this command if it takes longer than the given time
+     *
+     * @param seconds Longest the command is allowed to run for
+     * @return This command raced against a {@link WaitCommand}
+     */
+    default Command withTimeout(double seconds) {
+        return raceWith(new WaitCommand(seconds));
+    }
+}
@@ -0,0 +1,191 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+import java.util.ArrayList;
+
+/**
+ * Runs any number of {@link Command}s cooperatively, call {@link #run()} once per loop and every scheduled command gets one step
+ * <p>
+ * Scheduling a command cancels every running one that shares one of its {@link Command#getRequirements()}, the newest
+ * command on a subsystem always wins. Commands without requirements never get cancelled this way
+ * <p>
+ * Commands can schedule and cancel other commands (or themselves) from inside {@link #run()}, those changes wait until
+ * every command has had its step so the loop over the running commands never breaks
+ * <p>
+ * Nothing here touches hardware or the sdk, so it runs the same on the robot and on a desktop jvm with fake hardware
+ */
+public class CommandScheduler {
+    private final ArrayList<Command> running = new ArrayList<>();
+    private final ArrayList<Command> toSchedule = new ArrayList<>();
+    private final ArrayList<Command> toCancel = new ArrayList<>();
+    private boolean inRun = false;
+
+    /**
+     * Schedules commands to start, they get initialized right away and executed on the next {@link #run()}
+     * Scheduling a command that is already running does nothing
+     *
+     * @param commands The commands to start
+     */
+    public void schedule(Command... commands) {
+        for (Command command : commands) {
+            if (command == null || isScheduled(command))
+                continue;
+            cancelConflicts(command);
+            if (inRun) { // a command scheduled another one, wait till the loop is done so we dont break the iteration
+                toSchedule.add(command);
+            } else {
+                command.initialize();
+                running.add(command);
+            }
+        }
+    }
+
+    private void cancelConflicts(Command command) {
+        Object[] requirements = command.getRequirements();
+        if (requirements.length == 0)
+            return;
+        for (int i = toSchedule.size() - 1; i >= 0; i--) { // never started, so they just get dropped
+            if (shareRequirement(requirements, toSchedule.get(i).getRequirements()))
+                toSchedule.remove(i);
+        }
+        for (int i = running.size() - 1; i >= 0; i--) {
+            Command other = running.get(i);
+            if (other != null && shareRequirement(requirements, other.getRequirements()))
+                cancel(other);
+        }
+    }
+
+    /**
+     * Gives every running command one step, and ends the ones that are finished
+     * Call this exactly once per loop
+     */
+    public void run() {
+        inRun = true;
+        for (int i = 0; i < running.size(); i++) { // ended commands leave a null behind, so contains() is right in the middle of a run
+            Command command = running.get(i);
+            if (!toCancel.remove(command)) {
+                command.execute();
+                if (toCancel.remove(command)) { // it cancelled itself
+                    command.end(true);
+                } else if (command.isFinished()) {
+                    command.end(false);
+                } else {
+                    continue;
+                }
+            } else {
+                command.end(true);
+            }
+            running.set(i, null);
+        }
+
+        // cancels of commands that already had their step this loop
+        for (int i = 0; i < toCancel.size(); i++) {
+            Command command = toCancel.get(i);
+            int index = running.indexOf(command);
+            if (index >= 0) {
+                running.set(index, null);
+                command.end(true);
+            }
+        }
+        toCancel.clear();
+
+        int kept = 0;
+        for (int i = 0; i < running.size(); i++) { // compacted in place so nothing gets allocated each loop
+            Command command = running.get(i);
+            if (command != null)
+                running.set(kept++, command);
+        }
+        while (running.size() > kept) {
+            running.remove(running.size() - 1);
+        }
+        inRun = false;
+
+        if (!toSchedule.isEmpty()) {
+            for (int i = 0; i < toSchedule.size(); i++) {
+                Command command = toSchedule.get(i);
+                command.initialize();
+                running.add(command);
+            }
+            toSchedule.clear();
+        }
+    }
+
+    /**
+     * Stops a running command early, its end method gets told it was interrupted
+     * From inside {@link #run()} the command ends once every command has had its step, without being executed again
+     *
+     * @param command The command to cancel
+     */
+    public void cancel(Command command) {
+        if (toSchedule.remove(command))
+            return;
+        if (inRun) {
+            if (running.contains(command) && !toCancel.contains(command))
+                toCancel.add(command);
+        } else if (running.remove(command)) {
+            command.end(true);
+        }
+    }
+
+    /**
+     * Stops every running command
+     */
+    public void cancelAll() {
+        toSchedule.clear();
+        if (inRun) {
+            for (int i = 0; i < running.size(); i++) {
+                if (running.get(i) != null)
+                    cancel(running.get(i));
+            }
+            return;
+        }
+        for (int i = running.size() - 1; i >= 0; i--) {
+            running.remove(i).end(true);
+        }
+    }
+
+    /**
+     * Returns whether a command is currently running
+     *
+     * @param command The command to check
+     * @return True if the command is scheduled and hasn't been cancelled
+     */
+    public boolean isScheduled(Command command) {
+        return running.contains(command) && !toCancel.contains(command) || toSchedule.contains(command);
+    }
+
+    /**
+     * Returns whether there is nothing left to run, handy for autonomous: {@code while (opModeIsActive() && !scheduler.isIdle())}
+     *
+     * @return True if no commands are running
+     */
+    public boolean isIdle() {
+        return running.isEmpty() && toSchedule.isEmpty();
+    }
+
+    private static boolean shareRequirement(Object[] a, Object[] b) {
+        for (Object first : a) {
+            for (Object second : b) {
+                if (first == second)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every requirement of a group's commands, once each, for the groups to hand back as their own
+     */
+    static Object[] requirementsOf(Command[] commands) {
+        ArrayList<Object> requirements = new ArrayList<>();
+        for (Command command : commands) {
+            for (Object requirement : command.getRequirements()) {
+                boolean seen = false;
+                for (int i = 0; i < requirements.size() && !seen; i++)
+                    seen = requirements.get(i) == requirement;
+                if (!seen)
+                    requirements.add(requirement);
+            }
+        }
+        return requirements.isEmpty() ? Command.NO_REQUIREMENTS : requirements.toArray();
+    }
+}
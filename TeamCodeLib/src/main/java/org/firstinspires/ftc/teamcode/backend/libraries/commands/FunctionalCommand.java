@@ -0,0 +1,74 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Command} built out of lambdas, this is how the subsystems hand out non blocking versions of their blocking methods
+ */
+public class FunctionalCommand implements Command {
+    private final Runnable onInitialize, onExecute;
+    private final BooleanSupplier isFinished;
+    private final Consumer<Boolean> onEnd;
+    private Object[] requirements = NO_REQUIREMENTS;
+
+    /**
+     * Creates a FunctionalCommand, any of the lambdas except isFinished can be null
+     *
+     * @param onInitialize Ran once when the command starts
+     * @param onExecute    Ran every loop
+     * @param isFinished   Returns true once the command is done
+     * @param onEnd        Ran once when the command ends, given whether it was interrupted
+     */
+    public FunctionalCommand(Runnable onInitialize, Runnable onExecute, BooleanSupplier isFinished, Consumer<Boolean> onEnd) {
+        if (isFinished == null)
+            throw new IllegalArgumentException("isFinished cannot be null");
+        this.onInitialize = onInitialize;
+        this.onExecute = onExecute;
+        this.isFinished = isFinished;
+        this.onEnd = onEnd;
+    }
+
+    /**
+     * Sets the subsystems this command drives, so scheduling it cancels other commands on them
+     *
+     * @param subsystems The required subsystems, usually just the one making the command
+     * @return This command
+     */
+    public FunctionalCommand setRequirements(Object... subsystems) {
+        for (Object subsystem : subsystems) {
+            if (subsystem == null)
+                throw new IllegalArgumentException("Requirements cannot be null");
+        }
+        this.requirements = subsystems.clone();
+        return this;
+    }
+
+    @Override
+    public Object[] getRequirements() {
+        return requirements;
+    }
+
+    @Override
+    public void initialize() {
+        if (onInitialize != null)
+            onInitialize.run();
+    }
+
+    @Override
+    public void execute() {
+        if (onExecute != null)
+            onExecute.run();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return isFinished.getAsBoolean();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (onEnd != null)
+            onEnd.accept(interrupted);
+    }
+}
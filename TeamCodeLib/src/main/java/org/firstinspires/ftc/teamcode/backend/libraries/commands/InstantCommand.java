@@ -0,0 +1,27 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+/**
+ * A {@link Command} that does one thing when it starts and is finished right away, good for servos and setting targets
+ */
+public class InstantCommand implements Command {
+    private final Runnable action;
+
+    /**
+     * Creates an InstantCommand
+     *
+     * @param action What to do when the command starts
+     */
+    public InstantCommand(Runnable action) {
+        this.action = action;
+    }
+
+    @Override
+    public void initialize() {
+        action.run();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return true;
+    }
+}
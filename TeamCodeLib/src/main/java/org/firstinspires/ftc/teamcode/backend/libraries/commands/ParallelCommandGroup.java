@@ -0,0 +1,66 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+/**
+ * Runs commands at the same time, finishes once every one of them has finished
+ */
+public class ParallelCommandGroup implements Command {
+    private final Command[] commands;
+    private final Object[] requirements;
+    private final boolean[] running;
+
+    /**
+     * Creates a ParallelCommandGroup
+     *
+     * @param commands The commands to run together
+     */
+    public ParallelCommandGroup(Command... commands) {
+        this.commands = commands;
+        this.requirements = CommandScheduler.requirementsOf(commands);
+        this.running = new boolean[commands.length];
+    }
+
+    @Override
+    public void initialize() {
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].initialize();
+            running[i] = true;
+        }
+    }
+
+    @Override
+    public void execute() {
+        for (int i = 0; i < commands.length; i++) {
+            if (!running[i])
+                continue;
+            commands[i].execute();
+            if (commands[i].isFinished()) {
+                commands[i].end(false);
+                running[i] = false;
+            }
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        for (boolean isRunning : running) {
+            if (isRunning)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        for (int i = 0; i < commands.length; i++) {
+            if (running[i]) {
+                commands[i].end(true);
+                running[i] = false;
+            }
+        }
+    }
+
+    @Override
+    public Object[] getRequirements() {
+        return requirements;
+    }
+}
@@ -0,0 +1,60 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+/**
+ * Runs commands at the same time, finishes as soon as any one of them finishes and interrupts the rest
+ */
+public class ParallelRaceGroup implements Command {
+    private final Command[] commands;
+    private final Object[] requirements;
+    private final boolean[] finished;
+    private boolean done;
+
+    /**
+     * Creates a ParallelRaceGroup
+     *
+     * @param commands The commands to race
+     */
+    public ParallelRaceGroup(Command... commands) {
+        this.commands = commands;
+        this.requirements = CommandScheduler.requirementsOf(commands);
+        this.finished = new boolean[commands.length];
+    }
+
+    @Override
+    public void initialize() {
+        done = false;
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].initialize();
+            finished[i] = false;
+        }
+    }
+
+    @Override
+    public void execute() {
+        for (int i = 0; i < commands.length && !done; i++) {
+            commands[i].execute();
+            if (commands[i].isFinished()) {
+                finished[i] = true;
+                done = true;
+            }
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return done;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].end(!finished[i]);
+        }
+        done = true;
+    }
+
+    @Override
+    public Object[] getRequirements() {
+        return requirements;
+    }
+}
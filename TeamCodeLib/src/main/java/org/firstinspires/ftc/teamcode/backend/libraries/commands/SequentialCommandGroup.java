@@ -0,0 +1,59 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+/**
+ * Runs commands one after another, the next one starts on the same loop the last one finishes
+ */
+public class SequentialCommandGroup implements Command {
+    private final Command[] commands;
+    private final Object[] requirements;
+    private int current;
+
+    /**
+     * Creates a SequentialCommandGroup
+     *
+     * @param commands The commands to run, in order
+     */
+    public SequentialCommandGroup(Command... commands) {
+        this.commands = commands;
+        this.requirements = CommandScheduler.requirementsOf(commands);
+        this.current = commands.length;
+    }
+
+    @Override
+    public void initialize() {
+        current = 0;
+        if (commands.length > 0)
+            commands[0].initialize();
+    }
+
+    @Override
+    public void execute() {
+        if (current >= commands.length)
+            return;
+        Command command = commands[current];
+        command.execute();
+        if (command.isFinished()) {
+            command.end(false);
+            current++;
+            if (current < commands.length)
+                commands[current].initialize();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return current >= commands.length;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (interrupted && current < commands.length)
+            commands[current].end(true);
+        current = commands.length;
+    }
+
+    @Override
+    public Object[] getRequirements() {
+        return requirements;
+    }
+}
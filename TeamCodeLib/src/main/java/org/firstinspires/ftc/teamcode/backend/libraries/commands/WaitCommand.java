@@ -0,0 +1,42 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+
+/**
+ * A {@link Command} that does nothing for a set amount of time, the non blocking replacement for sleep()
+ */
+public class WaitCommand implements Command {
+    private final Clock clock;
+    private final long durationNanos;
+    private long startNanos;
+
+    /**
+     * Creates a WaitCommand using the real clock
+     *
+     * @param seconds How long to wait
+     */
+    public WaitCommand(double seconds) {
+        this(seconds, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a WaitCommand using the given clock
+     *
+     * @param seconds How long to wait
+     * @param clock   The {@link Clock} to measure time with
+     */
+    public WaitCommand(double seconds, Clock clock) {
+        this.clock = clock;
+        this.durationNanos = (long) (seconds * 1e9);
+    }
+
+    @Override
+    public void initialize() {
+        startNanos = clock.nanoTime();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return clock.nanoTime() - startNanos >= durationNanos;
+    }
+}
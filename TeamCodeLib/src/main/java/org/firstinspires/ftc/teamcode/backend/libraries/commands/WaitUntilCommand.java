@@ -0,0 +1,24 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A {@link Command} that does nothing until a condition becomes true, the non blocking replacement for an empty while loop
+ */
+public class WaitUntilCommand implements Command {
+    private final BooleanSupplier condition;
+
+    /**
+     * Creates a WaitUntilCommand
+     *
+     * @param condition Finishes the command once it returns true
+     */
+    public WaitUntilCommand(BooleanSupplier condition) {
+        this.condition = condition;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,208 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.controllers;
+
+/**
+ * Drives two motors on one mechanism to a shared target while also closing a loop on how far apart they are
+ * <p>
+ * Each motor has its own {@link PIDFController} chasing the target (the second one scaled by the ratio), which on its own
+ * lets a motor with more friction or a weaker battery wire fall behind, and a lift with two sides racks.
+ * The sync error is motor 1's position minus motor 2's divided by the ratio, so it is in motor 1's ticks and 0 when they
+ * match. kSync times that error plus kSyncD times how fast it is growing gets taken off the motor that is ahead and given
+ * to the one behind. Past the racking limit the motor that is ahead also stops getting pushed further ahead by its own
+ * loop until the other one is back within half the limit
+ * <p>
+ * Outputs are in the same units as the controllers, power or volts
+ */
+public class CrossCoupledController {
+    private final PIDFController controller1, controller2;
+    private final double ratio;
+    private double kSync = 0, kSyncD = 0, rackingLimit = Double.POSITIVE_INFINITY;
+
+    private double output1 = 0, output2 = 0, divergence = 0, maxDivergence = 0, squaredSum = 0;
+    private long samples = 0, rackingEvents = 0;
+    private boolean racked = false;
+
+    /**
+     * Creates a controller, the second motor gets a copy of the first one's controller so their histories don't mix
+     *
+     * @param controller Position loop for the shared target, tuned for motor 1
+     * @param ratio      Motor 2's ticks for every tick of motor 1, 1 when both are geared the same
+     */
+    public CrossCoupledController(PIDFController controller, double ratio) {
+        if (controller == null)
+            throw new IllegalArgumentException("Controller cannot be null");
+        if (!(ratio > 0))
+            throw new IllegalArgumentException("Ratio must be positive");
+        this.controller1 = controller;
+        this.controller2 = controller.copy();
+        this.ratio = ratio;
+    }
+
+    /**
+     * Sets how hard the motors get pulled back together
+     *
+     * @param kSync  Output per tick of sync error
+     * @param kSyncD Output per tick per second the sync error is growing at
+     * @return This controller
+     */
+    public CrossCoupledController setSyncGains(double kSync, double kSyncD) {
+        if (kSync < 0 || kSyncD < 0)
+            throw new IllegalArgumentException("Sync gains cannot be negative");
+        this.kSync = kSync;
+        this.kSyncD = kSyncD;
+        return this;
+    }
+
+    /**
+     * Sets how far apart the motors can get before it counts as racking
+     *
+     * @param ticks Sync error in motor 1's ticks, infinity to never count it
+     * @return This controller
+     */
+    public CrossCoupledController setRackingLimit(double ticks) {
+        if (!(ticks > 0))
+            throw new IllegalArgumentException("Racking limit must be positive");
+        this.rackingLimit = ticks;
+        return this;
+    }
+
+    /**
+     * Works out both outputs for one loop, read them with {@link #getOutput1()} and {@link #getOutput2()}
+     * Call this exactly once per loop
+     *
+     * @param position1          Motor 1's position
+     * @param velocity1          Motor 1's velocity
+     * @param position2          Motor 2's position
+     * @param velocity2          Motor 2's velocity
+     * @param targetPosition     Where motor 1 should be, motor 2's target is this times the ratio
+     * @param targetVelocity     How fast motor 1 should be going, from a motion profile or 0
+     * @param targetAcceleration How hard motor 1 should be accelerating, from a motion profile or 0
+     */
+    public void calculate(double position1, double velocity1, double position2, double velocity2,
+                          double targetPosition, double targetVelocity, double targetAcceleration) {
+        double shared1 = controller1.calculate(position1, velocity1, targetPosition, targetVelocity, targetAcceleration);
+        double shared2 = controller2.calculate(position2, velocity2, targetPosition * ratio, targetVelocity * ratio, targetAcceleration * ratio);
+
+        divergence = position1 - position2 / ratio;
+        double growth = velocity1 - velocity2 / ratio;
+        double correction = kSync * divergence + kSyncD * growth;
+
+        // counts as fixed at half the limit, otherwise holding back the leader makes it flicker right at the limit
+        if (!racked && Math.abs(divergence) > rackingLimit) {
+            racked = true;
+            rackingEvents++;
+        } else if (racked && Math.abs(divergence) < rackingLimit / 2) {
+            racked = false;
+        }
+        if (racked) { // hold back whichever one is running away, the correction pulls the other one up
+            if (shared1 * divergence > 0)
+                shared1 = 0;
+            if (shared2 * divergence < 0)
+                shared2 = 0;
+        }
+
+        double max = controller1.getMaxOutput();
+        output1 = Math.max(-max, Math.min(max, shared1 - correction));
+        output2 = Math.max(-max, Math.min(max, shared2 + correction));
+
+        maxDivergence = Math.max(maxDivergence, Math.abs(divergence));
+        squaredSum += divergence * divergence;
+        samples++;
+    }
+
+    /**
+     * Clears both position loops, call when starting a new move
+     */
+    public void reset() {
+        controller1.reset();
+        controller2.reset();
+    }
+
+    /**
+     * Clears the divergence stats and the racking count
+     */
+    public void resetStats() {
+        maxDivergence = squaredSum = 0;
+        samples = rackingEvents = 0;
+    }
+
+    /**
+     * Returns the output for motor 1 from the last {@link #calculate}
+     *
+     * @return Output in the controller's units
+     */
+    public double getOutput1() {
+        return output1;
+    }
+
+    /**
+     * Returns the output for motor 2 from the last {@link #calculate}
+     *
+     * @return Output in the controller's units
+     */
+    public double getOutput2() {
+        return output2;
+    }
+
+    /**
+     * Returns how far apart the motors were on the last {@link #calculate}
+     *
+     * @return Sync error in motor 1's ticks, positive when motor 1 is ahead
+     */
+    public double getDivergence() {
+        return divergence;
+    }
+
+    /**
+     * Returns the biggest divergence since the last {@link #resetStats()}
+     *
+     * @return Largest sync error in motor 1's ticks
+     */
+    public double getMaxDivergence() {
+        return maxDivergence;
+    }
+
+    /**
+     * Returns the root mean square divergence since the last {@link #resetStats()}, how well they track on average
+     *
+     * @return RMS sync error in motor 1's ticks
+     */
+    public double getRmsDivergence() {
+        return samples == 0 ? 0 : Math.sqrt(squaredSum / samples);
+    }
+
+    /**
+     * Returns whether the motors are racked right now, from going past the racking limit until they are back within half of it
+     *
+     * @return True while racked
+     */
+    public boolean isRacked() {
+        return racked;
+    }
+
+    /**
+     * Returns how many times the motors went past the racking limit since the last {@link #resetStats()}
+     *
+     * @return Racking count
+     */
+    public long getRackingEvents() {
+        return rackingEvents;
+    }
+
+    /**
+     * Returns motor 2's ticks for every tick of motor 1
+     *
+     * @return The ratio
+     */
+    public double getRatio() {
+        return ratio;
+    }
+
+    /**
+     * Returns whether the outputs are volts instead of power
+     *
+     * @return True if the controller was set to volts
+     */
+    public boolean isVolts() {
+        return controller1.isVolts();
+    }
+}
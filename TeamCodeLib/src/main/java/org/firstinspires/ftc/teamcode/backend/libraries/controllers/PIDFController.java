@@ -0,0 +1,278 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.controllers;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+
+/**
+ * Position controller with PID feedback and feedforward, run on the control hub instead of the motor controller
+ * <p>
+ * Output is kP * error + kI * integral + kD * velocity error + kS * sign(target velocity) + kV * target velocity
+ * + kA * target acceleration + gravity, clipped to the max output. Velocity comes from the encoder instead of
+ * differencing positions, then gets low pass filtered so encoder noise doesn't make the motor buzz.
+ * Gravity is either a constant (lifts) or scaled by the cosine of the arm angle (linkages and arms).
+ * Units are whatever the positions are in, for motors that is ticks, ticks per second and ticks per second squared
+ * <p>
+ * By default the output is motor power. After {@link #useVolts(double)} it is volts instead and every gain is volts per
+ * unit, which a {@code Motor} turns into power with the
+ * measured battery voltage, so feedforward tuned on one battery holds on every other
+ */
+public class PIDFController {
+    public enum GravityMode {
+        NONE, CONSTANT, COSINE
+    }
+
+    private static final double DEFAULT_INTEGRAL_LIMIT = 0.25;
+
+    private final Clock clock;
+    private double kP, kI, kD, kS, kV, kA, kG;
+    private GravityMode gravityMode = GravityMode.NONE;
+    private double ticksPerRevolution = 1, horizontalPosition = 0;
+    private double maxIntegralOutput = DEFAULT_INTEGRAL_LIMIT, derivativeFilter = 0.7, maxOutput = 1;
+    private boolean integralLimitSet = false;
+
+    private double integral = 0, filteredDerivative = 0;
+    private long lastTime = -1;
+    private boolean volts = false;
+
+    /**
+     * Creates a PID controller on the real clock with no feedforward, add feedforward and gravity with the setters
+     *
+     * @param kP Power per unit of position error
+     * @param kI Power per unit of error times seconds
+     * @param kD Power per unit of velocity error
+     */
+    public PIDFController(double kP, double kI, double kD) {
+        this(kP, kI, kD, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a PID controller with a custom clock
+     *
+     * @param kP    Power per unit of position error
+     * @param kI    Power per unit of error times seconds
+     * @param kD    Power per unit of velocity error
+     * @param clock The {@link Clock} used to time the integral
+     */
+    public PIDFController(double kP, double kI, double kD, Clock clock) {
+        if (clock == null)
+            throw new IllegalArgumentException("Clock cannot be null");
+        this.clock = clock;
+        setPID(kP, kI, kD);
+    }
+
+    /**
+     * Changes the feedback gains, handy for tuning live from the dashboard
+     *
+     * @param kP Power per unit of position error
+     * @param kI Power per unit of error times seconds
+     * @param kD Power per unit of velocity error
+     * @return This controller
+     */
+    public PIDFController setPID(double kP, double kI, double kD) {
+        if (kP < 0 || kI < 0 || kD < 0)
+            throw new IllegalArgumentException("PID gains cannot be negative");
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        return this;
+    }
+
+    /**
+     * Sets the feedforward gains, these push the motor the amount the move needs before there is any error at all
+     *
+     * @param kS Power needed to get past static friction
+     * @param kV Power per unit of target velocity
+     * @param kA Power per unit of target acceleration
+     * @return This controller
+     */
+    public PIDFController setFeedforward(double kS, double kV, double kA) {
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+        return this;
+    }
+
+    /**
+     * Adds a constant gravity term, for lifts and slides where the load is the same at every height
+     *
+     * @param kG Power that holds the mechanism still
+     * @return This controller
+     */
+    public PIDFController setGravity(double kG) {
+        this.kG = kG;
+        this.gravityMode = GravityMode.CONSTANT;
+        return this;
+    }
+
+    /**
+     * Adds a gravity term that follows the cosine of the arm angle, strongest when the arm sticks straight out and zero straight up or down
+     *
+     * @param kG                 Power that holds the arm still when it is horizontal
+     * @param ticksPerRevolution Ticks for one full turn of the arm
+     * @param horizontalPosition Position where the arm is horizontal
+     * @return This controller
+     */
+    public PIDFController setArmGravity(double kG, double ticksPerRevolution, double horizontalPosition) {
+        if (ticksPerRevolution <= 0)
+            throw new IllegalArgumentException("Ticks per revolution must be positive");
+        this.kG = kG;
+        this.ticksPerRevolution = ticksPerRevolution;
+        this.horizontalPosition = horizontalPosition;
+        this.gravityMode = GravityMode.COSINE;
+        return this;
+    }
+
+    /**
+     * Limits how much the integral can add to the output, stops it from winding up while the mechanism is stuck or saturated
+     * Defaults to 0.25 power, or a quarter of the max volts after {@link #useVolts(double)}
+     *
+     * @param maxIntegralOutput Most output the integral term can give, in either direction
+     * @return This controller
+     */
+    public PIDFController setIntegralLimit(double maxIntegralOutput) {
+        if (maxIntegralOutput < 0)
+            throw new IllegalArgumentException("Integral limit cannot be negative");
+        this.maxIntegralOutput = maxIntegralOutput;
+        integralLimitSet = true;
+        return this;
+    }
+
+    /**
+     * Sets how much the derivative gets smoothed, 0 is no smoothing and closer to 1 is smoother but slower to react
+     *
+     * @param alpha Low pass filter weight of the old value, from 0 up to but not including 1
+     * @return This controller
+     */
+    public PIDFController setDerivativeFilter(double alpha) {
+        if (alpha < 0 || alpha >= 1)
+            throw new IllegalArgumentException("Derivative filter must be at least 0 and less than 1");
+        this.derivativeFilter = alpha;
+        return this;
+    }
+
+    /**
+     * Sets the largest output the controller will give
+     *
+     * @param maxOutput Largest output in either direction, 1 for motor power
+     * @return This controller
+     */
+    public PIDFController setMaxOutput(double maxOutput) {
+        if (maxOutput < 0)
+            throw new IllegalArgumentException("Max output cannot be negative");
+        this.maxOutput = maxOutput;
+        return this;
+    }
+
+    /**
+     * Returns the largest output the controller will give
+     *
+     * @return Largest output in either direction
+     */
+    public double getMaxOutput() {
+        return maxOutput;
+    }
+
+    /**
+     * Makes the output volts instead of power, set every gain in volts after this (kV is volts per tick per second and so on)
+     * The default integral limit scales with it, one set with {@link #setIntegralLimit(double)} is left alone
+     *
+     * @param maxVolts Largest output in either direction, usually the nominal 12
+     * @return This controller
+     */
+    public PIDFController useVolts(double maxVolts) {
+        if (!(maxVolts > 0))
+            throw new IllegalArgumentException("Max volts must be positive");
+        volts = true;
+        maxOutput = maxVolts;
+        if (!integralLimitSet)
+            maxIntegralOutput = DEFAULT_INTEGRAL_LIMIT * maxVolts;
+        return this;
+    }
+
+    /**
+     * Returns whether the output is in volts
+     *
+     * @return True after {@link #useVolts(double)}
+     */
+    public boolean isVolts() {
+        return volts;
+    }
+
+    /**
+     * Works out the output to hold a position
+     *
+     * @param position       Measured position
+     * @param velocity       Measured velocity
+     * @param targetPosition Where it should be
+     * @return Output, clipped to the max output
+     */
+    public double calculate(double position, double velocity, double targetPosition) {
+        return calculate(position, velocity, targetPosition, 0, 0);
+    }
+
+    /**
+     * Works out the output for one loop, call this exactly once per loop
+     *
+     * @param position           Measured position
+     * @param velocity           Measured velocity
+     * @param targetPosition     Where it should be
+     * @param targetVelocity     How fast it should be going, from a motion profile or 0
+     * @param targetAcceleration How hard it should be accelerating, from a motion profile or 0
+     * @return Output, clipped to the max output
+     */
+    public double calculate(double position, double velocity, double targetPosition, double targetVelocity, double targetAcceleration) {
+        long now = clock.nanoTime();
+        double dt = lastTime < 0 ? 0 : (now - lastTime) / 1e9;
+        lastTime = now;
+
+        double error = targetPosition - position;
+        if (kI > 0) {
+            integral += error * dt;
+            double limit = maxIntegralOutput / kI;
+            integral = Math.max(-limit, Math.min(limit, integral));
+        }
+        filteredDerivative = derivativeFilter * filteredDerivative + (1 - derivativeFilter) * (targetVelocity - velocity);
+
+        double output = kP * error + kI * integral + kD * filteredDerivative
+                + kS * Math.signum(targetVelocity) + kV * targetVelocity + kA * targetAcceleration
+                + gravity(position);
+        return Math.max(-maxOutput, Math.min(maxOutput, output));
+    }
+
+    private double gravity(double position) {
+        switch (gravityMode) {
+            case CONSTANT:
+                return kG;
+            case COSINE:
+                return kG * Math.cos((position - horizontalPosition) * 2 * Math.PI / ticksPerRevolution);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Clears the integral and derivative history, call when starting a new move so old error doesn't leak into it
+     */
+    public void reset() {
+        integral = 0;
+        filteredDerivative = 0;
+        lastTime = -1;
+    }
+
+    /**
+     * Makes a new controller with the same gains and settings but its own history, for mechanisms with more than one motor
+     *
+     * @return A copy of this controller
+     */
+    public PIDFController copy() {
+        PIDFController copy = new PIDFController(kP, kI, kD, clock).setFeedforward(kS, kV, kA)
+                .setDerivativeFilter(derivativeFilter).setMaxOutput(maxOutput);
+        copy.maxIntegralOutput = maxIntegralOutput;
+        copy.integralLimitSet = integralLimitSet;
+        copy.kG = kG;
+        copy.gravityMode = gravityMode;
+        copy.ticksPerRevolution = ticksPerRevolution;
+        copy.horizontalPosition = horizontalPosition;
+        copy.volts = volts;
+        return copy;
+    }
+}
@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.geometry;
+
+/**
+ * Angle wrapping used all over the drivetrain, IMU and linkage code, kept in one place so they all agree on where the seam is
+ */
+public final class Angles {
+    private Angles() {
+    }
+
+    /**
+     * Wraps an angle into -PI to PI, the shortest way to turn through it
+     *
+     * @param radians Any angle
+     * @return The same direction, more than -PI and at most PI
+     */
+    public static double wrapRadians(double radians) {
+        double wrapped = Math.IEEEremainder(radians, 2 * Math.PI);
+        return wrapped == -Math.PI ? Math.PI : wrapped; // IEEEremainder rounds ties to even, so the seam could come out either way
+    }
+
+    /**
+     * Wraps an angle into -180 to 180, what a reading jumped by when it crossed the IMU's seam
+     *
+     * @param degrees Any angle
+     * @return The same direction, more than -180 and at most 180
+     */
+    public static double wrapDegrees(double degrees) {
+        double wrapped = Math.IEEEremainder(degrees, 360);
+        return wrapped == -180 ? 180 : wrapped;
+    }
+
+    /**
+     * Wraps whole degrees into 0 to 359
+     *
+     * @param degrees Any angle
+     * @return The same direction between 0 and 359
+     */
+    public static int normalizeDegrees(int degrees) {
+        degrees = degrees % 360;
+        return degrees < 0 ? degrees + 360 : degrees;
+    }
+
+    /**
+     * Picks which way around to go for something that can spin forever, like an unlimited linkage
+     *
+     * @param currentDegrees Where it is now, any number of turns
+     * @param targetDegrees  Where it should point
+     * @return The target from 0 to 359 if going up is shorter or a tie, otherwise the target minus 360
+     */
+    public static int closestTargetDegrees(int currentDegrees, int targetDegrees) {
+        currentDegrees = normalizeDegrees(currentDegrees);
+        targetDegrees = normalizeDegrees(targetDegrees);
+        int up = targetDegrees >= currentDegrees ? targetDegrees - currentDegrees : 360 - currentDegrees + targetDegrees;
+        int down = currentDegrees >= targetDegrees ? currentDegrees - targetDegrees : currentDegrees + 360 - targetDegrees;
+        return up <= down ? targetDegrees : targetDegrees - 360;
+    }
+}
@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.hardware;
+
+/**
+ * Anything that counts wheel or mechanism ticks, TeamCode's Motor is one backed by a hub encoder port
+ */
+public interface Encoder {
+    /**
+     * Returns the tick count as the hardware sees it, this should never jump back to 0 when code "resets" the encoder
+     *
+     * @return Position in ticks
+     */
+    int getRawPosition();
+}
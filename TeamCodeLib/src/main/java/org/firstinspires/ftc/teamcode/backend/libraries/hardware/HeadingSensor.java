@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.hardware;
+
+/**
+ * Anything that knows which way the robot is facing, TeamCode's IMU wrappers are ones backed by the hub's IMU
+ */
+public interface HeadingSensor {
+    /**
+     * Returns the robot's heading
+     *
+     * @return Radians counter clockwise, continuous so it keeps counting past 180 instead of wrapping
+     */
+    double getHeadingRadians();
+}
@@ -0,0 +1,22 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.hardware;
+
+/**
+ * One thing a mechanism moves to a setpoint, a lift, an elbow or a servo
+ * <p>
+ * A motor joint reports its encoder, a servo joint has no feedback so it just reports the position it was last sent
+ */
+public interface Joint {
+    /**
+     * Sends the joint toward a position, this should return right away and let the joint get there on its own
+     *
+     * @param target Position in the joint's own units, ticks for motors and 0-1 for servos
+     */
+    void setTarget(double target);
+
+    /**
+     * Returns where the joint is right now
+     *
+     * @return Position in the same units as the target
+     */
+    double getPosition();
+}
@@ -0,0 +1,9 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.input;
+
+/**
+ * Every analog input on a gamepad, sticks go from -1 to 1 and triggers from 0 to 1
+ * Stick y is whatever the gamepad reports, which is negative when the stick is pushed up
+ */
+public enum Axis {
+    LEFT_X, LEFT_Y, RIGHT_X, RIGHT_Y, LEFT_TRIGGER, RIGHT_TRIGGER
+}
@@ -0,0 +1,23 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.input;
+
+/**
+ * Every button on a gamepad, each one is a bit in {@link GamepadInput}'s button mask so a whole gamepad fits in one int
+ * <p>
+ * The PlayStation names (cross, circle, square, triangle, options, share, ps) are the same buttons as a, b, x, y, start, back and guide
+ */
+public enum Button {
+    A, B, X, Y,
+    DPAD_UP, DPAD_DOWN, DPAD_LEFT, DPAD_RIGHT,
+    LEFT_BUMPER, RIGHT_BUMPER,
+    LEFT_STICK_BUTTON, RIGHT_STICK_BUTTON,
+    START, BACK, GUIDE, TOUCHPAD;
+
+    /**
+     * Returns this button's bit in a button mask
+     *
+     * @return The bit
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
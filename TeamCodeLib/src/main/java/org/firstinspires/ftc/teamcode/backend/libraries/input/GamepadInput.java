@@ -0,0 +1,363 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.input;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.Command;
+import org.firstinspires.ftc.teamcode.backend.libraries.commands.CommandScheduler;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * One gamepad, snapshotted once per loop into plain fields so every question asked about it that loop gets the same answer
+ * <p>
+ * Buttons are bits in an int (see {@link Button}) and axes are floats, and the last loop's buttons are kept too, so
+ * pressed and released are just bit math instead of a flag per button or a copy of the whole gamepad.
+ * Each axis can have an {@link InputCurve}, and buttons can be bound to actions that run from {@link #update}.
+ * Nothing gets allocated per loop once the bindings are set up
+ * <p>
+ * This doesn't know about the sdk, something on the robot side reads the real gamepad and hands the values to
+ * {@link #update}. A snapshot is a time, a mask and six floats, so {@link #writeTo} and {@link #readFrom} can record a
+ * session and play it back through the exact same code
+ */
+public class GamepadInput {
+    /**
+     * Bytes one snapshot takes in {@link #writeTo}
+     */
+    public static final int FRAME_BYTES = 8 + 4 + 6 * 4;
+
+    private static final int PRESS = 0, RELEASE = 1, WHILE_DOWN = 2, HOLD = 3;
+    private static final int AXES = Axis.values().length;
+
+    private static final class Binding {
+        final int mask, type;
+        final long nanos;
+        final Runnable action;
+
+        Binding(Button button, int type, long nanos, Runnable action) {
+            this.mask = button.mask();
+            this.type = type;
+            this.nanos = nanos;
+            this.action = action;
+        }
+    }
+
+    private final float[] raw = new float[AXES];
+    private final double[] shaped = new double[AXES];
+    private final InputCurve[] curves = new InputCurve[AXES];
+    private final long[] pressedAt = new long[Button.values().length];
+    private final ArrayList<Binding> bindings = new ArrayList<>();
+
+    private int buttons = 0, previousButtons = 0;
+    private long now = 0, previousTime = 0;
+    private boolean started = false;
+
+    /**
+     * Takes a new snapshot, then runs whatever bindings it set off
+     * Call this exactly once per loop, before anything reads the gamepad
+     *
+     * @param nanos        Time of the snapshot in nanoseconds, from a {@code Clock} or a recording
+     * @param buttons      Buttons that are down, one {@link Button#mask()} bit each
+     * @param leftX        Left stick x
+     * @param leftY        Left stick y
+     * @param rightX       Right stick x
+     * @param rightY       Right stick y
+     * @param leftTrigger  Left trigger
+     * @param rightTrigger Right trigger
+     */
+    public void update(long nanos, int buttons, float leftX, float leftY, float rightX, float rightY, float leftTrigger, float rightTrigger) {
+        double dt = started ? (nanos - now) / 1e9 : 0;
+        previousButtons = started ? this.buttons : 0;
+        previousTime = started ? now : nanos;
+        this.buttons = buttons;
+        now = nanos;
+        started = true;
+
+        int pressed = buttons & ~previousButtons;
+        while (pressed != 0) {
+            int bit = Integer.numberOfTrailingZeros(pressed);
+            pressedAt[bit] = nanos;
+            pressed &= pressed - 1;
+        }
+
+        raw[0] = leftX;
+        raw[1] = leftY;
+        raw[2] = rightX;
+        raw[3] = rightY;
+        raw[4] = leftTrigger;
+        raw[5] = rightTrigger;
+        for (int i = 0; i < AXES; i++)
+            shaped[i] = curves[i] == null ? raw[i] : curves[i].apply(raw[i], dt);
+
+        for (int i = 0; i < bindings.size(); i++) { // indexed so the loop doesn't make an iterator
+            Binding binding = bindings.get(i);
+            boolean fire;
+            switch (binding.type) {
+                case PRESS:
+                    fire = (buttons & ~previousButtons & binding.mask) != 0;
+                    break;
+                case RELEASE:
+                    fire = (previousButtons & ~buttons & binding.mask) != 0;
+                    break;
+                case WHILE_DOWN:
+                    fire = (buttons & binding.mask) != 0;
+                    break;
+                default:
+                    fire = crossedHold(binding.mask, binding.nanos);
+            }
+            if (fire)
+                binding.action.run();
+        }
+    }
+
+    /**
+     * Forgets everything about past snapshots, so nothing held before counts as pressed or held after
+     * Call it when an OpMode starts reusing an input from init, or before playing back a recording
+     */
+    public void reset() {
+        buttons = previousButtons = 0;
+        now = previousTime = 0;
+        started = false;
+        for (int i = 0; i < AXES; i++) {
+            raw[i] = 0;
+            shaped[i] = 0;
+            if (curves[i] != null)
+                curves[i].reset();
+        }
+    }
+
+    /**
+     * Shapes an axis from now on, {@link #get(Axis)} returns the shaped value and {@link #getRaw(Axis)} still returns the raw one
+     *
+     * @param axis  The axis
+     * @param curve Its curve, null for none, don't share one curve between axes
+     * @return This input
+     */
+    public GamepadInput setCurve(Axis axis, InputCurve curve) {
+        curves[axis.ordinal()] = curve;
+        return this;
+    }
+
+    /**
+     * Returns whether a button is down
+     *
+     * @param button The button
+     * @return True while it is down
+     */
+    public boolean isDown(Button button) {
+        return (buttons & button.mask()) != 0;
+    }
+
+    /**
+     * Returns whether a button went down this loop
+     *
+     * @param button The button
+     * @return True only on the loop it was pressed
+     */
+    public boolean wasPressed(Button button) {
+        return (buttons & ~previousButtons & button.mask()) != 0;
+    }
+
+    /**
+     * Returns whether a button came up this loop
+     *
+     * @param button The button
+     * @return True only on the loop it was let go
+     */
+    public boolean wasReleased(Button button) {
+        return (previousButtons & ~buttons & button.mask()) != 0;
+    }
+
+    /**
+     * Returns how long a button has been down
+     *
+     * @param button The button
+     * @return Seconds since it was pressed, 0 if it isn't down
+     */
+    public double getHeldTime(Button button) {
+        return isDown(button) ? (now - pressedAt[button.ordinal()]) / 1e9 : 0;
+    }
+
+    /**
+     * Returns whether a button has been down for at least some time
+     *
+     * @param button  The button
+     * @param seconds How long it has to be held
+     * @return True every loop after it has been held long enough, until it is let go
+     */
+    public boolean isHeldFor(Button button, double seconds) {
+        return isDown(button) && now - pressedAt[button.ordinal()] >= Math.round(seconds * 1e9);
+    }
+
+    /**
+     * Returns whether a button just reached being held for some time, like {@link #wasPressed(Button)} but for long presses
+     *
+     * @param button  The button
+     * @param seconds How long it has to be held
+     * @return True only on the loop it got there
+     */
+    public boolean wasHeldFor(Button button, double seconds) {
+        return crossedHold(button.mask(), Math.round(seconds * 1e9));
+    }
+
+    private boolean crossedHold(int mask, long nanos) {
+        if ((buttons & mask) == 0)
+            return false;
+        long since = pressedAt[Integer.numberOfTrailingZeros(mask)];
+        if (now - since < nanos)
+            return false;
+        return (previousButtons & mask) == 0 || previousTime - since < nanos;
+    }
+
+    /**
+     * Returns an axis after its {@link InputCurve}, or the raw value if it doesn't have one
+     *
+     * @param axis The axis
+     * @return Shaped value
+     */
+    public double get(Axis axis) {
+        return shaped[axis.ordinal()];
+    }
+
+    /**
+     * Returns an axis exactly as the gamepad reported it
+     *
+     * @param axis The axis
+     * @return Raw value
+     */
+    public double getRaw(Axis axis) {
+        return raw[axis.ordinal()];
+    }
+
+    /**
+     * Returns every button that is down as one mask
+     *
+     * @return Button mask, one {@link Button#mask()} bit each
+     */
+    public int getButtons() {
+        return buttons;
+    }
+
+    /**
+     * Returns the time of the last snapshot
+     *
+     * @return Time in nanoseconds
+     */
+    public long getTime() {
+        return now;
+    }
+
+    /**
+     * Runs something on the loop a button is pressed
+     *
+     * @param button The button
+     * @param action What to run
+     * @return This input
+     */
+    public GamepadInput onPress(Button button, Runnable action) {
+        return bind(button, PRESS, 0, action);
+    }
+
+    /**
+     * Runs something on the loop a button is let go
+     *
+     * @param button The button
+     * @param action What to run
+     * @return This input
+     */
+    public GamepadInput onRelease(Button button, Runnable action) {
+        return bind(button, RELEASE, 0, action);
+    }
+
+    /**
+     * Runs something every loop a button is down
+     *
+     * @param button The button
+     * @param action What to run
+     * @return This input
+     */
+    public GamepadInput whileDown(Button button, Runnable action) {
+        return bind(button, WHILE_DOWN, 0, action);
+    }
+
+    /**
+     * Runs something once when a button has been held long enough, for actions that shouldn't happen on a bump
+     *
+     * @param button  The button
+     * @param seconds How long it has to be held
+     * @param action  What to run
+     * @return This input
+     */
+    public GamepadInput onHold(Button button, double seconds, Runnable action) {
+        if (seconds < 0)
+            throw new IllegalArgumentException("Hold time cannot be negative");
+        return bind(button, HOLD, Math.round(seconds * 1e9), action);
+    }
+
+    /**
+     * Schedules a command on the loop a button is pressed
+     *
+     * @param button    The button
+     * @param scheduler The scheduler to run it on
+     * @param command   The command
+     * @return This input
+     */
+    public GamepadInput onPress(Button button, CommandScheduler scheduler, Command command) {
+        if (scheduler == null || command == null)
+            throw new IllegalArgumentException("Scheduler and command cannot be null");
+        Command[] one = {command}; // made once here, schedule's varargs would make a new array every press otherwise
+        return onPress(button, () -> scheduler.schedule(one));
+    }
+
+    /**
+     * Schedules a command when a button is pressed and cancels it when the button is let go, if it hasn't finished by then
+     *
+     * @param button    The button
+     * @param scheduler The scheduler to run it on
+     * @param command   The command
+     * @return This input
+     */
+    public GamepadInput whileHeld(Button button, CommandScheduler scheduler, Command command) {
+        onPress(button, scheduler, command);
+        return onRelease(button, () -> scheduler.cancel(command));
+    }
+
+    /**
+     * Removes every binding
+     */
+    public void clearBindings() {
+        bindings.clear();
+    }
+
+    private GamepadInput bind(Button button, int type, long nanos, Runnable action) {
+        if (button == null || action == null)
+            throw new IllegalArgumentException("Button and action cannot be null");
+        bindings.add(new Binding(button, type, nanos, action));
+        return this;
+    }
+
+    /**
+     * Writes the last snapshot, exactly {@link #FRAME_BYTES} bytes of raw values so curves get applied again on playback
+     *
+     * @param out Where to write it
+     * @throws IOException If the write fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(now);
+        out.writeInt(buttons);
+        for (int i = 0; i < AXES; i++)
+            out.writeFloat(raw[i]);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo} and takes it like {@link #update} would, bindings and all
+     *
+     * @param in Where to read it from
+     * @throws IOException If the read fails, an {@link java.io.EOFException} at the end of a recording
+     */
+    public void readFrom(DataInput in) throws IOException {
+        long nanos = in.readLong();
+        int mask = in.readInt();
+        update(nanos, mask, in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+    }
+}
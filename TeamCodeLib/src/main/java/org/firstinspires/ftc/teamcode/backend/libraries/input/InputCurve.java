@@ -0,0 +1,94 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.input;
+
+/**
+ * Shapes one axis: deadband, then expo, then scale, then a slew rate limit, in that order
+ * <p>
+ * The deadband is rescaled so the output still starts at 0 right past it instead of jumping to the deadband value.
+ * Expo blends the input with its cube, so small stick movements get finer control and full stick is still full.
+ * The slew limit is the only part with state, so give every axis its own curve
+ */
+public class InputCurve {
+    private double deadband = 0, expo = 0, scale = 1, slewRate = Double.POSITIVE_INFINITY;
+    private double last = 0;
+
+    /**
+     * Sets how far the input has to move before the output leaves 0
+     *
+     * @param deadband Input that still counts as 0, from 0 up to but not including 1
+     * @return This curve
+     */
+    public InputCurve setDeadband(double deadband) {
+        if (deadband < 0 || deadband >= 1)
+            throw new IllegalArgumentException("Deadband must be at least 0 and less than 1");
+        this.deadband = deadband;
+        return this;
+    }
+
+    /**
+     * Sets how much the output curves, 0 is a straight line and 1 is the input cubed
+     *
+     * @param expo Weight of the cubed input, 0 to 1
+     * @return This curve
+     */
+    public InputCurve setExpo(double expo) {
+        if (expo < 0 || expo > 1)
+            throw new IllegalArgumentException("Expo must be between 0 and 1");
+        this.expo = expo;
+        return this;
+    }
+
+    /**
+     * Sets what full input turns into, for things like slow mode or damping the turn stick
+     *
+     * @param scale Output at full input, negative flips the axis
+     * @return This curve
+     */
+    public InputCurve setScale(double scale) {
+        this.scale = scale;
+        return this;
+    }
+
+    /**
+     * Limits how fast the output can change, stops a stick slammed from one side to the other from tipping the robot
+     *
+     * @param unitsPerSecond Most the output can change in a second, infinity for no limit
+     * @return This curve
+     */
+    public InputCurve setSlewRate(double unitsPerSecond) {
+        if (!(unitsPerSecond > 0))
+            throw new IllegalArgumentException("Slew rate must be positive");
+        this.slewRate = unitsPerSecond;
+        return this;
+    }
+
+    /**
+     * Shapes one reading, call this once per loop per axis so the slew limit sees every step
+     *
+     * @param input Raw axis value
+     * @param dt    Seconds since the last call, 0 on the first one
+     * @return Shaped value
+     */
+    public double apply(double input, double dt) {
+        double magnitude = Math.abs(input);
+        double shaped;
+        if (magnitude <= deadband) {
+            shaped = 0;
+        } else {
+            double x = (Math.min(magnitude, 1) - deadband) / (1 - deadband);
+            shaped = Math.copySign((1 - expo) * x + expo * x * x * x, input) * scale;
+        }
+        if (slewRate != Double.POSITIVE_INFINITY) {
+            double step = slewRate * dt;
+            shaped = Math.max(last - step, Math.min(last + step, shaped));
+        }
+        last = shaped;
+        return shaped;
+    }
+
+    /**
+     * Sets the slew limited output straight back to 0, for when the robot gets disabled or the curve starts being used
+     */
+    public void reset() {
+        last = 0;
+    }
+}
@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.kinematics;
+
+/**
+ * Converts between chassis speeds and mecanum wheel speeds
+ * <p>
+ * Chassis speeds are vx (forward), vy (left) and omega (counter clockwise), wheel speeds are always in the order
+ * {@link #FRONT_LEFT}, {@link #FRONT_RIGHT}, {@link #BACK_LEFT}, {@link #BACK_RIGHT}.
+ * Results are written into arrays you pass in so nothing gets allocated, keep one buffer around and reuse it every loop
+ * <p>
+ * With the default constructor omega is in the same units as vx and vy, which is what you want for joystick driving
+ */
+public class MecanumKinematics {
+    public static final int FRONT_LEFT = 0, FRONT_RIGHT = 1, BACK_LEFT = 2, BACK_RIGHT = 3;
+
+    private final double trackWidth, wheelBase, strafeMultiplier;
+    private final double turnRadius; // half of track width plus wheelbase, how far a wheel moves per radian of turn
+
+    /**
+     * Creates kinematics for joystick driving, turning and driving share the same units and strafing gets the usual 1.1 boost
+     */
+    public MecanumKinematics() {
+        this(1, 1, 1.1);
+    }
+
+    /**
+     * Creates kinematics for a specific robot
+     *
+     * @param trackWidth       Distance between the left and right wheels
+     * @param wheelBase        Distance between the front and back wheels, same units as trackWidth
+     * @param strafeMultiplier How much to scale strafing by to make up for the rollers slipping, 1 for no correction
+     */
+    public MecanumKinematics(double trackWidth, double wheelBase, double strafeMultiplier) {
+        if (trackWidth <= 0 || wheelBase <= 0)
+            throw new IllegalArgumentException("Track width and wheelbase must be positive");
+        if (strafeMultiplier <= 0)
+            throw new IllegalArgumentException("Strafe multiplier must be positive");
+        this.trackWidth = trackWidth;
+        this.wheelBase = wheelBase;
+        this.strafeMultiplier = strafeMultiplier;
+        this.turnRadius = (trackWidth + wheelBase) / 2;
+    }
+
+    /**
+     * Forward kinematics, works out how fast each wheel has to spin for the chassis to move at the given speed
+     *
+     * @param vx     Forward speed
+     * @param vy     Left speed
+     * @param omega  Counter clockwise turn rate, in radians per unit of time if the robot dimensions were given
+     * @param wheels Array of at least 4 that gets the wheel speeds
+     */
+    public void toWheelSpeeds(double vx, double vy, double omega, double[] wheels) {
+        double strafe = vy * strafeMultiplier, turn = omega * turnRadius;
+        wheels[FRONT_LEFT] = vx - strafe - turn;
+        wheels[FRONT_RIGHT] = vx + strafe + turn;
+        wheels[BACK_LEFT] = vx + strafe - turn;
+        wheels[BACK_RIGHT] = vx - strafe + turn;
+    }
+
+    /**
+     * Inverse kinematics, works out how the chassis is moving from how fast each wheel is spinning
+     *
+     * @param wheels  Wheel speeds in the usual order
+     * @param chassis Array of at least 3 that gets vx, vy and omega in that order
+     */
+    public void toChassisSpeeds(double[] wheels, double[] chassis) {
+        double fl = wheels[FRONT_LEFT], fr = wheels[FRONT_RIGHT], bl = wheels[BACK_LEFT], br = wheels[BACK_RIGHT];
+        chassis[0] = (fl + fr + bl + br) / 4;
+        chassis[1] = (-fl + fr + bl - br) / (4 * strafeMultiplier);
+        chassis[2] = (-fl + fr - bl + br) / (4 * turnRadius);
+    }
+
+    /**
+     * Scales every wheel speed down by the same amount if any of them is faster than the max, so the robot still moves in the same direction
+     *
+     * @param wheels   Wheel speeds to scale, changed in place
+     * @param maxSpeed Fastest any wheel can go, 1 for motor powers
+     */
+    public static void desaturate(double[] wheels, double maxSpeed) {
+        double max = Math.max(Math.max(Math.abs(wheels[FRONT_LEFT]), Math.abs(wheels[FRONT_RIGHT])),
+                Math.max(Math.abs(wheels[BACK_LEFT]), Math.abs(wheels[BACK_RIGHT])));
+        if (max > maxSpeed) {
+            double scale = maxSpeed / max;
+            for (int i = 0; i < 4; i++)
+                wheels[i] *= scale;
+        }
+    }
+
+    /**
+     * Returns the distance between the left and right wheels
+     *
+     * @return Distance between the left and right wheels
+     */
+    public double getTrackWidth() {
+        return trackWidth;
+    }
+
+    /**
+     * Returns the distance between the front and back wheels
+     *
+     * @return Distance between the front and back wheels
+     */
+    public double getWheelBase() {
+        return wheelBase;
+    }
+
+    /**
+     * Returns how much strafing gets scaled by
+     *
+     * @return How much strafing gets scaled by
+     */
+    public double getStrafeMultiplier() {
+        return strafeMultiplier;
+    }
+}
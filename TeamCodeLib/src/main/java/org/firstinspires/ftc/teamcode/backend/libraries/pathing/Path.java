@@ -0,0 +1,143 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.pathing;
+
+import java.util.Arrays;
+
+/**
+ * A list of waypoints joined by straight lines for {@link PurePursuit} to follow
+ * <p>
+ * Positions are in inches with x forward and y left, the same field frame as
+ * {@link org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.PoseEstimator}. A waypoint can also say which way
+ * a mecanum robot should face by the time it gets there, waypoints that don't keep the heading of the one before.
+ * Build the whole path during init, everything the follower needs per loop is kept in plain arrays
+ */
+public class Path {
+    double[] x, y, heading, distance; // distance is how far along the path each waypoint is
+    int size = 0;
+
+    /**
+     * Starts a path where the robot is, holding whatever heading it has
+     *
+     * @param x Start x, inches
+     * @param y Start y, inches
+     */
+    public Path(double x, double y) {
+        this(x, y, Double.NaN);
+    }
+
+    /**
+     * Starts a path where the robot is
+     *
+     * @param x              Start x, inches
+     * @param y              Start y, inches
+     * @param headingRadians Heading to hold at the start, counter clockwise
+     */
+    public Path(double x, double y, double headingRadians) {
+        this.x = new double[8];
+        this.y = new double[8];
+        this.heading = new double[8];
+        this.distance = new double[8];
+        add(x, y, headingRadians);
+    }
+
+    private void add(double x, double y, double headingRadians) {
+        if (!Double.isFinite(x) || !Double.isFinite(y))
+            throw new IllegalArgumentException("Waypoints must be finite");
+        if (size == this.x.length) {
+            this.x = Arrays.copyOf(this.x, size * 2);
+            this.y = Arrays.copyOf(this.y, size * 2);
+            this.heading = Arrays.copyOf(this.heading, size * 2);
+            this.distance = Arrays.copyOf(this.distance, size * 2);
+        }
+        if (size > 0) {
+            double length = Math.hypot(x - this.x[size - 1], y - this.y[size - 1]);
+            if (length < 1e-6)
+                throw new IllegalArgumentException("Waypoint " + size + " is on top of the one before it");
+            distance[size] = distance[size - 1] + length;
+        }
+        this.x[size] = x;
+        this.y[size] = y;
+        this.heading[size] = headingRadians;
+        size++;
+    }
+
+    /**
+     * Adds a waypoint, a mecanum robot keeps facing the way it was
+     *
+     * @param x Waypoint x, inches
+     * @param y Waypoint y, inches
+     * @return This path
+     */
+    public Path lineTo(double x, double y) {
+        add(x, y, Double.NaN);
+        return this;
+    }
+
+    /**
+     * Adds a waypoint, a mecanum robot turns to the heading on the way there
+     *
+     * @param x              Waypoint x, inches
+     * @param y              Waypoint y, inches
+     * @param headingRadians Heading to face, counter clockwise
+     * @return This path
+     */
+    public Path lineTo(double x, double y, double headingRadians) {
+        if (!Double.isFinite(headingRadians))
+            throw new IllegalArgumentException("Heading must be finite, use lineTo(x, y) to hold it");
+        add(x, y, headingRadians);
+        return this;
+    }
+
+    /**
+     * Returns how many waypoints there are, including the start
+     *
+     * @return Waypoint count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the total length of the path
+     *
+     * @return Length in inches
+     */
+    public double getLength() {
+        return distance[size - 1];
+    }
+
+    /**
+     * Returns a waypoint's x
+     *
+     * @param i Waypoint index, 0 is the start
+     * @return X in inches
+     */
+    public double getX(int i) {
+        return x[check(i)];
+    }
+
+    /**
+     * Returns a waypoint's y
+     *
+     * @param i Waypoint index, 0 is the start
+     * @return Y in inches
+     */
+    public double getY(int i) {
+        return y[check(i)];
+    }
+
+    /**
+     * Returns the heading a waypoint asks for
+     *
+     * @param i Waypoint index, 0 is the start
+     * @return Heading in radians, NaN if it keeps the one before
+     */
+    public double getHeading(int i) {
+        return heading[check(i)];
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= size)
+            throw new IllegalArgumentException("No waypoint " + i + " in a path of " + size);
+        return i;
+    }
+}
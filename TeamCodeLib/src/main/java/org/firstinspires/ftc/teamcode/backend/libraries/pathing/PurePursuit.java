@@ -0,0 +1,292 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.pathing;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+
+/**
+ * Follows a {@link Path} without stopping at the waypoints by always steering toward a point a little way further down the path
+ * <p>
+ * Every loop a circle with the lookahead distance as its radius is drawn around the robot, and the point where it
+ * crosses the path furthest along is what the robot drives at. Corners get rounded off instead of stopped at, and the
+ * faster the robot was told to go the bigger the circle gets so it cuts corners smoother. Near the end the target
+ * becomes the last waypoint and speed ramps down with the distance left.
+ * <p>
+ * A holonomic follower drives straight at the point and turns to the headings on the waypoints on its own, a
+ * differential one (tank) steers onto an arc through the point. Outputs are drivetrain powers in the robot's frame,
+ * forward, left, and counter clockwise turn, and {@link #update(double, double, double, double[])} doesn't allocate
+ */
+public class PurePursuit {
+    private final Path path;
+    private final boolean holonomic;
+    private final double trackWidth;
+    private final double[] headings; // waypoint headings with the holds filled in
+
+    private double minLookahead = 6, maxLookahead = 18;
+    private double maxSpeed = 0.8, minSpeed = 0.15, slowdownDistance = 18;
+    private double headingGain = 1.5, maxTurn = 0.6;
+    private double positionTolerance = 1, headingTolerance = Math.toRadians(3);
+
+    private int segment = 0;
+    private double lastSpeed = 0, targetX, targetY;
+    private boolean started = false, finished = false;
+
+    private PurePursuit(Path path, boolean holonomic, double trackWidth) {
+        if (path == null || path.size() < 2)
+            throw new IllegalArgumentException("A path needs at least 2 waypoints to follow");
+        this.path = path;
+        this.holonomic = holonomic;
+        this.trackWidth = trackWidth;
+        this.headings = new double[path.size()];
+    }
+
+    /**
+     * Creates a follower for a robot that can strafe, like {@code Mecanum}
+     *
+     * @param path The {@link Path}, don't add to it after this
+     * @return The follower
+     */
+    public static PurePursuit holonomic(Path path) {
+        return new PurePursuit(path, true, 0);
+    }
+
+    /**
+     * Creates a follower for a robot that can only drive forward and turn, like
+     * {@code TankDrive}. Waypoint headings are ignored
+     *
+     * @param path       The {@link Path}, don't add to it after this
+     * @param trackWidth Distance between the left and right wheels, inches
+     * @return The follower
+     */
+    public static PurePursuit differential(Path path, double trackWidth) {
+        if (!(trackWidth > 0))
+            throw new IllegalArgumentException("Track width must be positive");
+        return new PurePursuit(path, false, trackWidth);
+    }
+
+    /**
+     * Sets how far ahead the robot looks, it moves between the two with the speed it was going
+     *
+     * @param min Lookahead when barely moving, inches
+     * @param max Lookahead at full power, inches
+     * @return This follower
+     */
+    public PurePursuit setLookahead(double min, double max) {
+        if (!(min > 0) || max < min)
+            throw new IllegalArgumentException("Lookahead must be positive and max can't be less than min");
+        minLookahead = min;
+        maxLookahead = max;
+        return this;
+    }
+
+    /**
+     * Sets how fast the robot drives
+     *
+     * @param max              Power while far from the end [0-1]
+     * @param min              Power it won't go under until it is within tolerance, enough to overcome friction
+     * @param slowdownDistance How far from the end it starts slowing down, inches
+     * @return This follower
+     */
+    public PurePursuit setSpeed(double max, double min, double slowdownDistance) {
+        if (!(max > 0) || max > 1 || min < 0 || min > max)
+            throw new IllegalArgumentException("Speeds must be in 0 to 1 with min no more than max");
+        if (!(slowdownDistance > 0))
+            throw new IllegalArgumentException("Slowdown distance must be positive");
+        this.maxSpeed = max;
+        this.minSpeed = min;
+        this.slowdownDistance = slowdownDistance;
+        return this;
+    }
+
+    /**
+     * Sets how hard a holonomic robot turns toward the waypoint headings
+     *
+     * @param gain    Turn power per radian off
+     * @param maxTurn Most turn power it uses
+     * @return This follower
+     */
+    public PurePursuit setHeadingControl(double gain, double maxTurn) {
+        if (gain < 0 || !(maxTurn > 0) || maxTurn > 1)
+            throw new IllegalArgumentException("Gain can't be negative and max turn must be in 0 to 1");
+        this.headingGain = gain;
+        this.maxTurn = maxTurn;
+        return this;
+    }
+
+    /**
+     * Sets how close to the last waypoint counts as done
+     *
+     * @param inches         Distance from the last waypoint
+     * @param headingRadians Heading error, only holonomic followers check this
+     * @return This follower
+     */
+    public PurePursuit setTolerance(double inches, double headingRadians) {
+        if (!(inches > 0) || !(headingRadians > 0))
+            throw new IllegalArgumentException("Tolerances must be positive");
+        positionTolerance = inches;
+        headingTolerance = headingRadians;
+        return this;
+    }
+
+    /**
+     * Works out the drive powers for where the robot is now, call every loop with a fresh pose
+     *
+     * @param x       Robot x, inches
+     * @param y       Robot y, inches
+     * @param heading Robot heading, counter clockwise radians
+     * @param out     Array of at least 3 that gets forward, left and counter clockwise turn power, all 0 once finished
+     */
+    public void update(double x, double y, double heading, double[] out) {
+        if (!started) {
+            double hold = Double.isNaN(path.heading[0]) ? heading : path.heading[0];
+            for (int i = 0; i < headings.length; i++) {
+                if (!Double.isNaN(path.heading[i]))
+                    hold = path.heading[i];
+                headings[i] = hold;
+            }
+            started = true;
+        }
+        int last = path.size - 1;
+        double toEnd = Math.hypot(path.x[last] - x, path.y[last] - y);
+        double endHeadingError = Angles.wrapRadians(headings[last] - heading);
+        boolean lastSegment = segment == last - 1; // a path that ends where it started isn't done at the start
+        if (finished || lastSegment && toEnd < positionTolerance && (!holonomic || Math.abs(endHeadingError) < headingTolerance)) {
+            finished = true;
+            out[0] = out[1] = out[2] = 0;
+            return;
+        }
+
+        double lookahead = minLookahead + (maxLookahead - minLookahead) * lastSpeed;
+        int targetSegment = findTarget(x, y, lookahead);
+        segment = Math.max(segment, targetSegment); // never go backwards, a path that crosses itself would confuse it
+
+        double remaining = path.distance[last] - path.distance[segment + 1]
+                + Math.hypot(path.x[segment + 1] - x, path.y[segment + 1] - y);
+        double speed = segment == last - 1 && toEnd < positionTolerance ? 0 : Math.max(minSpeed, maxSpeed * Math.min(1, remaining / slowdownDistance));
+
+        double cos = Math.cos(heading), sin = Math.sin(heading);
+        double dx = targetX - x, dy = targetY - y;
+        double forward = dx * cos + dy * sin, left = -dx * sin + dy * cos; // target in the robot's frame
+        double distance = Math.hypot(forward, left);
+
+        if (holonomic) {
+            double scale = distance < 1e-9 ? 0 : speed / distance;
+            out[0] = forward * scale;
+            out[1] = left * scale;
+            out[2] = clamp(headingGain * Angles.wrapRadians(headings[segment + 1] - heading), maxTurn);
+        } else if (forward <= 0) { // target is behind, turn in place toward it first
+            out[0] = 0;
+            out[1] = 0;
+            out[2] = left < 0 ? -maxTurn : maxTurn;
+        } else {
+            double curvature = 2 * left / (distance * distance);
+            double turn = speed * curvature * trackWidth / 2;
+            double scale = Math.max(1, speed + Math.abs(turn)); // keep the arc the same if a wheel would go past full power
+            out[0] = speed / scale;
+            out[1] = 0;
+            out[2] = turn / scale;
+        }
+        lastSpeed = speed;
+    }
+
+    /**
+     * Finds the lookahead point and puts it in targetX and targetY
+     *
+     * @return The segment the point is on
+     */
+    private int findTarget(double x, double y, double lookahead) {
+        int last = path.size - 1;
+        if (segment == last - 1 && Math.hypot(path.x[last] - x, path.y[last] - y) <= lookahead) {
+            targetX = path.x[last];
+            targetY = path.y[last];
+            return last - 1;
+        }
+
+        int found = -1;
+        double r2 = lookahead * lookahead;
+        for (int i = segment; i < last; i++) {
+            double x0 = path.x[i], y0 = path.y[i];
+            double dx = path.x[i + 1] - x0, dy = path.y[i + 1] - y0, fx = x0 - x, fy = y0 - y;
+            double a = dx * dx + dy * dy, b = 2 * (fx * dx + fy * dy), c = fx * fx + fy * fy - r2;
+            double discriminant = b * b - 4 * a * c;
+            if (discriminant >= 0) {
+                double t = (-b + Math.sqrt(discriminant)) / (2 * a); // the crossing further along the segment
+                if (t >= 0 && t <= 1) {
+                    targetX = x0 + t * dx;
+                    targetY = y0 + t * dy;
+                    found = i;
+                }
+            }
+            double ex = path.x[i + 1] - x, ey = path.y[i + 1] - y;
+            if (found >= 0 && ex * ex + ey * ey > r2)
+                break; // this segment leaves the circle, later ones are further down the path
+        }
+        if (found >= 0)
+            return found;
+
+        // the path is more than a lookahead away, head for the closest point on the current segment to get back on it
+        double x0 = path.x[segment], y0 = path.y[segment];
+        double dx = path.x[segment + 1] - x0, dy = path.y[segment + 1] - y0;
+        double t = Math.max(0, Math.min(1, ((x - x0) * dx + (y - y0) * dy) / (dx * dx + dy * dy)));
+        targetX = x0 + t * dx;
+        targetY = y0 + t * dy;
+        return t >= 1 && segment < last - 1 ? segment + 1 : segment;
+    }
+
+    private static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+
+    /**
+     * Returns whether the robot made it to the end of the path
+     *
+     * @return True once it is within tolerance of the last waypoint
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Returns which segment the robot is on, 0 is from the start to the first waypoint
+     *
+     * @return Segment index
+     */
+    public int getSegment() {
+        return segment;
+    }
+
+    /**
+     * Returns the x of the point being steered at, handy for telemetry
+     *
+     * @return X in inches
+     */
+    public double getTargetX() {
+        return targetX;
+    }
+
+    /**
+     * Returns the y of the point being steered at
+     *
+     * @return Y in inches
+     */
+    public double getTargetY() {
+        return targetY;
+    }
+
+    /**
+     * Starts the path over from the beginning
+     */
+    public void reset() {
+        segment = 0;
+        lastSpeed = 0;
+        started = false;
+        finished = false;
+    }
+
+    /**
+     * Returns the path being followed
+     *
+     * @return The {@link Path}
+     */
+    public Path getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,101 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.profiles;
+
+/**
+ * A move from one position to another worked out ahead of time, as position, velocity and acceleration sampled on an even time grid
+ * <p>
+ * Make these with {@link MotionProfileGenerator}, then look up setpoints with the time since the move started.
+ * Lookups are a single index plus a linear blend between two samples, so they cost the same no matter how long the move is
+ */
+public class MotionProfile {
+    private final double[] position, velocity, acceleration;
+    private final double step, duration;
+
+    MotionProfile(double[] position, double[] velocity, double[] acceleration, double duration) {
+        this.position = position;
+        this.velocity = velocity;
+        this.acceleration = acceleration;
+        this.duration = duration;
+        this.step = position.length > 1 ? duration / (position.length - 1) : 0;
+    }
+
+    /**
+     * Returns where the move should be at a given time
+     *
+     * @param seconds Time since the move started
+     * @return Position setpoint
+     */
+    public double getPosition(double seconds) {
+        return sample(position, seconds);
+    }
+
+    /**
+     * Returns how fast the move should be going at a given time
+     *
+     * @param seconds Time since the move started
+     * @return Velocity setpoint, units per second
+     */
+    public double getVelocity(double seconds) {
+        return sample(velocity, seconds);
+    }
+
+    /**
+     * Returns how hard the move should be accelerating at a given time
+     *
+     * @param seconds Time since the move started
+     * @return Acceleration setpoint, units per second squared
+     */
+    public double getAcceleration(double seconds) {
+        return sample(acceleration, seconds);
+    }
+
+    private double sample(double[] values, double seconds) {
+        int last = values.length - 1;
+        if (seconds <= 0 || last == 0)
+            return values[0];
+        if (seconds >= duration)
+            return values[last];
+        double index = seconds / step;
+        int i = (int) index;
+        if (i >= last)
+            return values[last];
+        double blend = index - i;
+        return values[i] + (values[i + 1] - values[i]) * blend;
+    }
+
+    /**
+     * Returns how long the move takes
+     *
+     * @return Duration in seconds
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns whether the move is over at a given time
+     *
+     * @param seconds Time since the move started
+     * @return True once the whole profile has played
+     */
+    public boolean isFinished(double seconds) {
+        return seconds >= duration;
+    }
+
+    /**
+     * Returns where the move starts
+     *
+     * @return Start position
+     */
+    public double getStart() {
+        return position[0];
+    }
+
+    /**
+     * Returns where the move ends
+     *
+     * @return End position
+     */
+    public double getEnd() {
+        return position[position.length - 1];
+    }
+}
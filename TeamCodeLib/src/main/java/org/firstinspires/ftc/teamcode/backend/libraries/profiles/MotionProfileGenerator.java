@@ -0,0 +1,169 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.profiles;
+
+/**
+ * Builds {@link MotionProfile}s that start and end at rest
+ * <p>
+ * Trapezoidal profiles limit velocity and acceleration, S-curve profiles also limit jerk so the acceleration ramps
+ * instead of jumping, which is easier on tall lifts and anything that can swing. All the math happens here, once per move
+ */
+public class MotionProfileGenerator {
+    /**
+     * Time between samples in seconds, a bit faster than our loop so blending between samples stays accurate
+     */
+    public static final double SAMPLE_PERIOD = 0.005;
+
+    /**
+     * Picks a trapezoidal or S-curve profile depending on whether a jerk limit is given
+     *
+     * @param start           Start position
+     * @param end             End position
+     * @param maxVelocity     Fastest the move can go, units per second
+     * @param maxAcceleration Hardest the move can accelerate, units per second squared
+     * @param maxJerk         Fastest the acceleration can change, units per second cubed, 0 for a trapezoidal profile
+     * @return The profile
+     */
+    public static MotionProfile generate(double start, double end, double maxVelocity, double maxAcceleration, double maxJerk) {
+        if (maxJerk <= 0 || Double.isInfinite(maxJerk))
+            return trapezoidal(start, end, maxVelocity, maxAcceleration);
+        return sCurve(start, end, maxVelocity, maxAcceleration, maxJerk);
+    }
+
+    /**
+     * Builds a profile that speeds up at max acceleration, cruises, then slows down at max acceleration
+     * Short moves never reach max velocity and become a triangle instead
+     *
+     * @param start           Start position
+     * @param end             End position
+     * @param maxVelocity     Fastest the move can go, units per second
+     * @param maxAcceleration Hardest the move can accelerate, units per second squared
+     * @return The profile
+     */
+    public static MotionProfile trapezoidal(double start, double end, double maxVelocity, double maxAcceleration) {
+        checkLimit(maxVelocity, "velocity");
+        checkLimit(maxAcceleration, "acceleration");
+        double distance = Math.abs(end - start);
+
+        double accelTime = maxVelocity / maxAcceleration;
+        double cruiseTime;
+        if (maxAcceleration * accelTime * accelTime > distance) { // never gets to max velocity
+            accelTime = Math.sqrt(distance / maxAcceleration);
+            cruiseTime = 0;
+        } else {
+            cruiseTime = (distance - maxAcceleration * accelTime * accelTime) / maxVelocity;
+        }
+
+        return build(start, end,
+                new double[]{accelTime, cruiseTime, accelTime},
+                new double[]{0, 0, 0},
+                new double[]{maxAcceleration, 0, -maxAcceleration});
+    }
+
+    /**
+     * Builds a jerk limited profile, the seven phases are: ramp acceleration up, hold it, ramp it down, cruise, then the same backwards to stop
+     * Phases that don't fit in a short move get shortened or dropped
+     *
+     * @param start           Start position
+     * @param end             End position
+     * @param maxVelocity     Fastest the move can go, units per second
+     * @param maxAcceleration Hardest the move can accelerate, units per second squared
+     * @param maxJerk         Fastest the acceleration can change, units per second cubed
+     * @return The profile
+     */
+    public static MotionProfile sCurve(double start, double end, double maxVelocity, double maxAcceleration, double maxJerk) {
+        checkLimit(maxVelocity, "velocity");
+        checkLimit(maxAcceleration, "acceleration");
+        checkLimit(maxJerk, "jerk");
+        double distance = Math.abs(end - start);
+
+        // speeding up and slowing down are mirror images, so each covers peak velocity * time to reach it / 2
+        double peakVelocity = maxVelocity;
+        if (peakVelocity * accelPhaseTime(peakVelocity, maxAcceleration, maxJerk) > distance) {
+            // too short to reach max velocity, find the peak that uses up exactly the distance
+            double low = 0, high = maxVelocity;
+            for (int i = 0; i < 60; i++) {
+                double mid = (low + high) / 2;
+                if (mid * accelPhaseTime(mid, maxAcceleration, maxJerk) > distance) {
+                    high = mid;
+                } else {
+                    low = mid;
+                }
+            }
+            peakVelocity = low;
+        }
+
+        double jerkTime, holdTime;
+        if (peakVelocity * maxJerk <= maxAcceleration * maxAcceleration) { // never gets to max acceleration
+            jerkTime = Math.sqrt(peakVelocity / maxJerk);
+            holdTime = 0;
+        } else {
+            jerkTime = maxAcceleration / maxJerk;
+            holdTime = peakVelocity / maxAcceleration - jerkTime;
+        }
+        double cruiseTime = peakVelocity > 0 ? Math.max(0, (distance - peakVelocity * (2 * jerkTime + holdTime)) / peakVelocity) : 0;
+
+        double nan = Double.NaN; // acceleration carries over from the last phase
+        return build(start, end,
+                new double[]{jerkTime, holdTime, jerkTime, cruiseTime, jerkTime, holdTime, jerkTime},
+                new double[]{maxJerk, 0, -maxJerk, 0, -maxJerk, 0, maxJerk},
+                new double[]{0, nan, nan, nan, nan, nan, nan});
+    }
+
+    /**
+     * Returns how long it takes to get from rest to a velocity with the acceleration and jerk limits
+     */
+    private static double accelPhaseTime(double velocity, double maxAcceleration, double maxJerk) {
+        if (velocity * maxJerk <= maxAcceleration * maxAcceleration)
+            return 2 * Math.sqrt(velocity / maxJerk);
+        return velocity / maxAcceleration + maxAcceleration / maxJerk;
+    }
+
+    private static void checkLimit(double limit, String name) {
+        if (!(limit > 0) || Double.isInfinite(limit))
+            throw new IllegalArgumentException("Max " + name + " must be a positive number");
+    }
+
+    /**
+     * Samples a chain of constant jerk phases onto an even time grid
+     *
+     * @param durations How long each phase lasts
+     * @param jerks     The jerk during each phase
+     * @param accels    The acceleration at the start of each phase, NaN to carry on from the last phase
+     */
+    private static MotionProfile build(double start, double end, double[] durations, double[] jerks, double[] accels) {
+        double direction = Math.signum(end - start);
+        double duration = 0;
+        for (double phase : durations)
+            duration += phase;
+        if (direction == 0 || duration <= 0)
+            return new MotionProfile(new double[]{start}, new double[]{0}, new double[]{0}, 0);
+
+        int samples = (int) Math.ceil(duration / SAMPLE_PERIOD) + 1;
+        double step = duration / (samples - 1);
+        double[] position = new double[samples], velocity = new double[samples], acceleration = new double[samples];
+
+        int phase = 0;
+        double phaseStart = 0, p = 0, v = 0, a = Double.isNaN(accels[0]) ? 0 : accels[0];
+        for (int i = 0; i < samples; i++) {
+            double t = i * step;
+            while (phase < durations.length - 1 && t > phaseStart + durations[phase]) { // move the phase start state to the end of this phase
+                double dt = durations[phase], j = jerks[phase];
+                p += v * dt + a * dt * dt / 2 + j * dt * dt * dt / 6;
+                v += a * dt + j * dt * dt / 2;
+                a += j * dt;
+                phaseStart += dt;
+                phase++;
+                if (!Double.isNaN(accels[phase]))
+                    a = accels[phase];
+            }
+            double tau = t - phaseStart, j = jerks[phase];
+            position[i] = start + direction * (p + v * tau + a * tau * tau / 2 + j * tau * tau * tau / 6);
+            velocity[i] = direction * (v + a * tau + j * tau * tau / 2);
+            acceleration[i] = direction * (a + j * tau);
+        }
+        // rounding leaves the end a hair off, it has to land exactly
+        position[samples - 1] = end;
+        velocity[samples - 1] = 0;
+        acceleration[samples - 1] = 0;
+        return new MotionProfile(position, velocity, acceleration, duration);
+    }
+}
@@ -0,0 +1,110 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.profiles;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+
+/**
+ * Plays a {@link MotionProfile} back in real time, start it when the move starts and ask it for setpoints every loop
+ */
+public class ProfileFollower {
+    private final Clock clock;
+    private MotionProfile profile;
+    private long startTime;
+
+    /**
+     * Creates a follower that uses the real clock
+     */
+    public ProfileFollower() {
+        this(Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a follower that uses a custom clock
+     *
+     * @param clock The {@link Clock} to measure time with
+     */
+    public ProfileFollower(Clock clock) {
+        if (clock == null)
+            throw new IllegalArgumentException("Clock cannot be null");
+        this.clock = clock;
+    }
+
+    /**
+     * Starts playing a profile from the beginning, replacing whatever was playing
+     *
+     * @param profile The profile to follow
+     */
+    public void start(MotionProfile profile) {
+        this.profile = profile;
+        this.startTime = clock.nanoTime();
+    }
+
+    /**
+     * Stops following, the last setpoints stay where they are
+     */
+    public void stop() {
+        profile = null;
+    }
+
+    /**
+     * Returns whether a profile is loaded
+     *
+     * @return True between {@link #start(MotionProfile)} and {@link #stop()}
+     */
+    public boolean isActive() {
+        return profile != null;
+    }
+
+    /**
+     * Returns whether the profile has played all the way through, also true if nothing is playing
+     *
+     * @return True once the profile is done
+     */
+    public boolean isFinished() {
+        return profile == null || profile.isFinished(getElapsed());
+    }
+
+    /**
+     * Returns how long the current profile has been playing
+     *
+     * @return Seconds since {@link #start(MotionProfile)}
+     */
+    public double getElapsed() {
+        return (clock.nanoTime() - startTime) / 1e9;
+    }
+
+    /**
+     * Returns the position setpoint for right now
+     *
+     * @return Position, or 0 if nothing is playing
+     */
+    public double getPosition() {
+        return profile == null ? 0 : profile.getPosition(getElapsed());
+    }
+
+    /**
+     * Returns the velocity setpoint for right now
+     *
+     * @return Velocity, or 0 if nothing is playing
+     */
+    public double getVelocity() {
+        return profile == null ? 0 : profile.getVelocity(getElapsed());
+    }
+
+    /**
+     * Returns the acceleration setpoint for right now
+     *
+     * @return Acceleration, or 0 if nothing is playing
+     */
+    public double getAcceleration() {
+        return profile == null ? 0 : profile.getAcceleration(getElapsed());
+    }
+
+    /**
+     * Returns the profile being followed
+     *
+     * @return The {@link MotionProfile}, or null if nothing is playing
+     */
+    public MotionProfile getProfile() {
+        return profile;
+    }
+}
@@ -0,0 +1,105 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.profiles;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+
+/**
+ * The motion profile part of a mechanism's moves, shared by the lifts, linkages and drivetrains
+ * <p>
+ * Holds the constraints, starts a profile for each move when they are set and hands the mechanism a setpoint every
+ * loop until the profile is done. With no constraints set nothing gets profiled and the mechanism goes straight to its
+ * target like before. Setpoints go out through a {@link Setpoint} made once, so stepping a move doesn't allocate
+ */
+public class ProfiledMove {
+    /**
+     * Where the mechanism should be right now, called from {@link #update(Setpoint)}
+     */
+    public interface Setpoint {
+        void set(double position, double velocity, double acceleration);
+    }
+
+    private final ProfileFollower follower;
+    private double maxVelocity = 0, maxAcceleration = 0, maxJerk = 0; // 0 velocity means no profile
+
+    /**
+     * Creates a move on the real clock with profiling off
+     */
+    public ProfiledMove() {
+        this(Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a move with a custom clock and profiling off
+     *
+     * @param clock The {@link Clock} the profiles play on
+     */
+    public ProfiledMove(Clock clock) {
+        follower = new ProfileFollower(clock);
+    }
+
+    /**
+     * Sets the limits moves are profiled with
+     *
+     * @param maxVelocity     Max speed per second, 0 goes back to moving straight to the target
+     * @param maxAcceleration Max acceleration per second squared
+     * @param maxJerk         Max jerk per second cubed, 0 for a trapezoidal profile
+     */
+    public void setConstraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+        if (maxVelocity < 0 || maxAcceleration < 0 || maxJerk < 0)
+            throw new IllegalArgumentException("Motion constraints cannot be negative");
+        if (maxVelocity > 0 && maxAcceleration == 0)
+            throw new IllegalArgumentException("A max acceleration is needed to profile moves");
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.maxJerk = maxJerk;
+    }
+
+    /**
+     * Starts a move, replacing the one before
+     *
+     * @param from Where the mechanism is now
+     * @param to   Where it should end up
+     * @return True if the move is profiled, false if there are no constraints or nowhere to go so the mechanism should go straight to the target
+     */
+    public boolean start(double from, double to) {
+        if (maxVelocity > 0 && from != to) {
+            follower.start(MotionProfileGenerator.generate(from, to, maxVelocity, maxAcceleration, maxJerk));
+            return true;
+        }
+        follower.stop();
+        return false;
+    }
+
+    /**
+     * Hands the setpoint for right now to the mechanism, call it every loop while a move is going
+     *
+     * @param setpoint Gets the position, velocity and acceleration, not called when no profile is running
+     * @return True once the profile is done (right away for a move that isn't profiled), the last setpoint is the end of the move
+     */
+    public boolean update(Setpoint setpoint) {
+        MotionProfile profile = follower.getProfile();
+        if (profile == null)
+            return true;
+        double elapsed = follower.getElapsed(); // one time for all of it so the last setpoint really is the end
+        setpoint.set(profile.getPosition(elapsed), profile.getVelocity(elapsed), profile.getAcceleration(elapsed));
+        if (!profile.isFinished(elapsed))
+            return false;
+        follower.stop();
+        return true;
+    }
+
+    /**
+     * Returns whether a profiled move is still going
+     *
+     * @return True between a profiled {@link #start(double, double)} and the {@link #update(Setpoint)} that finishes it
+     */
+    public boolean isActive() {
+        return follower.isActive();
+    }
+
+    /**
+     * Drops the current profile, the mechanism keeps whatever setpoint it was last given
+     */
+    public void stop() {
+        follower.stop();
+    }
+}
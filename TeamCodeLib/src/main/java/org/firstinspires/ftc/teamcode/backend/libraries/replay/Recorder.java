@@ -0,0 +1,124 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.replay;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.input.Axis;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Records a driving session into a {@link Recording}, one frame per loop
+ * <p>
+ * Frames go into a byte array sized for the whole session up front, so recording doesn't allocate in the loop as long as
+ * the session is no longer than planned. Past that the array doubles, which allocates and copies everything so far once
+ * each time it happens
+ */
+public class Recorder {
+    private static final Axis[] AXES = Axis.values(); // values() makes a new array every call
+
+    private final int setpointCount, frameBytes;
+    private ByteBuffer data;
+    private int frames = 0;
+    private long startTime = 0;
+
+    /**
+     * Creates a recorder
+     *
+     * @param setpointCount  How many mechanism setpoints each frame has
+     * @param seconds        How long the session is expected to be, 150 covers a TeleOp with time to spare
+     * @param loopsPerSecond About how many loops a second the OpMode runs
+     */
+    public Recorder(int setpointCount, double seconds, double loopsPerSecond) {
+        if (setpointCount < 0 || setpointCount > 0xFFFF)
+            throw new IllegalArgumentException("Setpoint count must be between 0 and 65535");
+        if (!(seconds > 0) || !(loopsPerSecond > 0))
+            throw new IllegalArgumentException("Seconds and loops per second must be positive");
+        this.setpointCount = setpointCount;
+        this.frameBytes = Recording.frameBytes(setpointCount);
+        double planned = Math.ceil(seconds * loopsPerSecond) * frameBytes;
+        if (planned > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("A recording that long doesn't fit in memory");
+        data = ByteBuffer.allocate((int) planned);
+    }
+
+    /**
+     * Adds a frame, call this once per loop after the gamepads are updated and the pose is
+     * Doesn't allocate until the session runs past the length the recorder was made for, then the frames are copied into
+     * an array twice as big, see {@link #getCapacity()}
+     *
+     * @param nanos     Time of the loop, the first frame's time becomes 0
+     * @param gamepad1  Driver's gamepad, null records nothing pressed
+     * @param gamepad2  Operator's gamepad, null records nothing pressed
+     * @param x         Robot x in inches
+     * @param y         Robot y in inches
+     * @param heading   Robot heading in radians
+     * @param setpoints Mechanism setpoints, exactly the count this recorder was made with, reuse the same array every loop
+     */
+    public void record(long nanos, GamepadInput gamepad1, GamepadInput gamepad2, double x, double y, double heading, double[] setpoints) {
+        if (setpoints.length != setpointCount)
+            throw new IllegalArgumentException("Expected " + setpointCount + " setpoints but got " + setpoints.length);
+        if (frames == 0)
+            startTime = nanos;
+        long millis = (nanos - startTime) / 1_000_000;
+        if (millis > Integer.MAX_VALUE)
+            throw new IllegalStateException("Recording is too long");
+        if (data.remaining() < frameBytes) {
+            if (data.capacity() > Integer.MAX_VALUE / 2)
+                throw new IllegalStateException("Recording is too long");
+            ByteBuffer bigger = ByteBuffer.allocate(data.capacity() * 2);
+            data.flip();
+            bigger.put(data);
+            data = bigger;
+        }
+
+        data.putInt((int) millis);
+        putPad(gamepad1);
+        putPad(gamepad2);
+        data.putFloat((float) x).putFloat((float) y).putFloat((float) heading);
+        for (double setpoint : setpoints)
+            data.putFloat((float) setpoint);
+        frames++;
+    }
+
+    private void putPad(GamepadInput pad) {
+        data.putShort((short) (pad == null ? 0 : pad.getButtons()));
+        for (Axis axis : AXES)
+            data.put(pad == null ? 0 : (byte) Math.round(Math.max(-1, Math.min(1, pad.getRaw(axis))) * 127));
+    }
+
+    /**
+     * Returns how many frames have been recorded
+     *
+     * @return Frame count
+     */
+    public int getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Returns how many frames fit before recording has to grow its array
+     *
+     * @return Frame count, starts at what the constructor planned for and doubles every time it runs out
+     */
+    public int getCapacity() {
+        return data.capacity() / frameBytes;
+    }
+
+    /**
+     * Makes a recording of everything so far, recording can keep going after
+     *
+     * @return The recording
+     */
+    public Recording toRecording() {
+        byte[] bytes = Arrays.copyOf(data.array(), frames * frameBytes);
+        return new Recording(ByteBuffer.wrap(bytes), setpointCount, frames);
+    }
+
+    /**
+     * Throws away every frame so the next one starts a new recording
+     */
+    public void clear() {
+        data.clear();
+        frames = 0;
+    }
+}
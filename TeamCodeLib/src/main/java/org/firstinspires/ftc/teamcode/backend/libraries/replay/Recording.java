@@ -0,0 +1,264 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.replay;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.input.Axis;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A recorded driving session: per loop, the time, both gamepads, the robot's pose and some mechanism setpoints
+ * <p>
+ * Frames are fixed size and packed back to back, so the file is read with one read into a byte array and every frame is
+ * read straight out of it when asked for, nothing gets parsed up front. A frame is the time in milliseconds (int),
+ * then for each gamepad its buttons (short) and axes (a byte each, 1/127 steps), then x, y and heading (floats) and the
+ * setpoints (floats). With 4 setpoints that is 48 bytes, about 150 KB for a whole TeleOp at 50 loops a second
+ * <p>
+ * Make one with a {@link Recorder}, play it back with a {@link ReplayFollower}
+ */
+public class Recording {
+    /**
+     * Bytes before the first frame
+     */
+    public static final int HEADER_BYTES = 12;
+    static final int MAGIC = 0x52504c59; // RPLY
+    static final int VERSION = 1;
+    static final int PADS = 2, AXES = Axis.values().length;
+    static final int PAD_BYTES = 2 + AXES;
+    private static final int UNKNOWN_LENGTH_CHUNK = 64 * 1024;
+
+    private final ByteBuffer data;
+    private final int setpointCount, frameBytes, frames;
+
+    Recording(ByteBuffer data, int setpointCount, int frames) {
+        this.data = data;
+        this.setpointCount = setpointCount;
+        this.frameBytes = frameBytes(setpointCount);
+        this.frames = frames;
+    }
+
+    static int frameBytes(int setpointCount) {
+        return 4 + PADS * PAD_BYTES + 3 * 4 + setpointCount * 4;
+    }
+
+    /**
+     * Reads a recording from a file
+     *
+     * @param file The file, written by {@link #save(File)}
+     * @return The recording
+     * @throws IOException If the file can't be read, isn't a recording, or isn't as long as its header says
+     */
+    public static Recording load(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            return read(in, file.length() - HEADER_BYTES);
+        }
+    }
+
+    /**
+     * Reads a recording, with one read for the frames after the header
+     * The stream's length isn't known, so a broken header can't make it allocate much more than the stream really has
+     *
+     * @param in Where to read it from, the header tells how much to read so the stream can keep going after it
+     * @return The recording
+     * @throws IOException If the read fails, this isn't a recording or the stream ends before the last frame
+     */
+    public static Recording read(InputStream in) throws IOException {
+        return read(in, -1);
+    }
+
+    /**
+     * @param length Bytes after the header, -1 if it isn't known
+     */
+    private static Recording read(InputStream in, long length) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a recording");
+        int version = data.readUnsignedShort();
+        if (version != VERSION)
+            throw new IOException("Recording version " + version + " isn't supported");
+        int setpoints = data.readUnsignedShort();
+        int frames = data.readInt();
+        if (frames < 0)
+            throw new IOException("Recording header is broken");
+        int size;
+        try {
+            size = Math.multiplyExact(frames, frameBytes(setpoints));
+        } catch (ArithmeticException e) {
+            throw new IOException("Recording header says " + frames + " frames of " + setpoints + " setpoints, that's too big to be real");
+        }
+        if (length >= 0 && length != size)
+            throw new IOException("Recording header says " + size + " bytes of frames but the file has " + length);
+
+        // a known length was checked above so it all comes in one read, otherwise grow as the bytes really arrive
+        byte[] bytes = new byte[length >= 0 ? size : Math.min(size, UNKNOWN_LENGTH_CHUNK)];
+        int read = 0;
+        while (read < size) {
+            if (read == bytes.length)
+                bytes = Arrays.copyOf(bytes, (int) Math.min(size, 2L * bytes.length));
+            int count = data.read(bytes, read, bytes.length - read);
+            if (count < 0)
+                throw new EOFException("Recording ends " + (size - read) + " bytes before its last frame");
+            read += count;
+        }
+        return new Recording(ByteBuffer.wrap(bytes), setpoints, frames);
+    }
+
+    /**
+     * Writes this recording to a file, making the folder if it has to
+     *
+     * @param file The file
+     * @throws IOException If the file can't be written
+     */
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            parent.mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes this recording
+     *
+     * @param out Where to write it
+     * @throws IOException If the write fails
+     */
+    public void write(OutputStream out) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort((short) VERSION).putShort((short) setpointCount).putInt(frames);
+        out.write(header.array());
+        out.write(data.array(), data.arrayOffset(), frames * frameBytes);
+    }
+
+    private int offset(int frame) {
+        if (frame < 0 || frame >= frames)
+            throw new IndexOutOfBoundsException("Frame " + frame + " of " + frames);
+        return frame * frameBytes;
+    }
+
+    /**
+     * Returns how many frames there are
+     *
+     * @return Frame count
+     */
+    public int getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Returns how many setpoints each frame has
+     *
+     * @return Setpoint count
+     */
+    public int getSetpointCount() {
+        return setpointCount;
+    }
+
+    /**
+     * Returns how long the recording is
+     *
+     * @return Time of the last frame in seconds, 0 if there are no frames
+     */
+    public double getDuration() {
+        return frames == 0 ? 0 : getTime(frames - 1);
+    }
+
+    /**
+     * Returns when a frame happened
+     *
+     * @param frame Frame index
+     * @return Seconds since the first frame
+     */
+    public double getTime(int frame) {
+        return data.getInt(offset(frame)) / 1000.0;
+    }
+
+    /**
+     * Returns a gamepad's buttons in a frame
+     *
+     * @param frame Frame index
+     * @param pad   0 for gamepad1, 1 for gamepad2
+     * @return Button mask like {@link GamepadInput#getButtons()}
+     */
+    public int getButtons(int frame, int pad) {
+        return data.getShort(offset(frame) + 4 + pad * PAD_BYTES) & 0xFFFF;
+    }
+
+    /**
+     * Returns a gamepad axis in a frame, to the nearest 1/127
+     *
+     * @param frame Frame index
+     * @param pad   0 for gamepad1, 1 for gamepad2
+     * @param axis  The axis
+     * @return Raw axis value
+     */
+    public float getAxis(int frame, int pad, Axis axis) {
+        return data.get(offset(frame) + 4 + pad * PAD_BYTES + 2 + axis.ordinal()) / 127f;
+    }
+
+    /**
+     * Returns the robot's x in a frame
+     *
+     * @param frame Frame index
+     * @return X in inches
+     */
+    public double getX(int frame) {
+        return data.getFloat(offset(frame) + 4 + PADS * PAD_BYTES);
+    }
+
+    /**
+     * Returns the robot's y in a frame
+     *
+     * @param frame Frame index
+     * @return Y in inches
+     */
+    public double getY(int frame) {
+        return data.getFloat(offset(frame) + 8 + PADS * PAD_BYTES);
+    }
+
+    /**
+     * Returns the robot's heading in a frame
+     *
+     * @param frame Frame index
+     * @return Heading in radians
+     */
+    public double getHeading(int frame) {
+        return data.getFloat(offset(frame) + 12 + PADS * PAD_BYTES);
+    }
+
+    /**
+     * Returns a mechanism setpoint in a frame
+     *
+     * @param frame    Frame index
+     * @param setpoint Which setpoint, in the order they were recorded
+     * @return The setpoint
+     */
+    public double getSetpoint(int frame, int setpoint) {
+        if (setpoint < 0 || setpoint >= setpointCount)
+            throw new IndexOutOfBoundsException("Setpoint " + setpoint + " of " + setpointCount);
+        return data.getFloat(offset(frame) + 16 + PADS * PAD_BYTES + setpoint * 4);
+    }
+
+    /**
+     * Feeds a frame's gamepad into a {@link GamepadInput} like a live loop would, so its bindings fire again
+     *
+     * @param frame Frame index
+     * @param pad   0 for gamepad1, 1 for gamepad2
+     * @param input The input to update
+     */
+    public void applyGamepad(int frame, int pad, GamepadInput input) {
+        input.update(Math.round(getTime(frame) * 1e9), getButtons(frame, pad),
+                getAxis(frame, pad, Axis.LEFT_X), getAxis(frame, pad, Axis.LEFT_Y),
+                getAxis(frame, pad, Axis.RIGHT_X), getAxis(frame, pad, Axis.RIGHT_Y),
+                getAxis(frame, pad, Axis.LEFT_TRIGGER), getAxis(frame, pad, Axis.RIGHT_TRIGGER));
+    }
+}
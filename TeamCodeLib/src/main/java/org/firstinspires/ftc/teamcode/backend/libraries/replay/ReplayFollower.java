@@ -0,0 +1,278 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.replay;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+
+/**
+ * Plays a {@link Recording} back as an autonomous by following the pose the robot had, not the sticks the driver pushed
+ * <p>
+ * Playing the sticks back open loop drifts a little more every second since the wheels never slip the same way twice.
+ * Instead every loop the recorded pose at this time is the target: the recorded velocity is the feedforward and the
+ * error between the recorded pose and the real one gets a proportional correction on top, in the field frame, then the
+ * whole thing gets turned into the robot's frame. Outputs match {@code PurePursuit}'s, forward, left and counter
+ * clockwise turn power, so the same drive code runs either one
+ * <p>
+ * The recorded setpoints at the current time are there for mechanisms to follow, and gamepads can be fed the recorded
+ * frames so anything bound to buttons happens again. {@link #update} doesn't allocate
+ */
+public class ReplayFollower {
+    private final Recording recording;
+    private final Clock clock;
+    private double kV = 0.02, kTurnV = 0.25, kP = 0.12, kHeading = 1.5;
+    private double positionTolerance = 1, headingTolerance = Math.toRadians(3), settleTime = 1;
+    private GamepadInput gamepad1, gamepad2;
+
+    private long startTime = -1;
+    private int frame = 0, appliedFrame = -1;
+    private double time = 0, targetX, targetY, targetHeading, positionError, headingError;
+    private boolean finished = false;
+
+    /**
+     * Creates a follower on the real clock
+     *
+     * @param recording The recording to play
+     */
+    public ReplayFollower(Recording recording) {
+        this(recording, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a follower with a custom clock
+     *
+     * @param recording The recording to play
+     * @param clock     The {@link Clock} playback time comes from
+     */
+    public ReplayFollower(Recording recording, Clock clock) {
+        if (recording == null || clock == null)
+            throw new IllegalArgumentException("Recording and clock cannot be null");
+        if (recording.getFrameCount() == 0)
+            throw new IllegalArgumentException("Recording has no frames");
+        this.recording = recording;
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the feedforward, how much power the recorded speed alone gets
+     *
+     * @param kV     Power per inch per second
+     * @param kTurnV Turn power per radian per second
+     * @return This follower
+     */
+    public ReplayFollower setFeedforward(double kV, double kTurnV) {
+        if (kV < 0 || kTurnV < 0)
+            throw new IllegalArgumentException("Feedforward cannot be negative");
+        this.kV = kV;
+        this.kTurnV = kTurnV;
+        return this;
+    }
+
+    /**
+     * Sets how hard the robot gets pulled back onto the recorded pose
+     *
+     * @param kP       Power per inch off
+     * @param kHeading Turn power per radian off
+     * @return This follower
+     */
+    public ReplayFollower setCorrection(double kP, double kHeading) {
+        if (kP < 0 || kHeading < 0)
+            throw new IllegalArgumentException("Correction gains cannot be negative");
+        this.kP = kP;
+        this.kHeading = kHeading;
+        return this;
+    }
+
+    /**
+     * Sets when playback counts as done, it ends once the recording is over and the robot is close enough to the last
+     * pose, or once it has had the settle time to get there
+     *
+     * @param inches         Distance from the last pose
+     * @param headingRadians Heading error from the last pose
+     * @param settleTime     Most seconds to wait after the recording ends
+     * @return This follower
+     */
+    public ReplayFollower setTolerance(double inches, double headingRadians, double settleTime) {
+        if (!(inches > 0) || !(headingRadians > 0) || settleTime < 0)
+            throw new IllegalArgumentException("Tolerances must be positive and settle time can't be negative");
+        this.positionTolerance = inches;
+        this.headingTolerance = headingRadians;
+        this.settleTime = settleTime;
+        return this;
+    }
+
+    /**
+     * Feeds the recorded gamepads into these inputs during playback, every frame in order so no press gets skipped
+     *
+     * @param gamepad1 Gets the driver's frames, null to skip
+     * @param gamepad2 Gets the operator's frames, null to skip
+     * @return This follower
+     */
+    public ReplayFollower setGamepads(GamepadInput gamepad1, GamepadInput gamepad2) {
+        this.gamepad1 = gamepad1;
+        this.gamepad2 = gamepad2;
+        return this;
+    }
+
+    /**
+     * Starts playback from the beginning, the first {@link #update} does this on its own
+     */
+    public void start() {
+        startTime = clock.nanoTime();
+        frame = 0;
+        appliedFrame = -1;
+        finished = false;
+    }
+
+    /**
+     * Works out the drive powers for where the robot is now, call every loop with a fresh pose
+     *
+     * @param x       Robot x, inches
+     * @param y       Robot y, inches
+     * @param heading Robot heading, counter clockwise radians
+     * @param out     Array of at least 3 that gets forward, left and counter clockwise turn power, all 0 once finished
+     */
+    public void update(double x, double y, double heading, double[] out) {
+        if (startTime < 0)
+            start();
+        time = (clock.nanoTime() - startTime) / 1e9;
+        int last = recording.getFrameCount() - 1;
+        while (frame < last && recording.getTime(frame + 1) <= time)
+            frame++;
+        while (appliedFrame < frame) {
+            appliedFrame++;
+            if (gamepad1 != null)
+                recording.applyGamepad(appliedFrame, 0, gamepad1);
+            if (gamepad2 != null)
+                recording.applyGamepad(appliedFrame, 1, gamepad2);
+        }
+
+        double velocityX = 0, velocityY = 0, turnRate = 0;
+        if (frame < last) { // between two frames, go between them and use their difference as the speed
+            double t0 = recording.getTime(frame), dt = recording.getTime(frame + 1) - t0;
+            double fraction = dt > 0 ? Math.max(0, Math.min(1, (time - t0) / dt)) : 1;
+            double x0 = recording.getX(frame), y0 = recording.getY(frame), h0 = recording.getHeading(frame);
+            double dx = recording.getX(frame + 1) - x0, dy = recording.getY(frame + 1) - y0;
+            double dh = Angles.wrapRadians(recording.getHeading(frame + 1) - h0);
+            targetX = x0 + dx * fraction;
+            targetY = y0 + dy * fraction;
+            targetHeading = Angles.wrapRadians(h0 + dh * fraction);
+            if (dt > 0) {
+                velocityX = dx / dt;
+                velocityY = dy / dt;
+                turnRate = dh / dt;
+            }
+        } else {
+            targetX = recording.getX(last);
+            targetY = recording.getY(last);
+            targetHeading = recording.getHeading(last);
+        }
+
+        double errorX = targetX - x, errorY = targetY - y;
+        positionError = Math.hypot(errorX, errorY);
+        headingError = Angles.wrapRadians(targetHeading - heading);
+        double duration = recording.getDuration();
+        if (finished || time >= duration
+                && (positionError <= positionTolerance && Math.abs(headingError) <= headingTolerance || time >= duration + settleTime)) {
+            finished = true;
+            out[0] = out[1] = out[2] = 0;
+            return;
+        }
+
+        double fieldX = kV * velocityX + kP * errorX, fieldY = kV * velocityY + kP * errorY;
+        double cos = Math.cos(heading), sin = Math.sin(heading);
+        out[0] = fieldX * cos + fieldY * sin;
+        out[1] = -fieldX * sin + fieldY * cos;
+        out[2] = kTurnV * turnRate + kHeading * headingError;
+    }
+
+    /**
+     * Returns whether playback is done
+     *
+     * @return True once the recording is over and the robot got to the last pose or ran out of settle time
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Returns the recorded setpoint at the current playback time
+     *
+     * @param setpoint Which setpoint, in the order they were recorded
+     * @return The setpoint
+     */
+    public double getSetpoint(int setpoint) {
+        return recording.getSetpoint(frame, setpoint);
+    }
+
+    /**
+     * Returns how far into the recording playback is
+     *
+     * @return Seconds since playback started
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the frame being played
+     *
+     * @return Frame index
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Returns the recorded x at the current time
+     *
+     * @return X in inches
+     */
+    public double getTargetX() {
+        return targetX;
+    }
+
+    /**
+     * Returns the recorded y at the current time
+     *
+     * @return Y in inches
+     */
+    public double getTargetY() {
+        return targetY;
+    }
+
+    /**
+     * Returns the recorded heading at the current time
+     *
+     * @return Heading in radians
+     */
+    public double getTargetHeading() {
+        return targetHeading;
+    }
+
+    /**
+     * Returns how far the robot was from the recorded pose on the last {@link #update}
+     *
+     * @return Distance in inches
+     */
+    public double getPositionError() {
+        return positionError;
+    }
+
+    /**
+     * Returns how far the robot's heading was from the recorded one on the last {@link #update}
+     *
+     * @return Heading error in radians, counter clockwise positive
+     */
+    public double getHeadingError() {
+        return headingError;
+    }
+
+    /**
+     * Returns the recording being played
+     *
+     * @return The recording
+     */
+    public Recording getRecording() {
+        return recording;
+    }
+}
@@ -0,0 +1,401 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.superstructure;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.Joint;
+
+import java.util.ArrayList;
+
+/**
+ * Moves a group of {@link Joint}s between preset states, like grabbing or the high basket, one loop at a time
+ * <p>
+ * Every state is a setpoint for each joint. Going from one state to another sends each joint to its new setpoint, but a
+ * joint can be told to wait until another joint is some fraction of the way through its own move, so the elbow can
+ * start swinging out once the lift is 60% up instead of waiting for the lift to finish (or hitting the bar by going
+ * first). The order of every pair of states is worked out once in {@link #precompute()}, so {@link #update()} only
+ * compares a few numbers and never blocks
+ * <p>
+ * Joints are plain interfaces, so the whole thing runs the same against simulated motors or fakes on a desktop
+ *
+ * @param <S> The enum of states
+ */
+public class Superstructure<S extends Enum<S>> {
+    /**
+     * Which way the waiting joint has to be moving for a rule to count
+     */
+    public enum Direction {
+        ANY, UP, DOWN
+    }
+
+    private static final class Rule {
+        final Enum<?> from, to;
+        final int joint, after;
+        final double fraction;
+        final Direction direction;
+
+        Rule(Enum<?> from, Enum<?> to, int joint, int after, double fraction, Direction direction) {
+            this.from = from;
+            this.to = to;
+            this.joint = joint;
+            this.after = after;
+            this.fraction = fraction;
+            this.direction = direction;
+        }
+    }
+
+    // what each joint waits on for one pair of states, -1 when it goes right away
+    private static final class Plan {
+        final int[] after;
+        final double[] fraction;
+
+        Plan(int joints) {
+            after = new int[joints];
+            fraction = new double[joints];
+        }
+    }
+
+    private final S[] states;
+    private final ArrayList<Joint> joints = new ArrayList<>();
+    private final ArrayList<String> names = new ArrayList<>();
+    private final ArrayList<Double> tolerances = new ArrayList<>();
+    private final ArrayList<Rule> rules = new ArrayList<>();
+    private final double[][] setpoints;
+    private Plan[][] plans;
+
+    private S state, goal;
+    private Plan plan;
+    private double[] start, tolerance;
+    private boolean[] started;
+    private boolean busy = false;
+
+    /**
+     * Creates a superstructure with no joints or states yet
+     *
+     * @param type The enum class of the states
+     */
+    public Superstructure(Class<S> type) {
+        if (type == null)
+            throw new IllegalArgumentException("State type cannot be null");
+        states = type.getEnumConstants();
+        setpoints = new double[states.length][];
+    }
+
+    /**
+     * Adds a joint, add every joint before the first state
+     *
+     * @param name      Name used in error messages
+     * @param joint     The joint
+     * @param tolerance How close to a setpoint counts as there, in the joint's units
+     * @return The joint's index, used for its setpoint in {@link #addState} and in rules
+     */
+    public int addJoint(String name, Joint joint, double tolerance) {
+        if (joint == null)
+            throw new IllegalArgumentException("Joint cannot be null");
+        if (tolerance < 0)
+            throw new IllegalArgumentException("Tolerance cannot be negative");
+        for (double[] setpoint : setpoints)
+            if (setpoint != null)
+                throw new IllegalStateException("Joints have to be added before states");
+        joints.add(joint);
+        names.add(name);
+        tolerances.add(tolerance);
+        plans = null;
+        return joints.size() - 1;
+    }
+
+    /**
+     * Sets a state's setpoints
+     *
+     * @param state     The state
+     * @param setpoints One per joint in the order they were added, NaN for a joint that stays wherever it is
+     * @return This superstructure
+     */
+    public Superstructure<S> addState(S state, double... setpoints) {
+        if (state == null)
+            throw new IllegalArgumentException("State cannot be null");
+        if (setpoints.length != joints.size())
+            throw new IllegalArgumentException(state + " has " + setpoints.length + " setpoints but there are " + joints.size() + " joints");
+        this.setpoints[state.ordinal()] = setpoints.clone();
+        plans = null;
+        return this;
+    }
+
+    /**
+     * Makes a joint wait on another one in every transition where it moves the given way, so the elbow can wait on the
+     * lift only when it swings out
+     *
+     * @param joint     The joint that waits
+     * @param after     The joint it waits on
+     * @param fraction  How much of its move the other joint has to finish first, 0 to 1
+     * @param direction Which way the waiting joint has to be moving for this to apply
+     * @return This superstructure
+     */
+    public Superstructure<S> startAfter(int joint, int after, double fraction, Direction direction) {
+        if (direction == null)
+            throw new IllegalArgumentException("Direction cannot be null");
+        return addRule(null, null, joint, after, fraction, direction);
+    }
+
+    /**
+     * Makes a joint wait on another one going from one state to another, this beats any rule from
+     * {@link #startAfter(int, int, double, Direction)} for the same joint
+     *
+     * @param from     State it leaves
+     * @param to       State it goes to
+     * @param joint    The joint that waits
+     * @param after    The joint it waits on
+     * @param fraction How much of its move the other joint has to finish first, 0 to 1
+     * @return This superstructure
+     */
+    public Superstructure<S> startAfter(S from, S to, int joint, int after, double fraction) {
+        if (from == null || to == null)
+            throw new IllegalArgumentException("States cannot be null");
+        return addRule(from, to, joint, after, fraction, Direction.ANY);
+    }
+
+    /**
+     * Lets a joint go right away going from one state to another, even if a general rule would make it wait
+     * Use this to break two general rules that wait on each other for some pair of states
+     *
+     * @param from  State it leaves
+     * @param to    State it goes to
+     * @param joint The joint
+     * @return This superstructure
+     */
+    public Superstructure<S> startRightAway(S from, S to, int joint) {
+        if (from == null || to == null)
+            throw new IllegalArgumentException("States cannot be null");
+        if (joint < 0 || joint >= joints.size())
+            throw new IllegalArgumentException("No joint with that index");
+        rules.add(new Rule(from, to, joint, -1, 0, Direction.ANY));
+        plans = null;
+        return this;
+    }
+
+    private Superstructure<S> addRule(S from, S to, int joint, int after, double fraction, Direction direction) {
+        if (joint < 0 || joint >= joints.size() || after < 0 || after >= joints.size())
+            throw new IllegalArgumentException("No joint with that index");
+        if (joint == after)
+            throw new IllegalArgumentException("A joint can't wait on itself");
+        if (fraction < 0 || fraction > 1)
+            throw new IllegalArgumentException("Fraction must be between 0 and 1");
+        rules.add(new Rule(from, to, joint, after, fraction, direction));
+        plans = null;
+        return this;
+    }
+
+    /**
+     * Works out what every joint waits on for every pair of states, this happens on its own the first time it is needed
+     * but calling it during init keeps it out of the first loop and finds bad rules before the match
+     */
+    public void precompute() {
+        int n = joints.size();
+        Plan[][] plans = new Plan[states.length][states.length];
+        for (S from : states) {
+            if (setpoints[from.ordinal()] == null)
+                continue;
+            for (S to : states) {
+                if (setpoints[to.ordinal()] == null)
+                    continue;
+                Plan plan = new Plan(n);
+                for (int j = 0; j < n; j++) {
+                    plan.after[j] = -1;
+                    for (int i = 0; i < rules.size(); i++) { // later rules win, but one just for this pair beats every general one
+                        Rule rule = rules.get(i);
+                        if (rule.joint != j || from == to || !applies(rule, from, to))
+                            continue;
+                        if (rule.from == null && isSpecific(from, to, j))
+                            continue;
+                        plan.after[j] = rule.after;
+                        plan.fraction[j] = rule.fraction;
+                    }
+                }
+                for (int j = 0; j < n; j++) { // a loop of joints waiting on each other would never start
+                    int k = j;
+                    for (int steps = 0; steps <= n && k >= 0; steps++)
+                        k = plan.after[k];
+                    if (k >= 0)
+                        throw new IllegalStateException("Joints wait on each other in a loop going from " + from + " to " + to + ", starting at " + names.get(j));
+                }
+                plans[from.ordinal()][to.ordinal()] = plan;
+            }
+        }
+        start = new double[n];
+        tolerance = new double[n];
+        started = new boolean[n];
+        for (int j = 0; j < n; j++)
+            tolerance[j] = tolerances.get(j);
+        this.plans = plans;
+    }
+
+    private boolean applies(Rule rule, S from, S to) {
+        if (rule.from != null)
+            return rule.from == from && rule.to == to;
+        double move = setpoints[to.ordinal()][rule.joint] - setpoints[from.ordinal()][rule.joint];
+        switch (rule.direction) {
+            case UP:
+                return move > 0;
+            case DOWN:
+                return move < 0;
+            default:
+                return true;
+        }
+    }
+
+    private boolean isSpecific(S from, S to, int joint) {
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if (rule.joint == joint && rule.from == from && rule.to == to)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Says the robot is in a state and sends every joint straight to it, use this at init for the starting state
+     *
+     * @param state The state
+     */
+    public void setState(S state) {
+        double[] targets = targets(state);
+        if (plans == null)
+            precompute();
+        for (int j = 0; j < joints.size(); j++)
+            if (!Double.isNaN(targets[j]))
+                joints.get(j).setTarget(targets[j]);
+        this.state = goal = state;
+        busy = false;
+    }
+
+    /**
+     * Starts moving to a state, call {@link #update()} every loop to finish the move
+     * Changing the goal in the middle of a move starts over from where the joints are, ordered as if the robot had
+     * reached the old goal
+     *
+     * @param state The state to go to
+     */
+    public void setGoal(S state) {
+        targets(state);
+        if (this.state == null)
+            throw new IllegalStateException("Call setState with the starting state before setting a goal");
+        if (plans == null)
+            precompute();
+        if (busy && goal == state)
+            return;
+        S from = busy ? goal : this.state;
+        plan = plans[from.ordinal()][state.ordinal()];
+        for (int j = 0; j < joints.size(); j++) {
+            start[j] = joints.get(j).getPosition();
+            started[j] = false;
+        }
+        goal = state;
+        busy = true;
+        update();
+    }
+
+    /**
+     * Starts the joints whose turn it is and checks if the move is done, call this once every loop
+     */
+    public void update() {
+        if (!busy)
+            return;
+        double[] targets = setpoints[goal.ordinal()];
+        int n = joints.size();
+        boolean changed = true;
+        for (int pass = 0; pass < n && changed; pass++) { // a joint that starts can let another start the same loop
+            changed = false;
+            for (int j = 0; j < n; j++) {
+                if (started[j])
+                    continue;
+                int after = plan.after[j];
+                if (after >= 0 && (!started[after] || getProgress(after) < plan.fraction[j]))
+                    continue;
+                if (!Double.isNaN(targets[j]))
+                    joints.get(j).setTarget(targets[j]);
+                started[j] = true;
+                changed = true;
+            }
+        }
+
+        for (int j = 0; j < n; j++) {
+            if (!started[j])
+                return;
+            if (!Double.isNaN(targets[j]) && Math.abs(joints.get(j).getPosition() - targets[j]) > tolerance[j])
+                return;
+        }
+        state = goal;
+        busy = false;
+    }
+
+    /**
+     * Stops starting joints, the ones already sent keep going to their setpoints, for when the driver takes over by hand
+     * The next goal is ordered as if the robot was still in the last state it reached
+     */
+    public void stop() {
+        busy = false;
+        goal = state;
+    }
+
+    private double[] targets(S state) {
+        if (state == null)
+            throw new IllegalArgumentException("State cannot be null");
+        double[] targets = setpoints[state.ordinal()];
+        if (targets == null)
+            throw new IllegalArgumentException(state + " has no setpoints");
+        return targets;
+    }
+
+    /**
+     * Returns how far through its move a joint is
+     *
+     * @param joint The joint's index
+     * @return 0 at the start of the move and 1 at the setpoint, 1 when there is no move going
+     */
+    public double getProgress(int joint) {
+        if (!busy || !started[joint])
+            return busy ? 0 : 1;
+        double target = setpoints[goal.ordinal()][joint];
+        if (Double.isNaN(target))
+            return 1;
+        double distance = target - start[joint];
+        if (Math.abs(distance) <= tolerance[joint])
+            return 1;
+        return Math.max(0, Math.min(1, (joints.get(joint).getPosition() - start[joint]) / distance));
+    }
+
+    /**
+     * Returns the last state the robot got all the way to
+     *
+     * @return The state, null before {@link #setState}
+     */
+    public S getState() {
+        return state;
+    }
+
+    /**
+     * Returns the state being moved to, the same as {@link #getState()} when nothing is moving
+     *
+     * @return The goal
+     */
+    public S getGoal() {
+        return goal;
+    }
+
+    /**
+     * Returns whether a move is still going
+     *
+     * @return True until every joint is at the goal's setpoints
+     */
+    public boolean isBusy() {
+        return busy;
+    }
+
+    /**
+     * Returns a state's setpoint for a joint
+     *
+     * @param state The state
+     * @param joint The joint's index
+     * @return The setpoint, NaN if the joint stays where it is
+     */
+    public double getSetpoint(S state, int joint) {
+        return targets(state)[joint];
+    }
+}
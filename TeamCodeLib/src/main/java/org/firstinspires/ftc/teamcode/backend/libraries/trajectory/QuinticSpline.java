@@ -0,0 +1,129 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.trajectory;
+
+/**
+ * One quintic Hermite curve between two points on the field, going from u = 0 to u = 1
+ * <p>
+ * Quintic means both the direction and the curvature can be set at each end. The trajectory builder leaves the
+ * curvature at 0 on every waypoint, so consecutive pieces meet with matching position, direction and curvature and
+ * the robot never has to change how hard it is turning all at once
+ */
+public class QuinticSpline {
+    private final double[] x, y; // polynomial coefficients, lowest power first
+
+    /**
+     * Creates a spline from the position, first and second derivative at both ends
+     *
+     * @param x0   Start x
+     * @param dx0  Start x velocity
+     * @param ddx0 Start x acceleration
+     * @param y0   Start y
+     * @param dy0  Start y velocity
+     * @param ddy0 Start y acceleration
+     * @param x1   End x
+     * @param dx1  End x velocity
+     * @param ddx1 End x acceleration
+     * @param y1   End y
+     * @param dy1  End y velocity
+     * @param ddy1 End y acceleration
+     */
+    public QuinticSpline(double x0, double dx0, double ddx0, double y0, double dy0, double ddy0,
+                         double x1, double dx1, double ddx1, double y1, double dy1, double ddy1) {
+        x = coefficients(x0, dx0, ddx0, x1, dx1, ddx1);
+        y = coefficients(y0, dy0, ddy0, y1, dy1, ddy1);
+    }
+
+    /**
+     * Creates a spline between two poses that leaves and arrives going straight along their tangents with no curvature
+     *
+     * @param x0       Start x
+     * @param y0       Start y
+     * @param tangent0 Direction of travel at the start, radians
+     * @param x1       End x
+     * @param y1       End y
+     * @param tangent1 Direction of travel at the end, radians
+     * @return The spline
+     */
+    public static QuinticSpline between(double x0, double y0, double tangent0, double x1, double y1, double tangent1) {
+        double scale = Math.hypot(x1 - x0, y1 - y0); // tangents as long as the gap keep the curve from looping or going flat
+        return new QuinticSpline(
+                x0, scale * Math.cos(tangent0), 0, y0, scale * Math.sin(tangent0), 0,
+                x1, scale * Math.cos(tangent1), 0, y1, scale * Math.sin(tangent1), 0);
+    }
+
+    private static double[] coefficients(double p0, double v0, double a0, double p1, double v1, double a1) {
+        return new double[]{
+                p0,
+                v0,
+                a0 / 2,
+                -10 * p0 - 6 * v0 - 1.5 * a0 + 0.5 * a1 - 4 * v1 + 10 * p1,
+                15 * p0 + 8 * v0 + 1.5 * a0 - a1 + 7 * v1 - 15 * p1,
+                -6 * p0 - 3 * v0 - 0.5 * a0 + 0.5 * a1 - 3 * v1 + 6 * p1
+        };
+    }
+
+    private static double value(double[] c, double u) {
+        return c[0] + u * (c[1] + u * (c[2] + u * (c[3] + u * (c[4] + u * c[5]))));
+    }
+
+    private static double derivative(double[] c, double u) {
+        return c[1] + u * (2 * c[2] + u * (3 * c[3] + u * (4 * c[4] + u * 5 * c[5])));
+    }
+
+    private static double secondDerivative(double[] c, double u) {
+        return 2 * c[2] + u * (6 * c[3] + u * (12 * c[4] + u * 20 * c[5]));
+    }
+
+    /**
+     * Returns x at a point along the curve
+     *
+     * @param u Where on the curve, 0 to 1
+     * @return X
+     */
+    public double getX(double u) {
+        return value(x, u);
+    }
+
+    /**
+     * Returns y at a point along the curve
+     *
+     * @param u Where on the curve, 0 to 1
+     * @return Y
+     */
+    public double getY(double u) {
+        return value(y, u);
+    }
+
+    /**
+     * Returns which way the curve is heading
+     *
+     * @param u Where on the curve, 0 to 1
+     * @return Direction of travel in radians
+     */
+    public double getTangent(double u) {
+        return Math.atan2(derivative(y, u), derivative(x, u));
+    }
+
+    /**
+     * Returns how sharply the curve bends, 1 over the radius of the turn
+     *
+     * @param u Where on the curve, 0 to 1
+     * @return Curvature, positive when bending counter clockwise
+     */
+    public double getCurvature(double u) {
+        double dx = derivative(x, u), dy = derivative(y, u);
+        double speed = Math.hypot(dx, dy);
+        if (speed < 1e-9)
+            return 0;
+        return (dx * secondDerivative(y, u) - dy * secondDerivative(x, u)) / (speed * speed * speed);
+    }
+
+    /**
+     * Returns how fast the point moves per unit of u, used to work out arc length
+     *
+     * @param u Where on the curve, 0 to 1
+     * @return Length per unit of u
+     */
+    public double getSpeed(double u) {
+        return Math.hypot(derivative(x, u), derivative(y, u));
+    }
+}
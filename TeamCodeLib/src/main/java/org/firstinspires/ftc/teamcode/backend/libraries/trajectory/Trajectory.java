@@ -0,0 +1,134 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.trajectory;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.firstinspires.ftc.teamcode.backend.libraries.pathing.Path;
+
+/**
+ * A curve through the field with the speed at every point already worked out, made by {@link TrajectoryBuilder}
+ * <p>
+ * Everything is stored at even steps of distance along the curve in plain arrays. Looking up by distance is a single
+ * index, looking up by time is a binary search over the time each step is reached, then both blend between the two
+ * nearest steps. Sampling writes into an array you pass in so nothing gets allocated in the loop
+ */
+public class Trajectory {
+    /**
+     * Indexes into the array {@link #sample(double, double[])} fills in
+     */
+    public static final int X = 0, Y = 1, HEADING = 2, VELOCITY = 3, ACCELERATION = 4, CURVATURE = 5;
+
+    private final double step;
+    private final double[] x, y, heading, curvature, velocity, acceleration, time;
+
+    Trajectory(double step, double[] x, double[] y, double[] heading, double[] curvature,
+               double[] velocity, double[] acceleration, double[] time) {
+        this.step = step;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.curvature = curvature;
+        this.velocity = velocity;
+        this.acceleration = acceleration;
+        this.time = time;
+    }
+
+    /**
+     * Finds where the robot should be at a time
+     *
+     * @param seconds Time since the trajectory started
+     * @param out     Array of at least 6 that gets x, y, heading (direction of travel, radians), velocity, acceleration and curvature,
+     *                use the index constants like {@link #VELOCITY}
+     */
+    public void sample(double seconds, double[] out) {
+        int last = time.length - 1;
+        if (seconds <= 0) {
+            fill(0, 0, out);
+            out[VELOCITY] = velocity[0];
+            out[ACCELERATION] = acceleration[0];
+            return;
+        }
+        if (seconds >= time[last]) {
+            fill(last, 0, out);
+            out[VELOCITY] = velocity[last];
+            out[ACCELERATION] = 0;
+            return;
+        }
+        int low = 0, high = last; // time[low] <= seconds < time[high]
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (time[middle] <= seconds)
+                low = middle;
+            else
+                high = middle;
+        }
+        double dt = seconds - time[low];
+        double travelled = velocity[low] * dt + 0.5 * acceleration[low] * dt * dt; // acceleration is constant between steps
+        fill(low, Math.max(0, Math.min(1, travelled / step)), out);
+        out[VELOCITY] = velocity[low] + acceleration[low] * dt;
+        out[ACCELERATION] = acceleration[low];
+    }
+
+    /**
+     * Finds the point a distance along the curve, only the shape is filled in (x, y, heading and curvature)
+     *
+     * @param inches Distance from the start
+     * @param out    Array of at least 6, velocity and acceleration are left alone
+     */
+    public void sampleDistance(double inches, double[] out) {
+        int last = x.length - 1;
+        double index = Math.max(0, Math.min(last, inches / step));
+        int i = Math.min((int) index, last - 1);
+        fill(i, index - i, out);
+    }
+
+    private void fill(int i, double blend, double[] out) {
+        int j = Math.min(i + 1, x.length - 1);
+        out[X] = x[i] + (x[j] - x[i]) * blend;
+        out[Y] = y[i] + (y[j] - y[i]) * blend;
+        out[HEADING] = heading[i] + Angles.wrapRadians(heading[j] - heading[i]) * blend;
+        out[CURVATURE] = curvature[i] + (curvature[j] - curvature[i]) * blend;
+    }
+
+    /**
+     * Returns how long the trajectory takes to drive
+     *
+     * @return Duration in seconds
+     */
+    public double getDuration() {
+        return time[time.length - 1];
+    }
+
+    /**
+     * Returns the length of the curve
+     *
+     * @return Length in inches
+     */
+    public double getLength() {
+        return step * (x.length - 1);
+    }
+
+    /**
+     * Returns how many steps the curve is stored as
+     *
+     * @return Sample count
+     */
+    public int getSampleCount() {
+        return x.length;
+    }
+
+    /**
+     * Turns the curve into a {@link Path} of short straight lines, for following it with
+     * {@link org.firstinspires.ftc.teamcode.backend.libraries.pathing.PurePursuit} instead of by time
+     *
+     * @param spacing About how far apart the waypoints are, inches
+     * @return The path
+     */
+    public Path toPath(double spacing) {
+        if (!(spacing > 0))
+            throw new IllegalArgumentException("Spacing must be positive");
+        int every = Math.max(1, (int) Math.round(spacing / step)), last = x.length - 1;
+        Path path = new Path(x[0], y[0]);
+        for (int i = every; i < last; i += every)
+            path.lineTo(x[i], y[i]);
+        return path.lineTo(x[last], y[last]);
+    }
+}
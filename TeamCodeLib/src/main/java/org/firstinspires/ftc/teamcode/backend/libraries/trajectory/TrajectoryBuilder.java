@@ -0,0 +1,134 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.trajectory;
+
+import java.util.ArrayList;
+
+/**
+ * Builds a {@link Trajectory} through a list of poses, fast enough to run during init
+ * <p>
+ * Each pair of poses gets a {@link QuinticSpline}. The splines are measured into an arc length table so the curve can be
+ * cut into even steps of distance, then the speed at every step is found in three passes: cap it where the curve bends
+ * so sideways acceleration stays under the limit, sweep forward so it never speeds up faster than allowed, and sweep
+ * backward so it can always slow down in time for what comes next. The trajectory starts and ends at rest
+ */
+public class TrajectoryBuilder {
+    /**
+     * Distance between steps of the finished trajectory, inches
+     */
+    public static final double STEP = 0.25;
+    private static final int MEASURE_STEPS = 64; // per spline, for the arc length table
+
+    private final ArrayList<QuinticSpline> splines = new ArrayList<>();
+    private double lastX, lastY, lastTangent;
+
+    /**
+     * Starts a trajectory
+     *
+     * @param x       Start x, inches
+     * @param y       Start y, inches
+     * @param tangent Direction the robot sets off in, radians counter clockwise from the x axis
+     */
+    public TrajectoryBuilder(double x, double y, double tangent) {
+        lastX = x;
+        lastY = y;
+        lastTangent = tangent;
+    }
+
+    /**
+     * Curves to a pose
+     *
+     * @param x       Waypoint x, inches
+     * @param y       Waypoint y, inches
+     * @param tangent Direction of travel when passing through, radians
+     * @return This builder
+     */
+    public TrajectoryBuilder splineTo(double x, double y, double tangent) {
+        if (Math.hypot(x - lastX, y - lastY) < 1e-6)
+            throw new IllegalArgumentException("Waypoint " + (splines.size() + 1) + " is on top of the one before it");
+        splines.add(QuinticSpline.between(lastX, lastY, lastTangent, x, y, tangent));
+        lastX = x;
+        lastY = y;
+        lastTangent = tangent;
+        return this;
+    }
+
+    /**
+     * Drives straight to a point, the direction of travel is the direction of the line
+     * If the waypoint before wasn't already pointing along the line this makes a sharp corner that the speed limits
+     * can't see, so end the spline before it going the same way
+     *
+     * @param x Waypoint x, inches
+     * @param y Waypoint y, inches
+     * @return This builder
+     */
+    public TrajectoryBuilder lineTo(double x, double y) {
+        double tangent = Math.atan2(y - lastY, x - lastX);
+        lastTangent = tangent; // start along the line too so it really is straight
+        return splineTo(x, y, tangent);
+    }
+
+    /**
+     * Works out the trajectory
+     *
+     * @param maxVelocity                Fastest the robot goes, inches per second
+     * @param maxAcceleration            Hardest it speeds up or slows down, inches per second squared
+     * @param maxCentripetalAcceleration Most sideways acceleration in turns, inches per second squared, this is what slows it down in tight curves
+     * @return The trajectory
+     */
+    public Trajectory build(double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration) {
+        if (splines.isEmpty())
+            throw new IllegalStateException("A trajectory needs at least one waypoint after the start");
+        if (!(maxVelocity > 0) || !(maxAcceleration > 0) || !(maxCentripetalAcceleration > 0))
+            throw new IllegalArgumentException("Limits must be positive");
+
+        // arc length at evenly spaced u on every spline, with Simpson's rule between them
+        int count = splines.size();
+        double[] table = new double[count * MEASURE_STEPS + 1];
+        for (int i = 0; i < count; i++) {
+            QuinticSpline spline = splines.get(i);
+            for (int k = 0; k < MEASURE_STEPS; k++) {
+                double u0 = (double) k / MEASURE_STEPS, u1 = (double) (k + 1) / MEASURE_STEPS;
+                double length = (u1 - u0) / 6 * (spline.getSpeed(u0) + 4 * spline.getSpeed((u0 + u1) / 2) + spline.getSpeed(u1));
+                int index = i * MEASURE_STEPS + k;
+                table[index + 1] = table[index] + length;
+            }
+        }
+        double total = table[table.length - 1];
+
+        // at least one step in the middle, with only the two ends both speeds are 0 and the step would never finish
+        int samples = Math.max(3, (int) Math.ceil(total / STEP) + 1);
+        double step = total / (samples - 1);
+        double[] x = new double[samples], y = new double[samples], heading = new double[samples], curvature = new double[samples];
+        int index = 0;
+        for (int i = 0; i < samples; i++) {
+            double s = Math.min(total, i * step);
+            while (index < table.length - 2 && table[index + 1] < s)
+                index++;
+            double span = table[index + 1] - table[index];
+            double blend = span > 0 ? (s - table[index]) / span : 0;
+            int spline = Math.min(index / MEASURE_STEPS, count - 1);
+            double u = (index - spline * MEASURE_STEPS + blend) / MEASURE_STEPS;
+            QuinticSpline piece = splines.get(spline);
+            x[i] = piece.getX(u);
+            y[i] = piece.getY(u);
+            heading[i] = piece.getTangent(u);
+            curvature[i] = piece.getCurvature(u);
+        }
+
+        double[] velocity = new double[samples];
+        for (int i = 0; i < samples; i++)
+            velocity[i] = Math.min(maxVelocity, Math.sqrt(maxCentripetalAcceleration / Math.max(Math.abs(curvature[i]), 1e-9)));
+        velocity[0] = 0;
+        velocity[samples - 1] = 0;
+        for (int i = 1; i < samples; i++) // v^2 = v0^2 + 2as
+            velocity[i] = Math.min(velocity[i], Math.sqrt(velocity[i - 1] * velocity[i - 1] + 2 * maxAcceleration * step));
+        for (int i = samples - 2; i >= 0; i--)
+            velocity[i] = Math.min(velocity[i], Math.sqrt(velocity[i + 1] * velocity[i + 1] + 2 * maxAcceleration * step));
+
+        double[] acceleration = new double[samples], time = new double[samples];
+        for (int i = 0; i < samples - 1; i++) {
+            acceleration[i] = (velocity[i + 1] * velocity[i + 1] - velocity[i] * velocity[i]) / (2 * step);
+            time[i + 1] = time[i] + 2 * step / (velocity[i] + velocity[i + 1]);
+        }
+        return new Trajectory(step, x, y, heading, curvature, velocity, acceleration, time);
+    }
+}
@@ -0,0 +1,227 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.EaseCommands.Colors;
+
+import java.util.Map;
+
+/**
+ * Decides which named color an RGB reading is closest to with one array lookup instead of a search through every color
+ * <p>
+ * RGB is cut into 32x32x32 cubes of 8 values a side and the answer for each cube is worked out once, the first time
+ * it is needed. A cube where the closest color isn't the same all the way across is marked and falls back to checking
+ * every color, which only happens along the borders between colors. In {@link Space#RGB} that makes the answer exactly
+ * the same as the full search: the area closest to one color is convex, so if all 8 corners of a cube agree the inside does too.
+ * <p>
+ * The other spaces trade that exactness for not caring how bright the light is. They still use the corner check, which
+ * catches almost every border cube
+ */
+public class ColorClassifier {
+    private static final int BITS = 5, SIZE = 1 << BITS, SHIFT = 8 - BITS;
+    private static final byte MIXED = -1;
+
+    /**
+     * What two colors get compared in
+     */
+    public enum Space {
+        /**
+         * Plain distance between the RGB values, same as {@link EaseCommands#findClosestColor(int, int, int)}
+         */
+        RGB,
+        /**
+         * Distance between each channel's share of the total, so a dim red and a bright red are the same.
+         * Black, white and grays all look the same here, use a palette with only one of them
+         */
+        CHROMATICITY,
+        /**
+         * Distance mostly in hue and saturation with brightness counting a quarter as much
+         */
+        HSV
+    }
+
+    /**
+     * The classifier for {@link EaseCommands#basicColors} in RGB
+     */
+    public static final ColorClassifier BASIC = new ColorClassifier(EaseCommands.basicColors, Space.RGB);
+
+    private final Colors[] colors;
+    private final double[][] features;
+    private final Space space;
+    private volatile byte[] table;
+
+    /**
+     * Creates a classifier for a palette, like the measured colors of the game pieces under the robot's own light
+     *
+     * @param palette Colors and their RGB values [0-255], later changes to the map aren't seen
+     * @param space   The {@link Space} to compare in
+     */
+    public ColorClassifier(Map<Colors, int[]> palette, Space space) {
+        if (palette == null || palette.isEmpty() || space == null)
+            throw new IllegalArgumentException("Palette and space cannot be null or empty");
+        this.space = space;
+        colors = new Colors[palette.size()];
+        features = new double[palette.size()][];
+        int i = 0;
+        for (Colors color : Colors.values()) { // enum order, so ties always go the same way
+            int[] rgb = palette.get(color);
+            if (rgb == null)
+                continue;
+            if (rgb.length != 3)
+                throw new IllegalArgumentException(color + " needs exactly 3 values");
+            check(rgb[0], rgb[1], rgb[2]);
+            colors[i] = color;
+            features[i++] = feature(rgb[0], rgb[1], rgb[2], new double[3]);
+        }
+    }
+
+    private static void check(int r, int g, int b) {
+        if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255)
+            throw new IllegalArgumentException("RGB values must be between 0 and 255.");
+    }
+
+    private double[] feature(int r, int g, int b, double[] out) {
+        switch (space) {
+            case CHROMATICITY: {
+                int sum = r + g + b;
+                if (sum == 0) {
+                    out[0] = out[1] = out[2] = 1.0 / 3;
+                } else {
+                    out[0] = (double) r / sum;
+                    out[1] = (double) g / sum;
+                    out[2] = (double) b / sum;
+                }
+                return out;
+            }
+            case HSV: {
+                int max = Math.max(r, Math.max(g, b)), min = Math.min(r, Math.min(g, b));
+                double value = max / 255.0, saturation = max == 0 ? 0 : (max - min) / (double) max, hue;
+                if (max == min)
+                    hue = 0;
+                else if (max == r)
+                    hue = (g - b) / (double) (max - min);
+                else if (max == g)
+                    hue = 2 + (b - r) / (double) (max - min);
+                else
+                    hue = 4 + (r - g) / (double) (max - min);
+                hue *= Math.PI / 3;
+                out[0] = saturation * Math.cos(hue); // hue as an angle so red at 0 and 360 are next to each other
+                out[1] = saturation * Math.sin(hue);
+                out[2] = 0.25 * value;
+                return out;
+            }
+            default:
+                out[0] = r;
+                out[1] = g;
+                out[2] = b;
+                return out;
+        }
+    }
+
+    /**
+     * Checks every color, this is what the table is built from and what mixed cubes fall back on
+     *
+     * @param r Red component (0-255)
+     * @param g Green component (0-255)
+     * @param b Blue component (0-255)
+     * @return The closest color, the first one in enum order on a tie
+     */
+    public Colors classifyExact(int r, int g, int b) {
+        check(r, g, b);
+        return colors[nearest(r, g, b, new double[3])];
+    }
+
+    private int nearest(int r, int g, int b, double[] scratch) {
+        double[] f = feature(r, g, b, scratch);
+        double best = Double.MAX_VALUE;
+        int closest = 0;
+        for (int i = 0; i < features.length; i++) {
+            double dr = f[0] - features[i][0], dg = f[1] - features[i][1], db = f[2] - features[i][2];
+            double distance = dr * dr + dg * dg + db * db; // squared is enough to compare, no sqrt
+            if (distance < best) {
+                best = distance;
+                closest = i;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Returns the closest color
+     *
+     * @param r Red component (0-255)
+     * @param g Green component (0-255)
+     * @param b Blue component (0-255)
+     * @return The closest color, same tie breaking as {@link #classifyExact(int, int, int)}
+     */
+    public Colors classify(int r, int g, int b) {
+        check(r, g, b);
+        byte index = table()[((r >> SHIFT) << (2 * BITS)) | ((g >> SHIFT) << BITS) | (b >> SHIFT)];
+        return index == MIXED ? colors[nearest(r, g, b, new double[3])] : colors[index];
+    }
+
+    /**
+     * Builds the table now instead of on the first {@link #classify(int, int, int)}, it takes tens of milliseconds so
+     * do it during init rather than in the middle of a loop
+     *
+     * @return This classifier
+     */
+    public ColorClassifier prepare() {
+        table();
+        return this;
+    }
+
+    private byte[] table() {
+        byte[] result = table;
+        if (result == null) {
+            synchronized (this) {
+                if (table == null)
+                    table = build();
+                result = table;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Works out the color at both edges of every cube along each axis, then marks a cube mixed unless all 8 corners agree
+     */
+    private byte[] build() {
+        if (colors.length > Byte.MAX_VALUE)
+            throw new IllegalStateException("Too many colors for the table");
+        int edges = 2 * SIZE; // the low and high value of each cube, 0, 7, 8, 15, ... 255
+        byte[] corners = new byte[edges * edges * edges];
+        double[] scratch = new double[3];
+        for (int r = 0; r < edges; r++)
+            for (int g = 0; g < edges; g++)
+                for (int b = 0; b < edges; b++)
+                    corners[(r * edges + g) * edges + b] = (byte) nearest(edge(r), edge(g), edge(b), scratch);
+
+        byte[] result = new byte[SIZE * SIZE * SIZE];
+        for (int r = 0; r < SIZE; r++) {
+            for (int g = 0; g < SIZE; g++) {
+                for (int b = 0; b < SIZE; b++) {
+                    byte first = corners[((2 * r) * edges + 2 * g) * edges + 2 * b];
+                    boolean same = true;
+                    for (int corner = 1; corner < 8 && same; corner++) {
+                        int cr = 2 * r + (corner >> 2), cg = 2 * g + ((corner >> 1) & 1), cb = 2 * b + (corner & 1);
+                        same = corners[(cr * edges + cg) * edges + cb] == first;
+                    }
+                    result[(r << (2 * BITS)) | (g << BITS) | b] = same ? first : MIXED;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int edge(int index) {
+        return (index >> 1) * (256 / SIZE) + (index & 1) * (256 / SIZE - 1);
+    }
+
+    /**
+     * Returns the space colors are compared in
+     *
+     * @return The {@link Space}
+     */
+    public Space getSpace() {
+        return space;
+    }
+}
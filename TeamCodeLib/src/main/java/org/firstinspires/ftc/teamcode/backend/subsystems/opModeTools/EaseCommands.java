@@ -6,7 +6,6 @@ import org.firstinspires.ftc.teamcode.backend.subsystems.Constants;
 
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -135,34 +134,15 @@ public class EaseCommands {
 
     /**
      * Method to calculate the similarity of an RGBA color to basic colors.
+     * Goes through the lookup table in {@link ColorClassifier#BASIC}, ties between two colors go to the one listed first in {@link Colors}
      *
      * @param r Red component (0-255)
      * @param g Green component (0-255)
      * @param b Blue component (0-255)
      * @return The name of the closest basic color
      */
-    public static Colors findClosestColor( int r, int g, int b) {
-        if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
-            throw new IllegalArgumentException("RGB values must be between 0 and 255.");
-        }
-        double minDistance = Double.MAX_VALUE;
-        Colors closestColor = null;
-
-        for (Map.Entry<Colors, int[]> entry : basicColors.entrySet()) {
-            int[] color = entry.getValue();
-            double distance = Math.sqrt( // euclidean distance
-                    Math.pow(r - color[0], 2) +
-                            Math.pow(g - color[1], 2) +
-                            Math.pow(b - color[2], 2)
-            );
-
-            if (distance < minDistance) {
-                minDistance = distance;
-                closestColor = entry.getKey();
-            }
-        }
-
-        return closestColor;
+    public static Colors findClosestColor(int r, int g, int b) {
+        return ColorClassifier.BASIC.classify(r, g, b);
     }
 
     /**
@@ -178,7 +158,8 @@ public class EaseCommands {
         if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
             throw new IllegalArgumentException("RGB values must be between 0 and 255.");
         }
-        return Math.sqrt(Math.pow(r - targetRGB[0], 2) + Math.pow(g - targetRGB[1], 2) + Math.pow(b - targetRGB[2], 2));
+        int dr = r - targetRGB[0], dg = g - targetRGB[1], db = b - targetRGB[2];
+        return Math.sqrt(dr * dr + dg * dg + db * db);
     }
 
     /**
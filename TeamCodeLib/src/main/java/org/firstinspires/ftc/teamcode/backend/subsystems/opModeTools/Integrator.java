@@ -1,11 +1,17 @@
 package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
 
+import java.util.concurrent.locks.StampedLock;
+
 public class Integrator {
 
     private double velocityX, velocityY;
     private double positionX, positionY;
     private double lastAccelerationX, lastAccelerationY;
     private double lastHeading;
+    // x and y as of the last update, the stamp lets readers on other threads grab a matching pair without waiting on update
+    // and without a new array every update
+    private final StampedLock publish = new StampedLock();
+    private double publishedX, publishedY;
     private double alpha = 0.8; // smoothing factor for low-pass filter (0 < alpha < 1)
     // lower value is more aggressive smoothing, so if i say anywhere "more filtering" i really mean lower alpha value
     // more noise needs more filtering
@@ -66,6 +72,10 @@ public class Integrator {
         lastAccelerationX = accelerationX;
         lastAccelerationY = accelerationY;
         lastHeading = heading;
+        long stamp = publish.writeLock();
+        publishedX = positionX * 39.3701;
+        publishedY = positionY * 39.3701;
+        publish.unlockWrite(stamp);
     }
 
     private double applyLowPassFilter(double current, double previous) {
@@ -89,4 +99,40 @@ public class Integrator {
     public synchronized double getPositionY() {
         return positionY * 39.3701;
     }
+
+    /**
+     * Returns the x and y position from the same update, safe to call from another thread without waiting on the integrator
+     * Makes a new array every call, use {@link #getPosition(double[])} in a loop
+     *
+     * @return New array of x then y in inches
+     */
+    public double[] getPosition() {
+        return getPosition(new double[2]);
+    }
+
+    /**
+     * Puts the x and y position from the same update into an array, safe to call from another thread without waiting on the integrator
+     *
+     * @param position Array of at least 2 to put x then y in inches into
+     * @return The same array
+     */
+    public double[] getPosition(double[] position) {
+        if (position == null || position.length < 2)
+            throw new IllegalArgumentException("Position array needs room for x and y");
+        long stamp = publish.tryOptimisticRead();
+        double x = publishedX, y = publishedY;
+        if (!publish.validate(stamp)) {
+            // an update landed in the middle of the read, wait the few nanoseconds it takes to finish
+            stamp = publish.readLock();
+            try {
+                x = publishedX;
+                y = publishedY;
+            } finally {
+                publish.unlockRead(stamp);
+            }
+        }
+        position[0] = x;
+        position[1] = y;
+        return position;
+    }
 }
@@ -0,0 +1,207 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.Encoder;
+import org.firstinspires.ftc.teamcode.backend.libraries.hardware.HeadingSensor;
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.backend.subsystems.Constants;
+
+/**
+ * Keeps track of where the robot is on the field using the drivetrain encoders for distance and the IMU for heading
+ * <p>
+ * Call {@link #update()} once every loop, the wheel movement since the last call is turned into robot movement with
+ * {@link MecanumKinematics} and added onto the pose along an arc, so turning while driving doesn't throw it off like
+ * straight line steps would. Positions are in inches, x is forward and y is left from where the robot started,
+ * heading is counter clockwise in radians
+ * <p>
+ * The estimator can also be made without hardware and fed recorded encoder and heading values through
+ * {@link #update(int, int, int, int, double)}, which is how logs get replayed off the robot
+ */
+public class PoseEstimator {
+    private final Encoder frontLeft, frontRight, backLeft, backRight;
+    private final HeadingSensor heading;
+    private final MecanumKinematics kinematics;
+    private final double ticksPerInch;
+
+    private final int[] lastTicks = new int[4];
+    private final double[] wheels = new double[4], chassis = new double[3];
+    private double lastHeading, x, y, theta;
+    private boolean started = false;
+
+    /**
+     * Creates a pose estimator for the team's drivetrain, TeamCode's {@code Mecanum.newPoseEstimator} sorts the motors out for you
+     *
+     * @param frontLeft  Front left encoder
+     * @param frontRight Front right encoder
+     * @param backLeft   Back left encoder
+     * @param backRight  Back right encoder
+     * @param heading    Where the heading comes from, usually one of the IMU wrappers
+     */
+    public PoseEstimator(Encoder frontLeft, Encoder frontRight, Encoder backLeft, Encoder backRight, HeadingSensor heading) {
+        this(frontLeft, frontRight, backLeft, backRight, heading, Constants.conversion_factor_dt, new MecanumKinematics());
+    }
+
+    /**
+     * Creates a pose estimator with a custom drivetrain
+     *
+     * @param frontLeft    Front left encoder
+     * @param frontRight   Front right encoder
+     * @param backLeft     Back left encoder
+     * @param backRight    Back right encoder
+     * @param heading      Where the heading comes from
+     * @param ticksPerInch Encoder ticks per inch of wheel travel
+     * @param kinematics   The {@link MecanumKinematics} of the drivetrain, its strafe multiplier is used to correct for roller slip
+     */
+    public PoseEstimator(Encoder frontLeft, Encoder frontRight, Encoder backLeft, Encoder backRight, HeadingSensor heading,
+                         double ticksPerInch, MecanumKinematics kinematics) {
+        if (frontLeft == null || frontRight == null || backLeft == null || backRight == null)
+            throw new IllegalArgumentException("Pose estimation needs all 4 drivetrain encoders");
+        if (heading == null)
+            throw new IllegalArgumentException("Heading source cannot be null");
+        if (ticksPerInch <= 0)
+            throw new IllegalArgumentException("Ticks per inch must be positive");
+        if (kinematics == null)
+            throw new IllegalArgumentException("Kinematics cannot be null");
+        this.frontLeft = frontLeft;
+        this.frontRight = frontRight;
+        this.backLeft = backLeft;
+        this.backRight = backRight;
+        this.heading = heading;
+        this.ticksPerInch = ticksPerInch;
+        this.kinematics = kinematics;
+    }
+
+    /**
+     * Creates a pose estimator with no hardware attached, only {@link #update(int, int, int, int, double)} can be used
+     *
+     * @param ticksPerInch Encoder ticks per inch of wheel travel
+     * @param kinematics   The {@link MecanumKinematics} of the drivetrain
+     */
+    public PoseEstimator(double ticksPerInch, MecanumKinematics kinematics) {
+        if (ticksPerInch <= 0)
+            throw new IllegalArgumentException("Ticks per inch must be positive");
+        if (kinematics == null)
+            throw new IllegalArgumentException("Kinematics cannot be null");
+        this.frontLeft = this.frontRight = this.backLeft = this.backRight = null;
+        this.heading = null;
+        this.ticksPerInch = ticksPerInch;
+        this.kinematics = kinematics;
+    }
+
+    /**
+     * Reads the encoders and heading and moves the pose forward, call this every loop after the bulk cache is cleared
+     */
+    public void update() {
+        if (heading == null)
+            throw new IllegalStateException("This PoseEstimator has no hardware, use update(fl, fr, bl, br, heading)");
+        // raw positions, the relative ones jump whenever a drive method calls stopAndReset
+        update(frontLeft.getRawPosition(), frontRight.getRawPosition(), backLeft.getRawPosition(), backRight.getRawPosition(), heading.getHeadingRadians());
+    }
+
+    /**
+     * Moves the pose forward using the given encoder positions and heading
+     *
+     * @param frontLeftTicks  Front left encoder position
+     * @param frontRightTicks Front right encoder position
+     * @param backLeftTicks   Back left encoder position
+     * @param backRightTicks  Back right encoder position
+     * @param headingRadians  Heading in radians, counter clockwise and continuous
+     */
+    public void update(int frontLeftTicks, int frontRightTicks, int backLeftTicks, int backRightTicks, double headingRadians) {
+        if (!started) { // first reading just sets where we measure from
+            started = true;
+            setLast(frontLeftTicks, frontRightTicks, backLeftTicks, backRightTicks, headingRadians);
+            return;
+        }
+
+        wheels[MecanumKinematics.FRONT_LEFT] = (frontLeftTicks - lastTicks[MecanumKinematics.FRONT_LEFT]) / ticksPerInch;
+        wheels[MecanumKinematics.FRONT_RIGHT] = (frontRightTicks - lastTicks[MecanumKinematics.FRONT_RIGHT]) / ticksPerInch;
+        wheels[MecanumKinematics.BACK_LEFT] = (backLeftTicks - lastTicks[MecanumKinematics.BACK_LEFT]) / ticksPerInch;
+        wheels[MecanumKinematics.BACK_RIGHT] = (backRightTicks - lastTicks[MecanumKinematics.BACK_RIGHT]) / ticksPerInch;
+        kinematics.toChassisSpeeds(wheels, chassis);
+
+        double dTheta = headingRadians - lastHeading; // the imu is way better at heading than the wheels are
+        setLast(frontLeftTicks, frontRightTicks, backLeftTicks, backRightTicks, headingRadians);
+        integrate(chassis[0], chassis[1], dTheta);
+    }
+
+    /**
+     * Adds a robot relative movement onto the pose, assuming the robot drove along an arc at a constant speed
+     *
+     * @param dx     Forward movement in inches
+     * @param dy     Left movement in inches
+     * @param dTheta Change in heading in radians
+     */
+    private void integrate(double dx, double dy, double dTheta) {
+        double sinTerm, cosTerm;
+        if (Math.abs(dTheta) < 1e-6) { // taylor series so we dont divide by zero driving straight
+            sinTerm = 1 - dTheta * dTheta / 6;
+            cosTerm = dTheta / 2;
+        } else {
+            sinTerm = Math.sin(dTheta) / dTheta;
+            cosTerm = (1 - Math.cos(dTheta)) / dTheta;
+        }
+        double forward = dx * sinTerm - dy * cosTerm;
+        double left = dx * cosTerm + dy * sinTerm;
+
+        double cos = Math.cos(theta), sin = Math.sin(theta);
+        x += forward * cos - left * sin;
+        y += forward * sin + left * cos;
+        theta += dTheta;
+    }
+
+    private void setLast(int frontLeftTicks, int frontRightTicks, int backLeftTicks, int backRightTicks, double headingRadians) {
+        lastTicks[MecanumKinematics.FRONT_LEFT] = frontLeftTicks;
+        lastTicks[MecanumKinematics.FRONT_RIGHT] = frontRightTicks;
+        lastTicks[MecanumKinematics.BACK_LEFT] = backLeftTicks;
+        lastTicks[MecanumKinematics.BACK_RIGHT] = backRightTicks;
+        lastHeading = headingRadians;
+    }
+
+    /**
+     * Call after the drive encoders were reset, the next update measures from wherever they are then and the pose stays
+     * where it is. Update right before the reset so the movement up to it isn't lost
+     */
+    public void restartEncoders() {
+        started = false;
+    }
+
+    /**
+     * Moves the estimate to a known pose, like the starting spot of an autonomous
+     *
+     * @param x              Inches forward
+     * @param y              Inches left
+     * @param headingRadians Heading in radians
+     */
+    public void setPose(double x, double y, double headingRadians) {
+        this.x = x;
+        this.y = y;
+        this.theta = headingRadians;
+    }
+
+    /**
+     * Returns how far forward of the start the robot is
+     *
+     * @return X position in inches
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns how far left of the start the robot is
+     *
+     * @return Y position in inches
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Returns the heading of the robot, counter clockwise from the start
+     *
+     * @return Heading in radians
+     */
+    public double getHeading() {
+        return theta;
+    }
+}
@@ -0,0 +1,298 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+
+import java.util.ArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Keeps the motors from pulling more current than the battery can give before the hubs brown out
+ * <p>
+ * Every motor added gets a priority and a {@link Share}, which is a number from 0 to 1 its power gets multiplied by
+ * right before going to the hub. Each {@link #update()} adds up what the motors would draw at full power, and if that is
+ * over the budget the highest priority motors get all they want first and whatever is left gets split between the rest,
+ * so a lift holding a game piece keeps its grip while the drivetrain accelerates a little slower. Shares slide towards
+ * their new value at a limited rate so nothing jerks when the limit kicks in or lets go
+ * <p>
+ * Motor current is not part of the bulk read, every reading is its own trip to the hub. To keep that off the loop time
+ * only one motor is read per {@link #setSamplePeriod(double) sample period}, going around the motors in turn, and in
+ * between the last reading of each one is used
+ */
+public class PowerBudget {
+    // below this share a motor draws so little that its reading says nothing about what it would draw at full power
+    private static final double TRUSTED_SCALE = 0.25;
+
+    /**
+     * One motor's part of the budget
+     */
+    public static final class Share {
+        private final DoubleSupplier amps;
+        private final Runnable onChange;
+        private final int priority;
+        private double current = 0, demand = 0, target = 1;
+        private boolean sampled = false;
+        private volatile double scale = 1;
+
+        private Share(DoubleSupplier amps, int priority, Runnable onChange) {
+            this.amps = amps;
+            this.priority = priority;
+            this.onChange = onChange;
+        }
+
+        /**
+         * Returns what the motor's power is multiplied by right now
+         *
+         * @return Scale from 0 to 1
+         */
+        public double getScale() {
+            return scale;
+        }
+
+        /**
+         * Returns the smoothed current the motor was last read at
+         *
+         * @return Amps
+         */
+        public double getAmps() {
+            return current;
+        }
+
+        /**
+         * Returns the current the motor would draw if it wasn't being limited, estimated from its reading and share
+         *
+         * @return Amps
+         */
+        public double getDemand() {
+            return demand;
+        }
+
+        /**
+         * Returns the priority it was added with
+         *
+         * @return Priority, higher gets served first
+         */
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    private final Clock clock;
+    private final ArrayList<Share> shares = new ArrayList<>(); // highest priority first
+    private double budget, dropRate = 4, recoverRate = 1, smoothing = 0.5;
+    private long samplePeriod = 20_000_000L, lastSample = 0, lastUpdate = 0;
+    private int nextSample = 0;
+    private long samples = 0;
+    private boolean limiting = false;
+
+    /**
+     * Creates a budget on the system clock
+     *
+     * @param amps Most total current the motors can pull, a little under where the robot browns out
+     */
+    public PowerBudget(double amps) {
+        this(amps, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a budget
+     *
+     * @param amps  Most total current the motors can pull
+     * @param clock The {@link Clock} used to time sampling and how fast shares change
+     */
+    public PowerBudget(double amps, Clock clock) {
+        if (clock == null)
+            throw new IllegalArgumentException("Clock cannot be null");
+        setBudget(amps);
+        this.clock = clock;
+    }
+
+    /**
+     * Adds a motor, {@code Motor.usePowerBudget} does this for you
+     *
+     * @param amps     Reads the motor's current in amps, only called from {@link #update()}
+     * @param priority Higher priorities get current first, equal priorities share what's left evenly
+     * @param onChange Called from {@link #update()} when the share changes so the motor can resend its power, can be null
+     * @return The motor's share
+     */
+    public Share add(DoubleSupplier amps, int priority, Runnable onChange) {
+        if (amps == null)
+            throw new IllegalArgumentException("Current source cannot be null");
+        Share share = new Share(amps, priority, onChange);
+        int i = 0;
+        while (i < shares.size() && shares.get(i).priority >= priority)
+            i++;
+        shares.add(i, share);
+        return share;
+    }
+
+    /**
+     * Stops limiting a motor
+     *
+     * @param share What {@link #add} returned
+     */
+    public void remove(Share share) {
+        if (shares.remove(share)) {
+            share.scale = 1;
+            nextSample = 0;
+            if (share.onChange != null)
+                share.onChange.run();
+        }
+    }
+
+    /**
+     * Reads a motor if it's time to and moves every share towards what the budget allows, call once per loop
+     */
+    public void update() {
+        long now = clock.nanoTime();
+        double dt = lastUpdate == 0 ? 0 : (now - lastUpdate) / 1e9;
+        lastUpdate = now;
+        if (shares.isEmpty())
+            return;
+
+        if (samples == 0 || now - lastSample >= samplePeriod) {
+            sample(shares.get(nextSample));
+            nextSample = (nextSample + 1) % shares.size();
+            lastSample = now;
+        }
+
+        // hand out the budget one priority at a time
+        double remaining = budget;
+        limiting = false;
+        int i = 0;
+        while (i < shares.size()) {
+            int end = i;
+            double demand = 0;
+            while (end < shares.size() && shares.get(end).priority == shares.get(i).priority)
+                demand += shares.get(end++).demand;
+            double target = demand <= remaining ? 1 : remaining / demand;
+            if (target < 1)
+                limiting = true;
+            remaining = Math.max(0, remaining - demand);
+            for (; i < end; i++)
+                shares.get(i).target = target;
+        }
+
+        for (int k = 0; k < shares.size(); k++) {
+            Share share = shares.get(k);
+            double step = Math.max(-dropRate * dt, Math.min(recoverRate * dt, share.target - share.scale));
+            if (step == 0)
+                continue;
+            share.scale += step;
+            if (share.onChange != null)
+                share.onChange.run();
+        }
+    }
+
+    private void sample(Share share) {
+        double amps;
+        try {
+            amps = Math.abs(share.amps.getAsDouble());
+        } catch (RuntimeException e) { // a missed reading, the old one stands
+            return;
+        }
+        share.current = share.sampled ? smoothing * share.current + (1 - smoothing) * amps : amps;
+        share.sampled = true;
+        if (share.scale >= TRUSTED_SCALE)
+            share.demand = share.current / share.scale;
+        else // cut back too far to tell, let the old guess fade so it can come back once the motor is let off
+            share.demand = Math.max(share.current / TRUSTED_SCALE, share.demand * 0.9);
+        samples++;
+    }
+
+    /**
+     * Sets the most total current the motors can pull
+     *
+     * @param amps Budget in amps
+     */
+    public void setBudget(double amps) {
+        if (!(amps > 0))
+            throw new IllegalArgumentException("Budget must be positive");
+        budget = amps;
+    }
+
+    /**
+     * Returns the most total current the motors can pull
+     *
+     * @return Budget in amps
+     */
+    public double getBudget() {
+        return budget;
+    }
+
+    /**
+     * Sets how often a motor's current is read, with n motors each one gets read every n periods
+     *
+     * @param seconds Time between readings
+     */
+    public void setSamplePeriod(double seconds) {
+        if (!(seconds >= 0))
+            throw new IllegalArgumentException("Sample period cannot be negative");
+        samplePeriod = Math.round(seconds * 1e9);
+    }
+
+    /**
+     * Sets how fast shares move, cutting back should be quicker than letting go or it will brown out before it catches up
+     *
+     * @param drop    Most a share can fall per second
+     * @param recover Most a share can rise per second
+     */
+    public void setRates(double drop, double recover) {
+        if (!(drop > 0) || !(recover > 0))
+            throw new IllegalArgumentException("Rates must be positive");
+        dropRate = drop;
+        recoverRate = recover;
+    }
+
+    /**
+     * Sets how much of the old reading is kept each time a motor is read
+     *
+     * @param smoothing 0 for none, closer to 1 is smoother
+     */
+    public void setSmoothing(double smoothing) {
+        if (smoothing < 0 || smoothing >= 1)
+            throw new IllegalArgumentException("Smoothing must be at least 0 and less than 1");
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Returns the current all the motors were last read at added together
+     *
+     * @return Amps
+     */
+    public double getTotalAmps() {
+        double total = 0;
+        for (int i = 0; i < shares.size(); i++)
+            total += shares.get(i).current;
+        return total;
+    }
+
+    /**
+     * Returns what all the motors would draw if none of them were limited
+     *
+     * @return Amps
+     */
+    public double getTotalDemand() {
+        double total = 0;
+        for (int i = 0; i < shares.size(); i++)
+            total += shares.get(i).demand;
+        return total;
+    }
+
+    /**
+     * Returns whether the last {@link #update()} had to cut any motor back
+     *
+     * @return True while over budget
+     */
+    public boolean isLimiting() {
+        return limiting;
+    }
+
+    /**
+     * Returns how many current readings have been taken
+     *
+     * @return Sample count
+     */
+    public long getSamples() {
+        return samples;
+    }
+}
@@ -0,0 +1,108 @@
+package org.firstinspires.ftc.teamcode.backend.libraries;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class ControlLoopTest {
+    private static final long MS = 1_000_000;
+
+    private final long[] now = {0};
+    private final ArrayList<Long> starts = new ArrayList<>();
+    private final Clock clock = () -> now[0];
+    private final ControlLoop.Sleeper sleeper = nanos -> now[0] += nanos; // sleeping just moves the fake clock
+    private long work = 5 * MS;
+
+    private ControlLoop newLoop() {
+        return new ControlLoop(0.02, 64, clock, sleeper).register(() -> {
+            starts.add(now[0]);
+            now[0] += work;
+        });
+    }
+
+    @Test
+    public void runsOnTheDeadlinesWithoutDrift() throws InterruptedException {
+        ControlLoop loop = newLoop();
+        for (int i = 0; i < 50; i++)
+            loop.runOnce();
+        for (int i = 0; i < 50; i++)
+            assertEquals(i * 20 * MS, (long) starts.get(i));
+        assertEquals(0, loop.getOverruns());
+        assertEquals(0, loop.getMissedDeadlines());
+        assertEquals(0, loop.getP99Jitter(), 0);
+        assertEquals(0.005, loop.getMeanDuration(), 1e-12);
+    }
+
+    @Test
+    public void lateStartsShowUpAsJitterAndDontShiftTheSchedule() throws InterruptedException {
+        ControlLoop loop = newLoop();
+        loop.runOnce();
+        now[0] += 18 * MS; // something else in the opmode loop took a while, 3 ms past the next deadline
+        loop.runOnce();
+        loop.runOnce();
+        assertEquals(20 * MS + 3 * MS, (long) starts.get(1));
+        assertEquals(40 * MS, (long) starts.get(2));
+        assertEquals(0.003, loop.getP99Jitter(), 1e-12);
+    }
+
+    @Test
+    public void cycleLongerThanThePeriodIsAnOverrun() throws InterruptedException {
+        ControlLoop loop = newLoop();
+        work = 25 * MS; // 5 ms late for the next deadline, but not a whole period
+        loop.runOnce();
+        work = 5 * MS;
+        loop.runOnce();
+        loop.runOnce();
+        assertEquals(1, loop.getOverruns());
+        assertEquals(0, loop.getMissedDeadlines());
+        assertEquals(25 * MS, (long) starts.get(1)); // ran as soon as it could
+        assertEquals(40 * MS, (long) starts.get(2)); // and back on the original schedule
+        assertEquals(0.005, loop.getP99Jitter(), 1e-12);
+    }
+
+    @Test
+    public void missingAWholePeriodRecordsTheRealDelayAndRestarts() throws InterruptedException {
+        ControlLoop loop = newLoop();
+        work = 57 * MS; // finishes 37 ms past the next deadline
+        loop.runOnce();
+        work = 5 * MS;
+        loop.runOnce();
+        loop.runOnce();
+        assertEquals(1, loop.getOverruns());
+        assertEquals(1, loop.getMissedDeadlines());
+        assertEquals(0.037, loop.getP99Jitter(), 1e-12); // the real delay, not 0
+        assertEquals(57 * MS, (long) starts.get(1));
+        assertEquals(77 * MS, (long) starts.get(2)); // counted from the late start, no burst of cycles
+        assertEquals(0, loop.getMinJitter(), 0);
+    }
+
+    @Test
+    public void resetStartsOver() throws InterruptedException {
+        ControlLoop loop = newLoop();
+        work = 57 * MS;
+        loop.runOnce();
+        loop.runOnce();
+        loop.reset();
+        assertEquals(0, loop.getCycles());
+        assertEquals(0, loop.getOverruns());
+        assertEquals(0, loop.getMissedDeadlines());
+        assertEquals(0, loop.getSampleCount());
+        assertEquals(0, loop.getP99Duration(), 0);
+    }
+
+    @Test
+    public void statsOnlyCoverTheLastSamples() throws InterruptedException {
+        ControlLoop loop = newLoop();
+        work = 15 * MS;
+        for (int i = 0; i < 64; i++)
+            loop.runOnce();
+        work = 1 * MS;
+        for (int i = 0; i < 64; i++)
+            loop.runOnce();
+        assertEquals(64, loop.getSampleCount());
+        assertEquals(128, loop.getCycles());
+        assertEquals(0.001, loop.getP99Duration(), 1e-12);
+    }
+}
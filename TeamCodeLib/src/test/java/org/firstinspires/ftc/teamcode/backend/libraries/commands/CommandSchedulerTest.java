@@ -0,0 +1,263 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.commands;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CommandSchedulerTest {
+    private static final long LOOP = 10_000_000; // 10 ms loops
+
+    private final long[] now = {0};
+    private final Clock clock = () -> now[0];
+    private final CommandScheduler scheduler = new CommandScheduler();
+
+    /**
+     * Counts what the scheduler did to it, and can run something from inside execute
+     */
+    private static class Probe implements Command {
+        int initialized, executed, finished, interrupted;
+        boolean done;
+        Runnable onExecute;
+        Object[] requirements = NO_REQUIREMENTS;
+
+        Probe requiring(Object... subsystems) {
+            requirements = subsystems;
+            return this;
+        }
+
+        @Override
+        public void initialize() {
+            initialized++;
+        }
+
+        @Override
+        public void execute() {
+            executed++;
+            if (onExecute != null)
+                onExecute.run();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return done;
+        }
+
+        @Override
+        public void end(boolean wasInterrupted) {
+            if (wasInterrupted)
+                interrupted++;
+            else
+                finished++;
+        }
+
+        @Override
+        public Object[] getRequirements() {
+            return requirements;
+        }
+    }
+
+    /**
+     * Runs loops until the scheduler is idle, returns how long that took in seconds
+     */
+    private double runUntilIdle() {
+        long start = now[0];
+        for (int i = 0; i < 100_000 && !scheduler.isIdle(); i++) {
+            scheduler.run();
+            now[0] += LOOP;
+        }
+        assertTrue("Never went idle", scheduler.isIdle());
+        return (now[0] - start) / 1e9;
+    }
+
+    @Test
+    public void waitCommandTakesItsTime() {
+        scheduler.schedule(new WaitCommand(0.5, clock));
+        assertEquals(0.5, runUntilIdle(), LOOP / 1e9 * 1.5);
+    }
+
+    @Test
+    public void sequentialGroupAddsUpItsCommands() {
+        scheduler.schedule(new WaitCommand(0.5, clock).andThen(new WaitCommand(0.25, clock), new WaitCommand(0.25, clock)));
+        // each wait can end up to one loop late, and the next one starts in the loop the last one ends
+        double time = runUntilIdle();
+        assertTrue(time + " s", time >= 1 - 1e-9 && time <= 1 + 3 * LOOP / 1e9 + 1e-9);
+    }
+
+    @Test
+    public void parallelGroupWaitsForTheSlowest() {
+        scheduler.schedule(new WaitCommand(0.3, clock).alongWith(new WaitCommand(0.7, clock), new WaitCommand(0.1, clock)));
+        assertEquals(0.7, runUntilIdle(), LOOP / 1e9 * 1.5);
+    }
+
+    @Test
+    public void raceGroupStopsWithTheFastestAndInterruptsTheRest() {
+        Probe slow = new Probe();
+        scheduler.schedule(slow.raceWith(new WaitCommand(0.4, clock)));
+        assertEquals(0.4, runUntilIdle(), LOOP / 1e9 * 1.5);
+        assertEquals(1, slow.interrupted);
+        assertEquals(0, slow.finished);
+    }
+
+    @Test
+    public void timeoutDoesntCutAFastCommandShort() {
+        Probe fast = new Probe();
+        fast.onExecute = () -> fast.done = fast.executed >= 3;
+        scheduler.schedule(fast.withTimeout(5));
+        assertEquals(0.03, runUntilIdle(), 1e-9);
+        assertEquals(1, fast.finished);
+        assertEquals(0, fast.interrupted);
+    }
+
+    @Test
+    public void cancellingALaterCommandFromInsideRun() {
+        Probe first = new Probe(), second = new Probe(), third = new Probe();
+        first.onExecute = () -> scheduler.cancel(second);
+        scheduler.schedule(first, second, third);
+        scheduler.run();
+
+        assertEquals(0, second.executed);
+        assertEquals(1, second.interrupted);
+        assertEquals(1, third.executed);
+        assertFalse(scheduler.isScheduled(second));
+        assertTrue(scheduler.isScheduled(first));
+        assertTrue(scheduler.isScheduled(third));
+
+        scheduler.run();
+        assertEquals(2, first.executed);
+        assertEquals(2, third.executed);
+        assertEquals(1, second.interrupted);
+    }
+
+    @Test
+    public void cancellingAnEarlierCommandFromInsideRun() {
+        Probe first = new Probe(), second = new Probe(), third = new Probe();
+        third.onExecute = () -> scheduler.cancel(first);
+        scheduler.schedule(first, second, third);
+        scheduler.run();
+
+        assertEquals(1, first.executed);
+        assertEquals(1, first.interrupted);
+        assertEquals(0, first.finished);
+        assertEquals(1, second.executed);
+        assertFalse(scheduler.isScheduled(first));
+
+        scheduler.run();
+        assertEquals(1, first.executed);
+        assertEquals(2, second.executed);
+        assertEquals(2, third.executed);
+    }
+
+    @Test
+    public void cancellingAFinishedCommandFromInsideRunDoesNothing() {
+        Probe first = new Probe(), second = new Probe();
+        first.done = true;
+        second.onExecute = () -> scheduler.cancel(first);
+        scheduler.schedule(first, second);
+        scheduler.run();
+        assertEquals(1, first.finished);
+        assertEquals(0, first.interrupted);
+    }
+
+    @Test
+    public void commandCancellingItselfIsInterruptedOnce() {
+        Probe probe = new Probe();
+        probe.done = true;
+        probe.onExecute = () -> scheduler.cancel(probe);
+        scheduler.schedule(probe);
+        scheduler.run();
+        assertEquals(1, probe.interrupted);
+        assertEquals(0, probe.finished);
+        assertTrue(scheduler.isIdle());
+    }
+
+    @Test
+    public void cancelAllFromInsideRun() {
+        Probe first = new Probe(), second = new Probe(), third = new Probe(), scheduled = new Probe();
+        first.done = true;
+        second.onExecute = () -> {
+            scheduler.schedule(scheduled);
+            scheduler.cancelAll();
+        };
+        scheduler.schedule(first, second, third);
+        scheduler.run();
+
+        assertEquals(1, first.finished);
+        assertEquals(0, first.interrupted);
+        assertEquals(1, second.interrupted);
+        assertEquals(1, third.interrupted);
+        assertEquals(0, third.executed);
+        assertEquals(0, scheduled.initialized);
+        assertTrue(scheduler.isIdle());
+    }
+
+    @Test
+    public void cancelAndRescheduleFromInsideRunRestartsTheCommand() {
+        Probe first = new Probe(), second = new Probe();
+        second.onExecute = () -> {
+            scheduler.cancel(first);
+            scheduler.schedule(first);
+        };
+        scheduler.schedule(first, second);
+        scheduler.run();
+        assertEquals(1, first.interrupted);
+        assertEquals(2, first.initialized);
+        assertTrue(scheduler.isScheduled(first));
+    }
+
+    @Test
+    public void schedulingOnABusySubsystemCancelsTheOldCommand() {
+        Object lift = new Object(), elbow = new Object();
+        Probe up = new Probe().requiring(lift), out = new Probe().requiring(elbow), down = new Probe().requiring(lift);
+        scheduler.schedule(up, out);
+        scheduler.run();
+        scheduler.schedule(down);
+
+        assertEquals(1, up.interrupted);
+        assertFalse(scheduler.isScheduled(up));
+        assertTrue(scheduler.isScheduled(out));
+        assertTrue(scheduler.isScheduled(down));
+    }
+
+    @Test
+    public void commandsWithoutRequirementsNeverConflict() {
+        Probe first = new Probe(), second = new Probe();
+        scheduler.schedule(first, second);
+        scheduler.run();
+        assertTrue(scheduler.isScheduled(first));
+        assertTrue(scheduler.isScheduled(second));
+    }
+
+    @Test
+    public void groupsRequireWhatTheirCommandsRequire() {
+        Object lift = new Object(), elbow = new Object();
+        Command group = new Probe().requiring(lift).andThen(new Probe().requiring(elbow, lift), new WaitCommand(1, clock));
+        assertArrayEquals(new Object[]{lift, elbow}, group.getRequirements());
+
+        Probe running = new Probe().requiring(elbow);
+        scheduler.schedule(running);
+        scheduler.schedule(group);
+        assertEquals(1, running.interrupted);
+    }
+
+    @Test
+    public void conflictScheduledFromInsideRunWaitsForTheLoop() {
+        Object lift = new Object();
+        Probe holding = new Probe().requiring(lift), after = new Probe(), replacement = new Probe().requiring(lift);
+        Probe trigger = new Probe();
+        trigger.onExecute = () -> scheduler.schedule(replacement);
+        scheduler.schedule(trigger, holding, after);
+        scheduler.run();
+
+        assertEquals(0, holding.executed);
+        assertEquals(1, holding.interrupted);
+        assertEquals(1, after.executed);
+        assertEquals(1, replacement.initialized);
+        assertEquals(0, replacement.executed);
+        scheduler.run();
+        assertEquals(1, replacement.executed);
+    }
+}
@@ -0,0 +1,105 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.controllers;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PIDFControllerTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private final long[] now = {0};
+    private final Clock clock = () -> now[0];
+
+    /**
+     * Holds a big error for a while so the integral runs into its limit, then returns the last output
+     */
+    private double windUp(PIDFController controller) {
+        double output = 0;
+        for (int i = 0; i < 100; i++) {
+            output = controller.calculate(0, 0, 1000);
+            now[0] += SECOND / 10;
+        }
+        return output;
+    }
+
+    @Test
+    public void integralStopsAtTheLimit() {
+        assertEquals(0.25, windUp(new PIDFController(0, 1, 0, clock)), 1e-9);
+        assertEquals(0.1, windUp(new PIDFController(0, 0.01, 0, clock).setIntegralLimit(0.1)), 1e-9);
+    }
+
+    @Test
+    public void integralComesBackRightAwayAfterItIsClamped() {
+        PIDFController controller = new PIDFController(0, 1, 0, clock);
+        windUp(controller);
+        // the integral was held at the limit, so 0.1 s of opposite error takes 0.1 off right away instead of unwinding 10 s of error first
+        assertEquals(0.15, controller.calculate(0, 0, -1), 1e-9);
+    }
+
+    @Test
+    public void derivativeIsLowPassFiltered() {
+        PIDFController controller = new PIDFController(0, 0, 1, clock).setDerivativeFilter(0.7);
+        assertEquals(0.3, controller.calculate(0, -1, 0), 1e-9);
+        assertEquals(0.51, controller.calculate(0, -1, 0), 1e-9);
+        for (int i = 0; i < 100; i++)
+            controller.calculate(0, -1, 0);
+        assertEquals(1, controller.calculate(0, -1, 0), 1e-9);
+
+        controller.setDerivativeFilter(0).reset();
+        assertEquals(1, controller.calculate(0, -1, 0), 1e-9);
+    }
+
+    @Test
+    public void cosineGravityFollowsTheArmAngle() {
+        PIDFController controller = new PIDFController(0, 0, 0, clock).setArmGravity(0.2, 400, 100);
+        assertEquals(0.2, controller.calculate(100, 0, 100), 1e-9); // horizontal
+        assertEquals(0, controller.calculate(200, 0, 200), 1e-9); // straight up
+        assertEquals(-0.2, controller.calculate(300, 0, 300), 1e-9); // horizontal the other way
+        assertEquals(0.2 * Math.cos(Math.PI / 4), controller.calculate(150, 0, 150), 1e-9);
+
+        assertEquals(0.2, new PIDFController(0, 0, 0, clock).setGravity(0.2).calculate(300, 0, 300), 1e-9);
+    }
+
+    @Test
+    public void staticFrictionPushesTheWayTheTargetMoves() {
+        PIDFController controller = new PIDFController(0, 0, 0, clock).setFeedforward(0.1, 0, 0);
+        assertEquals(0.1, controller.calculate(0, 0, 0, 5, 0), 1e-9);
+        assertEquals(-0.1, controller.calculate(0, 0, 0, -5, 0), 1e-9);
+        assertEquals(0, controller.calculate(0, 0, 0, 0, 0), 1e-9);
+    }
+
+    @Test
+    public void voltsModeClipsToTheMaxVoltsAndScalesTheIntegralLimit() {
+        PIDFController controller = new PIDFController(1, 0, 0, clock).useVolts(12);
+        assertTrue(controller.isVolts());
+        assertEquals(12, controller.getMaxOutput(), 0);
+        assertEquals(12, controller.calculate(0, 0, 1000), 0);
+        assertEquals(-12, controller.calculate(0, 0, -1000), 0);
+
+        assertEquals(3, windUp(new PIDFController(0, 1, 0, clock).useVolts(12)), 1e-9);
+        // a limit that was set on purpose is already in the units the caller wanted
+        assertEquals(1, windUp(new PIDFController(0, 1, 0, clock).setIntegralLimit(1).useVolts(12)), 1e-9);
+        assertEquals(1, windUp(new PIDFController(0, 1, 0, clock).useVolts(12).setIntegralLimit(1)), 1e-9);
+    }
+
+    @Test
+    public void copyKeepsTheSettingsButNotTheHistory() {
+        PIDFController original = new PIDFController(0.01, 0, 1, clock).setFeedforward(0.1, 0.002, 0.0001)
+                .setArmGravity(0.2, 400, 100).setDerivativeFilter(0.5).useVolts(12);
+        for (int i = 0; i < 10; i++)
+            original.calculate(0, -50, 100);
+        PIDFController copy = original.copy();
+        original.reset();
+        assertTrue(copy.isVolts());
+        assertEquals(12, copy.getMaxOutput(), 0);
+        assertEquals(original.calculate(30, 4, 100, 200, 50), copy.calculate(30, 4, 100, 200, 50), 1e-12);
+
+        // the copy goes back to volts from power the same way the original would
+        assertEquals(3, windUp(new PIDFController(0, 1, 0, clock).copy().useVolts(12)), 1e-9);
+        assertEquals(1, windUp(new PIDFController(0, 1, 0, clock).setIntegralLimit(1).copy().useVolts(12)), 1e-9);
+        assertFalse(new PIDFController(0, 1, 0, clock).copy().isVolts());
+    }
+}
@@ -0,0 +1,69 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.geometry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AnglesTest {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void wrapDegreesPutsTheSeamAtPlus180() {
+        assertEquals(180, Angles.wrapDegrees(180), 0);
+        assertEquals(180, Angles.wrapDegrees(-180), 0);
+        assertEquals(180, Angles.wrapDegrees(540), 0);
+        assertEquals(180, Angles.wrapDegrees(-540), 0);
+        assertEquals(0, Angles.wrapDegrees(360), 0);
+    }
+
+    @Test
+    public void wrapDegreesJustPastTheSeam() {
+        assertEquals(-179, Angles.wrapDegrees(181), EPSILON);
+        assertEquals(179, Angles.wrapDegrees(-181), EPSILON);
+        assertEquals(-170, Angles.wrapDegrees(190 + 720), EPSILON);
+    }
+
+    @Test
+    public void wrapRadiansPutsTheSeamAtPlusPi() {
+        assertEquals(Math.PI, Angles.wrapRadians(Math.PI), 0);
+        assertEquals(Math.PI, Angles.wrapRadians(-Math.PI), 0);
+        assertEquals(Math.PI, Angles.wrapRadians(3 * Math.PI), EPSILON);
+        assertEquals(-Math.PI / 2, Angles.wrapRadians(3 * Math.PI / 2), EPSILON);
+    }
+
+    @Test
+    public void wrappedAnglesStayInRangeAndPointTheSameWay() {
+        for (double degrees = -1080; degrees <= 1080; degrees += 0.5) {
+            double wrapped = Angles.wrapDegrees(degrees);
+            assertTrue(degrees + " wrapped to " + wrapped, wrapped > -180 && wrapped <= 180);
+            double turns = (degrees - wrapped) / 360;
+            assertEquals(Math.rint(turns), turns, EPSILON);
+
+            double radians = Math.toRadians(degrees);
+            double wrappedRadians = Angles.wrapRadians(radians);
+            assertTrue(wrappedRadians > -Math.PI - EPSILON && wrappedRadians <= Math.PI);
+            assertEquals(Math.cos(radians), Math.cos(wrappedRadians), EPSILON);
+            assertEquals(Math.sin(radians), Math.sin(wrappedRadians), EPSILON);
+        }
+    }
+
+    @Test
+    public void normalizeDegreesGoesFrom0To359() {
+        assertEquals(0, Angles.normalizeDegrees(0));
+        assertEquals(0, Angles.normalizeDegrees(360));
+        assertEquals(359, Angles.normalizeDegrees(-1));
+        assertEquals(90, Angles.normalizeDegrees(-270));
+        assertEquals(10, Angles.normalizeDegrees(730));
+    }
+
+    @Test
+    public void closestTargetGoesTheShortWayAround() {
+        assertEquals(10, Angles.closestTargetDegrees(350, 10));
+        assertEquals(-10, Angles.closestTargetDegrees(10, 350));
+        assertEquals(90, Angles.closestTargetDegrees(0, 90));
+        assertEquals(-90, Angles.closestTargetDegrees(0, 270));
+        assertEquals(180, Angles.closestTargetDegrees(0, 180)); // a tie goes up
+        assertEquals(45, Angles.closestTargetDegrees(720 + 30, 45));
+    }
+}
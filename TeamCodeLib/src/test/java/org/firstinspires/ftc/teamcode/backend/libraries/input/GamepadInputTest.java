@@ -0,0 +1,122 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.input;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GamepadInputTest {
+    private static final long LOOP = 20_000_000; // 20 ms
+
+    private static void update(GamepadInput input, int loop, int buttons) {
+        input.update(loop * LOOP, buttons, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void edgesLastOneLoop() {
+        GamepadInput input = new GamepadInput();
+        int a = Button.A.mask();
+        update(input, 0, 0);
+        update(input, 1, a);
+        assertTrue(input.wasPressed(Button.A));
+        assertTrue(input.isDown(Button.A));
+        update(input, 2, a);
+        assertFalse(input.wasPressed(Button.A));
+        assertTrue(input.isDown(Button.A));
+        update(input, 3, 0);
+        assertTrue(input.wasReleased(Button.A));
+        update(input, 4, 0);
+        assertFalse(input.wasReleased(Button.A));
+    }
+
+    @Test
+    public void buttonHeldFromTheFirstSnapshotCountsAsPressed() {
+        GamepadInput input = new GamepadInput();
+        update(input, 0, Button.B.mask());
+        assertTrue(input.wasPressed(Button.B));
+    }
+
+    @Test
+    public void holdTimingFiresOnceWhenTheTimeIsReached() {
+        GamepadInput input = new GamepadInput();
+        int[] fired = {0};
+        input.onHold(Button.X, 0.1, () -> fired[0]++);
+        int x = Button.X.mask();
+        for (int loop = 0; loop <= 10; loop++) {
+            update(input, loop, x);
+            assertEquals(loop * 0.02, input.getHeldTime(Button.X), 1e-9);
+            assertEquals(loop >= 5, input.isHeldFor(Button.X, 0.1));
+            assertEquals(loop == 5, input.wasHeldFor(Button.X, 0.1));
+        }
+        assertEquals(1, fired[0]);
+        update(input, 11, 0);
+        assertEquals(0, input.getHeldTime(Button.X), 0);
+    }
+
+    @Test
+    public void bindingsFireOnTheirEdges() {
+        GamepadInput input = new GamepadInput();
+        int[] counts = new int[3];
+        input.onPress(Button.Y, () -> counts[0]++)
+                .onRelease(Button.Y, () -> counts[1]++)
+                .whileDown(Button.Y, () -> counts[2]++);
+        int y = Button.Y.mask();
+        int[] script = {0, y, y, y, 0, 0, y, 0};
+        for (int loop = 0; loop < script.length; loop++)
+            update(input, loop, script[loop]);
+        assertEquals(2, counts[0]);
+        assertEquals(2, counts[1]);
+        assertEquals(4, counts[2]);
+    }
+
+    @Test
+    public void curvesShapeAxesButRawStaysRaw() {
+        GamepadInput input = new GamepadInput().setCurve(Axis.LEFT_Y, new InputCurve().setDeadband(0.1));
+        input.update(0, 0, 0.3f, 0.05f, 0, 0, 0, 1);
+        assertEquals(0, input.get(Axis.LEFT_Y), 0);
+        assertEquals(0.05, input.getRaw(Axis.LEFT_Y), 1e-6);
+        assertEquals(0.3, input.get(Axis.LEFT_X), 1e-6);
+        assertEquals(1, input.get(Axis.RIGHT_TRIGGER), 0);
+    }
+
+    @Test
+    public void resetForgetsHeldButtons() {
+        GamepadInput input = new GamepadInput();
+        update(input, 0, Button.A.mask());
+        input.reset();
+        assertFalse(input.isDown(Button.A));
+        update(input, 1, 0);
+        assertFalse(input.wasReleased(Button.A));
+    }
+
+    @Test
+    public void recordedSnapshotsPlayBackTheSameBindings() throws IOException {
+        GamepadInput live = new GamepadInput();
+        int[] liveCount = {0};
+        live.onHold(Button.DPAD_UP, 0.05, () -> liveCount[0]++);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int loop = 0; loop < 50; loop++) {
+            live.update(loop * LOOP, loop % 10 < 6 ? Button.DPAD_UP.mask() : 0, loop / 50f, 0, 0, 0, 0, 0);
+            live.writeTo(out);
+        }
+        assertEquals(50 * GamepadInput.FRAME_BYTES, bytes.size());
+
+        GamepadInput replay = new GamepadInput();
+        int[] replayCount = {0};
+        replay.onHold(Button.DPAD_UP, 0.05, () -> replayCount[0]++);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int loop = 0; loop < 50; loop++)
+            replay.readFrom(in);
+        assertEquals(5, liveCount[0]);
+        assertEquals(liveCount[0], replayCount[0]);
+        assertEquals(live.getRaw(Axis.LEFT_X), replay.getRaw(Axis.LEFT_X), 0);
+    }
+}
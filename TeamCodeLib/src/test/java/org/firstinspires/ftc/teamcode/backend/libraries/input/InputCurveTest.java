@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.input;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class InputCurveTest {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void deadbandZeroesSmallInputsAndRescalesTheRest() {
+        InputCurve curve = new InputCurve().setDeadband(0.1);
+        assertEquals(0, curve.apply(0.05, 0), 0);
+        assertEquals(0, curve.apply(-0.1, 0), 0);
+        assertEquals(0.5, curve.apply(0.55, 0), EPSILON);
+        assertEquals(-1, curve.apply(-1, 0), EPSILON);
+    }
+
+    @Test
+    public void expoKeepsTheEndsAndSoftensTheMiddle() {
+        InputCurve curve = new InputCurve().setExpo(1);
+        assertEquals(1, curve.apply(1, 0), EPSILON);
+        assertEquals(0.125, curve.apply(0.5, 0), EPSILON);
+        assertEquals(-0.125, curve.apply(-0.5, 0), EPSILON);
+    }
+
+    @Test
+    public void scaleAndClamp() {
+        InputCurve curve = new InputCurve().setScale(0.75);
+        assertEquals(0.75, curve.apply(1.2, 0), EPSILON);
+        assertEquals(-0.375, curve.apply(-0.5, 0), EPSILON);
+    }
+
+    @Test
+    public void slewRateLimitsHowFastTheOutputMoves() {
+        InputCurve curve = new InputCurve().setSlewRate(2); // 2 units a second, 0.04 per 20 ms loop
+        assertEquals(0.04, curve.apply(1, 0.02), EPSILON);
+        assertEquals(0.08, curve.apply(1, 0.02), EPSILON);
+        for (int i = 0; i < 30; i++)
+            curve.apply(1, 0.02);
+        assertEquals(1, curve.apply(1, 0.02), EPSILON);
+        assertEquals(0.96, curve.apply(0, 0.02), EPSILON);
+        curve.reset();
+        assertEquals(0.04, curve.apply(1, 0.02), EPSILON);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deadbandOfOneIsRejected() {
+        new InputCurve().setDeadband(1);
+    }
+}
@@ -0,0 +1,115 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.kinematics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MecanumKinematicsTest {
+    private static final double EPSILON = 1e-9;
+    private static final MecanumKinematics[] ROBOTS = {
+            new MecanumKinematics(),
+            new MecanumKinematics(1, 1, 1),
+            new MecanumKinematics(14.5, 12.25, 1.1),
+            new MecanumKinematics(16, 9, 1.35),
+    };
+
+    @Test
+    public void chassisToWheelsAndBackIsTheSameChassisSpeed() {
+        Random random = new Random(5);
+        double[] wheels = new double[4], chassis = new double[3];
+        for (MecanumKinematics kinematics : ROBOTS) {
+            for (int i = 0; i < 10_000; i++) {
+                double vx = random.nextDouble() * 120 - 60, vy = random.nextDouble() * 120 - 60, omega = random.nextDouble() * 20 - 10;
+                kinematics.toWheelSpeeds(vx, vy, omega, wheels);
+                kinematics.toChassisSpeeds(wheels, chassis);
+                assertEquals(vx, chassis[0], EPSILON);
+                assertEquals(vy, chassis[1], EPSILON);
+                assertEquals(omega, chassis[2], EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void wheelsToChassisAndBackOnlyLosesTheFightingPart() {
+        // four wheels but only three ways to move, the fronts pushing against the backs (1, 1, -1, -1) just fights itself
+        Random random = new Random(6);
+        double[] wheels = new double[4], chassis = new double[3], back = new double[4];
+        double[] fighting = {0.5, 0.5, -0.5, -0.5};
+        for (MecanumKinematics kinematics : ROBOTS) {
+            for (int i = 0; i < 10_000; i++) {
+                for (int w = 0; w < 4; w++)
+                    wheels[w] = random.nextDouble() * 2 - 1;
+                kinematics.toChassisSpeeds(wheels, chassis);
+                kinematics.toWheelSpeeds(chassis[0], chassis[1], chassis[2], back);
+                double lost = 0;
+                for (int w = 0; w < 4; w++)
+                    lost += (wheels[w] - back[w]) * fighting[w];
+                for (int w = 0; w < 4; w++)
+                    assertEquals(wheels[w], back[w] + lost * fighting[w], EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void inverseIsLinear() {
+        Random random = new Random(7);
+        double[] a = new double[4], b = new double[4], sum = new double[4];
+        double[] chassisA = new double[3], chassisB = new double[3], chassisSum = new double[3];
+        MecanumKinematics kinematics = ROBOTS[2];
+        for (int i = 0; i < 1000; i++) {
+            double k = random.nextDouble() * 4 - 2;
+            for (int w = 0; w < 4; w++) {
+                a[w] = random.nextGaussian();
+                b[w] = random.nextGaussian();
+                sum[w] = a[w] + k * b[w];
+            }
+            kinematics.toChassisSpeeds(a, chassisA);
+            kinematics.toChassisSpeeds(b, chassisB);
+            kinematics.toChassisSpeeds(sum, chassisSum);
+            for (int c = 0; c < 3; c++)
+                assertEquals(chassisA[c] + k * chassisB[c], chassisSum[c], EPSILON);
+        }
+    }
+
+    @Test
+    public void wheelDirectionsMatchTheConvention() {
+        MecanumKinematics kinematics = new MecanumKinematics(1, 1, 1);
+        double[] wheels = new double[4];
+
+        kinematics.toWheelSpeeds(1, 0, 0, wheels);
+        for (double wheel : wheels)
+            assertEquals(1, wheel, EPSILON);
+
+        kinematics.toWheelSpeeds(0, 1, 0, wheels); // strafing left, front left and back right go backwards
+        assertEquals(-1, wheels[MecanumKinematics.FRONT_LEFT], EPSILON);
+        assertEquals(1, wheels[MecanumKinematics.FRONT_RIGHT], EPSILON);
+        assertEquals(1, wheels[MecanumKinematics.BACK_LEFT], EPSILON);
+        assertEquals(-1, wheels[MecanumKinematics.BACK_RIGHT], EPSILON);
+
+        kinematics.toWheelSpeeds(0, 0, 1, wheels); // counter clockwise, left side goes backwards
+        assertTrue(wheels[MecanumKinematics.FRONT_LEFT] < 0 && wheels[MecanumKinematics.BACK_LEFT] < 0);
+        assertTrue(wheels[MecanumKinematics.FRONT_RIGHT] > 0 && wheels[MecanumKinematics.BACK_RIGHT] > 0);
+    }
+
+    @Test
+    public void desaturateKeepsTheDirection() {
+        Random random = new Random(8);
+        double[] wheels = new double[4], original = new double[4];
+        for (int i = 0; i < 10_000; i++) {
+            for (int w = 0; w < 4; w++)
+                wheels[w] = original[w] = random.nextDouble() * 6 - 3;
+            MecanumKinematics.desaturate(wheels, 1);
+            double max = 0;
+            for (int w = 0; w < 4; w++)
+                max = Math.max(max, Math.abs(original[w]));
+            double scale = max > 1 ? 1 / max : 1;
+            for (int w = 0; w < 4; w++) {
+                assertTrue(Math.abs(wheels[w]) <= 1 + EPSILON);
+                assertEquals(original[w] * scale, wheels[w], EPSILON);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.pathing;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.geometry.Angles;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PurePursuitTest {
+    private static final double STEP = 0.01; // 100 hz loop
+    private static final double TOP_SPEED = 50; // inches per second at full power
+    private static final double TOP_TURN = 4; // radians per second at full turn power for the holonomic robot
+    private static final double TRACK_WIDTH = 14;
+
+    /**
+     * A robot that does exactly what the powers say, nothing slips and nothing lags
+     */
+    private static class Robot {
+        double x, y, heading, time;
+        double worstCrossTrack = 0, slowestForward = Double.MAX_VALUE, furthest = 0;
+        final double[] out = new double[3];
+
+        Robot(double x, double y, double heading) {
+            this.x = x;
+            this.y = y;
+            this.heading = heading;
+        }
+
+        /**
+         * Runs the follower until it finishes or the time runs out
+         */
+        Robot follow(PurePursuit follower, boolean holonomic, double seconds) {
+            Path path = follower.getPath();
+            while (!follower.isFinished() && time < seconds) {
+                follower.update(x, y, heading, out);
+                double forward = out[0] * TOP_SPEED, left = out[1] * TOP_SPEED;
+                // tank: the wheels get forward -/+ turn, so the heading changes by their difference over the track width
+                double turn = holonomic ? out[2] * TOP_TURN : 2 * out[2] * TOP_SPEED / TRACK_WIDTH;
+                if (!holonomic)
+                    assertEquals("a tank can't strafe", 0, left, 0);
+                slowestForward = Math.min(slowestForward, out[0]);
+
+                double cos = Math.cos(heading), sin = Math.sin(heading);
+                x += (forward * cos - left * sin) * STEP;
+                y += (forward * sin + left * cos) * STEP;
+                heading += turn * STEP;
+                time += STEP;
+                worstCrossTrack = Math.max(worstCrossTrack, distanceToPath(path, x, y));
+                furthest = Math.max(furthest, Math.hypot(x - path.getX(0), y - path.getY(0)));
+            }
+            return this;
+        }
+    }
+
+    private static double distanceToPath(Path path, double x, double y) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < path.size() - 1; i++) {
+            double x0 = path.getX(i), y0 = path.getY(i), dx = path.getX(i + 1) - x0, dy = path.getY(i + 1) - y0;
+            double t = Math.max(0, Math.min(1, ((x - x0) * dx + (y - y0) * dy) / (dx * dx + dy * dy)));
+            best = Math.min(best, Math.hypot(x0 + t * dx - x, y0 + t * dy - y));
+        }
+        return best;
+    }
+
+    @Test
+    public void holonomicFinishesASquareFacingTheLastHeading() {
+        Path square = new Path(0, 0, 0).lineTo(48, 0).lineTo(48, 48, Math.PI / 2).lineTo(0, 48).lineTo(0, 0, Math.PI);
+        PurePursuit follower = PurePursuit.holonomic(square);
+        Robot robot = new Robot(0, 0, 0).follow(follower, true, 20);
+
+        assertTrue("didn't finish in " + robot.time + " s", follower.isFinished());
+        assertEquals(0, robot.x, 1);
+        assertEquals(0, robot.y, 1);
+        assertEquals(0, Angles.wrapRadians(robot.heading - Math.PI), Math.toRadians(3));
+        // corners get rounded off by about the lookahead, never more than the biggest one
+        assertTrue("strayed " + robot.worstCrossTrack + " in", robot.worstCrossTrack < 18);
+        // a closed path starts where it ends, it must not count as finished at the start, the far corner is 68 in away
+        assertTrue("only got " + robot.furthest + " in from the start", robot.furthest > 50);
+    }
+
+    @Test
+    public void holonomicStaysCloseOnStraightLines() {
+        Path line = new Path(0, 0).lineTo(96, 0);
+        PurePursuit follower = PurePursuit.holonomic(line);
+        Robot robot = new Robot(0, 0, 0).follow(follower, true, 10);
+        assertTrue(follower.isFinished());
+        assertTrue("strayed " + robot.worstCrossTrack + " in", robot.worstCrossTrack < 1e-6);
+    }
+
+    @Test
+    public void differentialFinishesAnSCurveWithoutBackingUp() {
+        Path s = new Path(0, 0).lineTo(36, 0).lineTo(60, 24).lineTo(84, 24).lineTo(108, 0);
+        PurePursuit follower = PurePursuit.differential(s, TRACK_WIDTH);
+        Robot robot = new Robot(0, 0, 0).follow(follower, false, 20);
+
+        assertTrue("didn't finish in " + robot.time + " s", follower.isFinished());
+        assertEquals(108, robot.x, 1);
+        assertEquals(0, robot.y, 1);
+        assertTrue("drove backwards", robot.slowestForward >= 0);
+        assertTrue("strayed " + robot.worstCrossTrack + " in", robot.worstCrossTrack < 12);
+    }
+
+    @Test
+    public void differentialTurnsAroundForATargetBehindIt() {
+        Path behind = new Path(0, 0).lineTo(-48, 0);
+        PurePursuit follower = PurePursuit.differential(behind, TRACK_WIDTH);
+        Robot robot = new Robot(0, 0, 0).follow(follower, false, 20);
+        assertTrue(follower.isFinished());
+        assertEquals(-48, robot.x, 1);
+        assertEquals(0, Angles.wrapRadians(robot.heading - Math.PI), Math.toRadians(20));
+    }
+
+    @Test
+    public void robotOffThePathGetsBackOnIt() {
+        Path line = new Path(0, 0).lineTo(96, 0);
+        PurePursuit follower = PurePursuit.holonomic(line);
+        Robot robot = new Robot(10, 40, 0).follow(follower, true, 20); // well over the biggest lookahead away
+        assertTrue(follower.isFinished());
+        assertEquals(96, robot.x, 1);
+        assertEquals(0, robot.y, 1);
+    }
+
+    @Test
+    public void resetFollowsThePathAgain() {
+        Path line = new Path(0, 0).lineTo(48, 0);
+        PurePursuit follower = PurePursuit.holonomic(line);
+        new Robot(0, 0, 0).follow(follower, true, 10);
+        assertTrue(follower.isFinished());
+        follower.reset();
+        assertFalse(follower.isFinished());
+        assertEquals(0, follower.getSegment());
+        Robot again = new Robot(0, 0, 0).follow(follower, true, 10);
+        assertTrue(follower.isFinished());
+        assertEquals(48, again.x, 1);
+    }
+
+    @Test
+    public void updateDoesntAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("this jvm can't count allocations", threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        counter.setThreadAllocatedMemoryEnabled(true);
+
+        Path square = new Path(0, 0, 0).lineTo(48, 0).lineTo(48, 48, Math.PI / 2).lineTo(0, 48).lineTo(0, 0, Math.PI);
+        PurePursuit follower = PurePursuit.holonomic(square);
+        double[] out = new double[3];
+        for (int i = 0; i < 20_000; i++) // warm up so the jit has compiled everything before counting
+            follower.update(24, 0.5 * (i % 7), 0, out);
+
+        long thread = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++)
+            follower.update(24, 0.5 * (i % 7), 0, out);
+        long allocated = counter.getThreadAllocatedBytes(thread) - before;
+        // the counter itself can allocate a little, 100k updates at even 8 bytes each would be 800 KB
+        assertTrue(allocated + " bytes for 100k updates", allocated < 10_000);
+    }
+}
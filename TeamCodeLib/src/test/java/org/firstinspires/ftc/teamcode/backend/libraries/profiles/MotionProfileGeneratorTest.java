@@ -0,0 +1,98 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.profiles;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MotionProfileGeneratorTest {
+    private static final double STEP = 0.001;
+
+    @Test
+    public void trapezoidalTakesTheTextbookTime() {
+        // 2000 ticks at 1000 ticks/s and 2000 ticks/s^2: 0.5 s up, 1.5 s cruise, 0.5 s down
+        MotionProfile profile = MotionProfileGenerator.trapezoidal(0, 2000, 1000, 2000);
+        assertEquals(2.5, profile.getDuration(), 0.01);
+        assertEquals(1000, profile.getVelocity(1.25), 1);
+        assertEquals(2000, profile.getAcceleration(0.25), 1);
+        assertEquals(-2000, profile.getAcceleration(2.25), 1);
+    }
+
+    @Test
+    public void shortTrapezoidalMovesBecomeTriangles() {
+        // 100 ticks never gets near 1000 ticks/s, peak is sqrt(100 * 2000)
+        MotionProfile profile = MotionProfileGenerator.trapezoidal(0, 100, 1000, 2000);
+        assertEquals(2 * Math.sqrt(100 / 2000.0), profile.getDuration(), 0.01);
+        assertEquals(Math.sqrt(100 * 2000), maxAbs(profile, Quantity.VELOCITY), 5);
+    }
+
+    @Test
+    public void trapezoidalStaysInsideItsLimits() {
+        checkMove(MotionProfileGenerator.trapezoidal(500, -1500, 800, 3000), 500, -1500, 800, 3000, Double.NaN);
+    }
+
+    @Test
+    public void sCurveStaysInsideItsLimits() {
+        checkMove(MotionProfileGenerator.sCurve(0, 3000, 1200, 4000, 20000), 0, 3000, 1200, 4000, 20000);
+        checkMove(MotionProfileGenerator.sCurve(0, 50, 1200, 4000, 20000), 0, 50, 1200, 4000, 20000);
+        checkMove(MotionProfileGenerator.sCurve(100, -400, 1200, 4000, 20000), 100, -400, 1200, 4000, 20000);
+    }
+
+    @Test
+    public void sCurveIsSlowerThanTrapezoidalButNotByMuch() {
+        double trapezoid = MotionProfileGenerator.trapezoidal(0, 3000, 1200, 4000).getDuration();
+        double sCurve = MotionProfileGenerator.sCurve(0, 3000, 1200, 4000, 20000).getDuration();
+        assertTrue(sCurve > trapezoid);
+        // each acceleration phase gets a / j longer
+        assertEquals(trapezoid + 4000 / 20000.0, sCurve, 0.02);
+    }
+
+    @Test
+    public void generatePicksTheShapeFromTheJerkLimit() {
+        assertEquals(MotionProfileGenerator.trapezoidal(0, 1000, 500, 1000).getDuration(),
+                MotionProfileGenerator.generate(0, 1000, 500, 1000, 0).getDuration(), 1e-9);
+        assertEquals(MotionProfileGenerator.sCurve(0, 1000, 500, 1000, 5000).getDuration(),
+                MotionProfileGenerator.generate(0, 1000, 500, 1000, 5000).getDuration(), 1e-9);
+    }
+
+    @Test
+    public void zeroLengthMoveIsAlreadyDone() {
+        MotionProfile profile = MotionProfileGenerator.generate(42, 42, 500, 1000, 0);
+        assertEquals(42, profile.getPosition(0), 0);
+        assertEquals(42, profile.getPosition(1), 0);
+        assertTrue(profile.isFinished(0));
+    }
+
+    private enum Quantity {VELOCITY, ACCELERATION}
+
+    private static double maxAbs(MotionProfile profile, Quantity quantity) {
+        double max = 0;
+        for (double t = 0; t <= profile.getDuration(); t += STEP)
+            max = Math.max(max, Math.abs(quantity == Quantity.VELOCITY ? profile.getVelocity(t) : profile.getAcceleration(t)));
+        return max;
+    }
+
+    private static void checkMove(MotionProfile profile, double start, double end, double maxVelocity, double maxAcceleration, double maxJerk) {
+        assertEquals(start, profile.getPosition(0), 1e-6);
+        assertEquals(end, profile.getPosition(profile.getDuration()), 1e-6);
+        assertEquals(end, profile.getPosition(profile.getDuration() + 1), 1e-6);
+        assertEquals(0, profile.getVelocity(0), 1e-6);
+        assertEquals(0, profile.getVelocity(profile.getDuration()), 1e-6);
+        assertFalse(profile.isFinished(profile.getDuration() / 2));
+        assertTrue(profile.isFinished(profile.getDuration()));
+
+        double sign = Math.signum(end - start), lastPosition = start, lastAcceleration = 0;
+        for (double t = STEP; t <= profile.getDuration(); t += STEP) {
+            double position = profile.getPosition(t), velocity = profile.getVelocity(t), acceleration = profile.getAcceleration(t);
+            assertTrue("goes backwards at " + t, (position - lastPosition) * sign >= -1e-6);
+            assertTrue("too fast at " + t, Math.abs(velocity) <= maxVelocity * 1.001);
+            assertTrue("accelerates too hard at " + t, Math.abs(acceleration) <= maxAcceleration * 1.001);
+            // samples are 5 ms apart and blended, so jerk is checked across a whole sample
+            if (!Double.isNaN(maxJerk) && t > MotionProfileGenerator.SAMPLE_PERIOD)
+                assertTrue("too much jerk at " + t, Math.abs(acceleration - lastAcceleration) / STEP <= maxJerk * 1.01);
+            lastPosition = position;
+            lastAcceleration = acceleration;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.profiles;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProfiledMoveTest {
+    private static final long MS = 1_000_000;
+
+    private final long[] now = {0};
+    private final Clock clock = () -> now[0];
+    private final double[] last = new double[3];
+    private int calls = 0;
+    private final ProfiledMove.Setpoint setpoint = (position, velocity, acceleration) -> {
+        last[0] = position;
+        last[1] = velocity;
+        last[2] = acceleration;
+        calls++;
+    };
+
+    @Test
+    public void withoutConstraintsNothingIsProfiled() {
+        ProfiledMove move = new ProfiledMove(clock);
+        assertFalse(move.start(0, 1000));
+        assertFalse(move.isActive());
+        assertTrue(move.update(setpoint));
+        assertEquals(0, calls);
+    }
+
+    @Test
+    public void followsTheProfileAndEndsExactlyOnTheTarget() {
+        // 1000 ticks at 1000 ticks/s and 2000 ticks/s^2 takes 1.5 s
+        ProfiledMove move = new ProfiledMove(clock);
+        move.setConstraints(1000, 2000, 0);
+        assertTrue(move.start(0, 1000));
+        assertTrue(move.isActive());
+
+        assertFalse(move.update(setpoint));
+        assertEquals(0, last[0], 1e-9);
+        now[0] = 750 * MS;
+        assertFalse(move.update(setpoint));
+        assertEquals(500, last[0], 1);
+        assertEquals(1000, last[1], 1);
+
+        now[0] = 1600 * MS;
+        assertTrue(move.update(setpoint));
+        assertEquals(1000, last[0], 0);
+        assertEquals(0, last[1], 0);
+        assertFalse(move.isActive());
+
+        int before = calls;
+        assertTrue(move.update(setpoint)); // done, the last setpoint stays
+        assertEquals(before, calls);
+    }
+
+    @Test
+    public void nowhereToGoIsntProfiled() {
+        ProfiledMove move = new ProfiledMove(clock);
+        move.setConstraints(1000, 2000, 0);
+        assertFalse(move.start(250, 250));
+        assertFalse(move.isActive());
+    }
+
+    @Test
+    public void stopDropsTheMoveAndZeroVelocityTurnsProfilingOff() {
+        ProfiledMove move = new ProfiledMove(clock);
+        move.setConstraints(1000, 2000, 5000);
+        move.start(0, 1000);
+        move.stop();
+        assertFalse(move.isActive());
+        assertTrue(move.update(setpoint));
+        assertEquals(0, calls);
+
+        move.setConstraints(0, 0, 0);
+        assertFalse(move.start(0, 1000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeConstraintsAreRefused() {
+        new ProfiledMove(clock).setConstraints(-1, 2000, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void profilingNeedsAnAcceleration() {
+        new ProfiledMove(clock).setConstraints(1000, 0, 0);
+    }
+}
@@ -0,0 +1,80 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.replay;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RecorderTest {
+    @Test
+    public void growsPastThePlannedLengthAndKeepsEveryFrame() {
+        Recorder recorder = new Recorder(1, 1, 10);
+        assertEquals(10, recorder.getCapacity());
+        double[] setpoint = new double[1];
+        for (int i = 0; i < 25; i++) {
+            setpoint[0] = i;
+            recorder.record(i * 100_000_000L, null, null, i, 0, 0, setpoint);
+        }
+        assertEquals(40, recorder.getCapacity());
+        Recording recording = recorder.toRecording();
+        assertEquals(25, recording.getFrameCount());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(i * 0.1, recording.getTime(i), 1e-9);
+            assertEquals(i, recording.getSetpoint(i, 0), 0);
+        }
+    }
+
+    @Test
+    public void clearStartsOverFromTimeZero() {
+        Recorder recorder = new Recorder(0, 1, 10);
+        double[] none = new double[0];
+        recorder.record(5_000_000_000L, null, null, 0, 0, 0, none);
+        recorder.record(5_500_000_000L, null, null, 0, 0, 0, none);
+        recorder.clear();
+        recorder.record(9_000_000_000L, null, null, 0, 0, 0, none);
+        assertEquals(1, recorder.getFrameCount());
+        assertEquals(0, recorder.toRecording().getTime(0), 0);
+    }
+
+    @Test
+    public void recordingWithinThePlannedLengthDoesntAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("this jvm can't count allocations", threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        counter.setThreadAllocatedMemoryEnabled(true);
+
+        GamepadInput driver = new GamepadInput(), operator = new GamepadInput();
+        double[] setpoints = new double[4];
+        Recorder recorder = new Recorder(4, 3000, 50); // room for 150k frames
+        for (int i = 0; i < 20_000; i++) { // warm up so the jit has compiled everything before counting
+            driver.update(i * 20_000_000L, i & 3, 0.5f, -0.5f, 0, 0, 0, 0);
+            recorder.record(i * 20_000_000L, driver, operator, i, i, 0, setpoints);
+        }
+        assertEquals(3000 * 50, recorder.getCapacity());
+
+        long thread = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(thread);
+        for (int i = 20_000; i < 120_000; i++) {
+            driver.update(i * 20_000_000L, i & 3, 0.5f, -0.5f, 0, 0, 0, 0);
+            recorder.record(i * 20_000_000L, driver, operator, i, i, 0, setpoints);
+        }
+        long allocated = counter.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated + " bytes for 100k frames", allocated < 10_000);
+        assertEquals(3000 * 50, recorder.getCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongSetpointCountIsRejected() {
+        new Recorder(2, 1, 10).record(0, null, null, 0, 0, 0, new double[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void planTooBigForMemoryIsRejected() {
+        new Recorder(0xFFFF, 100_000, 1000);
+    }
+}
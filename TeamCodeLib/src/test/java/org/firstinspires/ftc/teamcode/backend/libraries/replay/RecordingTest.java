@@ -0,0 +1,182 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.replay;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.input.Axis;
+import org.firstinspires.ftc.teamcode.backend.libraries.input.GamepadInput;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecordingTest {
+    private static final int SETPOINTS = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A 20 ms loop where everything changes every frame, frame i has the driver's left stick at i / 100
+     */
+    private static Recording drive(int frames) {
+        Recorder recorder = new Recorder(SETPOINTS, 1, 50);
+        GamepadInput driver = new GamepadInput(), operator = new GamepadInput();
+        double[] setpoints = new double[SETPOINTS];
+        for (int i = 0; i < frames; i++) {
+            long nanos = 1_000_000_000L + i * 20_000_000L; // the first frame's time becomes 0
+            driver.update(nanos, i & 0xFFFF, 0, (i % 100) / 100f, 0, 0, 0, 0);
+            operator.update(nanos, 0, 0, 0, 0, 0, 0, 1);
+            for (int s = 0; s < SETPOINTS; s++)
+                setpoints[s] = i * 10 + s;
+            recorder.record(nanos, driver, operator, i * 0.5, -i * 0.25, i * 0.01, setpoints);
+        }
+        return recorder.toRecording();
+    }
+
+    private static byte[] bytes(Recording recording) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recording.write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * A header with any frame and setpoint count, followed by however many bytes of frames
+     */
+    private static byte[] header(int setpoints, int frames, int frameBytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(Recording.HEADER_BYTES + frameBytes);
+        buffer.putInt(Recording.MAGIC).putShort((short) Recording.VERSION).putShort((short) setpoints).putInt(frames);
+        return buffer.array();
+    }
+
+    private static void assertRejected(InputStream in) {
+        try {
+            Recording.read(in);
+            fail("read a broken recording");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void savedRecordingLoadsBackTheSame() throws IOException {
+        Recording recording = drive(392);
+        File file = new File(folder.getRoot(), "replays/drive.rply"); // the folder gets made
+        recording.save(file);
+        assertEquals(Recording.HEADER_BYTES + 392L * Recording.frameBytes(SETPOINTS), file.length());
+
+        Recording loaded = Recording.load(file);
+        assertEquals(392, loaded.getFrameCount());
+        assertEquals(SETPOINTS, loaded.getSetpointCount());
+        assertEquals(391 * 0.02, loaded.getDuration(), 1e-9);
+        for (int i = 0; i < 392; i++) {
+            assertEquals(i * 0.02, loaded.getTime(i), 1e-9);
+            assertEquals(i & 0xFFFF, loaded.getButtons(i, 0));
+            assertEquals((i % 100) / 100f, loaded.getAxis(i, 0, Axis.LEFT_Y), 0.5 / 127);
+            assertEquals(1, loaded.getAxis(i, 1, Axis.RIGHT_TRIGGER), 0);
+            assertEquals(i * 0.5, loaded.getX(i), 1e-3);
+            assertEquals(-i * 0.25, loaded.getY(i), 1e-3);
+            assertEquals(i * 0.01, loaded.getHeading(i), 1e-6);
+            for (int s = 0; s < SETPOINTS; s++)
+                assertEquals(i * 10 + s, loaded.getSetpoint(i, s), 0);
+        }
+    }
+
+    @Test
+    public void streamCanKeepGoingAfterARecording() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        drive(3).write(out);
+        drive(5).write(out);
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals(3, Recording.read(in).getFrameCount());
+        assertEquals(5, Recording.read(in).getFrameCount());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void truncatedFileIsRejectedBeforeReadingFrames() throws IOException {
+        File file = folder.newFile("cut.rply");
+        drive(100).save(file);
+        try (RandomAccessFile cut = new RandomAccessFile(file, "rw")) {
+            cut.setLength(file.length() - 10);
+        }
+        try {
+            Recording.load(file);
+            fail("loaded a truncated recording");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("the file has"));
+        }
+    }
+
+    @Test
+    public void fileWithMoreThanItsHeaderSaysIsRejected() throws IOException {
+        File file = folder.newFile("long.rply");
+        byte[] recording = bytes(drive(10));
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(recording);
+            out.write(new byte[7]);
+        }
+        try {
+            Recording.load(file);
+            fail("loaded a recording with junk after it");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void headerTooBigToAllocateIsRejected() throws IOException {
+        // 65535 setpoints make frames of 262172 bytes, times 2 billion frames doesn't fit in an int
+        assertRejected(new ByteArrayInputStream(header(0xFFFF, Integer.MAX_VALUE, 0)));
+        File file = folder.newFile("huge.rply");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(header(0xFFFF, Integer.MAX_VALUE, 0));
+        }
+        try {
+            Recording.load(file);
+            fail("loaded an impossible recording");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void streamEndingEarlyIsRejected() {
+        int frameBytes = Recording.frameBytes(SETPOINTS);
+        // says 10 million frames (480 MB) but only has two, the read has to fail without allocating for all of them
+        try {
+            Recording.read(new ByteArrayInputStream(header(SETPOINTS, 10_000_000, 2 * frameBytes)));
+            fail("read past the end of the stream");
+        } catch (EOFException expected) {
+        } catch (IOException e) {
+            fail(e.toString());
+        }
+    }
+
+    @Test
+    public void brokenHeadersAreRejected() throws IOException {
+        byte[] good = bytes(drive(2));
+        byte[] magic = Arrays.copyOf(good, good.length), version = Arrays.copyOf(good, good.length), negative = Arrays.copyOf(good, good.length);
+        magic[0] ^= 1;
+        version[5] = 9;
+        negative[8] = (byte) 0x80;
+        assertRejected(new ByteArrayInputStream(magic));
+        assertRejected(new ByteArrayInputStream(version));
+        assertRejected(new ByteArrayInputStream(negative));
+        assertRejected(new ByteArrayInputStream(new byte[5]));
+        assertEquals(2, Recording.read(new ByteArrayInputStream(good)).getFrameCount());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void framePastTheEndIsRejected() {
+        drive(3).getTime(3);
+    }
+}
@@ -0,0 +1,125 @@
+package org.firstinspires.ftc.teamcode.backend.libraries.trajectory;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.pathing.Path;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TrajectoryBuilderTest {
+    private static final double MAX_VELOCITY = 40, MAX_ACCELERATION = 30, MAX_CENTRIPETAL = 60;
+    private static final double DT = 1e-4;
+
+    private final double[] out = new double[6], shape = new double[6];
+
+    private static Trajectory curvy() {
+        return new TrajectoryBuilder(0, 0, 0)
+                .splineTo(30, 20, Math.PI / 2)
+                .splineTo(10, 45, Math.PI)
+                .splineTo(-20, 30, -Math.PI / 2)
+                .build(MAX_VELOCITY, MAX_ACCELERATION, MAX_CENTRIPETAL);
+    }
+
+    @Test
+    public void straightLineTakesTheTrapezoidTime() {
+        // 48 inches at 30 in/s and 30 in/s^2: 1 s up to speed over 15 inches, 18 inches cruising, 1 s down
+        Trajectory trajectory = new TrajectoryBuilder(0, 0, 0).lineTo(48, 0).build(30, 30, 60);
+        assertEquals(48, trajectory.getLength(), 1e-6);
+        assertEquals(2.6, trajectory.getDuration(), 1e-3);
+        trajectory.sample(1.3, out);
+        assertEquals(24, out[Trajectory.X], 1e-3);
+        assertEquals(30, out[Trajectory.VELOCITY], 1e-6);
+    }
+
+    @Test
+    public void startsAndEndsAtRestOnTheWaypoints() {
+        Trajectory trajectory = curvy();
+        trajectory.sample(0, out);
+        assertEquals(0, out[Trajectory.X], 1e-6);
+        assertEquals(0, out[Trajectory.Y], 1e-6);
+        assertEquals(0, out[Trajectory.HEADING], 1e-6);
+        assertEquals(0, out[Trajectory.VELOCITY], 0);
+
+        for (double t : new double[]{trajectory.getDuration(), trajectory.getDuration() + 1}) {
+            trajectory.sample(t, out);
+            assertEquals(-20, out[Trajectory.X], 1e-6);
+            assertEquals(30, out[Trajectory.Y], 1e-6);
+            assertEquals(-Math.PI / 2, out[Trajectory.HEADING], 1e-6);
+            assertEquals(0, out[Trajectory.VELOCITY], 0);
+            assertEquals(0, out[Trajectory.ACCELERATION], 0);
+        }
+    }
+
+    @Test
+    public void staysInsideTheLimits() {
+        Trajectory trajectory = curvy();
+        double worstCentripetal = 0;
+        for (double t = 0; t < trajectory.getDuration(); t += DT) {
+            trajectory.sample(t, out);
+            double v = out[Trajectory.VELOCITY];
+            assertTrue("velocity " + v + " at " + t, v >= 0 && v <= MAX_VELOCITY + 1e-9);
+            assertTrue("acceleration " + out[Trajectory.ACCELERATION] + " at " + t,
+                    Math.abs(out[Trajectory.ACCELERATION]) <= MAX_ACCELERATION + 1e-6);
+            worstCentripetal = Math.max(worstCentripetal, v * v * Math.abs(out[Trajectory.CURVATURE]));
+        }
+        // checked between the steps too, where the curvature is blended, so leave a little room
+        assertTrue("centripetal " + worstCentripetal, worstCentripetal <= MAX_CENTRIPETAL * 1.02);
+        assertTrue("the turns should be what slows it down", worstCentripetal > MAX_CENTRIPETAL * 0.9);
+    }
+
+    @Test
+    public void timeAndDistanceLookupsAgree() {
+        Trajectory trajectory = curvy();
+        double travelled = 0, last = 0;
+        int checks = 0;
+        for (int i = 1; i * DT < trajectory.getDuration(); i++) {
+            trajectory.sample(i * DT, out);
+            travelled += (last + out[Trajectory.VELOCITY]) / 2 * DT;
+            last = out[Trajectory.VELOCITY];
+            if (i % 100 == 0) {
+                trajectory.sampleDistance(travelled, shape);
+                assertEquals(shape[Trajectory.X], out[Trajectory.X], 1e-3);
+                assertEquals(shape[Trajectory.Y], out[Trajectory.Y], 1e-3);
+                assertEquals(shape[Trajectory.HEADING], out[Trajectory.HEADING], 1e-3);
+                checks++;
+            }
+        }
+        assertTrue(checks > 10);
+        assertEquals(trajectory.getLength(), travelled, 1e-3);
+    }
+
+    @Test
+    public void moveShorterThanAStepStillFinishes() {
+        // too short to reach any speed limit, so it is a triangle: 2 * sqrt(d / a)
+        for (double length : new double[]{0.1, TrajectoryBuilder.STEP, 0.4}) {
+            Trajectory trajectory = new TrajectoryBuilder(0, 0, 0).lineTo(length, 0).build(MAX_VELOCITY, MAX_ACCELERATION, MAX_CENTRIPETAL);
+            assertEquals("length " + length, 2 * Math.sqrt(length / MAX_ACCELERATION), trajectory.getDuration(), 1e-9);
+            trajectory.sample(trajectory.getDuration() / 2, out);
+            assertEquals(length / 2, out[Trajectory.X], 1e-9);
+        }
+    }
+
+    @Test
+    public void pathFollowsTheCurve() {
+        Trajectory trajectory = curvy();
+        Path path = trajectory.toPath(6);
+        assertEquals(0, path.getX(0), 1e-6);
+        assertEquals(0, path.getY(0), 1e-6);
+        assertEquals(-20, path.getX(path.size() - 1), 1e-6);
+        assertEquals(30, path.getY(path.size() - 1), 1e-6);
+        assertEquals(trajectory.getLength() / 6, path.size() - 1, 2);
+        // the chords cut the corners a little, so the path is just short of the curve
+        assertTrue(path.getLength() <= trajectory.getLength());
+        assertEquals(trajectory.getLength(), path.getLength(), 0.5);
+
+        double step = trajectory.getLength() / (trajectory.getSampleCount() - 1);
+        for (int i = 1; i < path.size() - 1; i++) { // every waypoint is one of the trajectory's steps
+            double best = Double.MAX_VALUE;
+            for (int k = 0; k < trajectory.getSampleCount(); k++) {
+                trajectory.sampleDistance(k * step, shape);
+                best = Math.min(best, Math.hypot(shape[Trajectory.X] - path.getX(i), shape[Trajectory.Y] - path.getY(i)));
+            }
+            assertTrue("waypoint " + i + " is " + best + " off the curve", best < 1e-3);
+        }
+    }
+}
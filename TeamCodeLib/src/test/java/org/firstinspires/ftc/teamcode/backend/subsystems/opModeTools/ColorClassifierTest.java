@@ -0,0 +1,110 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools.EaseCommands.Colors;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColorClassifierTest {
+    /**
+     * The plain search written out again on its own, so the table is checked against something that doesn't share its code
+     */
+    private static Colors bruteForce(Map<Colors, int[]> palette, int r, int g, int b) {
+        Colors closest = null;
+        long best = Long.MAX_VALUE;
+        for (Colors color : Colors.values()) {
+            int[] rgb = palette.get(color);
+            if (rgb == null)
+                continue;
+            long dr = r - rgb[0], dg = g - rgb[1], db = b - rgb[2];
+            long distance = dr * dr + dg * dg + db * db;
+            if (distance < best) {
+                best = distance;
+                closest = color;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Runs every one of the 16.7M RGB values through the table and the brute force search
+     *
+     * @return How many disagreed, and the first one that did
+     */
+    private static String compareEverything(ColorClassifier classifier, Map<Colors, int[]> palette) {
+        long mismatches = 0;
+        String first = null;
+        for (int r = 0; r < 256; r++) {
+            for (int g = 0; g < 256; g++) {
+                for (int b = 0; b < 256; b++) {
+                    Colors expected = bruteForce(palette, r, g, b), actual = classifier.classify(r, g, b);
+                    if (expected != actual) {
+                        mismatches++;
+                        if (first == null)
+                            first = r + "," + g + "," + b + " was " + actual + " instead of " + expected;
+                    }
+                }
+            }
+        }
+        return mismatches == 0 ? null : mismatches + " mismatches, first " + first;
+    }
+
+    @Test
+    public void basicTableMatchesTheSearchEverywhere() {
+        String result = compareEverything(ColorClassifier.BASIC.prepare(), EaseCommands.basicColors);
+        assertEquals(null, result);
+    }
+
+    @Test
+    public void measuredPaletteTableMatchesTheSearchEverywhere() {
+        // game pieces under the robot's light are nothing like the textbook colors and sit close together
+        Map<Colors, int[]> palette = new EnumMap<>(Colors.class);
+        palette.put(Colors.RED, new int[]{96, 41, 30});
+        palette.put(Colors.BLUE, new int[]{28, 45, 102});
+        palette.put(Colors.YELLOW, new int[]{130, 120, 40});
+        palette.put(Colors.GRAY, new int[]{60, 62, 58}); // the mat
+        palette.put(Colors.ORANGE, new int[]{120, 70, 32}); // ties with red and yellow on purpose
+        String result = compareEverything(new ColorClassifier(palette, ColorClassifier.Space.RGB), palette);
+        assertEquals(null, result);
+    }
+
+    @Test
+    public void exactTiesGoToTheFirstColor() {
+        Map<Colors, int[]> palette = new EnumMap<>(Colors.class);
+        palette.put(Colors.BLUE, new int[]{0, 0, 200});
+        palette.put(Colors.RED, new int[]{200, 0, 0});
+        ColorClassifier classifier = new ColorClassifier(palette, ColorClassifier.Space.RGB);
+        // halfway between, RED comes first in the enum no matter what order the map was filled in
+        assertEquals(Colors.RED, classifier.classify(100, 0, 100));
+        assertEquals(Colors.RED, classifier.classifyExact(100, 0, 100));
+    }
+
+    @Test
+    public void otherSpacesAlmostAlwaysMatchTheirOwnSearch() {
+        for (ColorClassifier.Space space : new ColorClassifier.Space[]{ColorClassifier.Space.CHROMATICITY, ColorClassifier.Space.HSV}) {
+            Map<Colors, int[]> palette = new EnumMap<>(Colors.class);
+            palette.put(Colors.RED, new int[]{200, 40, 30});
+            palette.put(Colors.BLUE, new int[]{30, 50, 200});
+            palette.put(Colors.YELLOW, new int[]{200, 190, 40});
+            palette.put(Colors.WHITE, new int[]{200, 200, 200});
+            ColorClassifier classifier = new ColorClassifier(palette, space).prepare();
+            long mismatches = 0;
+            for (int r = 0; r < 256; r++)
+                for (int g = 0; g < 256; g++)
+                    for (int b = 0; b < 256; b++)
+                        if (classifier.classify(r, g, b) != classifier.classifyExact(r, g, b))
+                            mismatches++;
+            // a border that bends inside a cube whose corners all agree can slip through, that should stay a handful
+            assertTrue(space + " had " + mismatches + " mismatches", mismatches < 1000);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outOfRangeIsRejected() {
+        ColorClassifier.BASIC.classify(256, 0, 0);
+    }
+}
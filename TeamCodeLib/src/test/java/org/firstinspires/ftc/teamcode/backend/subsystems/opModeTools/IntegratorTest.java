@@ -0,0 +1,108 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IntegratorTest {
+    @Test
+    public void positionMatchesTheGetters() {
+        Integrator integrator = new Integrator();
+        for (int i = 0; i < 100; i++)
+            integrator.update(0.5, -0.25, 10, 0.01);
+        double[] position = new double[2];
+        assertSame(position, integrator.getPosition(position));
+        assertEquals(integrator.getPositionX(), position[0], 0);
+        assertEquals(integrator.getPositionY(), position[1], 0);
+        assertArrayEquals(position, integrator.getPosition(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void positionNeedsRoomForXAndY() {
+        new Integrator().getPosition(new double[1]);
+    }
+
+    /**
+     * With no heading and the same acceleration on both axes x and y are always equal after an update, so a reader that
+     * ever sees them differ got halves from two different updates
+     */
+    @Test
+    public void readersNeverSeeATornPosition() throws InterruptedException {
+        Integrator integrator = new Integrator();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong updates = new AtomicLong(), reads = new AtomicLong();
+        AtomicReference<String> torn = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            long i = 0;
+            while (running.get()) {
+                double acceleration = (i++ % 200) / 100.0 - 1; // keeps changing so every update moves the position
+                integrator.update(acceleration, acceleration, 0, 0.005);
+                updates.lazySet(i);
+            }
+        });
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                double[] position = new double[2];
+                long count = 0;
+                while (running.get()) {
+                    integrator.getPosition(position);
+                    count++;
+                    if (position[0] != position[1])
+                        torn.compareAndSet(null, position[0] + " != " + position[1]);
+                }
+                reads.addAndGet(count);
+            });
+        }
+
+        writer.start();
+        for (Thread reader : readers)
+            reader.start();
+        Thread.sleep(500);
+        running.set(false);
+        writer.join();
+        for (Thread reader : readers)
+            reader.join();
+
+        assertNull(torn.get(), torn.get());
+        assertTrue("only " + updates.get() + " updates", updates.get() > 1000);
+        assertTrue("only " + reads.get() + " reads", reads.get() > 1000);
+    }
+
+    @Test
+    public void updateAndReadingIntoAnArrayDontAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("this jvm can't count allocations", threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        counter.setThreadAllocatedMemoryEnabled(true);
+
+        Integrator integrator = new Integrator();
+        double[] position = new double[2];
+        for (int i = 0; i < 20_000; i++) { // warm up so the jit has compiled everything before counting
+            integrator.update(0.01 * (i % 7), -0.02 * (i % 5), i % 360, 0.005);
+            integrator.getPosition(position);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            integrator.update(0.01 * (i % 7), -0.02 * (i % 5), i % 360, 0.005);
+            integrator.getPosition(position);
+        }
+        long allocated = counter.getThreadAllocatedBytes(thread) - before;
+        // the old update allocated 32 bytes a call, 100k of them would be 3.2 MB
+        assertTrue(allocated + " bytes for 100k updates", allocated < 10_000);
+    }
+}
@@ -0,0 +1,74 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.kinematics.MecanumKinematics;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PoseEstimatorTest {
+    private static final double TICKS_PER_INCH = 1000;
+    private final MecanumKinematics kinematics = new MecanumKinematics(14, 12, 1.1);
+    private final double[] wheels = new double[4];
+    private final double[] ticks = new double[4];
+
+    /**
+     * Feeds the estimator a constant chassis speed in small steps, like a log of a robot driving an arc
+     */
+    private void drive(PoseEstimator pose, double vx, double vy, double omega, double seconds, int steps, double[] heading) {
+        double dt = seconds / steps;
+        for (int i = 0; i < steps; i++) {
+            kinematics.toWheelSpeeds(vx * dt, vy * dt, omega * dt, wheels);
+            for (int w = 0; w < 4; w++)
+                ticks[w] += wheels[w] * TICKS_PER_INCH;
+            heading[0] += omega * dt;
+            pose.update((int) Math.round(ticks[0]), (int) Math.round(ticks[1]), (int) Math.round(ticks[2]), (int) Math.round(ticks[3]), heading[0]);
+        }
+    }
+
+    private PoseEstimator start(double[] heading) {
+        PoseEstimator pose = new PoseEstimator(TICKS_PER_INCH, kinematics);
+        pose.update(0, 0, 0, 0, heading[0]);
+        return pose;
+    }
+
+    @Test
+    public void drivesStraightInTheDirectionItFaces() {
+        double[] heading = {0};
+        PoseEstimator pose = start(heading);
+        pose.setPose(0, 0, Math.PI / 2);
+        drive(pose, 10, 0, 0, 3, 150, heading);
+        assertEquals(0, pose.getX(), 1e-3);
+        assertEquals(30, pose.getY(), 1e-3);
+    }
+
+    @Test
+    public void strafesLeft() {
+        double[] heading = {0};
+        PoseEstimator pose = start(heading);
+        drive(pose, 0, 8, 0, 2, 100, heading);
+        assertEquals(0, pose.getX(), 1e-3);
+        assertEquals(16, pose.getY(), 1e-3);
+    }
+
+    @Test
+    public void arcsAreExactEvenInBigSteps() {
+        // a quarter circle of radius 20 in only 5 updates, straight line steps would cut the corner by a lot
+        double[] heading = {0};
+        PoseEstimator pose = start(heading);
+        double omega = Math.PI / 2 / 2, speed = 20 * omega;
+        drive(pose, speed, 0, omega, 2, 5, heading);
+        assertEquals(20, pose.getX(), 1e-2);
+        assertEquals(20, pose.getY(), 1e-2);
+        assertEquals(Math.PI / 2, pose.getHeading(), 1e-9);
+    }
+
+    @Test
+    public void fullCircleComesBackToTheStart() {
+        double[] heading = {0};
+        PoseEstimator pose = start(heading);
+        drive(pose, 15, 5, 2 * Math.PI / 4, 4, 200, heading);
+        assertEquals(0, pose.getX(), 1e-2);
+        assertEquals(0, pose.getY(), 1e-2);
+        assertEquals(2 * Math.PI, pose.getHeading(), 1e-9);
+    }
+}
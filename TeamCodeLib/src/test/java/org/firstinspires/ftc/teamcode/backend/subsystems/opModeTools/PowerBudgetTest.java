@@ -0,0 +1,158 @@
+package org.firstinspires.ftc.teamcode.backend.subsystems.opModeTools;
+
+import org.firstinspires.ftc.teamcode.backend.libraries.Clock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PowerBudgetTest {
+    private static final long MS = 1_000_000;
+
+    private final long[] now = {1000 * MS};
+    private final Clock clock = () -> now[0];
+    private final List<String> reads = new ArrayList<>();
+
+    /**
+     * A motor whose current is exactly its full power draw times its share
+     */
+    private class FakeMotor {
+        final String name;
+        double full;
+        int changes = 0;
+        PowerBudget.Share share;
+
+        FakeMotor(PowerBudget budget, String name, double full, int priority) {
+            this.name = name;
+            this.full = full;
+            share = budget.add(() -> {
+                reads.add(this.name);
+                return this.full * share.getScale();
+            }, priority, () -> changes++);
+        }
+    }
+
+    private PowerBudget budget(double amps) {
+        PowerBudget budget = new PowerBudget(amps, clock);
+        budget.setSmoothing(0);
+        budget.setSamplePeriod(0);
+        return budget;
+    }
+
+    private void run(PowerBudget budget, double seconds) {
+        for (int i = 0; i < Math.round(seconds / 0.01); i++) {
+            now[0] += 10 * MS;
+            budget.update();
+        }
+    }
+
+    @Test
+    public void higherPriorityGetsServedFirstAndEqualOnesSplitTheRest() {
+        PowerBudget budget = budget(20);
+        FakeMotor lift = new FakeMotor(budget, "lift", 12, 1);
+        FakeMotor left = new FakeMotor(budget, "left", 10, 0), right = new FakeMotor(budget, "right", 10, 0);
+        run(budget, 5);
+        assertEquals(1, lift.share.getScale(), 1e-9);
+        // 8 amps left over for 20 amps of demand
+        assertEquals(0.4, left.share.getScale(), 1e-9);
+        assertEquals(0.4, right.share.getScale(), 1e-9);
+        assertEquals(20, budget.getTotalAmps(), 1e-9);
+        assertEquals(32, budget.getTotalDemand(), 1e-9);
+        assertTrue(budget.isLimiting());
+    }
+
+    @Test
+    public void underBudgetNothingGetsLimited() {
+        PowerBudget budget = budget(40);
+        FakeMotor lift = new FakeMotor(budget, "lift", 12, 1), drive = new FakeMotor(budget, "drive", 20, 0);
+        run(budget, 1);
+        assertEquals(1, lift.share.getScale(), 0);
+        assertEquals(1, drive.share.getScale(), 0);
+        assertEquals(0, lift.changes + drive.changes);
+        assertFalse(budget.isLimiting());
+    }
+
+    @Test
+    public void sharesDropAndRecoverAtTheSetRates() {
+        PowerBudget budget = budget(10);
+        budget.setRates(4, 1);
+        FakeMotor drive = new FakeMotor(budget, "drive", 20, 0);
+        budget.update(); // first update only takes a reading, there's no time step yet
+        double last = 1;
+        for (int i = 0; i < 100; i++) {
+            run(budget, 0.01);
+            double scale = drive.share.getScale();
+            assertTrue("dropped " + (last - scale) + " in 10 ms", last - scale <= 0.04 + 1e-12);
+            last = scale;
+        }
+        assertEquals(0.5, last, 1e-9);
+        assertEquals(13, drive.changes); // 0.04 a loop for 12 loops, then the last 0.02
+
+        drive.full = 5;
+        for (int i = 0; i < 100; i++) {
+            run(budget, 0.01);
+            double scale = drive.share.getScale();
+            assertTrue("rose " + (scale - last) + " in 10 ms", scale - last <= 0.01 + 1e-12);
+            last = scale;
+        }
+        assertEquals(1, last, 1e-9);
+    }
+
+    @Test
+    public void readsOneMotorPerSamplePeriodInTurn() {
+        PowerBudget budget = budget(100);
+        budget.setSamplePeriod(0.02);
+        new FakeMotor(budget, "a", 1, 0);
+        new FakeMotor(budget, "b", 1, 0);
+        new FakeMotor(budget, "c", 1, 0);
+        for (int i = 0; i <= 40; i++) { // 200 ms of 5 ms loops
+            budget.update();
+            now[0] += 5 * MS;
+        }
+        assertEquals(11, budget.getSamples());
+        assertEquals(Arrays.asList("a", "b", "c", "a", "b", "c", "a", "b", "c", "a", "b"), reads);
+    }
+
+    @Test
+    public void motorCutBackToNothingComesBackOnceTheBudgetFreesUp() {
+        PowerBudget budget = budget(20);
+        FakeMotor lift = new FakeMotor(budget, "lift", 25, 1), drive = new FakeMotor(budget, "drive", 10, 0);
+        run(budget, 2);
+        assertEquals(0.8, lift.share.getScale(), 1e-9);
+        // at no share the drive reads 0 amps, which says nothing about what it wants, so the last guess fades instead
+        assertEquals(0, drive.share.getScale(), 1e-9);
+        assertTrue(drive.share.getDemand() > 0 && !Double.isNaN(drive.share.getDemand()));
+
+        lift.full = 0;
+        run(budget, 2);
+        assertEquals(1, drive.share.getScale(), 1e-9);
+        assertEquals(10, drive.share.getDemand(), 1e-9);
+    }
+
+    @Test
+    public void removingAMotorLetsItGoAndGivesItsShareBack() {
+        PowerBudget budget = budget(20);
+        FakeMotor lift = new FakeMotor(budget, "lift", 12, 1), drive = new FakeMotor(budget, "drive", 16, 0);
+        run(budget, 3);
+        assertEquals(0.5, drive.share.getScale(), 1e-9);
+
+        int changes = drive.changes;
+        budget.remove(drive.share);
+        assertEquals(1, drive.share.getScale(), 0);
+        assertEquals(changes + 1, drive.changes);
+        budget.remove(drive.share); // already gone, nothing happens
+        assertEquals(changes + 1, drive.changes);
+
+        reads.clear();
+        run(budget, 1);
+        assertEquals(12, budget.getTotalDemand(), 1e-9);
+        assertFalse(budget.isLimiting());
+        assertFalse(reads.contains("drive"));
+        assertEquals(1, lift.share.getScale(), 0);
+    }
+}